@@ -0,0 +1,35 @@
+package org.owl.services.yaujrest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Точка входа {@code target/benchmarks.jar}. Принимает те же аргументы, что и {@link org.openjdk.jmh.Main},
+ * но подключает профилировщик {@code -prof gc}, если он не указан явно, чтобы объем выделяемой памяти
+ * на операцию ({@code gc.alloc.rate.norm}) попадал в каждый отчет и его можно было сравнивать между выпусками
+ */
+public final class BenchmarkMain {
+
+    private BenchmarkMain() {
+    }
+
+    public static void main(final String[] args) throws Exception {
+        final List<String> arguments = new ArrayList<>(List.of(args));
+        if (!hasGcProfiler(args)) {
+            arguments.add(0, "-prof");
+            arguments.add(1, "gc");
+        }
+
+        org.openjdk.jmh.Main.main(arguments.toArray(String[]::new));
+    }
+
+    private static boolean hasGcProfiler(final String[] args) {
+        for (int i = 0; i < args.length - 1; i++) {
+            if ("-prof".equals(args[i]) && args[i + 1].startsWith("gc")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,146 @@
+package org.owl.services.yaujrest;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.owl.services.yaujrest.controller.Controller;
+import org.owl.services.yaujrest.controller.ControllerContainer;
+import org.owl.services.yaujrest.http.HttpRequest;
+import org.owl.services.yaujrest.http.HttpResponse;
+import org.owl.services.yaujrest.http.Version;
+import org.owl.services.yaujrest.http.parser.HttpMessageDecoder;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Время выполнения запроса главным обработчиком через петлевой интерфейс: запись запроса в постоянное соединение,
+ * разбор, выбор обработчика, выполнение, сериализация и чтение ответа клиентом. Объем памяти, выделяемой
+ * на один запрос клиентом и сервером, измеряется профилировщиком {@code -prof gc}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DispatchControllerBenchmark {
+
+    @Param({"BLOCKING", "EVENT_LOOP"})
+    private IoMode ioMode;
+
+    @Param({"0", "16384"})
+    private int bodySize;
+
+    private DispatchController dispatchController;
+
+    private Socket socket;
+
+    private OutputStream outputStream;
+
+    private InputStream inputStream;
+
+    private byte[] request;
+
+    private byte[] readBuffer = new byte[8192];
+
+    private final HttpMessageDecoder decoder = HttpMessageDecoder.forResponses();
+
+    @Setup
+    public void setUp() throws IOException, InterruptedException {
+        final int port;
+        try (final ServerSocket serverSocket = new ServerSocket(0)) {
+            port = serverSocket.getLocalPort();
+        }
+
+        final byte[] body = new byte[this.bodySize];
+        this.dispatchController = DispatchController.builder()
+                .port(port)
+                .ioMode(this.ioMode)
+                .maxRequestsPerConnection(Integer.MAX_VALUE)
+                .controllers(ControllerContainer.builder()
+                        .addController(new BenchmarkController("/api/users/{id}", body))
+                        .build())
+                .build();
+        this.dispatchController.listen();
+
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (this.socket == null) {
+            try {
+                this.socket = new Socket("127.0.0.1", port);
+            } catch (IOException e) {
+                if (System.nanoTime() - deadline > 0) {
+                    throw e;
+                }
+                Thread.sleep(10);
+            }
+        }
+        this.socket.setTcpNoDelay(true);
+        this.outputStream = this.socket.getOutputStream();
+        this.inputStream = this.socket.getInputStream();
+        this.request = """
+                GET /api/users/42 HTTP/1.1\r
+                Host: localhost\r
+                Accept: application/json\r
+                \r
+                """.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        this.socket.close();
+        this.dispatchController.stop();
+    }
+
+    @Benchmark
+    public int roundTrip() throws IOException {
+        this.outputStream.write(this.request);
+        this.outputStream.flush();
+
+        this.decoder.reset();
+        int length = 0;
+        while (!this.decoder.parse(this.readBuffer, 0, length)) {
+            if (length == this.readBuffer.length) {
+                this.readBuffer = Arrays.copyOf(this.readBuffer, this.readBuffer.length * 2);
+            }
+            final int read = this.inputStream.read(this.readBuffer, length, this.readBuffer.length - length);
+            if (read < 0) {
+                throw new IOException("Connection closed before response was received");
+            }
+            length += read;
+        }
+        return this.decoder.messageLength();
+    }
+
+    private static final class BenchmarkController extends Controller {
+
+        private final byte[] body;
+
+        private BenchmarkController(final String path, final byte[] body) {
+            super(path);
+            this.body = body;
+        }
+
+        @Override
+        public HttpResponse doGet(final HttpRequest httpRequest) {
+            return new HttpResponse(new Version(1, 1), 200, "OK", Map.of("Content-Type", "application/json"), this.body);
+        }
+
+    }
+
+}
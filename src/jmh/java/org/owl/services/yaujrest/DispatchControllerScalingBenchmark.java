@@ -0,0 +1,168 @@
+package org.owl.services.yaujrest;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.owl.services.yaujrest.controller.Controller;
+import org.owl.services.yaujrest.controller.ControllerContainer;
+import org.owl.services.yaujrest.http.HttpRequest;
+import org.owl.services.yaujrest.http.HttpResponse;
+import org.owl.services.yaujrest.http.Version;
+import org.owl.services.yaujrest.http.parser.HttpMessageDecoder;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пропускная способность главного обработчика в режиме {@link IoMode#EVENT_LOOP} в зависимости от количества циклов
+ * событий. Каждый поток бенчмарка выполняет запросы через собственное постоянное соединение, а соединения
+ * открываются заново на каждой итерации, поэтому в измерение входит и распределение соединений между циклами:
+ * одним принимающим циклом по очереди либо ядром при {@code SO_REUSEPORT}. Количество потоков бенчмарка
+ * задается параметром {@code -t}; для оценки масштабирования его следует выбирать не меньше количества ядер
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(32)
+public class DispatchControllerScalingBenchmark {
+
+    private static final byte[] REQUEST = """
+            GET /api/ping HTTP/1.1\r
+            Host: localhost\r
+            \r
+            """.getBytes(StandardCharsets.US_ASCII);
+
+    @State(Scope.Benchmark)
+    public static class Server {
+
+        @Param({"1", "2", "4", "8", "16"})
+        private int ioThreads;
+
+        @Param({"false", "true"})
+        private boolean reusePort;
+
+        private DispatchController dispatchController;
+
+        private int port;
+
+        @Setup
+        public void setUp() throws IOException {
+            try (final ServerSocket serverSocket = new ServerSocket(0)) {
+                this.port = serverSocket.getLocalPort();
+            }
+
+            this.dispatchController = DispatchController.builder()
+                    .port(this.port)
+                    .ioMode(IoMode.EVENT_LOOP)
+                    .ioThreads(this.ioThreads)
+                    .reusePort(this.reusePort)
+                    .backlog(1024)
+                    .maxRequestsPerConnection(Integer.MAX_VALUE)
+                    .controllers(ControllerContainer.builder()
+                            .addController(new PingController())
+                            .build())
+                    .build();
+            this.dispatchController.listen();
+        }
+
+        @TearDown
+        public void tearDown() {
+            this.dispatchController.stop();
+        }
+
+    }
+
+    @State(Scope.Thread)
+    public static class Client {
+
+        private Socket socket;
+
+        private OutputStream outputStream;
+
+        private InputStream inputStream;
+
+        private byte[] readBuffer = new byte[1024];
+
+        private final HttpMessageDecoder decoder = HttpMessageDecoder.forResponses();
+
+        @Setup(Level.Iteration)
+        public void connect(final Server server) throws IOException, InterruptedException {
+            final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (this.socket == null) {
+                try {
+                    this.socket = new Socket("127.0.0.1", server.port);
+                } catch (IOException e) {
+                    if (System.nanoTime() - deadline > 0) {
+                        throw e;
+                    }
+                    Thread.sleep(10);
+                }
+            }
+            this.socket.setTcpNoDelay(true);
+            this.outputStream = this.socket.getOutputStream();
+            this.inputStream = this.socket.getInputStream();
+        }
+
+        @TearDown(Level.Iteration)
+        public void disconnect() throws IOException {
+            this.socket.close();
+            this.socket = null;
+        }
+
+    }
+
+    @Benchmark
+    public int request(final Client client) throws IOException {
+        client.outputStream.write(REQUEST);
+        client.outputStream.flush();
+
+        client.decoder.reset();
+        int length = 0;
+        while (!client.decoder.parse(client.readBuffer, 0, length)) {
+            if (length == client.readBuffer.length) {
+                client.readBuffer = Arrays.copyOf(client.readBuffer, client.readBuffer.length * 2);
+            }
+            final int read = client.inputStream.read(client.readBuffer, length, client.readBuffer.length - length);
+            if (read < 0) {
+                throw new IOException("Connection closed before response was received");
+            }
+            length += read;
+        }
+        return client.decoder.messageLength();
+    }
+
+    private static final class PingController extends Controller {
+
+        private static final byte[] BODY = "pong".getBytes(StandardCharsets.US_ASCII);
+
+        private PingController() {
+            super("/api/ping");
+        }
+
+        @Override
+        public HttpResponse doGet(final HttpRequest httpRequest) {
+            return new HttpResponse(new Version(1, 1), 200, "OK", Map.of("Content-Type", "text/plain"), BODY);
+        }
+
+    }
+
+}
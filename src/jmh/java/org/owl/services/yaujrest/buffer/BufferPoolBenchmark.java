@@ -0,0 +1,55 @@
+package org.owl.services.yaujrest.buffer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Выдача и возврат буфера пулом в сравнении с созданием нового массива. Выдача из кеша потока не должна выделять
+ * память, что проверяется профилировщиком {@code -prof gc}; выдача без кешей потоков измеряет общие очереди
+ * при одновременном обращении из нескольких потоков
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class BufferPoolBenchmark {
+
+    private static final int SIZE = 1024;
+
+    private final BufferPool pool = BufferPool.builder().build();
+
+    private final BufferPool sharedPool = BufferPool.builder().threadCacheSize(0).build();
+
+    @Benchmark
+    public ByteBuffer acquireFromThreadCache() {
+        final ByteBuffer buffer = this.pool.acquire(SIZE);
+        this.pool.release(buffer);
+        return buffer;
+    }
+
+    @Benchmark
+    public ByteBuffer acquireFromSharedQueue() {
+        final ByteBuffer buffer = this.sharedPool.acquire(SIZE);
+        this.sharedPool.release(buffer);
+        return buffer;
+    }
+
+    @Benchmark
+    public byte[] allocate() {
+        return new byte[SIZE];
+    }
+
+}
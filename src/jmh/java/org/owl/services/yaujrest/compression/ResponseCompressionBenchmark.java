@@ -0,0 +1,89 @@
+package org.owl.services.yaujrest.compression;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.owl.services.yaujrest.http.HttpRequest;
+import org.owl.services.yaujrest.http.HttpResponse;
+import org.owl.services.yaujrest.http.Method;
+import org.owl.services.yaujrest.http.RequestTarget;
+import org.owl.services.yaujrest.http.Version;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Производительность сжатия тел ответов в зависимости от степени сжатия и размера тела.
+ * Для сравнения приведено сжатие через {@link GZIPOutputStream}, создающий новый объект
+ * {@link java.util.zip.Deflater} для каждого ответа, и повторное использование сохраненного сжатого тела.
+ * Объем выделяемой памяти измеряется профилировщиком {@code -prof gc}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ResponseCompressionBenchmark {
+
+    @Param({"1", "6", "9"})
+    private int level;
+
+    @Param({"4096", "262144"})
+    private int bodySize;
+
+    private HttpRequest httpRequest;
+
+    private HttpResponse httpResponse;
+
+    private ResponseCompression compression;
+
+    private ResponseCompression cachingCompression;
+
+    @Setup
+    public void setUp() {
+        final StringBuilder json = new StringBuilder("[");
+        for (int i = 0; json.length() < this.bodySize; i++) {
+            json.append("{\"id\":").append(i).append(",\"name\":\"item-").append(i * 7919 % 1000)
+                    .append("\",\"active\":").append(i % 3 == 0).append("},");
+        }
+        final byte[] body = json.substring(0, this.bodySize).getBytes(StandardCharsets.UTF_8);
+
+        this.httpRequest = new HttpRequest(Method.GET, RequestTarget.of("/items"), new Version(1, 1),
+                Map.of("Accept-Encoding", "gzip, deflate, br"), null);
+        this.httpResponse = new HttpResponse(new Version(1, 1), 200, "OK", Map.of("Content-Type", "application/json"), body);
+        this.compression = ResponseCompression.builder().level(this.level).build();
+        this.cachingCompression = ResponseCompression.builder().level(this.level).cacheCompressed(true).build();
+    }
+
+    @Benchmark
+    public byte[] gzipOutputStream() throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (final GZIPOutputStream gzip = new GZIPOutputStream(output)) {
+            gzip.write(this.httpResponse.body());
+        }
+        return output.toByteArray();
+    }
+
+    @Benchmark
+    public HttpResponse compress() {
+        return this.compression.compress(this.httpRequest, this.httpResponse);
+    }
+
+    @Benchmark
+    public HttpResponse compressCached() {
+        return this.cachingCompression.compress(this.httpRequest, this.httpResponse);
+    }
+
+}
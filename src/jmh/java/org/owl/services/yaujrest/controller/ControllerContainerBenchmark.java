@@ -0,0 +1,90 @@
+package org.owl.services.yaujrest.controller;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Производительность выбора обработчика среди большого количества шаблонов пути.
+ * Для сравнения приведен последовательный перебор регулярных выражений
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ControllerContainerBenchmark {
+
+    @Param({"1000", "5000"})
+    private int routes;
+
+    @Param({"/api/v1/resource500", "/api/v1/resource500/42/items/7", "/static/css/site.css", "/api/v1/missing"})
+    private String path;
+
+    private ControllerContainer container;
+
+    private final List<Pattern> patterns = new ArrayList<>();
+
+    @Setup
+    public void setUp() {
+        final ControllerContainer.ControllerContainerBuilder builder = ControllerContainer.builder();
+        for (int i = 0; i < this.routes / 2; i++) {
+            final String resource = "/api/v1/resource" + i;
+            builder.addController(new BenchmarkController(resource));
+            builder.addController(new BenchmarkController(resource + "/{id}/items/{itemId}"));
+            this.patterns.add(Pattern.compile(resource));
+            this.patterns.add(Pattern.compile(resource + "/([^/]+)/items/([^/]+)"));
+        }
+        builder.addController(new BenchmarkController("/static/**"));
+        this.patterns.add(Pattern.compile("/static/(.*)"));
+        this.container = builder.build();
+    }
+
+    @Benchmark
+    public ControllerContainer.Route match() {
+        return this.container.match(this.path);
+    }
+
+    @Benchmark
+    public Controller getByPath() {
+        return this.container.getByPath(this.path);
+    }
+
+    @Benchmark
+    public String matchAndReadVariable() {
+        final ControllerContainer.Route route = this.container.match(this.path);
+        return route == null ? null : route.pathVariables().get("id");
+    }
+
+    @Benchmark
+    public Matcher regex() {
+        for (final Pattern pattern : this.patterns) {
+            final Matcher matcher = pattern.matcher(this.path);
+            if (matcher.matches()) {
+                return matcher;
+            }
+        }
+        return null;
+    }
+
+    private static final class BenchmarkController extends Controller {
+        private BenchmarkController(final String path) {
+            super(path);
+        }
+    }
+
+}
@@ -0,0 +1,90 @@
+package org.owl.services.yaujrest.http;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Производительность и объем выделяемой памяти при сериализации HTTP-ответов.
+ * Для сравнения приведена сериализация через {@link StringBuilder}. Объем выделяемой памяти
+ * измеряется профилировщиком {@code -prof gc}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HttpResponseEncoderBenchmark {
+
+    @Param({"0", "1024", "65536"})
+    private int bodySize;
+
+    private HttpResponse httpResponse;
+
+    private final HttpResponseEncoder.Framing framing = new HttpResponseEncoder.Framing(-1, false, "keep-alive");
+
+    private final byte[] headBuffer = new byte[512];
+
+    @Setup
+    public void setUp() {
+        final Map<String, String> headers = new LinkedHashMap<>();
+        headers.put("Content-Type", "application/json");
+        headers.put("Content-Length", String.valueOf(this.bodySize));
+        headers.put("Cache-Control", "no-cache");
+        headers.put("X-Request-Id", "9b2f0c1e-7d4a-4b8e-a1f2-3c5d6e7f8a9b");
+
+        final byte[] body = new byte[this.bodySize];
+        for (int i = 0; i < body.length; i++) {
+            body[i] = (byte) ('a' + i % 26);
+        }
+        this.httpResponse = new HttpResponse(new Version(1, 1), 200, "OK", headers, body);
+    }
+
+    @Benchmark
+    public byte[] stringBuilder() {
+        final Map<String, String> headers = new LinkedHashMap<>(this.httpResponse.headers());
+        headers.put("Connection", this.framing.connection());
+
+        final StringBuilder stringBuilder = new StringBuilder();
+        stringBuilder.append(this.httpResponse.version()).append(' ').append(this.httpResponse.statusCode()).append(' ')
+                .append(this.httpResponse.reason()).append("\r\n");
+        headers.forEach((key, value) -> stringBuilder.append(key).append(": ").append(value).append("\r\n"));
+        stringBuilder.append("\r\n");
+        stringBuilder.append(new String(this.httpResponse.body(), StandardCharsets.US_ASCII));
+        return stringBuilder.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return this.httpResponse.serialize();
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return HttpResponseEncoder.encode(this.httpResponse, this.framing);
+    }
+
+    @Benchmark
+    public byte[] encodeHead() {
+        return HttpResponseEncoder.encodeHead(this.httpResponse, this.framing);
+    }
+
+    @Benchmark
+    public int encodeHeadIntoBuffer() {
+        return HttpResponseEncoder.encodeHead(this.httpResponse, this.framing, this.headBuffer, 0);
+    }
+
+}
@@ -0,0 +1,58 @@
+package org.owl.services.yaujrest.log;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.owl.services.yaujrest.http.Method;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Занесение запроса в буфер журнала в сравнении с форматированием и записью строки в потоке запроса.
+ * Приемник отбрасывает строки, поэтому измеряется только работа потока запроса. При политике
+ * {@link AccessLog.OverflowPolicy#DROP} часть записей может отбрасываться, если фоновый поток не успевает
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class AccessLogBenchmark {
+
+    private final AccessLog accessLog = AccessLog.builder().writer(Writer.nullWriter()).build();
+
+    private final Writer writer = Writer.nullWriter();
+
+    @TearDown
+    public void tearDown() {
+        this.accessLog.close();
+    }
+
+    @Benchmark
+    public boolean record() {
+        return this.accessLog.record(Method.GET, "/items/42", 200, 512, 1_834_500);
+    }
+
+    @Benchmark
+    public void formatAndWrite() throws IOException {
+        final String line = Instant.now() + " method=" + Method.GET + " path=/items/42 status=200 bytes=512 latency_us="
+                + 1_834_500 / 1000 + '\n';
+        synchronized (this.writer) {
+            this.writer.write(line);
+            this.writer.flush();
+        }
+    }
+
+}
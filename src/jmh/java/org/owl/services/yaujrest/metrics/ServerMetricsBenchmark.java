@@ -0,0 +1,40 @@
+package org.owl.services.yaujrest.metrics;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Накладные расходы учета выполненного запроса при одновременном учете из нескольких потоков.
+ * Учет не должен выделять память в установившемся режиме, что проверяется профилировщиком {@code -prof gc}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class ServerMetricsBenchmark {
+
+    private final ServerMetrics metrics = ServerMetrics.builder().build();
+
+    @Benchmark
+    public void recordRequest() {
+        this.metrics.recordRequest("/items/{id}", 200, 0, 512, 350_000);
+    }
+
+    @Benchmark
+    public String scrape() {
+        return this.metrics.scrape();
+    }
+
+}
@@ -0,0 +1,135 @@
+package org.owl.services.yaujrest;
+
+import org.owl.services.yaujrest.http.HttpHeaders;
+import org.owl.services.yaujrest.http.HttpResponse;
+import org.owl.services.yaujrest.http.Version;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Контроль допуска соединений и запросов главного обработчика.
+ * <p>
+ * Ограничивает количество открытых соединений и количество запросов, ожидающих разрешения на выполнение.
+ * Дополнительно может отклонять запросы по времени ожидания выполнения по алгоритму CoDel: если в течение
+ * интервала наблюдения минимальное время ожидания превышало целевое, сервер считается перегруженным,
+ * и запросы, ожидавшие дольше удвоенного целевого времени, отклоняются. В отличие от ограничения длины очереди,
+ * такая проверка не отклоняет кратковременные всплески нагрузки, которые очередь успевает обработать.
+ * <p>
+ * На отклоненные соединения и запросы отправляется заранее сериализованный ответ {@code 503 Service Unavailable}
+ * с заголовком {@code Retry-After}, после чего соединение закрывается
+ */
+final class AdmissionControl {
+
+    private final int maxConnections;
+
+    private final int maxPendingRequests;
+
+    private final long targetDelayNanos;
+
+    private final long intervalNanos;
+
+    private final byte[] serviceUnavailable;
+
+    private final AtomicInteger connections = new AtomicInteger();
+
+    private final AtomicInteger pendingRequests = new AtomicInteger();
+
+    private long intervalEnd = System.nanoTime();
+
+    private long minDelayNanos;
+
+    private boolean overloaded;
+
+    /**
+     * @param maxConnections максимальное количество открытых соединений
+     * @param maxPendingRequests максимальное количество запросов, ожидающих разрешения на выполнение
+     * @param targetDelayNanos целевое время ожидания выполнения запроса в наносекундах, либо {@code 0},
+     *                         если запросы не отклоняются по времени ожидания
+     * @param intervalNanos интервал наблюдения за временем ожидания в наносекундах
+     * @param retryAfterSeconds значение заголовка {@code Retry-After} в секундах
+     */
+    AdmissionControl(final int maxConnections, final int maxPendingRequests, final long targetDelayNanos,
+                     final long intervalNanos, final long retryAfterSeconds) {
+        this.maxConnections = maxConnections;
+        this.maxPendingRequests = maxPendingRequests;
+        this.targetDelayNanos = targetDelayNanos;
+        this.intervalNanos = intervalNanos;
+
+        final Map<String, String> headers = new LinkedHashMap<>();
+        headers.put(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        headers.put(HttpHeaders.CONTENT_LENGTH, "0");
+        headers.put(HttpHeaders.CONNECTION, "close");
+        this.serviceUnavailable = new HttpResponse(new Version(1, 1), 503, "Service Unavailable", headers, null).serialize();
+    }
+
+    /**
+     * Регистрирует открытие соединения, если ограничение количества соединений не достигнуто
+     * @return {@code true}, если соединение допущено
+     */
+    boolean tryOpenConnection() {
+        if (this.connections.incrementAndGet() > this.maxConnections) {
+            this.connections.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Регистрирует закрытие соединения, допущенного методом {@link #tryOpenConnection()}
+     */
+    void connectionClosed() {
+        this.connections.decrementAndGet();
+    }
+
+    /**
+     * Регистрирует запрос, ожидающий разрешения на выполнение, если ограничение количества таких запросов не достигнуто
+     * @return {@code true}, если запрос поставлен в очередь
+     */
+    boolean tryEnqueue() {
+        if (this.pendingRequests.incrementAndGet() > this.maxPendingRequests) {
+            this.pendingRequests.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Регистрирует завершение ожидания запроса, поставленного в очередь методом {@link #tryEnqueue()}
+     */
+    void dequeued() {
+        this.pendingRequests.decrementAndGet();
+    }
+
+    /**
+     * Учитывает время ожидания запроса перед выполнением и проверяет, должен ли запрос быть отклонен
+     * @param delayNanos время от получения запроса до начала его выполнения в наносекундах
+     * @return {@code true}, если сервер перегружен и запрос ожидал дольше удвоенного целевого времени
+     */
+    boolean isOverloaded(final long delayNanos) {
+        if (this.targetDelayNanos == 0) {
+            return false;
+        }
+
+        synchronized (this) {
+            final long now = System.nanoTime();
+            if (now - this.intervalEnd >= 0) {
+                this.overloaded = this.minDelayNanos > this.targetDelayNanos;
+                this.minDelayNanos = delayNanos;
+                this.intervalEnd = now + this.intervalNanos;
+            } else if (delayNanos < this.minDelayNanos) {
+                this.minDelayNanos = delayNanos;
+            }
+            return this.overloaded && delayNanos > 2 * this.targetDelayNanos;
+        }
+    }
+
+    /**
+     * Возвращает сериализованный ответ {@code 503 Service Unavailable}. Массив не должен изменяться
+     * @return ответ на отклоненное соединение или запрос
+     */
+    byte[] serviceUnavailable() {
+        return this.serviceUnavailable;
+    }
+
+}
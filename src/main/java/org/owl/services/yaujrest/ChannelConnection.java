@@ -0,0 +1,430 @@
+package org.owl.services.yaujrest;
+
+import org.owl.services.yaujrest.http.HttpRequest;
+import org.owl.services.yaujrest.http.parser.HttpMessageDecoder;
+import org.owl.services.yaujrest.http.parser.HttpMessageParseException;
+import org.owl.services.yaujrest.metrics.ServerMetrics;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.Queue;
+
+/**
+ * Состояние неблокирующего соединения, обслуживаемого циклом событий {@link EventLoop}.
+ * <p>
+ * Соединение поддерживает конвейерную обработку (HTTP pipelining): все полностью полученные запросы
+ * выделяются из буфера чтения и передаются на выполнение последовательно либо, если это разрешено, одновременно.
+ * Ответы записываются строго в порядке получения запросов, а готовые к отправке ответы
+ * записываются в канал одной операцией. Тело ответа из файла либо формируемое по частям
+ * записывается после заголовка ответа, когда ответ оказывается первым в очереди.
+ * <p>
+ * На запрос, который не удалось разобрать либо который обработчик выполнил с исключением,
+ * после ответов на предшествующие запросы отправляется ответ {@link ErrorResponses}, и соединение закрывается.
+ * <p>
+ * Тело запроса, передаваемого обработчику потоком, помещается в {@link PipedRequestBody} по мере поступления,
+ * а следующие запросы соединения разбираются после получения всего тела.
+ * <p>
+ * Все методы класса вызываются только из потока цикла событий, которому принадлежит соединение
+ */
+final class ChannelConnection {
+
+    private final EventLoop eventLoop;
+
+    private final DispatchController dispatchController;
+
+    private final SocketChannel channel;
+
+    private final SelectionKey selectionKey;
+
+    private final PipelinePolicy pipelinePolicy;
+
+    private final ReadBuffer readBuffer;
+
+    private final HttpMessageDecoder decoder;
+
+    private final ServerMetrics metrics;
+
+    private final Queue<Exchange> exchanges = new ArrayDeque<>();
+
+    private final Queue<Exchange> awaitingDispatch = new ArrayDeque<>();
+
+    private PipedRequestBody streamedBody;
+
+    private int executing;
+
+    private int requestCount;
+
+    private boolean closing;
+
+    private boolean closed;
+
+    private long lastActivityMillis = System.currentTimeMillis();
+
+    /**
+     * Запрос, полученный из соединения, и ответ на него
+     */
+    private static final class Exchange {
+
+        private final int requestNumber;
+
+        private HttpRequest httpRequest;
+
+        private OutboundResponse response;
+
+        private boolean keepAlive;
+
+        private long completedAt;
+
+        private Exchange(final int requestNumber, final HttpRequest httpRequest) {
+            this.requestNumber = requestNumber;
+            this.httpRequest = httpRequest;
+        }
+
+    }
+
+    ChannelConnection(final EventLoop eventLoop, final DispatchController dispatchController, final SocketChannel channel, final SelectionKey selectionKey,
+                      final PipelinePolicy pipelinePolicy, final HttpMessageDecoder decoder) {
+        this.eventLoop = eventLoop;
+        this.dispatchController = dispatchController;
+        this.channel = channel;
+        this.selectionKey = selectionKey;
+        this.pipelinePolicy = pipelinePolicy;
+        this.decoder = decoder;
+        this.metrics = dispatchController.metrics();
+        this.readBuffer = new ReadBuffer(dispatchController.bufferPool());
+    }
+
+    /**
+     * Считывает доступные байты из канала и передает на выполнение все полностью полученные запросы
+     * @throws IOException выбрасывается в случае ошибки чтения из канала
+     */
+    void onReadable() throws IOException {
+        if (this.readBuffer.read(this.channel) < 0) {
+            close();
+            return;
+        }
+
+        this.lastActivityMillis = System.currentTimeMillis();
+        readRequests();
+        dispatchRequests();
+        if (flush()) {
+            updateInterest();
+        }
+    }
+
+    /**
+     * Сохраняет сериализованный ответ на запрос и записывает в канал все ответы,
+     * для которых получены ответы на предшествующие запросы
+     * @param requestNumber порядковый номер запроса в соединении
+     * @param response сериализованный HTTP-ответ
+     * @param keepAlive остается ли соединение открытым после записи ответа
+     * @throws IOException выбрасывается в случае ошибки записи в канал
+     */
+    void complete(final int requestNumber, final OutboundResponse response, final boolean keepAlive) throws IOException {
+        this.executing--;
+        if (!isOpen()) {
+            response.release();
+            return;
+        }
+
+        boolean pending = false;
+        for (final Exchange exchange : this.exchanges) {
+            if (exchange.requestNumber == requestNumber) {
+                exchange.response = response;
+                exchange.keepAlive = keepAlive;
+                exchange.completedAt = Objects.isNull(this.metrics) ? 0 : System.nanoTime();
+                pending = true;
+                break;
+            }
+        }
+        if (!pending) {
+            response.release();
+            return;
+        }
+
+        if (!keepAlive) {
+            discardAfter(requestNumber);
+        }
+
+        onWritable();
+    }
+
+    /**
+     * Записывает в канал готовые ответы, когда канал снова готов к записи
+     * @throws IOException выбрасывается в случае ошибки записи в канал
+     */
+    void onWritable() throws IOException {
+        if (!flush()) {
+            return;
+        }
+
+        this.lastActivityMillis = System.currentTimeMillis();
+        readRequests();
+        dispatchRequests();
+        updateInterest();
+    }
+
+    /**
+     * Записывает в канал части тела ответа, сформированные после предыдущей записи
+     * @throws IOException выбрасывается в случае ошибки записи в канал
+     */
+    void onResponseAvailable() throws IOException {
+        if (isOpen()) {
+            onWritable();
+        }
+    }
+
+    /**
+     * Проверяет, простаивает ли соединение в ожидании запроса с указанного момента
+     * @param thresholdMillis момент времени в миллисекундах
+     * @return {@code true}, если соединение не выполняет запросы и не получало данных с указанного момента
+     */
+    boolean isIdleSince(final long thresholdMillis) {
+        return this.exchanges.isEmpty() && this.lastActivityMillis < thresholdMillis;
+    }
+
+    /**
+     * Проверяет, открыто ли соединение
+     * @return {@code true}, если соединение открыто
+     */
+    boolean isOpen() {
+        return this.channel.isOpen();
+    }
+
+    /**
+     * Закрывает соединение
+     */
+    void close() {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        this.dispatchController.admissionControl().connectionClosed();
+
+        if (this.streamedBody != null) {
+            this.streamedBody.fail(new IOException("Connection closed before request body was received"));
+            this.streamedBody = null;
+        }
+        for (final Exchange exchange : this.exchanges) {
+            if (exchange.response != null) {
+                exchange.response.release();
+            }
+        }
+        this.exchanges.clear();
+        this.awaitingDispatch.clear();
+        this.readBuffer.release();
+        this.selectionKey.cancel();
+        try {
+            this.channel.close();
+        } catch (IOException ignored) {
+            // Соединение уже разорвано
+        }
+    }
+
+    private void readRequests() {
+        try {
+            HttpRequest httpRequest;
+            while (!this.closing && (this.streamedBody == null || feedBody())
+                    && this.exchanges.size() < this.pipelinePolicy.maxPipelinedRequests()
+                    && (httpRequest = decodeRequest()) != null) {
+                final Exchange exchange = new Exchange(++this.requestCount, httpRequest);
+                this.exchanges.add(exchange);
+                this.awaitingDispatch.add(exchange);
+            }
+        } catch (HttpMessageParseException e) {
+            final Exchange exchange = new Exchange(++this.requestCount, null);
+            exchange.response = OutboundResponse.of(ErrorResponses.forParseError(e));
+            this.exchanges.add(exchange);
+            this.closing = true;
+        }
+        this.readBuffer.releaseIfEmpty();
+    }
+
+    private HttpRequest decodeRequest() {
+        if (Objects.isNull(this.metrics)) {
+            return decode();
+        }
+        final long start = System.nanoTime();
+        final HttpRequest httpRequest = decode();
+        if (httpRequest != null) {
+            this.metrics.recordParse(System.nanoTime() - start);
+        }
+        return httpRequest;
+    }
+
+    private HttpRequest decode() {
+        if (this.dispatchController.hasStreamingControllers()) {
+            final HttpRequest head = this.readBuffer.decodeHead(this.decoder);
+            if (head != null && this.dispatchController.isStreamingRequestBody(head)) {
+                this.readBuffer.streamBody(this.decoder);
+                this.streamedBody = new PipedRequestBody(() -> this.eventLoop.execute(this::onBodyDrained));
+                return new HttpRequest(head.method(), head.target(), head.version(), head.headers(), null, this.streamedBody);
+            }
+        }
+        return this.readBuffer.decode(this.decoder);
+    }
+
+    /**
+     * Помещает полученные части тела запроса, передаваемого потоком, в буфер тела
+     * @return {@code true}, если тело запроса получено полностью
+     */
+    private boolean feedBody() {
+        try {
+            int writable;
+            while (!this.decoder.isComplete() && !this.readBuffer.isEmpty() && (writable = this.streamedBody.writableBytes()) > 0) {
+                final ByteBuffer chunk = ByteBuffer.allocate(Math.min(writable, this.readBuffer.size()));
+                if (this.readBuffer.decodeBody(this.decoder, chunk) > 0) {
+                    this.streamedBody.offer(chunk.flip());
+                }
+            }
+        } catch (HttpMessageParseException e) {
+            this.streamedBody.fail(new IOException(e.getMessage(), e));
+            this.streamedBody = null;
+            this.closing = true;
+            return false;
+        }
+
+        if (!this.decoder.isComplete()) {
+            return false;
+        }
+        this.streamedBody.finish();
+        this.streamedBody = null;
+        this.decoder.reset();
+        return true;
+    }
+
+    /**
+     * Возобновляет получение тела запроса после освобождения буфера тела обработчиком
+     */
+    private void onBodyDrained() {
+        if (!isOpen()) {
+            return;
+        }
+
+        try {
+            readRequests();
+            dispatchRequests();
+            if (flush()) {
+                updateInterest();
+            }
+        } catch (IOException e) {
+            close();
+        }
+    }
+
+    private void dispatchRequests() {
+        while (!this.awaitingDispatch.isEmpty() && (this.executing == 0 || this.pipelinePolicy.concurrent())) {
+            final Exchange exchange = this.awaitingDispatch.poll();
+            final HttpRequest httpRequest = exchange.httpRequest;
+            exchange.httpRequest = null;
+            this.executing++;
+            this.eventLoop.dispatch(this, httpRequest, exchange.requestNumber);
+        }
+    }
+
+    /**
+     * Записывает в канал последовательность готовых ответов с начала очереди. Буферы готовых ответов
+     * записываются одной операцией до первого ответа, тело которого записывается отдельно
+     * @return {@code false}, если соединение закрыто либо канал не принял все готовые ответы
+     */
+    private boolean flush() throws IOException {
+        while (!this.exchanges.isEmpty() && this.exchanges.peek().response != null) {
+            writeBuffers();
+
+            Exchange exchange;
+            while ((exchange = this.exchanges.peek()) != null && exchange.response != null && exchange.response.isWritten()) {
+                this.exchanges.poll();
+                exchange.response.recycle();
+                if (exchange.completedAt != 0) {
+                    this.metrics.recordWrite(System.nanoTime() - exchange.completedAt);
+                }
+                if (!exchange.keepAlive) {
+                    close();
+                    return false;
+                }
+            }
+
+            if (exchange == null || exchange.response == null) {
+                return true;
+            }
+            if (exchange.response.hasRemainingBuffers()) {
+                this.selectionKey.interestOps(SelectionKey.OP_WRITE);
+                return false;
+            }
+
+            switch (exchange.response.transferBody(this.channel)) {
+                case WRITTEN -> { }
+                case BLOCKED -> {
+                    this.selectionKey.interestOps(SelectionKey.OP_WRITE);
+                    return false;
+                }
+                case PENDING -> {
+                    updateInterest();
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private void writeBuffers() throws IOException {
+        int count = 0;
+        for (final Exchange exchange : this.exchanges) {
+            if (exchange.response == null) {
+                break;
+            }
+            count += exchange.response.buffers().length;
+            if (exchange.response.hasTrailingBody()) {
+                break;
+            }
+        }
+
+        final ByteBuffer[] buffers = new ByteBuffer[count];
+        int index = 0;
+        for (final Exchange exchange : this.exchanges) {
+            if (index == count) {
+                break;
+            }
+            for (final ByteBuffer buffer : exchange.response.buffers()) {
+                buffers[index++] = buffer;
+            }
+        }
+
+        if (OutboundResponse.hasRemaining(buffers, count)) {
+            this.channel.write(buffers);
+        }
+    }
+
+    private void discardAfter(final int requestNumber) {
+        if (this.streamedBody != null) {
+            this.streamedBody.fail(new IOException("Connection is closing"));
+            this.streamedBody = null;
+        }
+        this.closing = true;
+        this.awaitingDispatch.clear();
+        this.exchanges.removeIf(exchange -> {
+            if (exchange.requestNumber <= requestNumber) {
+                return false;
+            }
+            if (exchange.response != null) {
+                exchange.response.release();
+            }
+            return true;
+        });
+    }
+
+    private void updateInterest() {
+        if (!this.selectionKey.isValid()) {
+            return;
+        }
+
+        final boolean canRead = this.streamedBody != null
+                ? this.streamedBody.writableBytes() > 0
+                : !this.closing && this.exchanges.size() < this.pipelinePolicy.maxPipelinedRequests();
+        this.selectionKey.interestOps(canRead ? SelectionKey.OP_READ : 0);
+    }
+
+}
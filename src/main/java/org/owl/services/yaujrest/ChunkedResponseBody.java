@@ -0,0 +1,188 @@
+package org.owl.services.yaujrest;
+
+import org.owl.services.yaujrest.http.ResponseBody;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Тело ответа неблокирующего соединения {@link ChannelConnection}, формируемое по частям.
+ * <p>
+ * Поток исполнителя помещает части тела в ограниченный буфер, ожидая освобождения места, пока буфер заполнен,
+ * а цикл событий записывает накопленные части в канал, когда ответ оказывается первым в очереди соединения
+ */
+final class ChunkedResponseBody implements ResponseBody.ChunkWriter {
+
+    private static final int CAPACITY = 64 * 1024;
+
+    private static final byte[] CRLF = {'\r', '\n'};
+
+    private static final byte[] LAST_CHUNK = "0\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition writable = this.lock.newCondition();
+
+    private final Queue<ByteBuffer> chunks = new ArrayDeque<>();
+
+    private final boolean encoded;
+
+    private final Runnable onAvailable;
+
+    private int buffered;
+
+    private boolean finished;
+
+    private boolean failed;
+
+    private boolean aborted;
+
+    /**
+     * @param encoded кодируются ли части тела ({@code Transfer-Encoding: chunked})
+     * @param onAvailable обработчик, вызываемый при появлении частей тела для записи в пустом буфере
+     */
+    ChunkedResponseBody(final boolean encoded, final Runnable onAvailable) {
+        this.encoded = encoded;
+        this.onAvailable = onAvailable;
+    }
+
+    /**
+     * Возвращает строку размера части тела в кодировании {@code Transfer-Encoding: chunked}
+     * @param size размер части тела
+     * @return строка размера, завершенная {@code CRLF}
+     */
+    static byte[] chunkSizeLine(final int size) {
+        return (Integer.toHexString(size) + "\r\n").getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Возвращает завершающую часть тела в кодировании {@code Transfer-Encoding: chunked}
+     * @return завершающая часть тела
+     */
+    static byte[] lastChunk() {
+        return LAST_CHUNK.clone();
+    }
+
+    @Override
+    public void write(final ByteBuffer chunk) throws IOException {
+        if (!chunk.hasRemaining()) {
+            return;
+        }
+
+        final int size = chunk.remaining();
+        final byte[] sizeLine = this.encoded ? chunkSizeLine(size) : new byte[0];
+        final ByteBuffer encodedChunk = ByteBuffer.allocate(sizeLine.length + size + (this.encoded ? CRLF.length : 0));
+        encodedChunk.put(sizeLine).put(chunk);
+        if (this.encoded) {
+            encodedChunk.put(CRLF);
+        }
+        offer(encodedChunk.flip());
+    }
+
+    /**
+     * Отмечает тело ответа сформированным полностью
+     */
+    void finish() {
+        if (this.encoded) {
+            try {
+                offer(ByteBuffer.wrap(LAST_CHUNK));
+            } catch (IOException e) {
+                return;
+            }
+        }
+        signal(() -> this.finished = true);
+    }
+
+    /**
+     * Отмечает, что тело ответа не может быть сформировано. Соединение закрывается после записи полученных частей
+     */
+    void fail() {
+        signal(() -> this.failed = true);
+    }
+
+    /**
+     * Прерывает формирование тела ответа в связи с закрытием соединения
+     */
+    void abort() {
+        this.lock.lock();
+        try {
+            this.aborted = true;
+            this.chunks.clear();
+            this.buffered = 0;
+            this.writable.signalAll();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Записывает накопленные части тела в канал
+     * @param channel канал соединения
+     * @return состояние записи тела ответа
+     * @throws IOException выбрасывается в случае ошибки записи либо ошибки формирования тела
+     */
+    OutboundResponse.Progress transferTo(final GatheringByteChannel channel) throws IOException {
+        this.lock.lock();
+        try {
+            if (!this.chunks.isEmpty()) {
+                final ByteBuffer[] buffers = this.chunks.toArray(new ByteBuffer[0]);
+                this.buffered -= (int) channel.write(buffers);
+                while (!this.chunks.isEmpty() && !this.chunks.peek().hasRemaining()) {
+                    this.chunks.poll();
+                }
+                this.writable.signalAll();
+                if (!this.chunks.isEmpty()) {
+                    return OutboundResponse.Progress.BLOCKED;
+                }
+            }
+
+            if (this.failed) {
+                throw new IOException("Unable to produce response body");
+            }
+            return this.finished ? OutboundResponse.Progress.WRITTEN : OutboundResponse.Progress.PENDING;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private void offer(final ByteBuffer encodedChunk) throws IOException {
+        final boolean wasEmpty;
+        this.lock.lock();
+        try {
+            while (this.buffered >= CAPACITY && !this.aborted) {
+                this.writable.await();
+            }
+            if (this.aborted) {
+                throw new IOException("Connection closed before response body was written");
+            }
+            wasEmpty = this.chunks.isEmpty();
+            this.chunks.add(encodedChunk);
+            this.buffered += encodedChunk.remaining();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while writing response body", e);
+        } finally {
+            this.lock.unlock();
+        }
+
+        if (wasEmpty) {
+            this.onAvailable.run();
+        }
+    }
+
+    private void signal(final Runnable update) {
+        this.lock.lock();
+        try {
+            update.run();
+        } finally {
+            this.lock.unlock();
+        }
+        this.onAvailable.run();
+    }
+
+}
@@ -1,35 +1,162 @@
 package org.owl.services.yaujrest;
 
+import org.owl.services.yaujrest.buffer.BufferPool;
+import org.owl.services.yaujrest.cache.ResponseCache;
+import org.owl.services.yaujrest.compression.ResponseCompression;
+import org.owl.services.yaujrest.controller.AllowedMethods;
+import org.owl.services.yaujrest.controller.AsyncController;
 import org.owl.services.yaujrest.controller.Controller;
 import org.owl.services.yaujrest.controller.ControllerContainer;
+import org.owl.services.yaujrest.controller.Filter;
+import org.owl.services.yaujrest.http.HttpHeaders;
 import org.owl.services.yaujrest.http.HttpRequest;
 import org.owl.services.yaujrest.http.HttpResponse;
 import org.owl.services.yaujrest.http.Method;
-import org.owl.services.yaujrest.http.parser.HttpMessageParser;
+import org.owl.services.yaujrest.http.Version;
+import org.owl.services.yaujrest.http.parser.HttpMessageDecoder;
+import org.owl.services.yaujrest.log.AccessLog;
+import org.owl.services.yaujrest.metrics.ServerMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
+import java.net.StandardSocketOptions;
 import java.net.Socket;
+import java.nio.channels.ServerSocketChannel;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 /**
  * Главный обработчик входящий запросов.
  * <p>
- * Каждый запрос обрабатывается в отдельном потоке
+ * В режиме {@link IoMode#BLOCKING} каждое соединение обслуживается отдельным виртуальным потоком.
+ * В режиме {@link IoMode#EVENT_LOOP} соединения обслуживаются несколькими циклами событий.
+ * В обоих режимах каждый запрос выполняется отдельной задачей исполнителя, поэтому соединение,
+ * ожидающее запрос, не занимает поток исполнителя.
+ * <p>
+ * По умолчанию задачи выполняются виртуальными потоками.
+ * <p>
+ * Асинхронные обработчики {@link AsyncController} не удерживают поток исполнителя на время ожидания ответа:
+ * в режиме {@link IoMode#EVENT_LOOP} ответ записывается после завершения {@link CompletableFuture}.
+ * Ответ, не полученный за установленное время, заменяется ответом {@code 504 Gateway Timeout}, а ошибка
+ * асинхронного обработчика - ответом {@code 500 Internal Server Error}, после которого соединение закрывается.
+ * <p>
+ * Соединения HTTP/1.1 по умолчанию остаются открытыми после записи ответа (HTTP keep-alive)
+ * и закрываются по истечении времени простоя или после выполнения максимального количества запросов.
+ * Запросы, отправленные клиентом без ожидания ответов (HTTP pipelining), выполняются по очереди,
+ * а в режиме {@link IoMode#EVENT_LOOP} при необходимости одновременно. Ответы записываются в порядке получения запросов.
+ * <p>
+ * При перегрузке соединения и запросы сверх установленных ограничений не ожидают обслуживания, а сразу получают
+ * ответ {@code 503 Service Unavailable} с заголовком {@code Retry-After}
  */
 public final class DispatchController {
 
     private static final Logger log = LoggerFactory.getLogger(DispatchController.class);
 
+    private static final Version HTTP_1_1 = new Version(1, 1);
+
+    private static final String ALLOW = "Allow";
+
+    private static final HttpResponse NOT_FOUND = new HttpResponse(HTTP_1_1, 404, "Not Found", Map.of(), null);
+
+    private static final HttpResponse GATEWAY_TIMEOUT = new HttpResponse(HTTP_1_1, 504, "Gateway Timeout", Map.of(), null);
+
+    private static final HttpResponse INTERNAL_SERVER_ERROR = new HttpResponse(HTTP_1_1, 500, "Internal Server Error",
+            Map.of(HttpHeaders.CONNECTION, "close"), null);
+
+    private static final HttpResponse SERVER_OPTIONS = new HttpResponse(HTTP_1_1, 204, "No Content",
+            Map.of(ALLOW, AllowedMethods.all().header()), null);
+
     private final ControllerContainer controllerContainer;
 
     private final int port;
 
-    private boolean isStopped = false;
+    private final IoMode ioMode;
+
+    private final int ioThreads;
+
+    private final boolean reusePort;
+
+    private final Supplier<ExecutorService> executorFactory;
+
+    private final boolean ownsExecutor;
+
+    private final int maxInFlightRequests;
+
+    private final KeepAlivePolicy keepAlivePolicy;
+
+    private final PipelinePolicy pipelinePolicy;
+
+    private final int maxRequestBodySize;
+    private final int maxRequestHeadSize;
+
+    private final int maxRequestHeaders;
+
+    private final ResponseCache responseCache;
+
+    private final RequestCoalescer requestCoalescer;
 
-    private DispatchController(final ControllerContainer controllerContainer, final int port) {
-        this.controllerContainer = controllerContainer;
-        this.port = port;
+    private final ResponseCompression responseCompression;
+
+    private final AdmissionControl admissionControl;
+
+    private final int backlog;
+
+    private final ServerMetrics metrics;
+
+    private final AccessLog accessLog;
+
+    private final long asyncTimeoutNanos;
+
+    private final BufferPool bufferPool;
+
+    private volatile boolean isStopped = false;
+
+    private EventLoop[] eventLoops;
+
+    private RequestExecutor requestExecutor;
+
+    private final ThreadFactory connectionThreads = Thread.ofVirtual().name("dispatch-connection-", 0).factory();
+
+    private DispatchController(final DispatchControllerBuilder builder) {
+        this.controllerContainer = builder.filters.isEmpty() || Objects.isNull(builder.controllerContainer)
+                ? builder.controllerContainer
+                : builder.controllerContainer.withFilters(controller -> resolveFilters(builder.filters, controller));
+        this.port = builder.port;
+        this.ioMode = builder.ioMode;
+        this.ioThreads = builder.ioThreads;
+        this.reusePort = builder.reusePort;
+        this.executorFactory = builder.executorFactory;
+        this.ownsExecutor = builder.ownsExecutor;
+        this.maxInFlightRequests = builder.maxInFlightRequests;
+        this.keepAlivePolicy = new KeepAlivePolicy(builder.idleTimeout.toMillis(), builder.maxRequestsPerConnection);
+        this.pipelinePolicy = new PipelinePolicy(builder.maxPipelinedRequests, builder.concurrentPipelining);
+        this.maxRequestBodySize = builder.maxRequestBodySize;
+        this.maxRequestHeadSize = builder.maxRequestHeadSize;
+        this.maxRequestHeaders = builder.maxRequestHeaders;
+        this.responseCache = builder.responseCache;
+        this.requestCoalescer = new RequestCoalescer(builder.coalescingTimeout.toNanos());
+        this.responseCompression = builder.responseCompression;
+        this.admissionControl = new AdmissionControl(builder.maxConnections, builder.maxPendingRequests,
+                builder.targetQueueDelay.toNanos(), builder.queueDelayInterval.toNanos(), builder.retryAfter.toSeconds());
+        this.backlog = builder.backlog;
+        this.metrics = builder.metrics;
+        this.accessLog = builder.accessLog;
+        this.asyncTimeoutNanos = builder.asyncTimeout.toNanos();
+        this.bufferPool = Objects.isNull(builder.bufferPool) ? BufferPool.builder().build() : builder.bufferPool;
     }
 
     /**
@@ -39,6 +166,33 @@ public final class DispatchController {
 
         private ControllerContainer controllerContainer;
         private int port = 80;
+        private IoMode ioMode = IoMode.BLOCKING;
+        private int ioThreads = 1;
+        private boolean reusePort = false;
+        private Supplier<ExecutorService> executorFactory = Executors::newVirtualThreadPerTaskExecutor;
+        private boolean ownsExecutor = true;
+        private int maxInFlightRequests = Integer.MAX_VALUE;
+        private Duration idleTimeout = Duration.ofSeconds(60);
+        private int maxRequestsPerConnection = 1000;
+        private int maxPipelinedRequests = 16;
+        private boolean concurrentPipelining = false;
+        private int maxRequestBodySize = 10 * 1024 * 1024;
+        private int maxRequestHeadSize = HttpMessageDecoder.DEFAULT_MAX_HEAD_SIZE;
+        private int maxRequestHeaders = HttpMessageDecoder.DEFAULT_MAX_HEADERS;
+        private ResponseCache responseCache;
+        private Duration coalescingTimeout = Duration.ofSeconds(5);
+        private ResponseCompression responseCompression;
+        private int maxConnections = Integer.MAX_VALUE;
+        private int maxPendingRequests = Integer.MAX_VALUE;
+        private Duration targetQueueDelay = Duration.ZERO;
+        private Duration queueDelayInterval = Duration.ofMillis(100);
+        private Duration retryAfter = Duration.ofSeconds(1);
+        private int backlog = 50;
+        private ServerMetrics metrics;
+        private AccessLog accessLog;
+        private Duration asyncTimeout = Duration.ofSeconds(30);
+        private BufferPool bufferPool;
+        private final List<FilterRegistration> filters = new ArrayList<>();
 
         private DispatchControllerBuilder() { }
 
@@ -62,16 +216,404 @@ public final class DispatchController {
             return this;
         }
 
+        /**
+         * Устанавливает режим ввода-вывода. По умолчанию используется {@link IoMode#BLOCKING}
+         * @param ioMode режим ввода-вывода
+         * @return текущий объект-строитель
+         */
+        public DispatchControllerBuilder ioMode(final IoMode ioMode) {
+            this.ioMode = Objects.requireNonNull(ioMode);
+            return this;
+        }
+
+        /**
+         * Устанавливает количество потоков ввода-вывода для режима {@link IoMode#EVENT_LOOP}
+         * @param ioThreads количество циклов событий
+         * @return текущий объект-строитель
+         * @see #reusePort(boolean)
+         */
+        public DispatchControllerBuilder ioThreads(final int ioThreads) {
+            if (ioThreads < 1) {
+                throw new IllegalArgumentException("Number of I/O threads must be positive");
+            }
+            this.ioThreads = ioThreads;
+            return this;
+        }
+
+        /**
+         * Разрешает каждому циклу событий режима {@link IoMode#EVENT_LOOP} принимать соединения собственным
+         * каналом, привязанным к порту с параметром {@code SO_REUSEPORT}. Входящие соединения распределяются между
+         * каналами ядром, поэтому прием соединений не ограничен одним потоком, а каждое соединение обслуживается
+         * циклом, который его принял. Если платформа не поддерживает {@code SO_REUSEPORT}, соединения принимает
+         * один из циклов и распределяет их между циклами группы по очереди. По умолчанию выключено
+         * @param reusePort принимает ли каждый цикл событий соединения собственным каналом
+         * @return текущий объект-строитель
+         */
+        public DispatchControllerBuilder reusePort(final boolean reusePort) {
+            this.reusePort = reusePort;
+            return this;
+        }
+
+        /**
+         * Устанавливает выполнение задач виртуальными потоками. Используется по умолчанию
+         * @return текущий объект-строитель
+         */
+        public DispatchControllerBuilder virtualThreads() {
+            this.executorFactory = Executors::newVirtualThreadPerTaskExecutor;
+            this.ownsExecutor = true;
+            return this;
+        }
+
+        /**
+         * Устанавливает выполнение задач пулом платформенных потоков фиксированного размера.
+         * Размер пула ограничивает количество одновременно выполняемых запросов, но не количество соединений:
+         * соединения, ожидающие запросы, потоки пула не занимают
+         * @param workerThreads количество потоков в пуле
+         * @return текущий объект-строитель
+         */
+        public DispatchControllerBuilder workerThreads(final int workerThreads) {
+            if (workerThreads < 1) {
+                throw new IllegalArgumentException("Number of worker threads must be positive");
+            }
+            this.executorFactory = () -> Executors.newFixedThreadPool(workerThreads);
+            this.ownsExecutor = true;
+            return this;
+        }
+
+        /**
+         * Устанавливает исполнитель задач, жизненным циклом которого управляет вызывающая сторона.
+         * Переданный исполнитель не останавливается при остановке главного обработчика
+         * @param executorService исполнитель задач
+         * @return текущий объект-строитель
+         */
+        public DispatchControllerBuilder executor(final ExecutorService executorService) {
+            Objects.requireNonNull(executorService);
+            this.executorFactory = () -> executorService;
+            this.ownsExecutor = false;
+            return this;
+        }
+
+        /**
+         * Устанавливает максимальное количество одновременно выполняемых запросов.
+         * При достижении ограничения новые запросы ожидают завершения выполняемых.
+         * По умолчанию количество запросов не ограничено
+         * @param maxInFlightRequests максимальное количество выполняемых запросов
+         * @return текущий объект-строитель
+         */
+        public DispatchControllerBuilder maxInFlightRequests(final int maxInFlightRequests) {
+            if (maxInFlightRequests < 1) {
+                throw new IllegalArgumentException("Maximum number of in-flight requests must be positive");
+            }
+            this.maxInFlightRequests = maxInFlightRequests;
+            return this;
+        }
+
+        /**
+         * Устанавливает максимальное количество открытых соединений. Сверх ограничения на соединение отправляется
+         * ответ {@code 503 Service Unavailable}, после чего оно закрывается. По умолчанию количество соединений
+         * не ограничено
+         * @param maxConnections максимальное количество соединений
+         * @return текущий объект-строитель
+         */
+        public DispatchControllerBuilder maxConnections(final int maxConnections) {
+            if (maxConnections < 1) {
+                throw new IllegalArgumentException("Maximum number of connections must be positive");
+            }
+            this.maxConnections = maxConnections;
+            return this;
+        }
+
+        /**
+         * Устанавливает максимальное количество запросов, ожидающих выполнения при достижении ограничения
+         * {@link #maxInFlightRequests(int)}. На запросы сверх ограничения отправляется ответ
+         * {@code 503 Service Unavailable}. По умолчанию количество ожидающих запросов не ограничено
+         * @param maxPendingRequests максимальное количество ожидающих запросов
+         * @return текущий объект-строитель
+         */
+        public DispatchControllerBuilder maxPendingRequests(final int maxPendingRequests) {
+            if (maxPendingRequests < 0) {
+                throw new IllegalArgumentException("Maximum number of pending requests must not be negative");
+            }
+            this.maxPendingRequests = maxPendingRequests;
+            return this;
+        }
+
+        /**
+         * Включает отклонение запросов по времени ожидания выполнения (алгоритм CoDel). Если в течение интервала
+         * наблюдения минимальное время от получения запроса до начала его выполнения превышало целевое, на запросы,
+         * ожидавшие дольше удвоенного целевого времени, отправляется ответ {@code 503 Service Unavailable}.
+         * По умолчанию выключено
+         * @param targetQueueDelay целевое время ожидания, например 5 миллисекунд
+         * @param interval интервал наблюдения, например 100 миллисекунд
+         * @return текущий объект-строитель
+         */
+        public DispatchControllerBuilder targetQueueDelay(final Duration targetQueueDelay, final Duration interval) {
+            if (targetQueueDelay.isNegative() || targetQueueDelay.isZero() || interval.isNegative() || interval.isZero()) {
+                throw new IllegalArgumentException("Target queue delay and interval must be positive");
+            }
+            this.targetQueueDelay = targetQueueDelay;
+            this.queueDelayInterval = interval;
+            return this;
+        }
+
+        /**
+         * Устанавливает значение заголовка {@code Retry-After} ответа {@code 503 Service Unavailable}
+         * на отклоненные соединения и запросы. По умолчанию составляет 1 секунду
+         * @param retryAfter время, через которое клиенту следует повторить запрос
+         * @return текущий объект-строитель
+         */
+        public DispatchControllerBuilder retryAfter(final Duration retryAfter) {
+            if (retryAfter.isNegative()) {
+                throw new IllegalArgumentException("Retry-After delay must not be negative");
+            }
+            this.retryAfter = retryAfter;
+            return this;
+        }
+
+        /**
+         * Устанавливает максимальную длину очереди входящих соединений, еще не принятых сервером.
+         * По умолчанию составляет 50
+         * @param backlog длина очереди входящих соединений
+         * @return текущий объект-строитель
+         */
+        public DispatchControllerBuilder backlog(final int backlog) {
+            if (backlog < 1) {
+                throw new IllegalArgumentException("Backlog must be positive");
+            }
+            this.backlog = backlog;
+            return this;
+        }
+
+        /**
+         * Устанавливает время простоя постоянного соединения, по истечении которого оно закрывается.
+         * По умолчанию составляет 60 секунд
+         * @param idleTimeout время простоя соединения
+         * @return текущий объект-строитель
+         */
+        public DispatchControllerBuilder idleTimeout(final Duration idleTimeout) {
+            if (idleTimeout.isNegative() || idleTimeout.isZero()) {
+                throw new IllegalArgumentException("Idle timeout must be positive");
+            }
+            this.idleTimeout = idleTimeout;
+            return this;
+        }
+
+        /**
+         * Устанавливает максимальное количество запросов, выполняемых в одном соединении.
+         * Значение {@code 1} отключает повторное использование соединений. По умолчанию составляет 1000
+         * @param maxRequestsPerConnection максимальное количество запросов в соединении
+         * @return текущий объект-строитель
+         */
+        public DispatchControllerBuilder maxRequestsPerConnection(final int maxRequestsPerConnection) {
+            if (maxRequestsPerConnection < 1) {
+                throw new IllegalArgumentException("Maximum number of requests per connection must be positive");
+            }
+            this.maxRequestsPerConnection = maxRequestsPerConnection;
+            return this;
+        }
+
+        /**
+         * Устанавливает максимальное количество полученных запросов одного соединения, ожидающих ответа,
+         * для режима {@link IoMode#EVENT_LOOP}. При достижении ограничения чтение из соединения
+         * приостанавливается. По умолчанию составляет 16
+         * @param maxPipelinedRequests максимальное количество ожидающих ответа запросов соединения
+         * @return текущий объект-строитель
+         */
+        public DispatchControllerBuilder maxPipelinedRequests(final int maxPipelinedRequests) {
+            if (maxPipelinedRequests < 1) {
+                throw new IllegalArgumentException("Maximum number of pipelined requests must be positive");
+            }
+            this.maxPipelinedRequests = maxPipelinedRequests;
+            return this;
+        }
+
+        /**
+         * Разрешает одновременное выполнение запросов одного соединения для режима {@link IoMode#EVENT_LOOP}.
+         * Ответы в любом случае записываются в порядке получения запросов. По умолчанию запрещено
+         * @param concurrentPipelining допускается ли одновременное выполнение запросов соединения
+         * @return текущий объект-строитель
+         */
+        public DispatchControllerBuilder concurrentPipelining(final boolean concurrentPipelining) {
+            this.concurrentPipelining = concurrentPipelining;
+            return this;
+        }
+
+        /**
+         * Устанавливает максимальный размер тела запроса. На запрос с телом большего размера отправляется ответ
+         * {@code 413 Content Too Large}, после чего соединение закрывается. По умолчанию составляет 10 МиБ
+         * @param maxRequestBodySize максимальный размер тела запроса в байтах
+         * @return текущий объект-строитель
+         */
+        public DispatchControllerBuilder maxRequestBodySize(final int maxRequestBodySize) {
+            if (maxRequestBodySize < 0) {
+                throw new IllegalArgumentException("Maximum request body size must not be negative");
+            }
+            this.maxRequestBodySize = maxRequestBodySize;
+            return this;
+        }
+
+        /**
+         * Устанавливает максимальный размер заголовка запроса - стартовой строки и заголовков. На запрос с заголовком
+         * большего размера отправляется ответ {@code 431 Request Header Fields Too Large}, после чего соединение
+         * закрывается. По умолчанию составляет 16 КиБ
+         * @param maxRequestHeadSize максимальный размер заголовка запроса в байтах
+         * @return текущий объект-строитель
+         */
+        public DispatchControllerBuilder maxRequestHeadSize(final int maxRequestHeadSize) {
+            if (maxRequestHeadSize < 1) {
+                throw new IllegalArgumentException("Maximum request head size must be positive");
+            }
+            this.maxRequestHeadSize = maxRequestHeadSize;
+            return this;
+        }
+
+        /**
+         * Устанавливает максимальное количество заголовков запроса. На запрос с большим количеством заголовков
+         * отправляется ответ {@code 431 Request Header Fields Too Large}, после чего соединение закрывается.
+         * По умолчанию составляет 100
+         * @param maxRequestHeaders максимальное количество заголовков запроса
+         * @return текущий объект-строитель
+         */
+        public DispatchControllerBuilder maxRequestHeaders(final int maxRequestHeaders) {
+            if (maxRequestHeaders < 0) {
+                throw new IllegalArgumentException("Maximum number of request headers must not be negative");
+            }
+            this.maxRequestHeaders = maxRequestHeaders;
+            return this;
+        }
+
+        /**
+         * Устанавливает кеш ответов на GET- и HEAD-запросы. По умолчанию ответы не кешируются
+         * @param responseCache кеш ответов, либо {@code null} для отключения кеширования
+         * @return текущий объект-строитель
+         */
+        public DispatchControllerBuilder responseCache(final ResponseCache responseCache) {
+            this.responseCache = responseCache;
+            return this;
+        }
+
+        /**
+         * Устанавливает максимальное время ожидания ответа на одинаковый запрос, выполняемый обработчиком,
+         * объединяющим запросы. По истечении времени запрос выполняется обработчиком самостоятельно.
+         * По умолчанию составляет 5 секунд
+         * @param coalescingTimeout время ожидания ответа
+         * @return текущий объект-строитель
+         * @see Controller#isCoalescingRequests()
+         */
+        public DispatchControllerBuilder coalescingTimeout(final Duration coalescingTimeout) {
+            if (coalescingTimeout.isNegative()) {
+                throw new IllegalArgumentException("Coalescing timeout must not be negative");
+            }
+            this.coalescingTimeout = coalescingTimeout;
+            return this;
+        }
+
+        /**
+         * Устанавливает сжатие тел ответов обработчиков. По умолчанию ответы не сжимаются
+         * @param responseCompression сжатие ответов, либо {@code null} для отключения сжатия
+         * @return текущий объект-строитель
+         */
+        public DispatchControllerBuilder compression(final ResponseCompression responseCompression) {
+            this.responseCompression = responseCompression;
+            return this;
+        }
+
+        /**
+         * Устанавливает метрики выполнения запросов. По умолчанию метрики не учитываются
+         * @param metrics метрики выполнения запросов, либо {@code null} для отключения учета
+         * @return текущий объект-строитель
+         * @see org.owl.services.yaujrest.metrics.MetricsController
+         */
+        public DispatchControllerBuilder metrics(final ServerMetrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        /**
+         * Устанавливает журнал выполненных запросов, жизненным циклом которого управляет вызывающая сторона.
+         * Журнал не закрывается при остановке главного обработчика. По умолчанию запросы не записываются в журнал
+         * @param accessLog журнал запросов, либо {@code null} для отключения журнала
+         * @return текущий объект-строитель
+         */
+        public DispatchControllerBuilder accessLog(final AccessLog accessLog) {
+            this.accessLog = accessLog;
+            return this;
+        }
+
+        /**
+         * Устанавливает пул буферов чтения запросов и записи заголовков ответов. Один пул может использоваться
+         * несколькими главными обработчиками. По умолчанию главный обработчик создает собственный пул
+         * @param bufferPool пул буферов
+         * @return текущий объект-строитель
+         * @see org.owl.services.yaujrest.metrics.ServerMetrics.ServerMetricsBuilder#bufferPool(BufferPool)
+         */
+        public DispatchControllerBuilder bufferPool(final BufferPool bufferPool) {
+            this.bufferPool = Objects.requireNonNull(bufferPool);
+            return this;
+        }
+
+        /**
+         * Добавляет фильтр, выполняемый вокруг всех обработчиков. Фильтры вызываются перед обработчиком
+         * в порядке добавления
+         * @param filter фильтр
+         * @return текущий объект-строитель
+         * @see Filter
+         */
+        public DispatchControllerBuilder filter(final Filter filter) {
+            return filter(filter, path -> true);
+        }
+
+        /**
+         * Добавляет фильтр, выполняемый вокруг обработчиков, относительные URI которых удовлетворяют условию.
+         * Условие проверяется один раз для каждого обработчика при создании главного обработчика
+         * @param filter фильтр
+         * @param routes условие, которому должен удовлетворять относительный URI (шаблон пути) обработчика,
+         *               например {@code path -> path.startsWith("/admin/")}
+         * @return текущий объект-строитель
+         * @see Filter
+         */
+        public DispatchControllerBuilder filter(final Filter filter, final Predicate<String> routes) {
+            this.filters.add(new FilterRegistration(Objects.requireNonNull(filter), Objects.requireNonNull(routes)));
+            return this;
+        }
+
+        /**
+         * Устанавливает максимальное время ожидания ответа асинхронного обработчика. По истечении времени клиенту
+         * отправляется ответ {@code 504 Gateway Timeout}. По умолчанию составляет 30 секунд
+         * @param asyncTimeout время ожидания ответа
+         * @return текущий объект-строитель
+         * @see AsyncController
+         */
+        public DispatchControllerBuilder asyncTimeout(final Duration asyncTimeout) {
+            if (asyncTimeout.isNegative() || asyncTimeout.isZero()) {
+                throw new IllegalArgumentException("Async timeout must be positive");
+            }
+            this.asyncTimeout = asyncTimeout;
+            return this;
+        }
+
         /**
          * Создает экземпляр главного обработчика
          * @return экземпляр класса {@code DispatchController}
          */
         public DispatchController build() {
-            return new DispatchController(this.controllerContainer, this.port);
+            return new DispatchController(this);
         }
 
     }
 
+    /**
+     * Фильтр и условие выбора обработчиков, вокруг которых он выполняется
+     */
+    private record FilterRegistration(Filter filter, Predicate<String> routes) { }
+
+    private static Filter[] resolveFilters(final List<FilterRegistration> registrations, final Controller controller) {
+        return registrations.stream()
+                .filter(registration -> registration.routes().test(controller.getPath()))
+                .map(FilterRegistration::filter)
+                .toArray(Filter[]::new);
+    }
+
     /**
      * Возвращает объект-строитель главного обработчика
      * @return объект-строитель главного обработчика
@@ -85,6 +627,14 @@ public final class DispatchController {
      */
     public void stop() {
         this.isStopped = true;
+        if (Objects.nonNull(this.eventLoops)) {
+            for (final EventLoop eventLoop : this.eventLoops) {
+                eventLoop.stop();
+            }
+        }
+        if (Objects.nonNull(this.requestExecutor)) {
+            this.requestExecutor.shutdown();
+        }
         log.info("Dispatch controller stopped");
     }
 
@@ -92,33 +642,33 @@ public final class DispatchController {
      * Запускает обработчик входящий запросов
      */
     public void listen() {
+        this.requestExecutor = new RequestExecutor(this.executorFactory.get(), this.ownsExecutor, this.maxInFlightRequests);
+        switch (this.ioMode) {
+            case BLOCKING -> listenBlocking();
+            case EVENT_LOOP -> listenEventLoop();
+        }
+    }
+
+    private void listenBlocking() {
         log.info("Starting new dispatch controller thread");
         new Thread(() -> {
 
-            try (final ServerSocket serverSocket = new ServerSocket(this.port)) {
+            try (final ServerSocket serverSocket = new ServerSocket(this.port, this.backlog)) {
                 log.info("Dispatch controller successfully started");
                 log.info("Listening to messages at port {}", this.port);
-                final HttpMessageParser httpMessageParser = new HttpMessageParser();
                 while (!isStopped) {
                     final Socket socket = serverSocket.accept();
-                    new Thread(() -> {
-                        log.info("Processing http request with InetAddress: {}", socket.getRemoteSocketAddress());
+                    if (!this.admissionControl.tryOpenConnection()) {
+                        rejectConnection(socket);
+                        continue;
+                    }
+                    final SocketConnection connection = new SocketConnection(socket, this, this.requestExecutor,
+                            this.keepAlivePolicy, requestDecoder());
+                    this.connectionThreads.newThread(() -> {
                         try {
-                            final HttpRequest httpRequest = httpMessageParser.parseHttpRequest(socket.getInputStream());
-
-                            final Controller controller = this.controllerContainer.getByPath(httpRequest.uri().getPath());
-                            if (Objects.isNull(controller)) {
-                                socket.close();
-                                throw new IllegalArgumentException("Controller that listen to " + httpRequest.uri().getPath() + " does not found");
-                            }
-
-                            final HttpResponse httpResponse = handleHttpRequest(httpRequest, controller);
-                            socket.getOutputStream().write(httpResponse.serialize());
-                            socket.getOutputStream().close();
-                            socket.close();
-                        } catch (Exception e) {
-                            log.error("Unexpected error while processing request:");
-                            log.error(e.getMessage());
+                            connection.run();
+                        } finally {
+                            this.admissionControl.connectionClosed();
                         }
                     }).start();
                 }
@@ -129,13 +679,332 @@ public final class DispatchController {
         }).start();
     }
 
+    private void listenEventLoop() {
+        log.info("Starting {} dispatch controller event loop threads", this.ioThreads);
+        try {
+            this.eventLoops = new EventLoop[this.ioThreads];
+            for (int i = 0; i < this.ioThreads; i++) {
+                this.eventLoops[i] = new EventLoop(this, this.requestExecutor, this.keepAlivePolicy, this.pipelinePolicy);
+            }
+
+            final ServerSocketChannel serverChannel = ServerSocketChannel.open();
+            if (this.reusePort && this.ioThreads > 1
+                    && serverChannel.supportedOptions().contains(StandardSocketOptions.SO_REUSEPORT)) {
+                log.info("Accepting connections on every event loop with SO_REUSEPORT");
+                this.eventLoops[0].accept(bind(serverChannel, true), new EventLoop[] {this.eventLoops[0]});
+                for (int i = 1; i < this.ioThreads; i++) {
+                    this.eventLoops[i].accept(bind(ServerSocketChannel.open(), true), new EventLoop[] {this.eventLoops[i]});
+                }
+            } else {
+                if (this.reusePort && this.ioThreads > 1) {
+                    log.info("SO_REUSEPORT is not supported, connections are accepted by a single event loop");
+                }
+                this.eventLoops[0].accept(bind(serverChannel, false), this.eventLoops);
+            }
+
+            for (int i = 0; i < this.ioThreads; i++) {
+                new Thread(this.eventLoops[i], "dispatch-event-loop-" + i).start();
+            }
+        } catch (IOException e) {
+            throw new DispatchControllerStartUpException("Error while starting dispatch controller", e);
+        }
+
+        log.info("Dispatch controller successfully started");
+        log.info("Listening to messages at port {}", this.port);
+    }
+
+    private ServerSocketChannel bind(final ServerSocketChannel serverChannel, final boolean reusePort) throws IOException {
+        try {
+            if (reusePort) {
+                serverChannel.setOption(StandardSocketOptions.SO_REUSEPORT, true);
+            }
+            serverChannel.bind(new InetSocketAddress(this.port), this.backlog);
+            serverChannel.configureBlocking(false);
+            return serverChannel;
+        } catch (IOException e) {
+            serverChannel.close();
+            throw e;
+        }
+    }
+
+    private void rejectConnection(final Socket socket) {
+        log.debug("Rejecting connection with InetAddress: {}", socket.getRemoteSocketAddress());
+        try (socket) {
+            socket.getOutputStream().write(this.admissionControl.serviceUnavailable());
+        } catch (IOException e) {
+            log.debug("Unable to reject connection: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Возвращает контроль допуска соединений и запросов
+     * @return контроль допуска
+     */
+    AdmissionControl admissionControl() {
+        return this.admissionControl;
+    }
+
+    /**
+     * Возвращает метрики выполнения запросов
+     * @return метрики, либо {@code null}, если метрики не учитываются
+     */
+    ServerMetrics metrics() {
+        return this.metrics;
+    }
+
+    /**
+     * Возвращает пул буферов чтения запросов и записи заголовков ответов
+     * @return пул буферов
+     */
+    BufferPool bufferPool() {
+        return this.bufferPool;
+    }
+
+    /**
+     * Проверяет, остановлен ли главный обработчик
+     * @return {@code true}, если главный обработчик остановлен
+     */
+    boolean isStopped() {
+        return this.isStopped;
+    }
+
+    /**
+     * Создает анализатор запросов соединения с установленными ограничениями размеров запроса
+     * @return анализатор HTTP-запросов
+     */
+    HttpMessageDecoder requestDecoder() {
+        return HttpMessageDecoder.forRequests(this.maxRequestBodySize, this.maxRequestHeadSize, this.maxRequestHeaders);
+    }
+
+    /**
+     * Проверяет, получают ли обработчики тело запросов потоком
+     * @return {@code true}, если хотя бы один обработчик получает тело запросов потоком
+     */
+    boolean hasStreamingControllers() {
+        return this.controllerContainer.hasStreamingControllers();
+    }
+
+    /**
+     * Проверяет, получает ли обработчик, "прослушивающий" URI запроса, тело запроса потоком
+     * @param httpRequest заголовок HTTP-запроса
+     * @return {@code true}, если тело запроса должно передаваться обработчику потоком
+     */
+    boolean isStreamingRequestBody(final HttpRequest httpRequest) {
+        final Controller controller = this.controllerContainer.getByPath(httpRequest.path());
+        return Objects.nonNull(controller) && controller.isStreamingRequestBody();
+    }
+
+    /**
+     * Выполняет HTTP-запрос обработчиком, "прослушивающим" URI запроса, и ожидает ответ асинхронного обработчика
+     * @param httpRequest HTTP-запрос
+     * @return результат выполнения запроса
+     * @see #processAsync(HttpRequest)
+     */
+    HttpResponse process(final HttpRequest httpRequest) {
+        return processAsync(httpRequest).join();
+    }
+
+    /**
+     * Выполняет HTTP-запрос обработчиком, "прослушивающим" URI запроса.
+     * <p>
+     * При отсутствии подходящего обработчика возвращается ответ {@code 404 Not Found}, а на запрос с методом,
+     * который обработчик не поддерживает, - ответ {@code 405 Method Not Allowed} с заголовком {@code Allow}.
+     * OPTIONS-запрос к обработчику, не переопределяющему {@link Controller#doOptions(HttpRequest)},
+     * выполняется без вызова обработчика. GET- и HEAD-запросы при наличии кеша ответов выполняются через него,
+     * а одновременные одинаковые запросы к обработчику, объединяющему запросы, выполняются им один раз.
+     * Вокруг выполнения запроса вызываются фильтры {@link Filter}, назначенные обработчику. Тела ответов
+     * обработчиков сжимаются, если задано сжатие ответов. Если заданы метрики или журнал запросов, в них учитывается
+     * выполненный запрос.
+     * <p>
+     * Синхронный обработчик выполняется в вызывающем потоке, и возвращается завершенный результат. Результат
+     * асинхронного обработчика завершается ответом {@code 504 Gateway Timeout}, если ответ не получен за
+     * установленное время, и ответом {@code 500 Internal Server Error} с заголовком {@code Connection: close},
+     * если обработчик выбросил исключение, вернул {@code null} вместо результата либо результат завершился
+     * ошибкой или значением {@code null}
+     * @param httpRequest HTTP-запрос
+     * @return результат выполнения запроса
+     */
+    CompletableFuture<HttpResponse> processAsync(final HttpRequest httpRequest) {
+        final long start = Objects.isNull(this.metrics) && Objects.isNull(this.accessLog) ? 0 : System.nanoTime();
+        final String path = httpRequest.path();
+        if (httpRequest.method() == Method.OPTIONS && "*".equals(path)) {
+            return CompletableFuture.completedFuture(record(null, httpRequest, SERVER_OPTIONS, start));
+        }
+
+        final ControllerContainer.Route route = this.controllerContainer.match(path);
+        if (Objects.isNull(route)) {
+            return CompletableFuture.completedFuture(record(null, httpRequest, NOT_FOUND, start));
+        }
+        if (route.controller() instanceof AsyncController asyncController) {
+            return processAsync(httpRequest, route, asyncController)
+                    .thenApply(httpResponse -> record(asyncController, httpRequest, httpResponse, start));
+        }
+        return CompletableFuture.completedFuture(record(route.controller(), httpRequest, process(httpRequest, route), start));
+    }
+
+    private HttpResponse process(final HttpRequest httpRequest, final ControllerContainer.Route route) {
+        final HttpRequest request = route.pathVariables().isEmpty()
+                ? httpRequest : httpRequest.withPathVariables(route.pathVariables());
+        final Filter[] filters = route.filters();
+        final long filtersStart = filters.length == 0 ? 0 : System.nanoTime();
+        HttpResponse httpResponse = null;
+        int passed = 0;
+        while (passed < filters.length && Objects.isNull(httpResponse = filters[passed].before(request))) {
+            passed++;
+        }
+
+        if (Objects.isNull(httpResponse)) {
+            httpResponse = preflight(request, route.allowedMethods());
+        }
+        if (Objects.isNull(httpResponse)) {
+            if (Objects.nonNull(this.responseCache) && (request.method() == Method.GET || request.method() == Method.HEAD)) {
+                httpResponse = this.responseCache.process(request, () -> invoke(request, route.controller()));
+            } else {
+                httpResponse = invoke(request, route.controller());
+            }
+        }
+        return complete(request, filters, passed, httpResponse, filtersStart);
+    }
+
+    private CompletableFuture<HttpResponse> processAsync(final HttpRequest httpRequest, final ControllerContainer.Route route,
+                                                         final AsyncController controller) {
+        final HttpRequest request = route.pathVariables().isEmpty()
+                ? httpRequest : httpRequest.withPathVariables(route.pathVariables());
+        final Filter[] filters = route.filters();
+        final long filtersStart = filters.length == 0 ? 0 : System.nanoTime();
+        HttpResponse httpResponse = null;
+        int passed = 0;
+        while (passed < filters.length && Objects.isNull(httpResponse = filters[passed].before(request))) {
+            passed++;
+        }
+
+        if (Objects.isNull(httpResponse)) {
+            httpResponse = preflight(request, route.allowedMethods());
+        }
+        if (Objects.nonNull(httpResponse)) {
+            return CompletableFuture.completedFuture(complete(request, filters, passed, httpResponse, filtersStart));
+        }
+
+        final int invoked = passed;
+        return handleHttpRequestAsync(request, controller)
+                .copy()
+                .orTimeout(this.asyncTimeoutNanos, TimeUnit.NANOSECONDS)
+                .handle((response, failure) -> {
+                    if (Objects.isNull(failure) && Objects.nonNull(response)) {
+                        return complete(request, filters, invoked, response, filtersStart);
+                    }
+                    if (Objects.isNull(failure)) {
+                        log.error("Asynchronous controller {} completed without response", controller.getPath());
+                        return complete(request, filters, invoked, INTERNAL_SERVER_ERROR, filtersStart);
+                    }
+                    final Throwable cause = failure instanceof CompletionException && Objects.nonNull(failure.getCause())
+                            ? failure.getCause() : failure;
+                    if (cause instanceof TimeoutException) {
+                        log.debug("Asynchronous controller {} timed out", controller.getPath());
+                        return complete(request, filters, invoked, GATEWAY_TIMEOUT, filtersStart);
+                    }
+                    log.error("Asynchronous controller {} failed: {}", controller.getPath(), cause.getMessage());
+                    return complete(request, filters, invoked, INTERNAL_SERVER_ERROR, filtersStart);
+                });
+    }
+
+    /**
+     * Вызывает метод {@link Filter#after(HttpRequest, HttpResponse, long)} фильтров, пропустивших запрос,
+     * в обратном порядке и сжимает тело полученного ответа
+     * @param passed количество фильтров, пропустивших запрос
+     */
+    private HttpResponse complete(final HttpRequest httpRequest, final Filter[] filters, final int passed,
+                                  final HttpResponse httpResponse, final long filtersStart) {
+        HttpResponse response = httpResponse;
+        for (int i = passed - 1; i >= 0; i--) {
+            response = filters[i].after(httpRequest, response, filtersStart);
+        }
+        return Objects.isNull(this.responseCompression) ? response : this.responseCompression.compress(httpRequest, response);
+    }
+
+    /**
+     * Возвращает ответ на запрос, который выполняется без вызова обработчика
+     * @return ответ {@code 405 Method Not Allowed} либо ответ на OPTIONS-запрос, или {@code null},
+     * если запрос выполняется обработчиком
+     */
+    private static HttpResponse preflight(final HttpRequest httpRequest, final AllowedMethods allowedMethods) {
+        if (!allowedMethods.contains(httpRequest.method())) {
+            return new HttpResponse(HTTP_1_1, 405, "Method Not Allowed", Map.of(ALLOW, allowedMethods.header()), null);
+        }
+        if (httpRequest.method() == Method.OPTIONS && !allowedMethods.isOptionsImplemented()) {
+            return new HttpResponse(HTTP_1_1, 204, "No Content", Map.of(ALLOW, allowedMethods.header()), null);
+        }
+        return null;
+    }
+
+    private HttpResponse record(final Controller controller, final HttpRequest httpRequest, final HttpResponse httpResponse,
+                                final long start) {
+        if (Objects.isNull(this.metrics) && Objects.isNull(this.accessLog)) {
+            return httpResponse;
+        }
+        final long duration = System.nanoTime() - start;
+        final long sentBytes = Objects.nonNull(httpResponse.body()) ? httpResponse.body().length
+                : Objects.nonNull(httpResponse.content()) ? Math.max(httpResponse.content().length(), 0) : 0;
+        if (Objects.nonNull(this.metrics)) {
+            final long receivedBytes;
+            if (httpRequest.isBodyStreamed()) {
+                // Поля Content-Length с одинаковыми значениями объединяются в список, например "5, 5"
+                final String contentLength = httpRequest.headers().get(HttpHeaders.CONTENT_LENGTH);
+                receivedBytes = Objects.isNull(contentLength) ? 0
+                        : Long.parseLong(contentLength.split(",", 2)[0].strip());
+            } else {
+                receivedBytes = Objects.isNull(httpRequest.body()) ? 0 : httpRequest.body().length;
+            }
+            this.metrics.recordRequest(Objects.isNull(controller) ? null : controller.getPath(), httpResponse.statusCode(),
+                    receivedBytes, sentBytes, duration);
+        }
+        if (Objects.nonNull(this.accessLog)) {
+            this.accessLog.record(httpRequest.method(), httpRequest.path(), httpResponse.statusCode(), sentBytes, duration);
+        }
+        return httpResponse;
+    }
+
+    private HttpResponse invoke(final HttpRequest httpRequest, final Controller controller) {
+        if (controller.isCoalescingRequests()) {
+            return this.requestCoalescer.process(httpRequest, () -> handleHttpRequest(httpRequest, controller));
+        }
+        return handleHttpRequest(httpRequest, controller);
+    }
+
     private HttpResponse handleHttpRequest(final HttpRequest httpRequest, final Controller controller) {
         return switch (httpRequest.method()) {
             case Method.GET -> controller.doGet(httpRequest);
             case Method.POST -> controller.doPost(httpRequest);
             case Method.PUT -> controller.doPut(httpRequest);
             case Method.DELETE -> controller.doDelete(httpRequest);
+            case Method.PATCH -> controller.doPatch(httpRequest);
+            case Method.HEAD -> controller.doHead(httpRequest);
+            case Method.OPTIONS -> controller.doOptions(httpRequest);
         };
     }
 
+    /**
+     * Вызывает асинхронный обработчик. Исключение, выброшенное обработчиком до возврата результата,
+     * и возвращенный {@code null} представляются результатом, завершенным ошибкой
+     */
+    private static CompletableFuture<HttpResponse> handleHttpRequestAsync(final HttpRequest httpRequest,
+                                                                          final AsyncController controller) {
+        final CompletableFuture<HttpResponse> future;
+        try {
+            future = switch (httpRequest.method()) {
+                case Method.GET -> controller.doGetAsync(httpRequest);
+                case Method.POST -> controller.doPostAsync(httpRequest);
+                case Method.PUT -> controller.doPutAsync(httpRequest);
+                case Method.DELETE -> controller.doDeleteAsync(httpRequest);
+                case Method.PATCH -> controller.doPatchAsync(httpRequest);
+                case Method.HEAD -> controller.doHeadAsync(httpRequest);
+                case Method.OPTIONS -> controller.doOptionsAsync(httpRequest);
+            };
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return Objects.nonNull(future) ? future
+                : CompletableFuture.failedFuture(new IllegalStateException("Asynchronous controller returned null"));
+    }
+
 }
@@ -0,0 +1,64 @@
+package org.owl.services.yaujrest;
+
+import org.owl.services.yaujrest.http.HttpResponse;
+import org.owl.services.yaujrest.http.Version;
+import org.owl.services.yaujrest.http.parser.HttpHeadersTooLargeException;
+import org.owl.services.yaujrest.http.parser.HttpMessageParseException;
+import org.owl.services.yaujrest.http.parser.HttpMessageTooLargeException;
+import org.owl.services.yaujrest.http.parser.HttpMethodNotImplementedException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Заранее сериализованные ответы на запросы, которые не удалось разобрать либо выполнить.
+ * <p>
+ * После ответа на запрос, который не удалось разобрать, границы следующего запроса в соединении неизвестны,
+ * а после исключения обработчика состояние соединения не гарантируется, поэтому ответы
+ * содержат заголовок {@code Connection: close} и соединение закрывается после их отправки
+ */
+final class ErrorResponses {
+
+    private static final byte[] BAD_REQUEST = serialize(400, "Bad Request");
+
+    private static final byte[] CONTENT_TOO_LARGE = serialize(413, "Content Too Large");
+
+    private static final byte[] HEADER_FIELDS_TOO_LARGE = serialize(431, "Request Header Fields Too Large");
+
+    private static final byte[] INTERNAL_SERVER_ERROR = serialize(500, "Internal Server Error");
+
+    private static final byte[] NOT_IMPLEMENTED = serialize(501, "Not Implemented");
+
+    private ErrorResponses() { }
+
+    /**
+     * Возвращает сериализованный ответ на запрос, разбор которого завершился ошибкой
+     * @param exception ошибка разбора запроса
+     * @return ответ {@code 413 Content Too Large} в случае превышения размера тела,
+     * {@code 431 Request Header Fields Too Large} в случае превышения размера заголовка либо количества заголовков,
+     * {@code 501 Not Implemented} в случае неизвестного метода запроса, иначе {@code 400 Bad Request}
+     */
+    static byte[] forParseError(final HttpMessageParseException exception) {
+        return switch (exception) {
+            case HttpMessageTooLargeException e -> CONTENT_TOO_LARGE;
+            case HttpHeadersTooLargeException e -> HEADER_FIELDS_TOO_LARGE;
+            case HttpMethodNotImplementedException e -> NOT_IMPLEMENTED;
+            default -> BAD_REQUEST;
+        };
+    }
+
+    /**
+     * Возвращает сериализованный ответ на запрос, выполнение которого обработчиком завершилось исключением
+     * @return ответ {@code 500 Internal Server Error}
+     */
+    static byte[] forControllerError() {
+        return INTERNAL_SERVER_ERROR;
+    }
+
+    private static byte[] serialize(final int statusCode, final String reason) {
+        final Map<String, String> headers = new LinkedHashMap<>();
+        headers.put("Content-Length", "0");
+        headers.put("Connection", "close");
+        return new HttpResponse(new Version(1, 1), statusCode, reason, headers, null).serialize();
+    }
+
+}
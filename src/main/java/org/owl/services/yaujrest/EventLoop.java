@@ -0,0 +1,458 @@
+package org.owl.services.yaujrest;
+
+import org.owl.services.yaujrest.buffer.BufferPool;
+import org.owl.services.yaujrest.http.HttpRequest;
+import org.owl.services.yaujrest.http.HttpResponse;
+import org.owl.services.yaujrest.http.Method;
+import org.owl.services.yaujrest.http.ResponseBody;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.IOException;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Цикл событий, мультиплексирующий неблокирующие соединения на одном потоке ввода-вывода.
+ * <p>
+ * Цикл событий считывает и анализирует HTTP-запросы, передает их на выполнение исполнителю
+ * и записывает полученные HTTP-ответы. Один из циклов группы дополнительно принимает входящие соединения
+ * и распределяет их между циклами группы по очереди, либо, если порт привязан с параметром {@code SO_REUSEPORT},
+ * каждый цикл принимает соединения собственным каналом и обслуживает их сам. Соединение обслуживается
+ * одним циклом в течение всего времени жизни.
+ * <p>
+ * Если ограничение количества выполняемых запросов достигнуто, запрос откладывается
+ * до освобождения разрешения, а чтение из соединения не возобновляется. Разрешение асинхронного обработчика
+ * удерживается до получения ответа, а поток исполнителя освобождается сразу после вызова обработчика.
+ * Постоянные соединения, простаивающие дольше установленного времени, закрываются.
+ */
+final class EventLoop implements Runnable {
+
+    private static final Logger log = LoggerFactory.getLogger(EventLoop.class);
+
+    private static final long PENDING_RETRY_MILLIS = 10;
+
+    /**
+     * Максимальное количество соединений, принимаемых за одно пробуждение цикла, чтобы при лавине
+     * входящих соединений обслуживание уже принятых соединений не откладывалось надолго
+     */
+    private static final int MAX_ACCEPTS_PER_WAKEUP = 64;
+
+    private final DispatchController dispatchController;
+
+    private final RequestExecutor requestExecutor;
+
+    private final KeepAlivePolicy keepAlivePolicy;
+
+    private final PipelinePolicy pipelinePolicy;
+
+    private final AdmissionControl admissionControl;
+
+    private final Selector selector;
+
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+
+    private final Queue<PendingRequest> pendingRequests = new ArrayDeque<>();
+
+    private EventLoop[] group;
+
+    private int nextInGroup;
+
+    private long lastIdleCheckMillis = System.currentTimeMillis();
+
+    private volatile boolean isStopped = false;
+
+    private record PendingRequest(ChannelConnection connection, HttpRequest httpRequest, int requestNumber, long receivedAt) { }
+
+    EventLoop(final DispatchController dispatchController, final RequestExecutor requestExecutor,
+              final KeepAlivePolicy keepAlivePolicy, final PipelinePolicy pipelinePolicy) throws IOException {
+        this.dispatchController = dispatchController;
+        this.requestExecutor = requestExecutor;
+        this.keepAlivePolicy = keepAlivePolicy;
+        this.pipelinePolicy = pipelinePolicy;
+        this.admissionControl = dispatchController.admissionControl();
+        this.selector = Selector.open();
+    }
+
+    /**
+     * Начинает прием входящих соединений и их распределение между циклами группы
+     * @param serverChannel канал принимающий входящие соединения
+     * @param group группа циклов событий
+     */
+    void accept(final ServerSocketChannel serverChannel, final EventLoop[] group) {
+        this.group = group;
+        execute(() -> {
+            try {
+                serverChannel.register(this.selector, SelectionKey.OP_ACCEPT);
+            } catch (ClosedChannelException e) {
+                log.error("Unable to accept connections: server channel is closed");
+            }
+        });
+    }
+
+    /**
+     * Регистрирует принятое соединение в данном цикле событий
+     * @param channel канал соединения
+     */
+    void register(final SocketChannel channel) {
+        execute(() -> registerConnection(channel));
+    }
+
+    private void registerConnection(final SocketChannel channel) {
+        try {
+            final SelectionKey selectionKey = channel.register(this.selector, SelectionKey.OP_READ);
+            selectionKey.attach(new ChannelConnection(this, this.dispatchController, channel, selectionKey, this.pipelinePolicy,
+                    this.dispatchController.requestDecoder()));
+        } catch (ClosedChannelException e) {
+            this.admissionControl.connectionClosed();
+            log.error("Unable to register connection: channel is closed");
+        }
+    }
+
+    /**
+     * Выполняет задачу в потоке данного цикла событий
+     * @param task задача
+     */
+    void execute(final Runnable task) {
+        this.tasks.add(task);
+        this.selector.wakeup();
+    }
+
+    /**
+     * Передает HTTP-запрос на выполнение исполнителю, либо откладывает его,
+     * если ограничение количества выполняемых запросов достигнуто. Если достигнуто и ограничение количества
+     * отложенных запросов, либо запрос ожидал выполнения слишком долго, на него отправляется ответ
+     * {@code 503 Service Unavailable}, и соединение закрывается.
+     * Полученный HTTP-ответ передается соединению в потоке данного цикла событий
+     * @param connection соединение, из которого получен запрос
+     * @param httpRequest HTTP-запрос
+     * @param requestNumber порядковый номер запроса в соединении
+     */
+    void dispatch(final ChannelConnection connection, final HttpRequest httpRequest, final int requestNumber) {
+        final long receivedAt = System.nanoTime();
+        if (!this.pendingRequests.isEmpty() || !this.requestExecutor.tryAcquire()) {
+            if (!this.admissionControl.tryEnqueue()) {
+                reject(connection, requestNumber);
+                return;
+            }
+            this.pendingRequests.add(new PendingRequest(connection, httpRequest, requestNumber, receivedAt));
+            return;
+        }
+
+        submit(connection, httpRequest, requestNumber, receivedAt);
+    }
+
+    private void submit(final ChannelConnection connection, final HttpRequest httpRequest, final int requestNumber,
+                        final long receivedAt) {
+        try {
+            this.requestExecutor.execute(() -> {
+                boolean released = true;
+                try {
+                    if (this.admissionControl.isOverloaded(System.nanoTime() - receivedAt)) {
+                        reject(connection, requestNumber);
+                        return;
+                    }
+
+                    final CompletableFuture<HttpResponse> future = this.dispatchController.processAsync(httpRequest);
+                    if (!future.isDone()) {
+                        released = false;
+                        future.whenComplete((httpResponse, failure) -> resume(connection, httpRequest, requestNumber,
+                                httpResponse, failure));
+                        return;
+                    }
+                    respond(connection, httpRequest, requestNumber, future.join());
+                } catch (Exception e) {
+                    log.error("Unexpected error while processing request: {}", e.getMessage());
+                    fail(connection, requestNumber);
+                } finally {
+                    if (released) {
+                        this.requestExecutor.release();
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            this.requestExecutor.release();
+            connection.close();
+        }
+    }
+
+    /**
+     * Записывает ответ асинхронного обработчика задачей исполнителя, чтобы сериализация ответа
+     * не выполнялась в потоке, завершившем {@link CompletableFuture}
+     */
+    private void resume(final ChannelConnection connection, final HttpRequest httpRequest, final int requestNumber,
+                        final HttpResponse httpResponse, final Throwable failure) {
+        try {
+            this.requestExecutor.execute(() -> {
+                try {
+                    if (Objects.nonNull(failure)) {
+                        log.error("Unexpected error while processing request: {}", failure.getMessage());
+                        fail(connection, requestNumber);
+                        return;
+                    }
+                    respond(connection, httpRequest, requestNumber, httpResponse);
+                } catch (Exception e) {
+                    log.error("Unexpected error while processing request: {}", e.getMessage());
+                    fail(connection, requestNumber);
+                } finally {
+                    this.requestExecutor.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            this.requestExecutor.release();
+            execute(connection::close);
+        }
+    }
+
+    /**
+     * Сериализует ответ и передает его соединению в потоке данного цикла событий. Тело ответа, формируемое
+     * по частям, формируется в вызывающем потоке
+     */
+    private void respond(final ChannelConnection connection, final HttpRequest httpRequest, final int requestNumber,
+                         final HttpResponse httpResponse) {
+        final boolean keepAlive = !this.isStopped
+                && this.keepAlivePolicy.isKeepAlive(httpRequest, httpResponse, requestNumber);
+        final BufferPool pool = this.dispatchController.bufferPool();
+        final ByteBuffer head = this.keepAlivePolicy.serializeHead(httpRequest, httpResponse, keepAlive, pool);
+        if (httpRequest.method() == Method.HEAD) {
+            OutboundResponse.discard(httpResponse.content());
+            final OutboundResponse response = OutboundResponse.of(head, pool);
+            execute(() -> complete(connection, requestNumber, response, keepAlive));
+            return;
+        }
+        if (Objects.isNull(httpResponse.content())) {
+            final OutboundResponse response = OutboundResponse.of(head, pool, httpResponse.body());
+            execute(() -> complete(connection, requestNumber, response, keepAlive));
+            return;
+        }
+
+        if (!(httpResponse.content() instanceof ResponseBody.Chunked(ResponseBody.ChunkProducer producer))) {
+            final OutboundResponse response = OutboundResponse.of(head, pool, httpResponse.content());
+            execute(() -> complete(connection, requestNumber, response, keepAlive));
+            return;
+        }
+
+        final ChunkedResponseBody chunks = new ChunkedResponseBody(
+                this.keepAlivePolicy.isChunkedEncoding(httpRequest, httpResponse),
+                () -> execute(() -> resumeWriting(connection)));
+        final OutboundResponse response = OutboundResponse.of(head, pool, chunks);
+        execute(() -> complete(connection, requestNumber, response, keepAlive));
+        try {
+            producer.produce(chunks);
+            chunks.finish();
+        } catch (Exception e) {
+            log.error("Unable to produce response body: {}", e.getMessage());
+            chunks.fail();
+        }
+    }
+
+    private void dispatchPending() {
+        while (!this.pendingRequests.isEmpty() && this.requestExecutor.tryAcquire()) {
+            final PendingRequest pendingRequest = this.pendingRequests.poll();
+            this.admissionControl.dequeued();
+            if (pendingRequest.connection().isOpen()) {
+                submit(pendingRequest.connection(), pendingRequest.httpRequest(), pendingRequest.requestNumber(),
+                        pendingRequest.receivedAt());
+            } else {
+                this.requestExecutor.release();
+            }
+        }
+    }
+
+    /**
+     * Отправляет на запрос ответ {@code 503 Service Unavailable} и закрывает соединение после его записи
+     */
+    private void reject(final ChannelConnection connection, final int requestNumber) {
+        log.debug("Rejecting request of overloaded dispatch controller");
+        final OutboundResponse response = OutboundResponse.of(this.admissionControl.serviceUnavailable());
+        execute(() -> complete(connection, requestNumber, response, false));
+    }
+
+    /**
+     * Отправляет на запрос, выполнение которого завершилось исключением, ответ {@code 500 Internal Server Error}
+     * и закрывает соединение после его записи
+     */
+    private void fail(final ChannelConnection connection, final int requestNumber) {
+        final OutboundResponse response = OutboundResponse.of(ErrorResponses.forControllerError());
+        execute(() -> complete(connection, requestNumber, response, false));
+    }
+
+    /**
+     * Останавливает цикл событий и закрывает все его соединения
+     */
+    void stop() {
+        this.isStopped = true;
+        this.selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (!this.isStopped) {
+                this.selector.select(this.pendingRequests.isEmpty() ? idleCheckIntervalMillis() : PENDING_RETRY_MILLIS);
+                runTasks();
+                dispatchPending();
+                closeIdleConnections();
+
+                final Iterator<SelectionKey> iterator = this.selector.selectedKeys().iterator();
+                while (iterator.hasNext()) {
+                    final SelectionKey selectionKey = iterator.next();
+                    iterator.remove();
+                    handle(selectionKey);
+                }
+            }
+        } catch (IOException e) {
+            log.error("Event loop terminated unexpectedly: {}", e.getMessage());
+        } finally {
+            closeAll();
+        }
+    }
+
+    private void handle(final SelectionKey selectionKey) {
+        if (!selectionKey.isValid()) {
+            return;
+        }
+
+        if (selectionKey.isAcceptable()) {
+            acceptConnection((ServerSocketChannel) selectionKey.channel());
+            return;
+        }
+
+        final ChannelConnection connection = (ChannelConnection) selectionKey.attachment();
+        try {
+            if (selectionKey.isReadable()) {
+                connection.onReadable();
+            } else if (selectionKey.isWritable()) {
+                connection.onWritable();
+            }
+        } catch (Exception e) {
+            log.error("Unexpected error while processing request: {}", e.getMessage());
+            connection.close();
+        }
+    }
+
+    private void acceptConnection(final ServerSocketChannel serverChannel) {
+        for (int accepted = 0; accepted < MAX_ACCEPTS_PER_WAKEUP; accepted++) {
+            try {
+                final SocketChannel channel = serverChannel.accept();
+                if (channel == null) {
+                    return;
+                }
+
+                if (!this.admissionControl.tryOpenConnection()) {
+                    rejectConnection(channel);
+                    continue;
+                }
+
+                if (log.isDebugEnabled()) {
+                    log.debug("Accepted connection from {}", channel.getRemoteAddress());
+                }
+                channel.configureBlocking(false);
+                // Ответ записывается целиком сразу после выполнения запроса: алгоритм Нейгла задержал бы его последний
+                // сегмент до подтверждения клиентом предыдущего, которое клиент откладывает (delayed ACK)
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                final EventLoop eventLoop = this.group[this.nextInGroup];
+                this.nextInGroup = (this.nextInGroup + 1) % this.group.length;
+                if (eventLoop == this) {
+                    registerConnection(channel);
+                } else {
+                    eventLoop.register(channel);
+                }
+            } catch (IOException e) {
+                log.error("Unable to accept connection: {}", e.getMessage());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Отправляет на соединение сверх ограничения ответ {@code 503 Service Unavailable} и закрывает его.
+     * Ответ записывается без ожидания готовности канала и может быть не отправлен
+     */
+    private void rejectConnection(final SocketChannel channel) {
+        try (channel) {
+            log.debug("Rejecting connection with InetAddress: {}", channel.getRemoteAddress());
+            channel.configureBlocking(false);
+            channel.write(ByteBuffer.wrap(this.admissionControl.serviceUnavailable()));
+        } catch (IOException e) {
+            log.debug("Unable to reject connection: {}", e.getMessage());
+        }
+    }
+
+    private void complete(final ChannelConnection connection, final int requestNumber, final OutboundResponse response,
+                          final boolean keepAlive) {
+        try {
+            connection.complete(requestNumber, response, keepAlive);
+        } catch (IOException e) {
+            log.error("Unable to write response: {}", e.getMessage());
+            connection.close();
+        }
+    }
+
+    private void resumeWriting(final ChannelConnection connection) {
+        try {
+            connection.onResponseAvailable();
+        } catch (IOException e) {
+            log.error("Unable to write response: {}", e.getMessage());
+            connection.close();
+        }
+    }
+
+    private long idleCheckIntervalMillis() {
+        return Math.max(1, this.keepAlivePolicy.idleTimeoutMillis() / 2);
+    }
+
+    private void closeIdleConnections() {
+        final long now = System.currentTimeMillis();
+        if (now - this.lastIdleCheckMillis < idleCheckIntervalMillis()) {
+            return;
+        }
+        this.lastIdleCheckMillis = now;
+
+        final long threshold = now - this.keepAlivePolicy.idleTimeoutMillis();
+        for (final SelectionKey selectionKey : this.selector.keys()) {
+            if (selectionKey.attachment() instanceof ChannelConnection connection && connection.isIdleSince(threshold)) {
+                connection.close();
+            }
+        }
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = this.tasks.poll()) != null) {
+            task.run();
+        }
+    }
+
+    private void closeAll() {
+        for (final SelectionKey selectionKey : this.selector.keys()) {
+            if (selectionKey.attachment() instanceof ChannelConnection connection) {
+                connection.close();
+                continue;
+            }
+            try {
+                selectionKey.channel().close();
+            } catch (IOException ignored) {
+                // Канал уже закрыт
+            }
+        }
+
+        try {
+            this.selector.close();
+        } catch (IOException e) {
+            log.error("Unable to close selector: {}", e.getMessage());
+        }
+    }
+
+}
@@ -0,0 +1,18 @@
+package org.owl.services.yaujrest;
+
+/**
+ * Перечисление режимов ввода-вывода главного обработчика
+ */
+public enum IoMode {
+
+    /**
+     * Блокирующий режим: каждое соединение обслуживается в отдельном потоке
+     */
+    BLOCKING,
+
+    /**
+     * Неблокирующий режим: соединения мультиплексируются несколькими потоками ввода-вывода
+     * на основе {@link java.nio.channels.Selector}, а запросы выполняются в пуле обработчиков
+     */
+    EVENT_LOOP
+}
@@ -0,0 +1,163 @@
+package org.owl.services.yaujrest;
+
+import org.owl.services.yaujrest.buffer.BufferPool;
+import org.owl.services.yaujrest.http.HttpHeaders;
+import org.owl.services.yaujrest.http.HttpRequest;
+import org.owl.services.yaujrest.http.HttpResponse;
+import org.owl.services.yaujrest.http.HttpResponseEncoder;
+import org.owl.services.yaujrest.http.Method;
+import org.owl.services.yaujrest.http.ResponseBody;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Правила повторного использования соединений (HTTP keep-alive).
+ * <p>
+ * Соединения HTTP/1.1 считаются постоянными, если клиент или обработчик не передал {@code Connection: close}.
+ * Соединения HTTP/1.0 считаются постоянными только при наличии {@code Connection: keep-alive}.
+ * Количество запросов в одном соединении и время его простоя ограничиваются. Соединение, тело запроса
+ * которого передавалось потоком и не было получено полностью, закрывается после записи ответа.
+ * <p>
+ * Тело ответа, формируемое по частям, передается клиентам HTTP/1.1 с кодированием {@code Transfer-Encoding: chunked},
+ * а клиентам HTTP/1.0 - без кодирования с закрытием соединения после ответа.
+ * В ответе на HEAD-запрос заголовки разграничения соответствуют телу ответа на GET-запрос, но тело не передается
+ */
+final class KeepAlivePolicy {
+
+    private final long idleTimeoutMillis;
+
+    private final int maxRequestsPerConnection;
+
+    KeepAlivePolicy(final long idleTimeoutMillis, final int maxRequestsPerConnection) {
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.maxRequestsPerConnection = maxRequestsPerConnection;
+    }
+
+    long idleTimeoutMillis() {
+        return this.idleTimeoutMillis;
+    }
+
+    /**
+     * Определяет, может ли соединение быть использовано после записи ответа
+     * @param httpRequest выполненный HTTP-запрос
+     * @param httpResponse HTTP-ответ на запрос
+     * @param requestNumber порядковый номер запроса в соединении, начиная с единицы
+     * @return {@code true}, если соединение должно оставаться открытым
+     */
+    boolean isKeepAlive(final HttpRequest httpRequest, final HttpResponse httpResponse, final int requestNumber) {
+        if (requestNumber >= this.maxRequestsPerConnection || hasToken(header(httpResponse.headers(), HttpHeaders.CONNECTION), "close")) {
+            return false;
+        }
+        if (httpRequest.bodyChannel() instanceof StreamedRequestBody body && !body.isComplete()) {
+            return false;
+        }
+        if (httpResponse.content() instanceof ResponseBody.Chunked && httpRequest.method() != Method.HEAD
+                && !isChunkedEncoding(httpRequest, httpResponse)) {
+            return false;
+        }
+
+        final String connection = header(httpRequest.headers(), HttpHeaders.CONNECTION);
+        if (isHttp11(httpRequest)) {
+            return !hasToken(connection, "close");
+        }
+        return hasToken(connection, "keep-alive");
+    }
+
+    /**
+     * Сериализует заголовок HTTP-ответа в буфер пула, дополняя его заголовками {@code Content-Length}
+     * и {@code Connection}, необходимыми для разграничения ответов в постоянном соединении.
+     * Тело ответа записывается в соединение отдельно
+     * @param httpRequest выполненный HTTP-запрос
+     * @param httpResponse HTTP-ответ на запрос
+     * @param keepAlive остается ли соединение открытым после записи ответа
+     * @param pool пул буферов
+     * @return буфер пула, содержащий заголовок HTTP-ответа между позицией и пределом
+     */
+    ByteBuffer serializeHead(final HttpRequest httpRequest, final HttpResponse httpResponse, final boolean keepAlive,
+                             final BufferPool pool) {
+        final HttpResponseEncoder.Framing framing = framing(httpRequest, httpResponse, keepAlive);
+        final int length = HttpResponseEncoder.headLength(httpResponse, framing);
+        final ByteBuffer head = pool.acquire(length);
+        HttpResponseEncoder.encodeHead(httpResponse, framing, head.array(), 0);
+        return head.limit(length);
+    }
+
+    /**
+     * Определяет заголовки разграничения HTTP-ответа
+     * @param httpRequest выполненный HTTP-запрос
+     * @param httpResponse HTTP-ответ на запрос
+     * @param keepAlive остается ли соединение открытым после записи ответа
+     * @return заголовки разграничения, заменяющие одноименные заголовки ответа
+     */
+    HttpResponseEncoder.Framing framing(final HttpRequest httpRequest, final HttpResponse httpResponse, final boolean keepAlive) {
+        final String connection;
+        if (!keepAlive) {
+            connection = "close";
+        } else if (!isHttp11(httpRequest)) {
+            connection = "keep-alive";
+        } else {
+            connection = null;
+        }
+
+        if (isChunkedEncoding(httpRequest, httpResponse)) {
+            return new HttpResponseEncoder.Framing(-1, true, connection);
+        }
+
+        long contentLength = -1;
+        if (hasBodyFraming(httpResponse.statusCode()) && Objects.isNull(header(httpResponse.headers(), HttpHeaders.CONTENT_LENGTH))) {
+            contentLength = Objects.nonNull(httpResponse.content())
+                    ? httpResponse.content().length()
+                    : Objects.isNull(httpResponse.body()) ? 0 : httpResponse.body().length;
+        }
+        return new HttpResponseEncoder.Framing(contentLength, false, connection);
+    }
+
+    /**
+     * Определяет, передается ли тело ответа, формируемое по частям, с кодированием {@code Transfer-Encoding: chunked}
+     * @param httpRequest выполненный HTTP-запрос
+     * @param httpResponse HTTP-ответ на запрос
+     * @return {@code true}, если части тела ответа должны кодироваться
+     */
+    boolean isChunkedEncoding(final HttpRequest httpRequest, final HttpResponse httpResponse) {
+        return httpResponse.content() instanceof ResponseBody.Chunked && isHttp11(httpRequest) && hasBodyFraming(httpResponse.statusCode());
+    }
+
+    private static boolean isHttp11(final HttpRequest httpRequest) {
+        return httpRequest.version().major() > 1 || (httpRequest.version().major() == 1 && httpRequest.version().minor() >= 1);
+    }
+
+    private static boolean hasBodyFraming(final int statusCode) {
+        return statusCode >= 200 && statusCode != 204 && statusCode != 304;
+    }
+
+    private static String header(final Map<String, String> headers, final String name) {
+        if (Objects.isNull(headers)) {
+            return null;
+        }
+        if (headers instanceof HttpHeaders httpHeaders) {
+            return httpHeaders.get(name);
+        }
+
+        for (final Map.Entry<String, String> header : headers.entrySet()) {
+            if (header.getKey().equalsIgnoreCase(name)) {
+                return header.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static boolean hasToken(final String value, final String token) {
+        if (Objects.isNull(value)) {
+            return false;
+        }
+
+        for (final String part : value.split(",")) {
+            if (part.trim().equalsIgnoreCase(token)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,257 @@
+package org.owl.services.yaujrest;
+
+import org.owl.services.yaujrest.buffer.BufferPool;
+import org.owl.services.yaujrest.http.ResponseBody;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.GatheringByteChannel;
+import java.util.Objects;
+
+/**
+ * Сериализованный HTTP-ответ, ожидающий записи в неблокирующее соединение {@link ChannelConnection}.
+ * <p>
+ * Ответ состоит из буферов в памяти, которые записываются в канал вместе с буферами соседних ответов,
+ * и, возможно, тела, записываемого после них: области файла, передаваемой методом
+ * {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)} без копирования
+ * в память приложения, либо тела, формируемого по частям.
+ * <p>
+ * Заголовок ответа, закодированный в буфер пула {@link BufferPool}, возвращается в пул после записи ответа
+ * либо при освобождении ресурсов ответа
+ */
+final class OutboundResponse {
+
+    /**
+     * Состояние записи тела ответа
+     */
+    enum Progress {
+        /**
+         * Ответ записан полностью
+         */
+        WRITTEN,
+        /**
+         * Канал не принимает данные
+         */
+        BLOCKED,
+        /**
+         * Ожидается формирование следующих частей тела
+         */
+        PENDING
+    }
+
+    private final ByteBuffer[] buffers;
+
+    private final FileChannel file;
+
+    private long filePosition;
+
+    private long fileRemaining;
+
+    private final ChunkedResponseBody chunks;
+
+    private BufferPool pool;
+
+    private boolean written;
+
+    private OutboundResponse(final ByteBuffer[] buffers, final FileChannel file, final long filePosition,
+                             final long fileRemaining, final ChunkedResponseBody chunks, final BufferPool pool) {
+        this.buffers = buffers;
+        this.file = file;
+        this.filePosition = filePosition;
+        this.fileRemaining = fileRemaining;
+        this.chunks = chunks;
+        this.pool = pool;
+    }
+
+    /**
+     * Создает ответ, полностью сериализованный в массив
+     * @param response сериализованный ответ
+     * @return ответ для записи в соединение
+     */
+    static OutboundResponse of(final byte[] response) {
+        return new OutboundResponse(new ByteBuffer[] {ByteBuffer.wrap(response)}, null, 0, 0, null, null);
+    }
+
+    /**
+     * Создает ответ без тела
+     * @param head буфер пула с сериализованным заголовком ответа между позицией и пределом
+     * @param pool пул, выдавший буфер заголовка
+     * @return ответ для записи в соединение
+     */
+    static OutboundResponse of(final ByteBuffer head, final BufferPool pool) {
+        return new OutboundResponse(new ByteBuffer[] {head}, null, 0, 0, null, pool);
+    }
+
+    /**
+     * Создает ответ, тело которого содержится в массиве. Заголовок и тело записываются в канал
+     * одной записью без копирования в общий массив
+     * @param head буфер пула с сериализованным заголовком ответа между позицией и пределом
+     * @param pool пул, выдавший буфер заголовка
+     * @param body тело ответа, либо {@code null}
+     * @return ответ для записи в соединение
+     */
+    static OutboundResponse of(final ByteBuffer head, final BufferPool pool, final byte[] body) {
+        if (Objects.isNull(body) || body.length == 0) {
+            return of(head, pool);
+        }
+        return new OutboundResponse(new ByteBuffer[] {head, ByteBuffer.wrap(body)}, null, 0, 0, null, pool);
+    }
+
+    /**
+     * Создает ответ, тело которого содержится в буфере либо области файла. Пустой буфер тела не добавляется
+     * к буферам ответа
+     * @param head буфер пула с сериализованным заголовком ответа между позицией и пределом
+     * @param pool пул, выдавший буфер заголовка
+     * @param content тело ответа
+     * @return ответ для записи в соединение
+     */
+    static OutboundResponse of(final ByteBuffer head, final BufferPool pool, final ResponseBody content) {
+        return switch (content) {
+            case ResponseBody.Buffered(ByteBuffer buffer) when !buffer.hasRemaining() -> of(head, pool);
+            case ResponseBody.Buffered(ByteBuffer buffer) ->
+                    new OutboundResponse(new ByteBuffer[] {head, buffer.duplicate()}, null, 0, 0, null, pool);
+            case ResponseBody.FileRegion(FileChannel channel, long position, long count) ->
+                    new OutboundResponse(new ByteBuffer[] {head}, channel, position, count, null, pool);
+            case ResponseBody.Chunked chunked ->
+                    throw new IllegalArgumentException("Chunked response body requires a producer buffer");
+        };
+    }
+
+    /**
+     * Освобождает ресурсы тела ответа, которое не будет записано в соединение, например в ответе на HEAD-запрос
+     * @param content тело ответа, либо {@code null}
+     */
+    static void discard(final ResponseBody content) {
+        if (content instanceof ResponseBody.FileRegion(FileChannel channel, long position, long count)) {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // Файл уже закрыт
+            }
+        }
+    }
+
+    /**
+     * Создает ответ, тело которого формируется по частям
+     * @param head буфер пула с сериализованным заголовком ответа между позицией и пределом
+     * @param pool пул, выдавший буфер заголовка
+     * @param chunks буфер частей тела
+     * @return ответ для записи в соединение
+     */
+    static OutboundResponse of(final ByteBuffer head, final BufferPool pool, final ChunkedResponseBody chunks) {
+        return new OutboundResponse(new ByteBuffer[] {head}, null, 0, 0, chunks, pool);
+    }
+
+    /**
+     * Возвращает буферы ответа в памяти
+     * @return буферы ответа
+     */
+    ByteBuffer[] buffers() {
+        return this.buffers;
+    }
+
+    /**
+     * Проверяет, остались ли незаписанные байты в буферах ответа
+     * @return {@code true}, если буферы ответа записаны не полностью
+     */
+    boolean hasRemainingBuffers() {
+        return hasRemaining(this.buffers, this.buffers.length);
+    }
+
+    /**
+     * Проверяет, остались ли незаписанные байты хотя бы в одном из первых буферов массива
+     * @param buffers буферы
+     * @param count количество проверяемых буферов
+     * @return {@code true}, если хотя бы один из буферов записан не полностью
+     */
+    static boolean hasRemaining(final ByteBuffer[] buffers, final int count) {
+        for (int i = 0; i < count; i++) {
+            if (buffers[i].hasRemaining()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Проверяет, записывается ли после буферов ответа тело из файла либо тело, формируемое по частям
+     * @return {@code true}, если ответ содержит тело, записываемое после буферов
+     */
+    boolean hasTrailingBody() {
+        return Objects.nonNull(this.file) || Objects.nonNull(this.chunks);
+    }
+
+    /**
+     * Проверяет, записан ли ответ полностью
+     * @return {@code true}, если ответ записан полностью
+     */
+    boolean isWritten() {
+        return this.written || (!hasTrailingBody() && !hasRemainingBuffers());
+    }
+
+    /**
+     * Записывает в канал тело, следующее за буферами ответа
+     * @param channel канал соединения
+     * @return состояние записи тела ответа
+     * @throws IOException выбрасывается в случае ошибки чтения файла или записи в канал
+     */
+    Progress transferBody(final GatheringByteChannel channel) throws IOException {
+        final Progress progress = Objects.nonNull(this.file) ? transferFile(channel) : this.chunks.transferTo(channel);
+        if (progress == Progress.WRITTEN) {
+            this.written = true;
+            releaseBody();
+        }
+        return progress;
+    }
+
+    /**
+     * Возвращает буфер заголовка в пул. Вызывается после записи ответа; повторные вызовы не выполняют действий
+     */
+    void recycle() {
+        if (Objects.nonNull(this.pool)) {
+            this.pool.release(this.buffers[0]);
+            this.pool = null;
+        }
+    }
+
+    /**
+     * Освобождает ресурсы тела и заголовка ответа. Вызывается после записи ответа либо при закрытии соединения
+     */
+    void release() {
+        recycle();
+        releaseBody();
+    }
+
+    /**
+     * Освобождает ресурсы тела ответа. Буфер заголовка остается в ответе до его удаления из очереди соединения,
+     * так как до этого момента он входит в набор буферов, записываемых одной операцией
+     */
+    private void releaseBody() {
+        if (Objects.nonNull(this.chunks)) {
+            this.chunks.abort();
+        }
+        if (Objects.nonNull(this.file)) {
+            try {
+                this.file.close();
+            } catch (IOException ignored) {
+                // Файл уже закрыт
+            }
+        }
+    }
+
+    private Progress transferFile(final GatheringByteChannel channel) throws IOException {
+        while (this.fileRemaining > 0) {
+            final long transferred = this.file.transferTo(this.filePosition, this.fileRemaining, channel);
+            if (transferred == 0) {
+                if (this.filePosition >= this.file.size()) {
+                    throw new IOException("File is shorter than response body");
+                }
+                return Progress.BLOCKED;
+            }
+            this.filePosition += transferred;
+            this.fileRemaining -= transferred;
+        }
+        return Progress.WRITTEN;
+    }
+
+}
@@ -0,0 +1,204 @@
+package org.owl.services.yaujrest;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Тело запроса неблокирующего соединения {@link ChannelConnection}, передаваемое обработчику потоком.
+ * <p>
+ * Цикл событий помещает извлеченные части тела в ограниченный буфер, а поток обработчика считывает их,
+ * ожидая поступления следующих частей. Пока буфер заполнен, чтение из соединения приостанавливается
+ * и возобновляется, когда обработчик освобождает половину буфера. Части тела, поступающие после закрытия
+ * канала обработчиком, отбрасываются
+ */
+final class PipedRequestBody implements StreamedRequestBody {
+
+    private static final int CAPACITY = 64 * 1024;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition readable = this.lock.newCondition();
+
+    private final Queue<ByteBuffer> chunks = new ArrayDeque<>();
+
+    private final Runnable onDrained;
+
+    private int buffered;
+
+    private boolean complete;
+
+    private IOException failure;
+
+    private boolean open = true;
+
+    private boolean drainRequested;
+
+    /**
+     * @param onDrained обработчик, вызываемый после освобождения заполненного буфера
+     */
+    PipedRequestBody(final Runnable onDrained) {
+        this.onDrained = onDrained;
+    }
+
+    /**
+     * Возвращает количество байтов, которые могут быть помещены в буфер. Если буфер заполнен,
+     * после его освобождения будет вызван обработчик {@code onDrained}
+     * @return количество свободных байтов буфера
+     */
+    int writableBytes() {
+        this.lock.lock();
+        try {
+            if (!this.open) {
+                return CAPACITY;
+            }
+            final int writable = CAPACITY - this.buffered;
+            if (writable == 0) {
+                this.drainRequested = true;
+            }
+            return writable;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Помещает часть тела в буфер
+     * @param chunk часть тела запроса
+     */
+    void offer(final ByteBuffer chunk) {
+        this.lock.lock();
+        try {
+            if (this.open) {
+                this.chunks.add(chunk);
+                this.buffered += chunk.remaining();
+                this.readable.signal();
+            }
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Отмечает тело запроса полученным полностью
+     */
+    void finish() {
+        this.lock.lock();
+        try {
+            this.complete = true;
+            this.readable.signal();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Прерывает получение тела запроса. Ошибка передается обработчику после считывания всех полученных частей
+     * @param failure причина прерывания
+     */
+    void fail(final IOException failure) {
+        this.lock.lock();
+        try {
+            if (!this.complete && this.failure == null) {
+                this.failure = failure;
+                this.readable.signal();
+            }
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public int read(final ByteBuffer target) throws IOException {
+        int count = 0;
+        boolean drained = false;
+        this.lock.lock();
+        try {
+            while (this.open && this.chunks.isEmpty() && !this.complete && this.failure == null) {
+                this.readable.await();
+            }
+            if (!this.open) {
+                throw new ClosedChannelException();
+            }
+            if (this.chunks.isEmpty()) {
+                if (this.failure != null) {
+                    throw this.failure;
+                }
+                return -1;
+            }
+
+            while (!this.chunks.isEmpty() && target.hasRemaining()) {
+                final ByteBuffer chunk = this.chunks.peek();
+                final int length = Math.min(chunk.remaining(), target.remaining());
+                target.put(chunk.slice(chunk.position(), length));
+                chunk.position(chunk.position() + length);
+                if (!chunk.hasRemaining()) {
+                    this.chunks.poll();
+                }
+                count += length;
+            }
+
+            this.buffered -= count;
+            if (this.drainRequested && this.buffered <= CAPACITY / 2) {
+                this.drainRequested = false;
+                drained = true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for request body");
+        } finally {
+            this.lock.unlock();
+        }
+
+        if (drained) {
+            this.onDrained.run();
+        }
+        return count;
+    }
+
+    @Override
+    public boolean isComplete() {
+        this.lock.lock();
+        try {
+            return this.complete;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isOpen() {
+        this.lock.lock();
+        try {
+            return this.open;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        final boolean drained;
+        this.lock.lock();
+        try {
+            this.open = false;
+            this.chunks.clear();
+            this.buffered = 0;
+            drained = this.drainRequested;
+            this.drainRequested = false;
+            this.readable.signalAll();
+        } finally {
+            this.lock.unlock();
+        }
+
+        if (drained) {
+            this.onDrained.run();
+        }
+    }
+
+}
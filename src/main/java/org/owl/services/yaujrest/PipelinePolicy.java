@@ -0,0 +1,10 @@
+package org.owl.services.yaujrest;
+
+/**
+ * Параметры конвейерной обработки запросов одного соединения (HTTP pipelining)
+ * @param maxPipelinedRequests максимальное количество полученных запросов соединения, ожидающих ответа.
+ *                             При достижении ограничения чтение из соединения приостанавливается
+ * @param concurrent допускается ли одновременное выполнение запросов одного соединения
+ */
+record PipelinePolicy(int maxPipelinedRequests, boolean concurrent) {
+}
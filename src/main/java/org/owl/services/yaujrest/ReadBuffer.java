@@ -0,0 +1,182 @@
+package org.owl.services.yaujrest;
+
+import org.owl.services.yaujrest.buffer.BufferPool;
+import org.owl.services.yaujrest.http.HttpRequest;
+import org.owl.services.yaujrest.http.parser.HttpMessageDecoder;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Objects;
+
+/**
+ * Буфер накопления байтов, полученных из соединения.
+ * <p>
+ * Разбираемый HTTP-запрос всегда начинается с начала буфера, поэтому анализатор {@link HttpMessageDecoder}
+ * продолжает разбор с сохраненной позиции при каждом поступлении новых байтов. Байты, оставшиеся после
+ * полностью полученного запроса, используются при разборе следующего запроса того же соединения.
+ * Анализатор ограничивает размер заголовка запроса, поэтому до получения заголовка буфер не растет
+ * сверх этого ограничения
+ * <p>
+ * Тело запроса, передаваемого обработчику потоком, извлекается из буфера по частям после удаления
+ * байтов заголовка запроса.
+ * <p>
+ * Массив буфера выдается пулом {@link BufferPool} при поступлении первых байтов и заменяется массивом вдвое
+ * большей емкости при заполнении. Буфер, не содержащий байтов, может быть возвращен в пул методом
+ * {@link #releaseIfEmpty()}, поэтому простаивающие постоянные соединения не удерживают память
+ */
+final class ReadBuffer {
+
+    private static final int INITIAL_BUFFER_SIZE = 1024;
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final BufferPool pool;
+
+    private ByteBuffer buffer;
+
+    private byte[] bytes = EMPTY;
+
+    private int length;
+
+    ReadBuffer(final BufferPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Считывает доступные байты из входного потока
+     * @param inputStream входной поток
+     * @return количество считанных байтов, либо {@code -1} в случае конца потока
+     * @throws IOException выбрасывается в случае ошибки чтения
+     */
+    int read(final InputStream inputStream) throws IOException {
+        ensureCapacity();
+        final int read = inputStream.read(this.bytes, this.length, this.bytes.length - this.length);
+        if (read > 0) {
+            this.length += read;
+        }
+        return read;
+    }
+
+    /**
+     * Считывает доступные байты из канала
+     * @param channel канал
+     * @return количество считанных байтов, либо {@code -1} в случае конца потока
+     * @throws IOException выбрасывается в случае ошибки чтения
+     */
+    int read(final ReadableByteChannel channel) throws IOException {
+        ensureCapacity();
+        final int read = channel.read(this.buffer.limit(this.bytes.length).position(this.length));
+        if (read > 0) {
+            this.length += read;
+        }
+        return read;
+    }
+
+    /**
+     * Продолжает разбор HTTP-запроса, начинающегося в начале буфера, и, если запрос получен полностью,
+     * удаляет его байты из буфера
+     * @param decoder анализатор HTTP-запросов соединения
+     * @return полностью полученный HTTP-запрос, либо {@code null}, если запрос получен не полностью
+     */
+    HttpRequest decode(final HttpMessageDecoder decoder) {
+        if (!decoder.parse(this.bytes, 0, this.length)) {
+            return null;
+        }
+
+        final HttpRequest httpRequest = decoder.toHttpRequest(this.bytes, 0);
+        consume(decoder.messageLength());
+        decoder.reset();
+        return httpRequest;
+    }
+
+    /**
+     * Продолжает разбор заголовка HTTP-запроса, начинающегося в начале буфера
+     * @param decoder анализатор HTTP-запросов соединения
+     * @return заголовок запроса без тела, если заголовок получен полностью данным вызовом и за ним следует тело,
+     * иначе {@code null}
+     */
+    HttpRequest decodeHead(final HttpMessageDecoder decoder) {
+        if (decoder.headLength() > 0 || !decoder.parseHead(this.bytes, 0, this.length) || decoder.isComplete()) {
+            return null;
+        }
+        return decoder.toHttpRequestHead(this.bytes, 0);
+    }
+
+    /**
+     * Удаляет из буфера байты заголовка запроса, тело которого далее извлекается методом
+     * {@link #decodeBody(HttpMessageDecoder, ByteBuffer)}
+     * @param decoder анализатор HTTP-запросов соединения
+     */
+    void streamBody(final HttpMessageDecoder decoder) {
+        consume(decoder.headLength());
+        decoder.streamBody();
+    }
+
+    /**
+     * Извлекает из буфера очередную часть тела запроса, передаваемого потоком, и записывает ее в целевой буфер
+     * @param decoder анализатор HTTP-запросов соединения
+     * @param target целевой буфер
+     * @return количество записанных байтов тела
+     */
+    int decodeBody(final HttpMessageDecoder decoder, final ByteBuffer target) {
+        while (this.length > 0 && target.hasRemaining() && !decoder.isComplete()) {
+            final int consumed = decoder.decodeBody(this.bytes, 0, Math.min(this.length, target.remaining()));
+            final int decoded = decoder.decodedLength();
+            target.put(this.bytes, 0, decoded);
+            consume(consumed);
+            if (decoded > 0) {
+                return decoded;
+            }
+        }
+        return 0;
+    }
+
+    private void consume(final int count) {
+        System.arraycopy(this.bytes, count, this.bytes, 0, this.length - count);
+        this.length -= count;
+    }
+
+    boolean isEmpty() {
+        return this.length == 0;
+    }
+
+    int size() {
+        return this.length;
+    }
+
+    /**
+     * Возвращает массив буфера в пул, если буфер не содержит байтов
+     */
+    void releaseIfEmpty() {
+        if (this.length == 0) {
+            release();
+        }
+    }
+
+    /**
+     * Возвращает массив буфера в пул, отбрасывая оставшиеся байты. Вызывается при закрытии соединения
+     */
+    void release() {
+        if (Objects.nonNull(this.buffer)) {
+            this.pool.release(this.buffer);
+            this.buffer = null;
+            this.bytes = EMPTY;
+            this.length = 0;
+        }
+    }
+
+    private void ensureCapacity() {
+        if (Objects.isNull(this.buffer)) {
+            this.buffer = this.pool.acquire(INITIAL_BUFFER_SIZE);
+            this.bytes = this.buffer.array();
+        } else if (this.length == this.bytes.length) {
+            final ByteBuffer grown = this.pool.acquire(this.bytes.length * 2);
+            System.arraycopy(this.bytes, 0, grown.array(), 0, this.length);
+            this.pool.release(this.buffer);
+            this.buffer = grown;
+            this.bytes = grown.array();
+        }
+    }
+
+}
@@ -0,0 +1,122 @@
+package org.owl.services.yaujrest;
+
+import org.owl.services.yaujrest.http.HttpHeaders;
+import org.owl.services.yaujrest.http.HttpRequest;
+import org.owl.services.yaujrest.http.HttpResponse;
+import org.owl.services.yaujrest.http.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Объединение одновременных одинаковых запросов (single-flight).
+ * <p>
+ * Из одновременных запросов с одинаковыми методом, целью запроса и значениями заголовков {@link #KEY_HEADERS}
+ * обработчиком выполняется только первый, а остальные ожидают его завершения и получают тот же ответ.
+ * Запрос, ожидание которого превысило максимальное время, выполняется обработчиком самостоятельно. Ответ,
+ * тело которого задано объектом {@link org.owl.services.yaujrest.http.ResponseBody}, может быть записан
+ * только один раз, поэтому в этом случае ожидавшие запросы также выполняются самостоятельно.
+ * Ошибка выполнения первого запроса передается всем ожидавшим его запросам
+ */
+final class RequestCoalescer {
+
+    /**
+     * Заголовки запроса, от которых может зависеть ответ
+     */
+    private static final String[] KEY_HEADERS = {
+            HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING, HttpHeaders.ACCEPT_LANGUAGE, HttpHeaders.AUTHORIZATION,
+            HttpHeaders.COOKIE
+    };
+
+    private final long timeoutNanos;
+
+    private final Map<Key, CompletableFuture<HttpResponse>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * @param timeoutNanos максимальное время ожидания выполнения первого из одинаковых запросов в наносекундах
+     */
+    RequestCoalescer(final long timeoutNanos) {
+        this.timeoutNanos = timeoutNanos;
+    }
+
+    /**
+     * Выполняет запрос, либо ожидает выполнения одинакового запроса. Объединяются только GET- и HEAD-запросы
+     * @param httpRequest HTTP-запрос
+     * @param handler выполнение запроса обработчиком
+     * @return ответ обработчика
+     */
+    HttpResponse process(final HttpRequest httpRequest, final Supplier<HttpResponse> handler) {
+        if (httpRequest.method() != Method.GET && httpRequest.method() != Method.HEAD) {
+            return handler.get();
+        }
+
+        final Key key = key(httpRequest);
+        final CompletableFuture<HttpResponse> flight = new CompletableFuture<>();
+        final CompletableFuture<HttpResponse> leader = this.inFlight.putIfAbsent(key, flight);
+        if (Objects.isNull(leader)) {
+            try {
+                final HttpResponse httpResponse = handler.get();
+                flight.complete(httpResponse);
+                return httpResponse;
+            } catch (RuntimeException | Error e) {
+                flight.completeExceptionally(e);
+                throw e;
+            } finally {
+                this.inFlight.remove(key, flight);
+            }
+        }
+
+        final HttpResponse shared = await(leader);
+        return Objects.isNull(shared) || Objects.nonNull(shared.content()) ? handler.get() : shared;
+    }
+
+    /**
+     * Ожидает ответ первого запроса
+     * @return ответ, либо {@code null}, если время ожидания истекло
+     */
+    private HttpResponse await(final CompletableFuture<HttpResponse> leader) {
+        try {
+            return leader.get(this.timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for coalesced request", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Coalesced request failed", e.getCause());
+        }
+    }
+
+    private static Key key(final HttpRequest httpRequest) {
+        final String[] values = new String[KEY_HEADERS.length];
+        final Map<String, String> headers = httpRequest.headers();
+        if (Objects.nonNull(headers)) {
+            for (int i = 0; i < values.length; i++) {
+                values[i] = headers.get(KEY_HEADERS[i]);
+            }
+        }
+        return new Key(httpRequest.method(), httpRequest.target().raw(), Arrays.asList(values));
+    }
+
+    /**
+     * Ключ объединяемых запросов
+     * @param method HTTP-метод
+     * @param target цель запроса
+     * @param headers значения заголовков {@link #KEY_HEADERS}
+     */
+    private record Key(Method method, String target, List<String> headers) { }
+
+}
@@ -0,0 +1,82 @@
+package org.owl.services.yaujrest;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Исполнитель задач главного обработчика с ограничением количества одновременно выполняемых запросов.
+ * <p>
+ * Задачи выполняются переданным {@link ExecutorService}, а количество выполняемых запросов
+ * ограничивается разрешениями, которые необходимо получить перед выполнением запроса и вернуть после записи ответа
+ */
+final class RequestExecutor {
+
+    private final ExecutorService executorService;
+
+    private final boolean ownsExecutorService;
+
+    private final Semaphore permits;
+
+    RequestExecutor(final ExecutorService executorService, final boolean ownsExecutorService, final int maxInFlightRequests) {
+        this.executorService = executorService;
+        this.ownsExecutorService = ownsExecutorService;
+        this.permits = new Semaphore(maxInFlightRequests);
+    }
+
+    /**
+     * Передает задачу на выполнение
+     * @param task задача
+     * @throws RejectedExecutionException выбрасывается в случае, если исполнитель остановлен
+     */
+    void execute(final Runnable task) {
+        this.executorService.execute(task);
+    }
+
+    /**
+     * Передает задачу на выполнение и ожидает ее результат
+     * @param task задача
+     * @return результат выполнения задачи
+     * @throws ExecutionException выбрасывается в случае, если задача завершилась исключением
+     * @throws InterruptedException выбрасывается в случае прерывания ожидающего потока
+     * @throws RejectedExecutionException выбрасывается в случае, если исполнитель остановлен
+     */
+    <T> T invoke(final Callable<T> task) throws ExecutionException, InterruptedException {
+        return this.executorService.submit(task).get();
+    }
+
+    /**
+     * Получает разрешение на выполнение запроса, ожидая его при необходимости
+     * @throws InterruptedException выбрасывается в случае прерывания ожидающего потока
+     */
+    void acquire() throws InterruptedException {
+        this.permits.acquire();
+    }
+
+    /**
+     * Получает разрешение на выполнение запроса, если оно доступно
+     * @return {@code true}, если разрешение получено
+     */
+    boolean tryAcquire() {
+        return this.permits.tryAcquire();
+    }
+
+    /**
+     * Возвращает разрешение на выполнение запроса
+     */
+    void release() {
+        this.permits.release();
+    }
+
+    /**
+     * Останавливает исполнитель, если он был создан главным обработчиком
+     */
+    void shutdown() {
+        if (this.ownsExecutorService) {
+            this.executorService.shutdown();
+        }
+    }
+
+}
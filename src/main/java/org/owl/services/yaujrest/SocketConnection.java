@@ -0,0 +1,285 @@
+package org.owl.services.yaujrest;
+
+import org.owl.services.yaujrest.buffer.BufferPool;
+import org.owl.services.yaujrest.http.HttpRequest;
+import org.owl.services.yaujrest.http.HttpResponse;
+import org.owl.services.yaujrest.http.HttpResponseEncoder;
+import org.owl.services.yaujrest.http.Method;
+import org.owl.services.yaujrest.http.ResponseBody;
+import org.owl.services.yaujrest.http.parser.HttpMessageParseException;
+import org.owl.services.yaujrest.http.parser.HttpMessageDecoder;
+import org.owl.services.yaujrest.metrics.ServerMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Блокирующее соединение, последовательно обслуживающее HTTP-запросы одного сокета.
+ * <p>
+ * Соединение остается открытым, пока это допускают правила {@link KeepAlivePolicy},
+ * и закрывается по истечении времени простоя. Ответы на запросы, уже полученные из сокета
+ * без ожидания ответа (HTTP pipelining), накапливаются и отправляются одной записью.
+ * Соединение обслуживается собственным потоком, а каждый запрос выполняется отдельной задачей исполнителя,
+ * поэтому ожидающее запрос соединение не занимает поток исполнителя. На запрос, который не удалось разобрать,
+ * либо который обработчик выполнил с исключением, отправляется ответ {@link ErrorResponses}, и соединение закрывается.
+ * <p>
+ * Тело ответа {@link ResponseBody} записывается в сокет частями без копирования всего тела в память.
+ * Сокет блокирующего соединения не имеет канала, поэтому область файла передается через буфер потока вывода.
+ * Заголовок ответа кодируется в буфер соединения, используемый повторно, и записывается отдельно от тела.
+ * Буферы чтения запросов и записи заголовков выдаются пулом {@link BufferPool} и возвращаются в него
+ * при закрытии соединения
+ */
+final class SocketConnection implements Runnable {
+
+    private static final Logger log = LoggerFactory.getLogger(SocketConnection.class);
+
+    private static final int WRITE_BUFFER_SIZE = 8192;
+
+    private static final int HEAD_BUFFER_SIZE = BufferPool.MIN_CLASS_SIZE;
+
+    private final Socket socket;
+
+    private final DispatchController dispatchController;
+
+    private final RequestExecutor requestExecutor;
+
+    private final KeepAlivePolicy keepAlivePolicy;
+
+    private final ReadBuffer readBuffer;
+
+    private final HttpMessageDecoder decoder;
+
+    private final BufferPool pool;
+
+    private ByteBuffer headBuffer;
+
+    SocketConnection(final Socket socket, final DispatchController dispatchController, final RequestExecutor requestExecutor,
+                     final KeepAlivePolicy keepAlivePolicy, final HttpMessageDecoder decoder) {
+        this.socket = socket;
+        this.dispatchController = dispatchController;
+        this.requestExecutor = requestExecutor;
+        this.keepAlivePolicy = keepAlivePolicy;
+        this.decoder = decoder;
+        this.pool = dispatchController.bufferPool();
+        this.readBuffer = new ReadBuffer(this.pool);
+    }
+
+    @Override
+    public void run() {
+        if (log.isDebugEnabled()) {
+            log.debug("Accepted connection from {}", this.socket.getRemoteSocketAddress());
+        }
+        try (this.socket) {
+            this.socket.setSoTimeout((int) Math.min(Integer.MAX_VALUE, this.keepAlivePolicy.idleTimeoutMillis()));
+            this.socket.setTcpNoDelay(true);
+            final InputStream inputStream = this.socket.getInputStream();
+            final OutputStream outputStream = new BufferedOutputStream(this.socket.getOutputStream(), WRITE_BUFFER_SIZE);
+
+            boolean keepAlive = true;
+            for (int requestNumber = 1; keepAlive; requestNumber++) {
+                final HttpRequest httpRequest;
+                try {
+                    httpRequest = readRequest(inputStream, outputStream);
+                } catch (HttpMessageParseException e) {
+                    log.debug("Rejecting malformed request: {}", e.getMessage());
+                    outputStream.write(ErrorResponses.forParseError(e));
+                    outputStream.flush();
+                    return;
+                }
+                if (httpRequest == null) {
+                    return;
+                }
+
+                final AdmissionControl admissionControl = this.dispatchController.admissionControl();
+                final long receivedAt = System.nanoTime();
+                if (!this.requestExecutor.tryAcquire()) {
+                    if (!admissionControl.tryEnqueue()) {
+                        reject(outputStream);
+                        return;
+                    }
+                    try {
+                        this.requestExecutor.acquire();
+                    } finally {
+                        admissionControl.dequeued();
+                    }
+                }
+                try {
+                    if (admissionControl.isOverloaded(System.nanoTime() - receivedAt)) {
+                        reject(outputStream);
+                        return;
+                    }
+
+                    final HttpResponse httpResponse;
+                    try {
+                        httpResponse = this.requestExecutor.invoke(() -> this.dispatchController.process(httpRequest));
+                    } catch (ExecutionException e) {
+                        log.error("Unexpected error while processing request: {}", e.getCause().getMessage());
+                        outputStream.write(ErrorResponses.forControllerError());
+                        outputStream.flush();
+                        return;
+                    }
+                    keepAlive = !this.dispatchController.isStopped()
+                            && this.keepAlivePolicy.isKeepAlive(httpRequest, httpResponse, requestNumber);
+                    final ServerMetrics metrics = this.dispatchController.metrics();
+                    final long writeStart = Objects.isNull(metrics) ? 0 : System.nanoTime();
+                    writeHead(this.keepAlivePolicy.framing(httpRequest, httpResponse, keepAlive), httpResponse, outputStream);
+                    if (httpRequest.method() == Method.HEAD) {
+                        OutboundResponse.discard(httpResponse.content());
+                    } else if (Objects.nonNull(httpResponse.body())) {
+                        outputStream.write(httpResponse.body());
+                    } else if (Objects.nonNull(httpResponse.content())) {
+                        writeContent(httpRequest, httpResponse, outputStream);
+                    }
+                    if (!keepAlive) {
+                        outputStream.flush();
+                    }
+                    if (Objects.nonNull(metrics)) {
+                        metrics.recordWrite(System.nanoTime() - writeStart);
+                    }
+                } finally {
+                    this.requestExecutor.release();
+                }
+            }
+        } catch (SocketTimeoutException e) {
+            log.debug("Closing idle connection with InetAddress: {}", this.socket.getRemoteSocketAddress());
+        } catch (Exception e) {
+            log.error("Unexpected error while processing request: {}", e.getMessage());
+        } finally {
+            this.readBuffer.release();
+            if (Objects.nonNull(this.headBuffer)) {
+                this.pool.release(this.headBuffer);
+            }
+        }
+    }
+
+    /**
+     * Отправляет ответ {@code 503 Service Unavailable} на запрос, отклоненный из-за перегрузки.
+     * Соединение закрывается после отправки ответа
+     */
+    private void reject(final OutputStream outputStream) throws IOException {
+        log.debug("Rejecting request of overloaded dispatch controller");
+        outputStream.write(this.dispatchController.admissionControl().serviceUnavailable());
+        outputStream.flush();
+    }
+
+    /**
+     * Возвращает следующий HTTP-запрос соединения. Накопленные ответы отправляются перед тем,
+     * как ожидать новые байты из сокета
+     */
+    private HttpRequest readRequest(final InputStream inputStream, final OutputStream outputStream) throws IOException {
+        HttpRequest httpRequest;
+        while ((httpRequest = decodeRequest(inputStream)) == null) {
+            outputStream.flush();
+            if (this.readBuffer.read(inputStream) < 0) {
+                if (this.readBuffer.isEmpty()) {
+                    return null;
+                }
+                throw new HttpMessageParseException("Connection closed before HTTP request was received");
+            }
+        }
+        if (httpRequest.isBodyStreamed()) {
+            outputStream.flush();
+        }
+        return httpRequest;
+    }
+
+    /**
+     * Кодирует заголовок ответа в буфер соединения, используемый повторно для всех ответов
+     */
+    private void writeHead(final HttpResponseEncoder.Framing framing, final HttpResponse httpResponse,
+                           final OutputStream outputStream) throws IOException {
+        final int length = HttpResponseEncoder.headLength(httpResponse, framing);
+        if (Objects.isNull(this.headBuffer)) {
+            this.headBuffer = this.pool.acquire(Math.max(length, HEAD_BUFFER_SIZE));
+        } else if (length > this.headBuffer.capacity()) {
+            this.pool.release(this.headBuffer);
+            this.headBuffer = this.pool.acquire(Math.max(length, this.headBuffer.capacity() * 2));
+        }
+        HttpResponseEncoder.encodeHead(httpResponse, framing, this.headBuffer.array(), 0);
+        outputStream.write(this.headBuffer.array(), 0, length);
+    }
+
+    private void writeContent(final HttpRequest httpRequest, final HttpResponse httpResponse,
+                              final OutputStream outputStream) throws IOException {
+        switch (httpResponse.content()) {
+            case ResponseBody.Buffered(ByteBuffer buffer) -> write(buffer.duplicate(), outputStream);
+            case ResponseBody.FileRegion(FileChannel file, long position, long count) -> {
+                try (file) {
+                    final WritableByteChannel channel = Channels.newChannel(outputStream);
+                    for (long transferred = 0; transferred < count; ) {
+                        final long written = file.transferTo(position + transferred, count - transferred, channel);
+                        if (written == 0) {
+                            throw new IOException("File is shorter than response body");
+                        }
+                        transferred += written;
+                    }
+                }
+            }
+            case ResponseBody.Chunked(ResponseBody.ChunkProducer producer) -> {
+                final boolean encoded = this.keepAlivePolicy.isChunkedEncoding(httpRequest, httpResponse);
+                producer.produce(chunk -> {
+                    if (!chunk.hasRemaining()) {
+                        return;
+                    }
+                    if (encoded) {
+                        outputStream.write(ChunkedResponseBody.chunkSizeLine(chunk.remaining()));
+                    }
+                    write(chunk, outputStream);
+                    if (encoded) {
+                        outputStream.write('\r');
+                        outputStream.write('\n');
+                    }
+                });
+                if (encoded) {
+                    outputStream.write(ChunkedResponseBody.lastChunk());
+                }
+            }
+        }
+    }
+
+    private static void write(final ByteBuffer buffer, final OutputStream outputStream) throws IOException {
+        if (buffer.hasArray()) {
+            outputStream.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+            buffer.position(buffer.limit());
+        } else {
+            Channels.newChannel(outputStream).write(buffer);
+        }
+    }
+
+    private HttpRequest decodeRequest(final InputStream inputStream) {
+        final ServerMetrics metrics = this.dispatchController.metrics();
+        if (Objects.isNull(metrics)) {
+            return decode(inputStream);
+        }
+        final long start = System.nanoTime();
+        final HttpRequest httpRequest = decode(inputStream);
+        if (httpRequest != null) {
+            metrics.recordParse(System.nanoTime() - start);
+        }
+        return httpRequest;
+    }
+
+    private HttpRequest decode(final InputStream inputStream) {
+        if (this.dispatchController.hasStreamingControllers()) {
+            final HttpRequest head = this.readBuffer.decodeHead(this.decoder);
+            if (head != null && this.dispatchController.isStreamingRequestBody(head)) {
+                this.readBuffer.streamBody(this.decoder);
+                return new HttpRequest(head.method(), head.target(), head.version(), head.headers(), null,
+                        new SocketRequestBody(this.readBuffer, this.decoder, inputStream));
+            }
+        }
+        return this.readBuffer.decode(this.decoder);
+    }
+
+}
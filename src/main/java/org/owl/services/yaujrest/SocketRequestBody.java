@@ -0,0 +1,80 @@
+package org.owl.services.yaujrest;
+
+import org.owl.services.yaujrest.http.parser.HttpMessageDecoder;
+import org.owl.services.yaujrest.http.parser.HttpMessageParseException;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+
+/**
+ * Тело запроса блокирующего соединения {@link SocketConnection}, передаваемое обработчику потоком.
+ * <p>
+ * Байты тела считываются из сокета в потоке обработчика по мере чтения из канала,
+ * поэтому в памяти одновременно находится не более одного блока тела
+ */
+final class SocketRequestBody implements StreamedRequestBody {
+
+    private final ReadBuffer readBuffer;
+
+    private final HttpMessageDecoder decoder;
+
+    private final InputStream inputStream;
+
+    private boolean complete;
+
+    private boolean open = true;
+
+    SocketRequestBody(final ReadBuffer readBuffer, final HttpMessageDecoder decoder, final InputStream inputStream) {
+        this.readBuffer = readBuffer;
+        this.decoder = decoder;
+        this.inputStream = inputStream;
+    }
+
+    @Override
+    public int read(final ByteBuffer target) throws IOException {
+        if (!this.open) {
+            throw new ClosedChannelException();
+        }
+        if (this.complete) {
+            return -1;
+        }
+        if (!target.hasRemaining()) {
+            return 0;
+        }
+
+        try {
+            int decoded;
+            while ((decoded = this.readBuffer.decodeBody(this.decoder, target)) == 0 && !this.decoder.isComplete()) {
+                if (this.readBuffer.read(this.inputStream) < 0) {
+                    throw new EOFException("Connection closed before request body was received");
+                }
+            }
+
+            if (this.decoder.isComplete()) {
+                this.complete = true;
+                this.decoder.reset();
+            }
+            return decoded == 0 ? -1 : decoded;
+        } catch (HttpMessageParseException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public boolean isComplete() {
+        return this.complete;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return this.open;
+    }
+
+    @Override
+    public void close() {
+        this.open = false;
+    }
+
+}
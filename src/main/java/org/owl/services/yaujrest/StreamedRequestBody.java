@@ -0,0 +1,17 @@
+package org.owl.services.yaujrest;
+
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Канал тела HTTP-запроса, передаваемого обработчику потоком
+ */
+interface StreamedRequestBody extends ReadableByteChannel {
+
+    /**
+     * Проверяет, получено ли тело запроса из соединения полностью. Соединение, тело запроса которого
+     * получено не полностью, не может быть использовано для следующего запроса
+     * @return {@code true}, если тело запроса получено полностью
+     */
+    boolean isComplete();
+
+}
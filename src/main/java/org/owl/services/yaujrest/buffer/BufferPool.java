@@ -0,0 +1,413 @@
+package org.owl.services.yaujrest.buffer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Пул буферов для чтения из соединений и записи в них.
+ * <p>
+ * Буферы выдаются классами размеров - степенями двойки от {@value #MIN_CLASS_SIZE} байтов до
+ * {@value #MAX_CLASS_SIZE} байтов, поэтому емкость выданного буфера может превышать запрошенную. Буферы
+ * большего размера создаются без пула. Буферы в куче ({@link #acquire(int)}) и прямые буферы
+ * ({@link #acquireDirect(int)}) хранятся раздельно; массив буфера в куче доступен методом {@link ByteBuffer#array()}.
+ * <p>
+ * Каждый платформенный поток, например поток цикла событий, хранит небольшое количество возвращенных им буферов
+ * каждого класса и выдает их без синхронизации. Остальные буферы хранятся в общих очередях классов ограниченного
+ * размера. Виртуальные потоки, как правило, выполняют одну задачу, поэтому всегда используют общие очереди.
+ * <p>
+ * Выданный буфер должен быть возвращен методом {@link #release(ByteBuffer)} ровно один раз и не использоваться
+ * после возврата. Вне режима обнаружения утечек повторный возврат не проверяется: буфер попадает в пул дважды
+ * и может быть выдан двум владельцам одновременно, что незаметно искажает их данные. В режиме обнаружения утечек вызывающей стороне выдается отдельное представление буфера пула,
+ * место выдачи запоминается, а повторный возврат буфера приводит к исключению. Если представление утрачено
+ * без возврата, при очередной выдаче в журнал записывается место выдачи утраченного буфера. Режим предназначен
+ * для отладки и замедляет выдачу буферов
+ */
+public final class BufferPool {
+
+    private static final Logger log = LoggerFactory.getLogger(BufferPool.class);
+
+    /**
+     * Размер наименьшего класса буферов в байтах
+     */
+    public static final int MIN_CLASS_SIZE = 512;
+
+    /**
+     * Размер наибольшего класса буферов в байтах
+     */
+    public static final int MAX_CLASS_SIZE = 64 * 1024;
+
+    private static final int MIN_CLASS_SHIFT = Integer.numberOfTrailingZeros(MIN_CLASS_SIZE);
+
+    private static final int CLASSES = Integer.numberOfTrailingZeros(MAX_CLASS_SIZE) - MIN_CLASS_SHIFT + 1;
+
+    private final int threadCacheSize;
+
+    private final int maxPooledBuffers;
+
+    private final boolean leakDetection;
+
+    private final SharedQueue[] heap = new SharedQueue[CLASSES];
+
+    private final SharedQueue[] direct = new SharedQueue[CLASSES];
+
+    private final ThreadLocal<ThreadCache> threadCaches = ThreadLocal.withInitial(ThreadCache::new);
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder acquired = new LongAdder();
+
+    private final LongAdder released = new LongAdder();
+
+    private final LongAdder leaked = new LongAdder();
+
+    private final Map<Integer, List<Leak>> tracked = new HashMap<>();
+
+    private final ReferenceQueue<ByteBuffer> lost = new ReferenceQueue<>();
+
+    private BufferPool(final BufferPoolBuilder builder) {
+        this.threadCacheSize = builder.threadCacheSize;
+        this.maxPooledBuffers = builder.maxPooledBuffers;
+        this.leakDetection = builder.leakDetection;
+        for (int i = 0; i < CLASSES; i++) {
+            this.heap[i] = new SharedQueue();
+            this.direct[i] = new SharedQueue();
+        }
+    }
+
+    /**
+     * Класс использующийся для получения экземпляра пула буферов
+     */
+    public static final class BufferPoolBuilder {
+
+        private int threadCacheSize = 8;
+        private int maxPooledBuffers = 256;
+        private boolean leakDetection = false;
+
+        private BufferPoolBuilder() { }
+
+        /**
+         * Устанавливает количество буферов каждого класса, хранимых платформенным потоком. По умолчанию составляет 8
+         * @param threadCacheSize количество буферов класса в кеше потока, либо {@code 0} для отключения кешей потоков
+         * @return текущий объект-строитель
+         */
+        public BufferPoolBuilder threadCacheSize(final int threadCacheSize) {
+            if (threadCacheSize < 0) {
+                throw new IllegalArgumentException("Thread cache size must not be negative");
+            }
+            this.threadCacheSize = threadCacheSize;
+            return this;
+        }
+
+        /**
+         * Устанавливает количество буферов каждого класса, хранимых в общей очереди пула. Возвращенные буферы
+         * сверх ограничения освобождаются сборщиком мусора. По умолчанию составляет 256
+         * @param maxPooledBuffers количество буферов класса в общей очереди
+         * @return текущий объект-строитель
+         */
+        public BufferPoolBuilder maxPooledBuffers(final int maxPooledBuffers) {
+            if (maxPooledBuffers < 0) {
+                throw new IllegalArgumentException("Maximum number of pooled buffers must not be negative");
+            }
+            this.maxPooledBuffers = maxPooledBuffers;
+            return this;
+        }
+
+        /**
+         * Включает режим обнаружения утечек буферов. По умолчанию выключен
+         * @param leakDetection обнаруживаются ли невозвращенные и повторно возвращенные буферы
+         * @return текущий объект-строитель
+         */
+        public BufferPoolBuilder leakDetection(final boolean leakDetection) {
+            this.leakDetection = leakDetection;
+            return this;
+        }
+
+        /**
+         * Создает экземпляр пула буферов
+         * @return экземпляр класса {@code BufferPool}
+         */
+        public BufferPool build() {
+            return new BufferPool(this);
+        }
+
+    }
+
+    /**
+     * Возвращает объект-строитель пула буферов
+     * @return объект-строитель пула буферов
+     */
+    public static BufferPoolBuilder builder() {
+        return new BufferPoolBuilder();
+    }
+
+    /**
+     * Счетчики выдачи буферов
+     * @param hits количество буферов, выданных из пула
+     * @param misses количество буферов, созданных из-за отсутствия свободных буферов либо превышения
+     *               размера наибольшего класса
+     * @param outstanding количество выданных и не возвращенных буферов
+     * @param leaked количество буферов, утраченных без возврата; учитывается в режиме обнаружения утечек
+     */
+    public record Statistics(long hits, long misses, long outstanding, long leaked) {
+
+        /**
+         * Возвращает долю буферов, выданных из пула
+         * @return доля от {@code 0} до {@code 1}, либо {@code 0}, если буферы не выдавались
+         */
+        public double hitRate() {
+            final long total = this.hits + this.misses;
+            return total == 0 ? 0 : (double) this.hits / total;
+        }
+
+    }
+
+    /**
+     * Выдает буфер в куче. Позиция буфера равна нулю, а предел - емкости
+     * @param capacity минимальная емкость буфера в байтах
+     * @return буфер в куче емкостью не меньше запрошенной
+     */
+    public ByteBuffer acquire(final int capacity) {
+        return acquire(capacity, false);
+    }
+
+    /**
+     * Выдает прямой буфер. Позиция буфера равна нулю, а предел - емкости
+     * @param capacity минимальная емкость буфера в байтах
+     * @return прямой буфер емкостью не меньше запрошенной
+     */
+    public ByteBuffer acquireDirect(final int capacity) {
+        return acquire(capacity, true);
+    }
+
+    /**
+     * Возвращает буфер в пул. Повторный возврат буфера обнаруживается только в режиме обнаружения утечек
+     * @param buffer буфер, выданный пулом
+     * @throws IllegalStateException выбрасывается в режиме обнаружения утечек, если буфер уже возвращен
+     *                               либо не выдавался пулом
+     */
+    public void release(final ByteBuffer buffer) {
+        ByteBuffer pooled = buffer;
+        if (this.leakDetection) {
+            pooled = untrack(buffer);
+        }
+        this.released.increment();
+        recycle(pooled);
+    }
+
+    /**
+     * Возвращает счетчики выдачи буферов
+     * @return текущие значения счетчиков
+     */
+    public Statistics statistics() {
+        final long released = this.released.sum();
+        return new Statistics(this.hits.sum(), this.misses.sum(), this.acquired.sum() - released, this.leaked.sum());
+    }
+
+    private ByteBuffer acquire(final int capacity, final boolean isDirect) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Buffer capacity must not be negative");
+        }
+        if (this.leakDetection) {
+            reportLost();
+        }
+
+        this.acquired.increment();
+        final int sizeClass = sizeClass(capacity);
+        ByteBuffer buffer = null;
+        if (sizeClass >= 0) {
+            final ThreadCache cache = threadCache();
+            if (Objects.nonNull(cache)) {
+                buffer = cache.poll(sizeClass, isDirect);
+            }
+            if (Objects.isNull(buffer)) {
+                buffer = (isDirect ? this.direct : this.heap)[sizeClass].poll();
+            }
+        }
+
+        if (Objects.nonNull(buffer)) {
+            this.hits.increment();
+        } else {
+            this.misses.increment();
+            final int size = sizeClass >= 0 ? MIN_CLASS_SIZE << sizeClass : capacity;
+            buffer = isDirect ? ByteBuffer.allocateDirect(size) : ByteBuffer.allocate(size);
+        }
+        return this.leakDetection ? track(buffer) : buffer;
+    }
+
+    private void recycle(final ByteBuffer buffer) {
+        final int capacity = buffer.capacity();
+        final int sizeClass = sizeClass(capacity);
+        if (sizeClass < 0 || (MIN_CLASS_SIZE << sizeClass) != capacity || (!buffer.isDirect() && !buffer.hasArray())) {
+            return;
+        }
+
+        buffer.clear();
+        final ThreadCache cache = threadCache();
+        if (Objects.nonNull(cache) && cache.offer(sizeClass, buffer)) {
+            return;
+        }
+        (buffer.isDirect() ? this.direct : this.heap)[sizeClass].offer(buffer);
+    }
+
+    private ThreadCache threadCache() {
+        if (this.threadCacheSize == 0 || Thread.currentThread().isVirtual()) {
+            return null;
+        }
+        return this.threadCaches.get();
+    }
+
+    private static int sizeClass(final int capacity) {
+        if (capacity > MAX_CLASS_SIZE) {
+            return -1;
+        }
+        return Math.max(0, Integer.SIZE - Integer.numberOfLeadingZeros(capacity - 1) - MIN_CLASS_SHIFT);
+    }
+
+    private ByteBuffer track(final ByteBuffer pooled) {
+        final ByteBuffer view = pooled.duplicate();
+        final Leak leak = new Leak(view, pooled, this.lost);
+        synchronized (this.tracked) {
+            this.tracked.computeIfAbsent(System.identityHashCode(view), key -> new ArrayList<>(1)).add(leak);
+        }
+        return view;
+    }
+
+    private ByteBuffer untrack(final ByteBuffer view) {
+        final Integer key = System.identityHashCode(view);
+        synchronized (this.tracked) {
+            final List<Leak> leaks = this.tracked.get(key);
+            if (Objects.nonNull(leaks)) {
+                for (int i = 0; i < leaks.size(); i++) {
+                    final Leak leak = leaks.get(i);
+                    if (leak.refersTo(view)) {
+                        leaks.remove(i);
+                        if (leaks.isEmpty()) {
+                            this.tracked.remove(key);
+                        }
+                        leak.clear();
+                        return leak.pooled;
+                    }
+                }
+            }
+        }
+        throw new IllegalStateException("Buffer is already released or was not acquired from this pool");
+    }
+
+    /**
+     * Учитывает буферы, представления которых утрачены без возврата, и возвращает их в пул
+     */
+    private void reportLost() {
+        Leak leak;
+        while (Objects.nonNull(leak = (Leak) this.lost.poll())) {
+            synchronized (this.tracked) {
+                final List<Leak> leaks = this.tracked.get(leak.key);
+                if (Objects.isNull(leaks) || !leaks.remove(leak)) {
+                    continue;
+                }
+                if (leaks.isEmpty()) {
+                    this.tracked.remove(leak.key);
+                }
+            }
+            this.leaked.increment();
+            this.released.increment();
+            log.error("Buffer was not released before it became unreachable", leak.site);
+            recycle(leak.pooled);
+        }
+    }
+
+    /**
+     * Выданное представление буфера в режиме обнаружения утечек
+     */
+    private static final class Leak extends PhantomReference<ByteBuffer> {
+
+        private final ByteBuffer pooled;
+
+        private final int key;
+
+        private final Exception site = new Exception("Buffer acquired here");
+
+        private Leak(final ByteBuffer view, final ByteBuffer pooled, final ReferenceQueue<ByteBuffer> queue) {
+            super(view, queue);
+            this.pooled = pooled;
+            this.key = System.identityHashCode(view);
+        }
+
+    }
+
+    /**
+     * Общая очередь свободных буферов одного класса
+     */
+    private final class SharedQueue {
+
+        private final ConcurrentLinkedDeque<ByteBuffer> buffers = new ConcurrentLinkedDeque<>();
+
+        private final AtomicInteger size = new AtomicInteger();
+
+        private ByteBuffer poll() {
+            final ByteBuffer buffer = this.buffers.pollFirst();
+            if (Objects.nonNull(buffer)) {
+                this.size.decrementAndGet();
+            }
+            return buffer;
+        }
+
+        private void offer(final ByteBuffer buffer) {
+            if (this.size.incrementAndGet() > BufferPool.this.maxPooledBuffers) {
+                this.size.decrementAndGet();
+                return;
+            }
+            this.buffers.offerFirst(buffer);
+        }
+
+    }
+
+    /**
+     * Свободные буферы, хранимые одним платформенным потоком
+     */
+    private final class ThreadCache {
+
+        private final ByteBuffer[][] heap = new ByteBuffer[CLASSES][BufferPool.this.threadCacheSize];
+
+        private final ByteBuffer[][] direct = new ByteBuffer[CLASSES][BufferPool.this.threadCacheSize];
+
+        private final int[] heapCount = new int[CLASSES];
+
+        private final int[] directCount = new int[CLASSES];
+
+        private ByteBuffer poll(final int sizeClass, final boolean isDirect) {
+            final int[] counts = isDirect ? this.directCount : this.heapCount;
+            if (counts[sizeClass] == 0) {
+                return null;
+            }
+            final ByteBuffer[] stack = (isDirect ? this.direct : this.heap)[sizeClass];
+            final ByteBuffer buffer = stack[--counts[sizeClass]];
+            stack[counts[sizeClass]] = null;
+            return buffer;
+        }
+
+        private boolean offer(final int sizeClass, final ByteBuffer buffer) {
+            final int[] counts = buffer.isDirect() ? this.directCount : this.heapCount;
+            final ByteBuffer[] stack = (buffer.isDirect() ? this.direct : this.heap)[sizeClass];
+            if (counts[sizeClass] == stack.length) {
+                return false;
+            }
+            stack[counts[sizeClass]++] = buffer;
+            return true;
+        }
+
+    }
+
+}
@@ -0,0 +1,4 @@
+/**
+ * Содержит пул буферов, используемых главным обработчиком для чтения запросов и записи ответов
+ */
+package org.owl.services.yaujrest.buffer;
@@ -0,0 +1,508 @@
+package org.owl.services.yaujrest.cache;
+
+import org.owl.services.yaujrest.http.HttpHeaders;
+import org.owl.services.yaujrest.http.HttpRequest;
+import org.owl.services.yaujrest.http.HttpResponse;
+import org.owl.services.yaujrest.http.Method;
+import org.owl.services.yaujrest.http.Version;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.zip.CRC32C;
+
+/**
+ * Кеш HTTP-ответов на GET-запросы, хранящийся в памяти.
+ * <p>
+ * Ответ сохраняется по цели запроса (пути и строке запроса) и значениям заголовков запроса, перечисленных
+ * при создании кеша. HEAD-запросы выполняются по ответам, сохраненным для GET-запросов. Сохраняются только
+ * ответы {@code 200 OK}, тело которых задано массивом байтов.
+ * <p>
+ * Время хранения ответа определяется директивами {@code s-maxage} и {@code max-age} заголовка
+ * {@code Cache-Control} ответа, а при их отсутствии - временем хранения по умолчанию. По умолчанию оно равно нулю,
+ * то есть сохраняются только ответы, явно разрешающие хранение. Не сохраняются ответы с директивами
+ * {@code no-store}, {@code no-cache} и {@code private}, ответы с заголовком {@code Set-Cookie}, а также ответы,
+ * заголовок {@code Vary} которых содержит заголовки, не учитываемые кешем. Запросы с заголовком {@code Authorization}
+ * выполняются без кеша. Запрос с директивой {@code no-store} выполняется без кеша, а с директивой {@code no-cache}
+ * или {@code max-age=0} - обработчиком с сохранением нового ответа.
+ * <p>
+ * Сохраненному ответу без заголовков {@code ETag} и {@code Last-Modified} они назначаются кешем. На условный
+ * запрос с заголовком {@code If-None-Match} или {@code If-Modified-Since}, которому соответствует сохраненный ответ,
+ * возвращается ответ {@code 304 Not Modified} без вызова обработчика.
+ * <p>
+ * Количество ответов и суммарный размер их тел ограничены; при превышении ограничений удаляются ответы,
+ * к которым дольше всего не обращались. Кеш может использоваться несколькими потоками
+ */
+public final class ResponseCache {
+
+    private static final Version HTTP_1_1 = new Version(1, 1);
+
+    private static final DateTimeFormatter HTTP_DATE =
+            DateTimeFormatter.ofPattern("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.US).withZone(ZoneOffset.UTC);
+
+    private static final String[] NOT_MODIFIED_HEADERS = {
+            HttpHeaders.CACHE_CONTROL, HttpHeaders.ETAG, HttpHeaders.EXPIRES, HttpHeaders.LAST_MODIFIED, HttpHeaders.VARY
+    };
+
+    private final int maxEntries;
+
+    private final long maxSize;
+
+    private final long defaultTtlNanos;
+
+    private final String[] varyHeaders;
+
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long size;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder notModified = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    private ResponseCache(final ResponseCacheBuilder builder) {
+        this.maxEntries = builder.maxEntries;
+        this.maxSize = builder.maxSize;
+        this.defaultTtlNanos = builder.defaultTtl.toNanos();
+        this.varyHeaders = builder.varyHeaders;
+    }
+
+    /**
+     * Класс использующийся для получения экземпляра кеша
+     */
+    public static final class ResponseCacheBuilder {
+
+        private int maxEntries = 1024;
+        private long maxSize = 64L * 1024 * 1024;
+        private Duration defaultTtl = Duration.ZERO;
+        private String[] varyHeaders = new String[0];
+
+        private ResponseCacheBuilder() { }
+
+        /**
+         * Устанавливает максимальное количество сохраненных ответов. По умолчанию составляет 1024
+         * @param maxEntries максимальное количество ответов
+         * @return текущий объект-строитель
+         */
+        public ResponseCacheBuilder maxEntries(final int maxEntries) {
+            if (maxEntries < 1) {
+                throw new IllegalArgumentException("Maximum number of cache entries must be positive");
+            }
+            this.maxEntries = maxEntries;
+            return this;
+        }
+
+        /**
+         * Устанавливает максимальный суммарный размер тел сохраненных ответов. По умолчанию составляет 64 МиБ
+         * @param maxSize максимальный размер в байтах
+         * @return текущий объект-строитель
+         */
+        public ResponseCacheBuilder maxSize(final long maxSize) {
+            if (maxSize < 1) {
+                throw new IllegalArgumentException("Maximum cache size must be positive");
+            }
+            this.maxSize = maxSize;
+            return this;
+        }
+
+        /**
+         * Устанавливает время хранения ответов, заголовок {@code Cache-Control} которых не задает время хранения.
+         * По умолчанию равно нулю, то есть такие ответы не сохраняются
+         * @param defaultTtl время хранения ответа
+         * @return текущий объект-строитель
+         */
+        public ResponseCacheBuilder defaultTtl(final Duration defaultTtl) {
+            if (defaultTtl.isNegative()) {
+                throw new IllegalArgumentException("Default time to live must not be negative");
+            }
+            this.defaultTtl = defaultTtl;
+            return this;
+        }
+
+        /**
+         * Устанавливает заголовки запроса, значения которых входят в ключ сохраненного ответа,
+         * например {@code Accept} или {@code Accept-Encoding}
+         * @param headers имена заголовков
+         * @return текущий объект-строитель
+         */
+        public ResponseCacheBuilder varyBy(final String... headers) {
+            for (final String header : headers) {
+                Objects.requireNonNull(header, "header");
+            }
+            this.varyHeaders = headers.clone();
+            return this;
+        }
+
+        /**
+         * Создает экземпляр кеша
+         * @return экземпляр класса {@code ResponseCache}
+         */
+        public ResponseCache build() {
+            return new ResponseCache(this);
+        }
+
+    }
+
+    /**
+     * Возвращает объект-строитель кеша
+     * @return объект-строитель кеша
+     */
+    public static ResponseCacheBuilder builder() {
+        return new ResponseCacheBuilder();
+    }
+
+    /**
+     * Счетчики обращений к кешу
+     * @param hits количество запросов, выполненных по сохраненному ответу, включая ответы {@code 304 Not Modified}
+     * @param misses количество запросов, выполненных обработчиком
+     * @param notModified количество ответов {@code 304 Not Modified}, возвращенных по сохраненному ответу
+     * @param evictions количество ответов, удаленных из-за превышения ограничений кеша
+     * @param entries количество сохраненных ответов
+     * @param size суммарный размер тел сохраненных ответов в байтах
+     */
+    public record Statistics(long hits, long misses, long notModified, long evictions, int entries, long size) { }
+
+    /**
+     * Выполняет запрос по сохраненному ответу, либо обработчиком с сохранением его ответа
+     * @param httpRequest HTTP-запрос
+     * @param handler выполнение запроса обработчиком
+     * @return сохраненный ответ, ответ {@code 304 Not Modified}, либо ответ обработчика
+     */
+    public HttpResponse process(final HttpRequest httpRequest, final Supplier<HttpResponse> handler) {
+        final Method method = httpRequest.method();
+        final Map<String, String> headers = httpRequest.headers();
+        if ((method != Method.GET && method != Method.HEAD) || headers.containsKey(HttpHeaders.AUTHORIZATION)) {
+            return handler.get();
+        }
+
+        final CacheControl requestCacheControl = CacheControl.parse(headers.get(HttpHeaders.CACHE_CONTROL));
+        if (requestCacheControl.noStore()) {
+            return handler.get();
+        }
+
+        final Key key = key(httpRequest);
+        if (!requestCacheControl.noCache() && requestCacheControl.maxAge() != 0) {
+            final Entry entry = lookup(key);
+            if (Objects.nonNull(entry)) {
+                this.hits.increment();
+                if (entry.isNotModified(headers)) {
+                    this.notModified.increment();
+                    return entry.notModified;
+                }
+                return entry.response;
+            }
+        }
+
+        this.misses.increment();
+        final HttpResponse httpResponse = handler.get();
+        if (method != Method.GET) {
+            return httpResponse;
+        }
+
+        final Entry entry = store(key, httpResponse);
+        if (Objects.isNull(entry)) {
+            return httpResponse;
+        }
+        return entry.isNotModified(headers) ? entry.notModified : entry.response;
+    }
+
+    /**
+     * Удаляет все сохраненные ответы
+     */
+    public void invalidateAll() {
+        synchronized (this.entries) {
+            this.entries.clear();
+            this.size = 0;
+        }
+    }
+
+    /**
+     * Возвращает счетчики обращений к кешу
+     * @return текущие значения счетчиков
+     */
+    public Statistics statistics() {
+        synchronized (this.entries) {
+            return new Statistics(this.hits.sum(), this.misses.sum(), this.notModified.sum(), this.evictions.sum(),
+                    this.entries.size(), this.size);
+        }
+    }
+
+    private Key key(final HttpRequest httpRequest) {
+        if (this.varyHeaders.length == 0) {
+            return new Key(httpRequest.target().raw(), List.of());
+        }
+        final String[] values = new String[this.varyHeaders.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = httpRequest.headers().get(this.varyHeaders[i]);
+        }
+        return new Key(httpRequest.target().raw(), Arrays.asList(values));
+    }
+
+    private Entry lookup(final Key key) {
+        synchronized (this.entries) {
+            final Entry entry = this.entries.get(key);
+            if (Objects.isNull(entry)) {
+                return null;
+            }
+            if (entry.expiresAt - System.nanoTime() <= 0) {
+                this.entries.remove(key);
+                this.size -= entry.size();
+                return null;
+            }
+            return entry;
+        }
+    }
+
+    private Entry store(final Key key, final HttpResponse httpResponse) {
+        if (httpResponse.statusCode() != 200 || Objects.nonNull(httpResponse.content()) || Objects.isNull(httpResponse.headers())) {
+            return null;
+        }
+
+        final Map<String, String> headers = httpResponse.headers();
+        final CacheControl cacheControl = CacheControl.parse(headers.get(HttpHeaders.CACHE_CONTROL));
+        if (cacheControl.noStore() || cacheControl.noCache() || cacheControl.isPrivate()
+                || headers.containsKey(HttpHeaders.SET_COOKIE) || !isVaryCovered(headers.get(HttpHeaders.VARY))) {
+            return null;
+        }
+
+        final long ttlNanos = cacheControl.sharedMaxAge() >= 0 ? TimeUnit.SECONDS.toNanos(cacheControl.sharedMaxAge())
+                : cacheControl.maxAge() >= 0 ? TimeUnit.SECONDS.toNanos(cacheControl.maxAge())
+                : this.defaultTtlNanos;
+        final int size = Objects.isNull(httpResponse.body()) ? 0 : httpResponse.body().length;
+        if (ttlNanos <= 0 || size > this.maxSize) {
+            return null;
+        }
+
+        final Entry entry = Entry.of(httpResponse, System.nanoTime() + ttlNanos);
+        synchronized (this.entries) {
+            final Entry previous = this.entries.put(key, entry);
+            if (Objects.nonNull(previous)) {
+                this.size -= previous.size();
+            }
+            this.size += entry.size();
+            evict();
+        }
+        return entry;
+    }
+
+    private void evict() {
+        final Iterator<Entry> iterator = this.entries.values().iterator();
+        while ((this.entries.size() > this.maxEntries || this.size > this.maxSize) && iterator.hasNext()) {
+            this.size -= iterator.next().size();
+            iterator.remove();
+            this.evictions.increment();
+        }
+    }
+
+    private boolean isVaryCovered(final String vary) {
+        if (Objects.isNull(vary)) {
+            return true;
+        }
+        for (final String header : vary.split(",")) {
+            final String name = header.trim();
+            if (!name.isEmpty() && Arrays.stream(this.varyHeaders).noneMatch(name::equalsIgnoreCase)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Ключ сохраненного ответа
+     * @param target цель запроса
+     * @param variants значения учитываемых заголовков запроса
+     */
+    private record Key(String target, List<String> variants) { }
+
+    /**
+     * Сохраненный ответ
+     */
+    private static final class Entry {
+
+        private final HttpResponse response;
+
+        private final HttpResponse notModified;
+
+        private final String etag;
+
+        private final String lastModifiedHeader;
+
+        private final Instant lastModified;
+
+        private final long expiresAt;
+
+        private Entry(final HttpResponse response, final String etag, final String lastModifiedHeader, final long expiresAt) {
+            this.response = response;
+            this.etag = etag;
+            this.lastModifiedHeader = lastModifiedHeader;
+            this.lastModified = parseDate(lastModifiedHeader);
+            this.expiresAt = expiresAt;
+
+            final HttpHeaders notModifiedHeaders = new HttpHeaders();
+            for (final String name : NOT_MODIFIED_HEADERS) {
+                final String value = response.headers().get(name);
+                if (Objects.nonNull(value)) {
+                    notModifiedHeaders.put(name, value);
+                }
+            }
+            this.notModified = new HttpResponse(HTTP_1_1, 304, "Not Modified", notModifiedHeaders, null);
+        }
+
+        private static Entry of(final HttpResponse httpResponse, final long expiresAt) {
+            final HttpHeaders headers = new HttpHeaders(httpResponse.headers());
+            String etag = headers.get(HttpHeaders.ETAG);
+            if (Objects.isNull(etag)) {
+                etag = etag(httpResponse.body());
+                headers.put(HttpHeaders.ETAG, etag);
+            }
+            String lastModified = headers.get(HttpHeaders.LAST_MODIFIED);
+            if (Objects.isNull(lastModified)) {
+                lastModified = HTTP_DATE.format(Instant.now().truncatedTo(ChronoUnit.SECONDS));
+                headers.put(HttpHeaders.LAST_MODIFIED, lastModified);
+            }
+            final HttpResponse response = new HttpResponse(httpResponse.version(), httpResponse.statusCode(),
+                    httpResponse.reason(), headers, httpResponse.body());
+            return new Entry(response, etag, lastModified, expiresAt);
+        }
+
+        private int size() {
+            return Objects.isNull(this.response.body()) ? 0 : this.response.body().length;
+        }
+
+        /**
+         * Проверяет условия запроса. Заголовок {@code If-Modified-Since} не учитывается при наличии
+         * заголовка {@code If-None-Match}
+         */
+        private boolean isNotModified(final Map<String, String> requestHeaders) {
+            final String ifNoneMatch = requestHeaders.get(HttpHeaders.IF_NONE_MATCH);
+            if (Objects.nonNull(ifNoneMatch)) {
+                return matches(ifNoneMatch);
+            }
+
+            final String ifModifiedSince = requestHeaders.get(HttpHeaders.IF_MODIFIED_SINCE);
+            if (Objects.isNull(ifModifiedSince)) {
+                return false;
+            }
+            if (ifModifiedSince.equals(this.lastModifiedHeader)) {
+                return true;
+            }
+            final Instant since = parseDate(ifModifiedSince);
+            return Objects.nonNull(since) && Objects.nonNull(this.lastModified) && !this.lastModified.isAfter(since);
+        }
+
+        /**
+         * Сравнивает теги сущности без учета признака слабого тега
+         */
+        private boolean matches(final String ifNoneMatch) {
+            if (ifNoneMatch.trim().equals("*")) {
+                return true;
+            }
+            final String etag = opaqueTag(this.etag);
+            for (final String candidate : ifNoneMatch.split(",")) {
+                if (opaqueTag(candidate.trim()).equals(etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static String opaqueTag(final String etag) {
+            return etag.startsWith("W/") ? etag.substring(2) : etag;
+        }
+
+        private static String etag(final byte[] body) {
+            final CRC32C checksum = new CRC32C();
+            if (Objects.nonNull(body)) {
+                checksum.update(body);
+            }
+            final int length = Objects.isNull(body) ? 0 : body.length;
+            return '"' + Integer.toHexString(length) + '-' + Long.toHexString(checksum.getValue()) + '"';
+        }
+
+        private static Instant parseDate(final String date) {
+            try {
+                return ZonedDateTime.parse(date, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+            } catch (DateTimeParseException e) {
+                return null;
+            }
+        }
+
+    }
+
+    /**
+     * Директивы заголовка {@code Cache-Control}, учитываемые кешем
+     * @param noStore директива {@code no-store}
+     * @param noCache директива {@code no-cache}
+     * @param isPrivate директива {@code private}
+     * @param maxAge значение директивы {@code max-age} в секундах, либо {@code -1}
+     * @param sharedMaxAge значение директивы {@code s-maxage} в секундах, либо {@code -1}
+     */
+    private record CacheControl(boolean noStore, boolean noCache, boolean isPrivate, long maxAge, long sharedMaxAge) {
+
+        private static final CacheControl EMPTY = new CacheControl(false, false, false, -1, -1);
+
+        private static CacheControl parse(final String header) {
+            if (Objects.isNull(header) || header.isBlank()) {
+                return EMPTY;
+            }
+
+            boolean noStore = false;
+            boolean noCache = false;
+            boolean isPrivate = false;
+            long maxAge = -1;
+            long sharedMaxAge = -1;
+            for (final String directive : header.split(",")) {
+                final int separator = directive.indexOf('=');
+                final String name = (separator < 0 ? directive : directive.substring(0, separator)).trim().toLowerCase(Locale.ROOT);
+                final String value = separator < 0 ? null : unquote(directive.substring(separator + 1).trim());
+                switch (name) {
+                    case "no-store" -> noStore = true;
+                    case "no-cache" -> noCache = true;
+                    case "private" -> isPrivate = true;
+                    case "max-age" -> maxAge = seconds(value);
+                    case "s-maxage" -> sharedMaxAge = seconds(value);
+                    default -> { }
+                }
+            }
+            return new CacheControl(noStore, noCache, isPrivate, maxAge, sharedMaxAge);
+        }
+
+        private static String unquote(final String value) {
+            return value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")
+                    ? value.substring(1, value.length() - 1) : value;
+        }
+
+        /**
+         * Разбирает количество секунд. Некорректное значение трактуется как нулевое время хранения
+         */
+        private static long seconds(final String value) {
+            if (Objects.isNull(value)) {
+                return 0;
+            }
+            try {
+                return Math.max(0, Long.parseLong(value));
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,4 @@
+/**
+ * Содержит кеш HTTP-ответов, выполняемый перед вызовом обработчиков запросов
+ */
+package org.owl.services.yaujrest.cache;
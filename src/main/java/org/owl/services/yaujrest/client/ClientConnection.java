@@ -0,0 +1,264 @@
+package org.owl.services.yaujrest.client;
+
+import org.owl.services.yaujrest.http.HttpHeaders;
+import org.owl.services.yaujrest.http.HttpRequest;
+import org.owl.services.yaujrest.http.HttpResponse;
+import org.owl.services.yaujrest.http.Method;
+import org.owl.services.yaujrest.http.parser.HttpMessageDecoder;
+import org.owl.services.yaujrest.http.parser.HttpMessageParseException;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Постоянное соединение клиента с сервером.
+ * <p>
+ * Запросы выполняются в соединении по очереди: запрос записывается целиком, после чего ответ считывается
+ * в буфер соединения и разбирается анализатором {@link HttpMessageDecoder}. Буфер и анализатор используются
+ * повторно для всех запросов соединения. Промежуточные ответы {@code 1xx} пропускаются.
+ * <p>
+ * После получения ответа метод {@link #isReusable()} сообщает, может ли соединение быть использовано повторно
+ */
+final class ClientConnection implements Closeable {
+
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private static final int MAX_RETAINED_BUFFER_SIZE = 64 * 1024;
+
+    private static final int WRITE_BUFFER_SIZE = 8 * 1024;
+
+    private static final byte[] CRLF = {'\r', '\n'};
+
+    private static final byte[] LAST_CHUNK = "0\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final Socket socket;
+
+    private final InputStream inputStream;
+
+    private final OutputStream outputStream;
+
+    private final HttpMessageDecoder decoder;
+
+    private byte[] buffer = new byte[BUFFER_SIZE];
+
+    private int length;
+
+    private int exchanges;
+
+    private boolean receivedBytes;
+
+    private boolean reusable;
+
+    private long idleSince;
+
+    private ClientConnection(final Socket socket, final HttpClient.Settings settings) throws IOException {
+        this.socket = socket;
+        this.inputStream = socket.getInputStream();
+        this.outputStream = new BufferedOutputStream(socket.getOutputStream(), WRITE_BUFFER_SIZE);
+        this.decoder = HttpMessageDecoder.forResponses(settings.maxResponseBodySize(), settings.maxResponseHeadSize(),
+                settings.maxResponseHeaders());
+    }
+
+    /**
+     * Открывает соединение с сервером
+     * @param host имя узла сервера
+     * @param port порт сервера
+     * @param settings параметры соединений клиента
+     * @return открытое соединение
+     * @throws IOException выбрасывается, если соединение не удалось установить
+     */
+    static ClientConnection open(final String host, final int port, final HttpClient.Settings settings) throws IOException {
+        final Socket socket = new Socket();
+        try {
+            socket.setTcpNoDelay(true);
+            socket.connect(new InetSocketAddress(host, port), settings.connectTimeoutMillis());
+            socket.setSoTimeout(settings.readTimeoutMillis());
+            return new ClientConnection(socket, settings);
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Выполняет HTTP-запрос в соединении
+     * @param httpRequest HTTP-запрос с абсолютным URI
+     * @return HTTP-ответ
+     * @throws IOException выбрасывается в случае ошибки ввода-вывода, в том числе истечения времени ожидания ответа
+     * @throws HttpMessageParseException выбрасывается в случае некорректного формата HTTP-ответа
+     */
+    HttpResponse exchange(final HttpRequest httpRequest) throws IOException {
+        this.exchanges++;
+        this.receivedBytes = false;
+        this.reusable = false;
+
+        write(httpRequest);
+
+        HttpResponse httpResponse;
+        do {
+            httpResponse = read(httpRequest.method() == Method.HEAD);
+        } while (httpResponse.statusCode() >= 100 && httpResponse.statusCode() < 200 && httpResponse.statusCode() != 101);
+
+        this.reusable = this.reusable && isKeepAlive(httpRequest, httpResponse);
+        if (this.buffer.length > MAX_RETAINED_BUFFER_SIZE && this.length <= BUFFER_SIZE) {
+            this.buffer = Arrays.copyOf(this.buffer, BUFFER_SIZE);
+        }
+        return httpResponse;
+    }
+
+    private void write(final HttpRequest httpRequest) throws IOException {
+        final ReadableByteChannel bodyChannel = httpRequest.bodyChannel();
+        final byte[] body = httpRequest.body();
+        final long contentLength = Objects.nonNull(bodyChannel) ? -1
+                : Objects.nonNull(body) ? body.length
+                : hasPayloadSemantics(httpRequest.method()) ? 0 : -1;
+
+        this.outputStream.write(HttpRequestEncoder.encodeHead(httpRequest, contentLength, Objects.nonNull(bodyChannel)));
+        if (Objects.nonNull(bodyChannel)) {
+            writeChunked(bodyChannel);
+        } else if (Objects.nonNull(body)) {
+            this.outputStream.write(body);
+        }
+        this.outputStream.flush();
+    }
+
+    private void writeChunked(final ReadableByteChannel bodyChannel) throws IOException {
+        final ByteBuffer chunk = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+        while (bodyChannel.read(chunk.clear()) >= 0) {
+            if (chunk.position() > 0) {
+                this.outputStream.write(Integer.toHexString(chunk.position()).getBytes(StandardCharsets.US_ASCII));
+                this.outputStream.write(CRLF);
+                this.outputStream.write(chunk.array(), 0, chunk.position());
+                this.outputStream.write(CRLF);
+            }
+        }
+        this.outputStream.write(LAST_CHUNK);
+    }
+
+    private HttpResponse read(final boolean head) throws IOException {
+        this.decoder.reset();
+        boolean untilEof = false;
+        while (!(head ? this.decoder.parseHead(this.buffer, 0, this.length) : this.decoder.parse(this.buffer, 0, this.length))) {
+            if (this.length == this.buffer.length) {
+                this.buffer = Arrays.copyOf(this.buffer, this.buffer.length * 2);
+            }
+
+            final int read = this.inputStream.read(this.buffer, this.length, this.buffer.length - this.length);
+            if (read < 0) {
+                if (!head && this.decoder.finish(this.buffer, 0, this.length)) {
+                    untilEof = true;
+                    break;
+                }
+                throw new IOException(this.receivedBytes
+                        ? "Connection closed before response was received completely"
+                        : "Connection closed by server");
+            }
+            this.receivedBytes = true;
+            this.length += read;
+        }
+
+        final HttpResponse httpResponse;
+        final int messageLength;
+        if (head) {
+            httpResponse = this.decoder.toHttpResponseHead(this.buffer, 0);
+            messageLength = this.decoder.headLength();
+        } else {
+            httpResponse = this.decoder.toHttpResponse(this.buffer, 0);
+            messageLength = this.decoder.messageLength();
+        }
+        this.length -= messageLength;
+        System.arraycopy(this.buffer, messageLength, this.buffer, 0, this.length);
+        this.reusable = !untilEof;
+        return httpResponse;
+    }
+
+    private static boolean isKeepAlive(final HttpRequest httpRequest, final HttpResponse httpResponse) {
+        if (hasToken(Objects.isNull(httpRequest.headers()) ? null : httpRequest.headers().get(HttpHeaders.CONNECTION), "close")) {
+            return false;
+        }
+        final String connection = connectionHeader(httpResponse);
+        if (httpResponse.version().major() == 1 && httpResponse.version().minor() == 0) {
+            return hasToken(connection, "keep-alive");
+        }
+        return !hasToken(connection, "close") && httpResponse.statusCode() != 101;
+    }
+
+    private static String connectionHeader(final HttpResponse httpResponse) {
+        return Objects.isNull(httpResponse.headers()) ? null : httpResponse.headers().get(HttpHeaders.CONNECTION);
+    }
+
+    private static boolean hasToken(final String value, final String token) {
+        if (Objects.isNull(value)) {
+            return false;
+        }
+        for (final String element : value.split(",")) {
+            if (element.trim().equalsIgnoreCase(token)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasPayloadSemantics(final Method method) {
+        return method == Method.POST || method == Method.PUT || method == Method.PATCH;
+    }
+
+    /**
+     * Проверяет, может ли соединение быть использовано повторно после получения ответа
+     * @return {@code true}, если ответ получен полностью и ни одна из сторон не требует закрытия соединения
+     */
+    boolean isReusable() {
+        return this.reusable && !this.socket.isClosed();
+    }
+
+    /**
+     * Проверяет, выполнялись ли в соединении запросы до текущего
+     * @return {@code true}, если соединение было получено из пула
+     */
+    boolean isReused() {
+        return this.exchanges > 1;
+    }
+
+    /**
+     * Проверяет, были ли получены байты ответа на текущий запрос
+     * @return {@code true}, если сервер начал передавать ответ
+     */
+    boolean hasReceivedBytes() {
+        return this.receivedBytes;
+    }
+
+    /**
+     * Возвращает момент перехода соединения в пул
+     * @return значение {@link System#nanoTime()} на момент возврата соединения в пул
+     */
+    long idleSince() {
+        return this.idleSince;
+    }
+
+    /**
+     * Запоминает момент перехода соединения в пул
+     * @param idleSince значение {@link System#nanoTime()}
+     */
+    void idleSince(final long idleSince) {
+        this.idleSince = idleSince;
+    }
+
+    @Override
+    public void close() {
+        try {
+            this.socket.close();
+        } catch (IOException ignored) {
+            // Соединение уже разорвано
+        }
+    }
+
+}
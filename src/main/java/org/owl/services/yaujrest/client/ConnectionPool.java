@@ -0,0 +1,134 @@
+package org.owl.services.yaujrest.client;
+
+import java.io.IOException;
+import java.util.Deque;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Пул постоянных соединений с одним сервером.
+ * <p>
+ * Количество соединений, открытых пулом, ограничивается: при достижении ограничения запрос ожидает возврата
+ * соединения в пул. Свободные соединения выдаются в порядке, обратном порядку возврата, чтобы реже используемые
+ * соединения закрывались по истечении времени простоя, а не поддерживались редкими запросами
+ */
+final class ConnectionPool {
+
+    private final String host;
+
+    private final int port;
+
+    private final HttpClient.Settings settings;
+
+    private final Semaphore permits;
+
+    private final Deque<ClientConnection> idle = new ConcurrentLinkedDeque<>();
+
+    private final AtomicInteger openedConnections = new AtomicInteger();
+
+    private volatile boolean closed;
+
+    ConnectionPool(final String host, final int port, final HttpClient.Settings settings) {
+        this.host = host;
+        this.port = port;
+        this.settings = settings;
+        this.permits = new Semaphore(settings.maxConnectionsPerHost(), true);
+    }
+
+    /**
+     * Выдает свободное соединение из пула либо открывает новое
+     * @param fresh требуется ли новое соединение вместо свободного
+     * @return соединение с сервером
+     * @throws HttpClientException выбрасывается, если соединение не освободилось или не было установлено за время
+     *                             ожидания установки соединения
+     */
+    ClientConnection acquire(final boolean fresh) {
+        try {
+            if (!this.permits.tryAcquire(this.settings.connectTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+                throw new HttpClientException("Timed out waiting for a free connection to " + this.host + ":" + this.port);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HttpClientException("Interrupted while waiting for a free connection to " + this.host + ":" + this.port, e);
+        }
+
+        if (!fresh) {
+            final long now = System.nanoTime();
+            ClientConnection connection;
+            while (Objects.nonNull(connection = this.idle.pollFirst())) {
+                if (now - connection.idleSince() < this.settings.idleTimeoutNanos()) {
+                    return connection;
+                }
+                connection.close();
+            }
+        }
+
+        try {
+            final ClientConnection connection = ClientConnection.open(this.host, this.port, this.settings);
+            this.openedConnections.incrementAndGet();
+            return connection;
+        } catch (IOException e) {
+            this.permits.release();
+            throw new HttpClientException("Unable to connect to " + this.host + ":" + this.port, e);
+        }
+    }
+
+    /**
+     * Возвращает соединение в пул. Соединение, которое не может быть использовано повторно, закрывается
+     * @param connection соединение, выданное пулом
+     */
+    void release(final ClientConnection connection) {
+        if (connection.isReusable() && !this.closed) {
+            final long now = System.nanoTime();
+            connection.idleSince(now);
+            this.idle.offerFirst(connection);
+            evictExpired(now);
+            if (this.closed && this.idle.remove(connection)) {
+                connection.close();
+            }
+        } else {
+            connection.close();
+        }
+        this.permits.release();
+    }
+
+    private void evictExpired(final long now) {
+        ClientConnection eldest;
+        while (Objects.nonNull(eldest = this.idle.peekLast()) && now - eldest.idleSince() >= this.settings.idleTimeoutNanos()) {
+            if (this.idle.removeLastOccurrence(eldest)) {
+                eldest.close();
+            }
+        }
+    }
+
+    /**
+     * Возвращает количество свободных соединений
+     * @return количество соединений в пуле
+     */
+    int idleConnections() {
+        return this.idle.size();
+    }
+
+    /**
+     * Возвращает количество соединений, открытых пулом за все время работы
+     * @return количество открытых соединений
+     */
+    int openedConnections() {
+        return this.openedConnections.get();
+    }
+
+    /**
+     * Закрывает свободные соединения. Соединения, выданные пулом, закрываются при возврате
+     */
+    void close() {
+        this.closed = true;
+        ClientConnection connection;
+        while (Objects.nonNull(connection = this.idle.pollFirst())) {
+            connection.close();
+        }
+    }
+
+}
@@ -0,0 +1,295 @@
+package org.owl.services.yaujrest.client;
+
+import org.owl.services.yaujrest.http.HttpRequest;
+import org.owl.services.yaujrest.http.HttpResponse;
+import org.owl.services.yaujrest.http.Method;
+import org.owl.services.yaujrest.http.parser.HttpMessageDecoder;
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * HTTP-клиент с пулом постоянных соединений.
+ * <p>
+ * Запросы задаются объектами {@link HttpRequest} с абсолютным URI схемы {@code http}, ответы возвращаются
+ * объектами {@link HttpResponse} и разбираются тем же анализатором, что и запросы на стороне сервера.
+ * Для каждого сервера (имени узла и порта) клиент поддерживает отдельный пул соединений, которые после получения
+ * ответа остаются открытыми и используются повторно (HTTP keep-alive). Количество соединений с одним сервером
+ * ограничивается, а соединения, простаивающие дольше установленного времени, закрываются.
+ * <p>
+ * Если сервер закрыл постоянное соединение, не отправив ни одного байта ответа, идемпотентный запрос
+ * однократно повторяется в новом соединении.
+ * <p>
+ * Метод {@link #sendAsync(HttpRequest)} выполняет запросы задачами исполнителя, по умолчанию виртуальными потоками.
+ * <p>
+ * Например:
+ * <p>
+ * <blockquote><pre>
+ * try (final HttpClient client = HttpClient.builder().maxConnectionsPerHost(16).build()) {
+ *     final HttpResponse httpResponse = client.send(new HttpRequest(Method.GET,
+ *             URI.create("http://localhost:8080/items/1"), new Version(1, 1), Map.of(), null));
+ * }
+ * </pre></blockquote>
+ */
+public final class HttpClient implements AutoCloseable {
+
+    /**
+     * Параметры соединений, общие для пулов клиента
+     * @param connectTimeoutMillis время ожидания установки соединения либо освобождения соединения в пуле
+     * @param readTimeoutMillis время ожидания очередной части ответа
+     * @param idleTimeoutNanos время простоя соединения в пуле
+     * @param maxConnectionsPerHost максимальное количество соединений с одним сервером
+     * @param maxResponseBodySize максимальный размер тела ответа в байтах
+     * @param maxResponseHeadSize максимальный размер заголовка ответа в байтах
+     * @param maxResponseHeaders максимальное количество заголовков ответа
+     */
+    record Settings(int connectTimeoutMillis, int readTimeoutMillis, long idleTimeoutNanos, int maxConnectionsPerHost,
+                    int maxResponseBodySize, int maxResponseHeadSize, int maxResponseHeaders) { }
+
+    private record Address(String host, int port) { }
+
+    private final Settings settings;
+
+    private final ExecutorService executorService;
+
+    private final boolean ownsExecutor;
+
+    private final Map<Address, ConnectionPool> pools = new ConcurrentHashMap<>();
+
+    private volatile boolean closed;
+
+    private HttpClient(final HttpClientBuilder builder) {
+        this.settings = new Settings((int) Math.min(Integer.MAX_VALUE, builder.connectTimeout.toMillis()),
+                (int) Math.min(Integer.MAX_VALUE, builder.readTimeout.toMillis()), builder.idleTimeout.toNanos(),
+                builder.maxConnectionsPerHost, builder.maxResponseBodySize, builder.maxResponseHeadSize,
+                builder.maxResponseHeaders);
+        this.executorService = builder.executorFactory.get();
+        this.ownsExecutor = builder.ownsExecutor;
+    }
+
+    /**
+     * Класс использующийся для получения экземпляра HTTP-клиента
+     */
+    public static final class HttpClientBuilder {
+
+        private Duration connectTimeout = Duration.ofSeconds(10);
+        private Duration readTimeout = Duration.ofSeconds(30);
+        private Duration idleTimeout = Duration.ofSeconds(30);
+        private int maxConnectionsPerHost = 8;
+        private int maxResponseBodySize = 10 * 1024 * 1024;
+        private int maxResponseHeadSize = HttpMessageDecoder.DEFAULT_MAX_HEAD_SIZE;
+        private int maxResponseHeaders = HttpMessageDecoder.DEFAULT_MAX_HEADERS;
+        private Supplier<ExecutorService> executorFactory = Executors::newVirtualThreadPerTaskExecutor;
+        private boolean ownsExecutor = true;
+
+        private HttpClientBuilder() { }
+
+        /**
+         * Устанавливает время ожидания установки соединения. Это же время запрос ожидает освобождения соединения,
+         * если количество соединений с сервером достигло ограничения. По умолчанию составляет 10 секунд
+         * @param connectTimeout время ожидания установки соединения
+         * @return текущий объект-строитель
+         */
+        public HttpClientBuilder connectTimeout(final Duration connectTimeout) {
+            if (connectTimeout.isNegative() || connectTimeout.isZero()) {
+                throw new IllegalArgumentException("Connect timeout must be positive");
+            }
+            this.connectTimeout = connectTimeout;
+            return this;
+        }
+
+        /**
+         * Устанавливает время ожидания очередной части ответа. По умолчанию составляет 30 секунд
+         * @param readTimeout время ожидания чтения из соединения
+         * @return текущий объект-строитель
+         */
+        public HttpClientBuilder readTimeout(final Duration readTimeout) {
+            if (readTimeout.isNegative() || readTimeout.isZero()) {
+                throw new IllegalArgumentException("Read timeout must be positive");
+            }
+            this.readTimeout = readTimeout;
+            return this;
+        }
+
+        /**
+         * Устанавливает время простоя соединения в пуле, по истечении которого оно закрывается. Время должно быть
+         * меньше времени простоя, установленного на сервере. По умолчанию составляет 30 секунд
+         * @param idleTimeout время простоя соединения
+         * @return текущий объект-строитель
+         */
+        public HttpClientBuilder idleTimeout(final Duration idleTimeout) {
+            if (idleTimeout.isNegative() || idleTimeout.isZero()) {
+                throw new IllegalArgumentException("Idle timeout must be positive");
+            }
+            this.idleTimeout = idleTimeout;
+            return this;
+        }
+
+        /**
+         * Устанавливает максимальное количество одновременно открытых соединений с одним сервером.
+         * По умолчанию составляет 8
+         * @param maxConnectionsPerHost максимальное количество соединений с сервером
+         * @return текущий объект-строитель
+         */
+        public HttpClientBuilder maxConnectionsPerHost(final int maxConnectionsPerHost) {
+            if (maxConnectionsPerHost < 1) {
+                throw new IllegalArgumentException("Maximum number of connections per host must be positive");
+            }
+            this.maxConnectionsPerHost = maxConnectionsPerHost;
+            return this;
+        }
+
+        /**
+         * Устанавливает максимальный размер тела ответа. По умолчанию составляет 10 МиБ
+         * @param maxResponseBodySize максимальный размер тела ответа в байтах
+         * @return текущий объект-строитель
+         */
+        public HttpClientBuilder maxResponseBodySize(final int maxResponseBodySize) {
+            if (maxResponseBodySize < 0) {
+                throw new IllegalArgumentException("Maximum response body size must not be negative");
+            }
+            this.maxResponseBodySize = maxResponseBodySize;
+            return this;
+        }
+
+        /**
+         * Устанавливает максимальный размер заголовка ответа - стартовой строки и заголовков.
+         * По умолчанию составляет 16 КиБ
+         * @param maxResponseHeadSize максимальный размер заголовка ответа в байтах
+         * @return текущий объект-строитель
+         */
+        public HttpClientBuilder maxResponseHeadSize(final int maxResponseHeadSize) {
+            if (maxResponseHeadSize < 1) {
+                throw new IllegalArgumentException("Maximum response head size must be positive");
+            }
+            this.maxResponseHeadSize = maxResponseHeadSize;
+            return this;
+        }
+
+        /**
+         * Устанавливает максимальное количество заголовков ответа. По умолчанию составляет 100
+         * @param maxResponseHeaders максимальное количество заголовков ответа
+         * @return текущий объект-строитель
+         */
+        public HttpClientBuilder maxResponseHeaders(final int maxResponseHeaders) {
+            if (maxResponseHeaders < 0) {
+                throw new IllegalArgumentException("Maximum number of response headers must not be negative");
+            }
+            this.maxResponseHeaders = maxResponseHeaders;
+            return this;
+        }
+
+        /**
+         * Устанавливает исполнитель асинхронных запросов, жизненным циклом которого управляет вызывающая сторона.
+         * Переданный исполнитель не останавливается при закрытии клиента. По умолчанию асинхронные запросы
+         * выполняются виртуальными потоками
+         * @param executorService исполнитель задач
+         * @return текущий объект-строитель
+         */
+        public HttpClientBuilder executor(final ExecutorService executorService) {
+            Objects.requireNonNull(executorService);
+            this.executorFactory = () -> executorService;
+            this.ownsExecutor = false;
+            return this;
+        }
+
+        /**
+         * Создает экземпляр HTTP-клиента
+         * @return экземпляр класса {@code HttpClient}
+         */
+        public HttpClient build() {
+            return new HttpClient(this);
+        }
+
+    }
+
+    /**
+     * Возвращает объект-строитель HTTP-клиента
+     * @return объект-строитель HTTP-клиента
+     */
+    public static HttpClientBuilder builder() {
+        return new HttpClientBuilder();
+    }
+
+    /**
+     * Выполняет HTTP-запрос и ожидает ответ
+     * @param httpRequest HTTP-запрос с абсолютным URI схемы {@code http}
+     * @return HTTP-ответ
+     * @throws HttpClientException выбрасывается в случае ошибки соединения или истечения времени ожидания
+     * @throws org.owl.services.yaujrest.http.parser.HttpMessageParseException выбрасывается в случае некорректного
+     *         формата HTTP-ответа
+     * @throws IllegalArgumentException выбрасывается, если URI запроса не является абсолютным URI схемы {@code http}
+     */
+    public HttpResponse send(final HttpRequest httpRequest) {
+        if (this.closed) {
+            throw new IllegalStateException("HTTP client is closed");
+        }
+
+        final ConnectionPool pool = pool(httpRequest.uri());
+        boolean fresh = false;
+        while (true) {
+            final ClientConnection connection = pool.acquire(fresh);
+            try {
+                return connection.exchange(httpRequest);
+            } catch (SocketTimeoutException e) {
+                throw new HttpClientException("Timed out waiting for response from " + httpRequest.uri(), e);
+            } catch (IOException e) {
+                if (!fresh && connection.isReused() && !connection.hasReceivedBytes() && isRetryable(httpRequest)) {
+                    fresh = true;
+                    continue;
+                }
+                throw new HttpClientException("Unable to execute request to " + httpRequest.uri(), e);
+            } finally {
+                pool.release(connection);
+            }
+        }
+    }
+
+    /**
+     * Выполняет HTTP-запрос задачей исполнителя
+     * @param httpRequest HTTP-запрос с абсолютным URI схемы {@code http}
+     * @return HTTP-ответ, который будет получен; при ошибке завершается исключением {@link HttpClientException}
+     */
+    public CompletableFuture<HttpResponse> sendAsync(final HttpRequest httpRequest) {
+        return CompletableFuture.supplyAsync(() -> send(httpRequest), this.executorService);
+    }
+
+    /**
+     * Закрывает свободные соединения и останавливает исполнитель асинхронных запросов, если он был создан клиентом.
+     * Соединения выполняемых запросов закрываются после получения ответа
+     */
+    @Override
+    public void close() {
+        this.closed = true;
+        this.pools.values().forEach(ConnectionPool::close);
+        if (this.ownsExecutor) {
+            this.executorService.shutdown();
+        }
+    }
+
+    /**
+     * Возвращает пул соединений с сервером
+     * @param uri абсолютный URI ресурса на сервере
+     * @return пул соединений
+     */
+    ConnectionPool pool(final URI uri) {
+        if (!"http".equalsIgnoreCase(uri.getScheme()) || Objects.isNull(uri.getHost())) {
+            throw new IllegalArgumentException("Request URI must be an absolute http URI: " + uri);
+        }
+        final Address address = new Address(uri.getHost(), uri.getPort() < 0 ? 80 : uri.getPort());
+        return this.pools.computeIfAbsent(address, key -> new ConnectionPool(key.host(), key.port(), this.settings));
+    }
+
+    private static boolean isRetryable(final HttpRequest httpRequest) {
+        return !httpRequest.isBodyStreamed() && httpRequest.method() != Method.POST && httpRequest.method() != Method.PATCH;
+    }
+
+}
@@ -0,0 +1,15 @@
+package org.owl.services.yaujrest.client;
+
+/**
+ * Исключение выбрасываемое в случае ошибки соединения с сервером, истечения времени ожидания
+ * или невозможности получить ответ на HTTP-запрос
+ */
+public class HttpClientException extends RuntimeException {
+    public HttpClientException(String message) {
+        super(message);
+    }
+
+    public HttpClientException(String message, Exception exception) {
+        super(message, exception);
+    }
+}
@@ -0,0 +1,115 @@
+package org.owl.services.yaujrest.client;
+
+import org.owl.services.yaujrest.http.HttpHeaders;
+import org.owl.services.yaujrest.http.HttpRequest;
+import org.owl.services.yaujrest.http.Version;
+import java.net.URI;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Кодировщик заголовка HTTP-запроса, отправляемого клиентом.
+ * <p>
+ * Цель запроса записывается в форме пути со строкой запроса (origin-form), а заголовок {@code Host}
+ * добавляется по URI запроса, если он не задан явно. Заголовки разграничения сообщения
+ * ({@code Content-Length} и {@code Transfer-Encoding}) определяются телом запроса и заменяют одноименные
+ * заголовки запроса. Символы записываются как байты ISO-8859-1
+ */
+final class HttpRequestEncoder {
+
+    private static final Version HTTP_1_1 = new Version(1, 1);
+
+    private HttpRequestEncoder() { }
+
+    /**
+     * Кодирует заголовок HTTP-запроса в массив точного размера
+     * @param httpRequest HTTP-запрос с абсолютным URI
+     * @param contentLength значение заголовка {@code Content-Length}, либо {@code -1}, если заголовок не записывается
+     * @param chunked передается ли тело с кодированием {@code Transfer-Encoding: chunked}
+     * @return представление заголовка HTTP-запроса в виде {@code byte[]}
+     */
+    static byte[] encodeHead(final HttpRequest httpRequest, final long contentLength, final boolean chunked) {
+        final URI uri = httpRequest.uri();
+        final Version version = Objects.isNull(httpRequest.version()) ? HTTP_1_1 : httpRequest.version();
+        final String target = target(uri);
+        final Map<String, String> headers = httpRequest.headers();
+        final boolean hasHost = Objects.nonNull(headers) && headers.keySet().stream().anyMatch(HttpHeaders.HOST::equalsIgnoreCase);
+
+        int length = httpRequest.method().name().length() + 1 + target.length() + 1 + version.toString().length() + 2;
+        if (Objects.nonNull(headers)) {
+            for (final Map.Entry<String, String> header : headers.entrySet()) {
+                if (!isReplaced(header.getKey())) {
+                    length += header.getKey().length() + header.getValue().length() + 4;
+                }
+            }
+        }
+        final String host = hasHost ? null : host(uri);
+        if (Objects.nonNull(host)) {
+            length += HttpHeaders.HOST.length() + host.length() + 4;
+        }
+        final String framing = chunked ? "chunked" : contentLength >= 0 ? Long.toString(contentLength) : null;
+        if (Objects.nonNull(framing)) {
+            length += (chunked ? HttpHeaders.TRANSFER_ENCODING : HttpHeaders.CONTENT_LENGTH).length() + framing.length() + 4;
+        }
+        length += 2;
+
+        final byte[] bytes = new byte[length];
+        int p = writeString(httpRequest.method().name(), bytes, 0);
+        bytes[p++] = ' ';
+        p = writeString(target, bytes, p);
+        bytes[p++] = ' ';
+        p = writeString(version.toString(), bytes, p);
+        p = writeCrlf(bytes, p);
+        if (Objects.nonNull(host)) {
+            p = writeHeader(HttpHeaders.HOST, host, bytes, p);
+        }
+        if (Objects.nonNull(headers)) {
+            for (final Map.Entry<String, String> header : headers.entrySet()) {
+                if (!isReplaced(header.getKey())) {
+                    p = writeHeader(header.getKey(), header.getValue(), bytes, p);
+                }
+            }
+        }
+        if (Objects.nonNull(framing)) {
+            p = writeHeader(chunked ? HttpHeaders.TRANSFER_ENCODING : HttpHeaders.CONTENT_LENGTH, framing, bytes, p);
+        }
+        writeCrlf(bytes, p);
+        return bytes;
+    }
+
+    private static String target(final URI uri) {
+        final String path = Objects.isNull(uri.getRawPath()) || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+        return Objects.isNull(uri.getRawQuery()) ? path : path + '?' + uri.getRawQuery();
+    }
+
+    private static String host(final URI uri) {
+        return uri.getPort() < 0 ? uri.getHost() : uri.getHost() + ':' + uri.getPort();
+    }
+
+    private static boolean isReplaced(final String name) {
+        return name.equalsIgnoreCase(HttpHeaders.CONTENT_LENGTH) || name.equalsIgnoreCase(HttpHeaders.TRANSFER_ENCODING);
+    }
+
+    private static int writeHeader(final String name, final String value, final byte[] target, final int offset) {
+        int p = writeString(name, target, offset);
+        target[p++] = ':';
+        target[p++] = ' ';
+        p = writeString(value, target, p);
+        return writeCrlf(target, p);
+    }
+
+    private static int writeString(final String value, final byte[] target, final int offset) {
+        final int length = value.length();
+        for (int i = 0; i < length; i++) {
+            target[offset + i] = (byte) value.charAt(i);
+        }
+        return offset + length;
+    }
+
+    private static int writeCrlf(final byte[] target, final int offset) {
+        target[offset] = '\r';
+        target[offset + 1] = '\n';
+        return offset + 2;
+    }
+
+}
@@ -0,0 +1,4 @@
+/**
+ * Содержит HTTP-клиент с пулом постоянных соединений, использующий общее с сервером представление HTTP-сообщений
+ */
+package org.owl.services.yaujrest.client;
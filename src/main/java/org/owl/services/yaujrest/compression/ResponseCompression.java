@@ -0,0 +1,418 @@
+package org.owl.services.yaujrest.compression;
+
+import org.owl.services.yaujrest.http.HttpHeaders;
+import org.owl.services.yaujrest.http.HttpRequest;
+import org.owl.services.yaujrest.http.HttpResponse;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Сжатие тел HTTP-ответов методами {@code gzip} и {@code deflate}.
+ * <p>
+ * Метод сжатия выбирается по заголовку {@code Accept-Encoding} запроса с учетом весов {@code q}; при равных
+ * весах предпочитается {@code gzip}. Сжимаются только тела, заданные массивом байтов, ответов с кодами {@code 2xx},
+ * кроме {@code 204} и {@code 206}. Не сжимаются тела меньше минимального размера, ответы с заголовком
+ * {@code Content-Encoding}, а также ответы, тип содержимого которых уже сжат: изображения (кроме SVG), аудио,
+ * видео, архивы и {@code application/octet-stream}. Если сжатое тело не меньше исходного, отправляется исходное.
+ * <p>
+ * Ответ, тело которого может быть сжато, дополняется заголовком {@code Vary: Accept-Encoding}. Сжатый ответ
+ * получает заголовок {@code Content-Encoding}, а его тег сущности {@code ETag} становится слабым, поскольку
+ * сжатое представление отличается от исходного побайтно.
+ * <p>
+ * Объекты {@link Deflater} используют память вне кучи, поэтому после сжатия они возвращаются в общий пул
+ * ограниченного размера. Пул разделяется всеми потоками, поскольку при выполнении запросов виртуальными потоками
+ * каждый запрос выполняется новым потоком.
+ * <p>
+ * Сжатые тела могут сохраняться для повторного использования. Сохраненное тело связано с массивом исходного тела
+ * слабой ссылкой и удаляется вместе с ним, поэтому сохранение полезно для ответов, тело которых используется
+ * повторно: статических ответов и ответов кеша {@link org.owl.services.yaujrest.cache.ResponseCache}
+ */
+public final class ResponseCompression {
+
+    private static final String VARY_VALUE = HttpHeaders.ACCEPT_ENCODING;
+
+    private static final Set<String> COMPRESSED_TYPES = Set.of(
+            "application/gzip", "application/octet-stream", "application/pdf", "application/x-7z-compressed",
+            "application/x-bzip2", "application/x-gzip", "application/x-rar-compressed", "application/x-xz",
+            "application/zip", "application/zstd", "font/woff", "font/woff2"
+    );
+
+    /**
+     * Признак того, что сжатое тело не меньше исходного
+     */
+    private static final byte[] NOT_SMALLER = new byte[0];
+
+    private static final int GZIP_HEADER_LENGTH = 10;
+
+    private static final int GZIP_TRAILER_LENGTH = 8;
+
+    private static final int MAX_POOLED_BUFFER_SIZE = 1024 * 1024;
+
+    private final int level;
+
+    private final int minSize;
+
+    private final BlockingQueue<Encoder> gzipEncoders;
+
+    private final BlockingQueue<Encoder> deflateEncoders;
+
+    private final Map<byte[], Encoded> encodedBodies;
+
+    private ResponseCompression(final ResponseCompressionBuilder builder) {
+        this.level = builder.level;
+        this.minSize = builder.minSize;
+        this.gzipEncoders = new ArrayBlockingQueue<>(builder.maxPooledDeflaters);
+        this.deflateEncoders = new ArrayBlockingQueue<>(builder.maxPooledDeflaters);
+        this.encodedBodies = builder.cacheCompressed ? Collections.synchronizedMap(new WeakHashMap<>()) : null;
+    }
+
+    /**
+     * Класс использующийся для получения экземпляра сжатия ответов
+     */
+    public static final class ResponseCompressionBuilder {
+
+        private int level = Deflater.DEFAULT_COMPRESSION;
+        private int minSize = 1024;
+        private boolean cacheCompressed = false;
+        private int maxPooledDeflaters = Math.max(2, Runtime.getRuntime().availableProcessors() * 2);
+
+        private ResponseCompressionBuilder() { }
+
+        /**
+         * Устанавливает степень сжатия от {@code 1} (быстрое) до {@code 9} (наилучшее),
+         * либо {@link Deflater#DEFAULT_COMPRESSION}. Используется по умолчанию
+         * @param level степень сжатия
+         * @return текущий объект-строитель
+         */
+        public ResponseCompressionBuilder level(final int level) {
+            if (level != Deflater.DEFAULT_COMPRESSION && (level < Deflater.BEST_SPEED || level > Deflater.BEST_COMPRESSION)) {
+                throw new IllegalArgumentException("Compression level must be between 1 and 9");
+            }
+            this.level = level;
+            return this;
+        }
+
+        /**
+         * Устанавливает минимальный размер сжимаемого тела. По умолчанию составляет 1 КиБ
+         * @param minSize минимальный размер тела в байтах
+         * @return текущий объект-строитель
+         */
+        public ResponseCompressionBuilder minSize(final int minSize) {
+            if (minSize < 0) {
+                throw new IllegalArgumentException("Minimum compressed body size must not be negative");
+            }
+            this.minSize = minSize;
+            return this;
+        }
+
+        /**
+         * Разрешает сохранение сжатых тел для ответов с тем же массивом тела. По умолчанию запрещено
+         * @param cacheCompressed сохраняются ли сжатые тела
+         * @return текущий объект-строитель
+         */
+        public ResponseCompressionBuilder cacheCompressed(final boolean cacheCompressed) {
+            this.cacheCompressed = cacheCompressed;
+            return this;
+        }
+
+        /**
+         * Устанавливает максимальное количество объектов {@link Deflater}, хранящихся в пуле для каждого метода
+         * сжатия. По умолчанию равно удвоенному количеству процессоров
+         * @param maxPooledDeflaters максимальное количество объектов в пуле
+         * @return текущий объект-строитель
+         */
+        public ResponseCompressionBuilder maxPooledDeflaters(final int maxPooledDeflaters) {
+            if (maxPooledDeflaters < 1) {
+                throw new IllegalArgumentException("Maximum number of pooled deflaters must be positive");
+            }
+            this.maxPooledDeflaters = maxPooledDeflaters;
+            return this;
+        }
+
+        /**
+         * Создает экземпляр сжатия ответов
+         * @return экземпляр класса {@code ResponseCompression}
+         */
+        public ResponseCompression build() {
+            return new ResponseCompression(this);
+        }
+
+    }
+
+    /**
+     * Возвращает объект-строитель сжатия ответов
+     * @return объект-строитель сжатия ответов
+     */
+    public static ResponseCompressionBuilder builder() {
+        return new ResponseCompressionBuilder();
+    }
+
+    /**
+     * Сжимает тело ответа методом, выбранным по заголовку {@code Accept-Encoding} запроса
+     * @param httpRequest HTTP-запрос
+     * @param httpResponse HTTP-ответ на запрос
+     * @return ответ со сжатым телом, ответ с дополненным заголовком {@code Vary}, либо переданный ответ,
+     * если его тело не может быть сжато
+     */
+    public HttpResponse compress(final HttpRequest httpRequest, final HttpResponse httpResponse) {
+        final byte[] body = httpResponse.body();
+        final int statusCode = httpResponse.statusCode();
+        if (Objects.isNull(body) || body.length < this.minSize || statusCode < 200 || statusCode > 299
+                || statusCode == 204 || statusCode == 206) {
+            return httpResponse;
+        }
+
+        final Map<String, String> headers = headers(httpResponse.headers());
+        if (headers.containsKey(HttpHeaders.CONTENT_ENCODING) || !isCompressible(headers.get(HttpHeaders.CONTENT_TYPE))) {
+            return httpResponse;
+        }
+
+        final Coding coding = Objects.isNull(httpRequest.headers()) ? null
+                : Coding.negotiate(httpRequest.headers().get(HttpHeaders.ACCEPT_ENCODING));
+        final byte[] encoded = Objects.isNull(coding) ? NOT_SMALLER : encode(body, coding);
+
+        final HttpHeaders encodedHeaders = new HttpHeaders(headers);
+        encodedHeaders.put(HttpHeaders.VARY, vary(encodedHeaders.get(HttpHeaders.VARY)));
+        if (encoded == NOT_SMALLER) {
+            return new HttpResponse(httpResponse.version(), statusCode, httpResponse.reason(), encodedHeaders, body);
+        }
+
+        encodedHeaders.remove(HttpHeaders.CONTENT_LENGTH);
+        encodedHeaders.put(HttpHeaders.CONTENT_ENCODING, coding.token);
+        final String etag = encodedHeaders.get(HttpHeaders.ETAG);
+        if (Objects.nonNull(etag) && !etag.startsWith("W/")) {
+            encodedHeaders.put(HttpHeaders.ETAG, "W/" + etag);
+        }
+        return new HttpResponse(httpResponse.version(), statusCode, httpResponse.reason(), encodedHeaders, encoded);
+    }
+
+    private byte[] encode(final byte[] body, final Coding coding) {
+        if (Objects.isNull(this.encodedBodies)) {
+            return deflate(body, coding);
+        }
+
+        final Encoded encoded = this.encodedBodies.computeIfAbsent(body, key -> new Encoded());
+        byte[] bytes = coding == Coding.GZIP ? encoded.gzip : encoded.deflate;
+        if (Objects.isNull(bytes)) {
+            bytes = deflate(body, coding);
+            if (coding == Coding.GZIP) {
+                encoded.gzip = bytes;
+            } else {
+                encoded.deflate = bytes;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Сжимает тело ответа
+     * @return сжатое тело, либо {@link #NOT_SMALLER}, если сжатое тело не меньше исходного
+     */
+    private byte[] deflate(final byte[] body, final Coding coding) {
+        final BlockingQueue<Encoder> pool = coding == Coding.GZIP ? this.gzipEncoders : this.deflateEncoders;
+        Encoder encoder = pool.poll();
+        if (Objects.isNull(encoder)) {
+            encoder = new Encoder(new Deflater(this.level, coding == Coding.GZIP));
+        }
+
+        try {
+            final int header = coding == Coding.GZIP ? GZIP_HEADER_LENGTH : 0;
+            final int trailer = coding == Coding.GZIP ? GZIP_TRAILER_LENGTH : 0;
+            final Deflater deflater = encoder.deflater;
+            deflater.setInput(body);
+            deflater.finish();
+
+            byte[] buffer = encoder.buffer(header + bound(body.length) + trailer);
+            int length = header;
+            while (!deflater.finished()) {
+                if (length == buffer.length - trailer) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                length += deflater.deflate(buffer, length, buffer.length - trailer - length);
+            }
+            if (length + trailer >= body.length) {
+                return NOT_SMALLER;
+            }
+
+            if (coding == Coding.GZIP) {
+                final CRC32 crc = new CRC32();
+                crc.update(body);
+                writeGzipHeader(buffer);
+                writeIntLE(buffer, length, (int) crc.getValue());
+                writeIntLE(buffer, length + 4, body.length);
+            }
+            return Arrays.copyOf(buffer, length + trailer);
+        } finally {
+            encoder.deflater.reset();
+            if (!pool.offer(encoder)) {
+                encoder.deflater.end();
+            }
+        }
+    }
+
+    /**
+     * Оценка максимального размера сжатых данных, совпадающая с {@code compressBound} библиотеки zlib
+     */
+    private static int bound(final int length) {
+        return length + (length >> 12) + (length >> 14) + (length >> 25) + 13;
+    }
+
+    private static void writeGzipHeader(final byte[] buffer) {
+        buffer[0] = 0x1f;
+        buffer[1] = (byte) 0x8b;
+        buffer[2] = Deflater.DEFLATED;
+        Arrays.fill(buffer, 3, 9, (byte) 0);
+        buffer[9] = (byte) 0xff;
+    }
+
+    private static void writeIntLE(final byte[] buffer, final int offset, final int value) {
+        buffer[offset] = (byte) value;
+        buffer[offset + 1] = (byte) (value >> 8);
+        buffer[offset + 2] = (byte) (value >> 16);
+        buffer[offset + 3] = (byte) (value >> 24);
+    }
+
+    private static Map<String, String> headers(final Map<String, String> headers) {
+        if (headers instanceof HttpHeaders httpHeaders) {
+            return httpHeaders;
+        }
+        return Objects.isNull(headers) ? new HttpHeaders() : new HttpHeaders(headers);
+    }
+
+    private static boolean isCompressible(final String contentType) {
+        if (Objects.isNull(contentType)) {
+            return true;
+        }
+        final int parameters = contentType.indexOf(';');
+        final String type = (parameters < 0 ? contentType : contentType.substring(0, parameters)).trim().toLowerCase(Locale.ROOT);
+        if (type.startsWith("image/")) {
+            return type.startsWith("image/svg");
+        }
+        return !type.startsWith("audio/") && !type.startsWith("video/") && !COMPRESSED_TYPES.contains(type);
+    }
+
+    private static String vary(final String vary) {
+        if (Objects.isNull(vary) || vary.isBlank()) {
+            return VARY_VALUE;
+        }
+        for (final String header : vary.split(",")) {
+            final String name = header.trim();
+            if (name.equals("*") || name.equalsIgnoreCase(VARY_VALUE)) {
+                return vary;
+            }
+        }
+        return vary + ", " + VARY_VALUE;
+    }
+
+    /**
+     * Метод сжатия
+     */
+    private enum Coding {
+
+        GZIP("gzip"),
+
+        DEFLATE("deflate");
+
+        private final String token;
+
+        Coding(final String token) {
+            this.token = token;
+        }
+
+        /**
+         * Выбирает метод сжатия по заголовку {@code Accept-Encoding}
+         * @return метод сжатия, либо {@code null}, если клиент не принимает сжатые ответы
+         */
+        private static Coding negotiate(final String acceptEncoding) {
+            if (Objects.isNull(acceptEncoding) || acceptEncoding.isBlank()) {
+                return null;
+            }
+
+            double gzip = -1;
+            double deflate = -1;
+            double any = -1;
+            for (final String coding : acceptEncoding.split(",")) {
+                final int parameters = coding.indexOf(';');
+                final String name = (parameters < 0 ? coding : coding.substring(0, parameters)).trim().toLowerCase(Locale.ROOT);
+                final double weight = parameters < 0 ? 1 : weight(coding.substring(parameters + 1));
+                switch (name) {
+                    case "gzip", "x-gzip" -> gzip = weight;
+                    case "deflate" -> deflate = weight;
+                    case "*" -> any = weight;
+                    default -> { }
+                }
+            }
+            gzip = gzip < 0 ? any : gzip;
+            deflate = deflate < 0 ? any : deflate;
+            if (gzip <= 0 && deflate <= 0) {
+                return null;
+            }
+            return gzip >= deflate ? GZIP : DEFLATE;
+        }
+
+        private static double weight(final String parameters) {
+            for (final String parameter : parameters.split(";")) {
+                final String trimmed = parameter.trim();
+                if (trimmed.length() > 2 && (trimmed.charAt(0) == 'q' || trimmed.charAt(0) == 'Q') && trimmed.charAt(1) == '=') {
+                    try {
+                        return Double.parseDouble(trimmed.substring(2));
+                    } catch (NumberFormatException e) {
+                        return 0;
+                    }
+                }
+            }
+            return 1;
+        }
+
+    }
+
+    /**
+     * Объект {@link Deflater} вместе с буфером для сжатых данных
+     */
+    private static final class Encoder {
+
+        private final Deflater deflater;
+
+        private byte[] buffer = new byte[0];
+
+        private Encoder(final Deflater deflater) {
+            this.deflater = deflater;
+        }
+
+        /**
+         * Возвращает буфер не меньше заданного размера. Буферы больше {@link #MAX_POOLED_BUFFER_SIZE} не сохраняются
+         */
+        private byte[] buffer(final int size) {
+            if (this.buffer.length >= size) {
+                return this.buffer;
+            }
+            final byte[] buffer = new byte[size];
+            if (size <= MAX_POOLED_BUFFER_SIZE) {
+                this.buffer = buffer;
+            }
+            return buffer;
+        }
+
+    }
+
+    /**
+     * Сжатые представления одного тела
+     */
+    private static final class Encoded {
+
+        private volatile byte[] gzip;
+
+        private volatile byte[] deflate;
+
+    }
+
+}
@@ -0,0 +1,4 @@
+/**
+ * Содержит сжатие тел HTTP-ответов в соответствии с заголовком {@code Accept-Encoding} запроса
+ */
+package org.owl.services.yaujrest.compression;
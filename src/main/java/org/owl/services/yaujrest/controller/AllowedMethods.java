@@ -0,0 +1,118 @@
+package org.owl.services.yaujrest.controller;
+
+import org.owl.services.yaujrest.http.HttpRequest;
+import org.owl.services.yaujrest.http.Method;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Набор HTTP-методов, поддерживаемых обработчиком.
+ * <p>
+ * Метод поддерживается, если соответствующий метод {@code do*()} переопределен в реализации обработчика,
+ * а для асинхронного обработчика {@link AsyncController} - метод {@code do*Async()}. Метод {@code HEAD} поддерживается вместе с {@code GET}, а метод {@code OPTIONS} поддерживается всегда
+ */
+public final class AllowedMethods {
+
+    private final Set<Method> methods;
+
+    private final boolean optionsImplemented;
+
+    private final String header;
+
+    private AllowedMethods(final Set<Method> methods, final boolean optionsImplemented) {
+        this.methods = Collections.unmodifiableSet(methods);
+        this.optionsImplemented = optionsImplemented;
+        this.header = methods.stream().map(Method::name).collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Определяет методы, поддерживаемые обработчиком
+     * @param controller обработчик
+     * @return набор поддерживаемых методов
+     */
+    static AllowedMethods of(final Controller controller) {
+        final Class<? extends Controller> type = controller.getClass();
+        final Class<? extends Controller> base = controller instanceof AsyncController ? AsyncController.class : Controller.class;
+        final String suffix = controller instanceof AsyncController ? "Async" : "";
+        final EnumSet<Method> methods = EnumSet.of(Method.OPTIONS);
+        if (isOverridden(type, base, "doGet" + suffix)) {
+            methods.add(Method.GET);
+            methods.add(Method.HEAD);
+        }
+        if (isOverridden(type, base, "doHead" + suffix)) {
+            methods.add(Method.HEAD);
+        }
+        if (isOverridden(type, base, "doPost" + suffix)) {
+            methods.add(Method.POST);
+        }
+        if (isOverridden(type, base, "doPut" + suffix)) {
+            methods.add(Method.PUT);
+        }
+        if (isOverridden(type, base, "doDelete" + suffix)) {
+            methods.add(Method.DELETE);
+        }
+        if (isOverridden(type, base, "doPatch" + suffix)) {
+            methods.add(Method.PATCH);
+        }
+        return new AllowedMethods(methods, isOverridden(type, base, "doOptions" + suffix));
+    }
+
+    /**
+     * Создает набор из всех методов, поддерживаемых сервером
+     * @return набор поддерживаемых методов
+     */
+    public static AllowedMethods all() {
+        return new AllowedMethods(EnumSet.allOf(Method.class), false);
+    }
+
+    /**
+     * Проверяет, поддерживается ли метод
+     * @param method HTTP-метод
+     * @return {@code true}, если метод поддерживается
+     */
+    public boolean contains(final Method method) {
+        return this.methods.contains(method);
+    }
+
+    /**
+     * Проверяет, переопределен ли в обработчике метод {@link Controller#doOptions(HttpRequest)}
+     * либо {@link AsyncController#doOptionsAsync(HttpRequest)}
+     * @return {@code true}, если OPTIONS-запросы выполняются обработчиком
+     */
+    public boolean isOptionsImplemented() {
+        return this.optionsImplemented;
+    }
+
+    /**
+     * Возвращает поддерживаемые методы
+     * @return неизменяемый набор методов
+     */
+    public Set<Method> methods() {
+        return this.methods;
+    }
+
+    /**
+     * Возвращает значение заголовка {@code Allow}
+     * @return перечисление поддерживаемых методов через запятую
+     */
+    public String header() {
+        return this.header;
+    }
+
+    @Override
+    public String toString() {
+        return this.header;
+    }
+
+    private static boolean isOverridden(final Class<? extends Controller> type, final Class<? extends Controller> base,
+                                        final String name) {
+        try {
+            return type.getMethod(name, HttpRequest.class).getDeclaringClass() != base;
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("Controller method " + name + " does not exist", e);
+        }
+    }
+
+}
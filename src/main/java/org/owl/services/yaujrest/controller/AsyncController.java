@@ -0,0 +1,142 @@
+package org.owl.services.yaujrest.controller;
+
+import org.owl.services.yaujrest.http.HttpRequest;
+import org.owl.services.yaujrest.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Асинхронный обработчик HTTP-запросов по определенному URI.
+ * <p>
+ * Методы {@code do*Async()} возвращают ответ, который будет получен позже, например после ответа другого сервиса.
+ * Главный обработчик не удерживает поток на время ожидания: ответ записывается в соединение после завершения
+ * {@link CompletableFuture}. Если ответ не получен за установленное время, клиенту отправляется
+ * ответ {@code 504 Gateway Timeout}. Ответы асинхронных обработчиков не кешируются, а одинаковые запросы
+ * к ним не объединяются.
+ * <p>
+ * Как и для {@link Controller}, реализации переопределяют только методы поддерживаемых HTTP-методов.
+ * Синхронные методы {@code do*()} ожидают завершения соответствующих асинхронных методов и не могут быть
+ * переопределены.
+ * <p>
+ * Например:
+ * <p>
+ * <blockquote><pre>
+ * public class UserController extends AsyncController {
+ *
+ *     {@code @Override}
+ *     public CompletableFuture&lt;HttpResponse&gt; doGetAsync(HttpRequest httpRequest) {
+ *         return client.sendAsync(userRequest(httpRequest.pathVariable("id")))
+ *                 .thenApply(response -&gt; new HttpResponse(new Version(1, 1), 200, "OK", null, response.body()));
+ *     }
+ * }
+ * </pre></blockquote>
+ */
+public abstract class AsyncController extends Controller {
+
+    /**
+     * Создает асинхронный обработчик с установленным относительным URI для "прослушивания"
+     * @param path относительный URI или шаблон пути
+     */
+    protected AsyncController(String path) {
+        super(path);
+    }
+
+    /**
+     * Выполняет GET-запрос
+     * @param httpRequest HTTP-запрос c GET методом
+     * @return результат выполнения GET-запроса, который будет получен
+     */
+    public CompletableFuture<HttpResponse> doGetAsync(final HttpRequest httpRequest) {
+        throw new NotImplementedException("Method not implemented");
+    }
+
+    /**
+     * Выполняет POST-запрос
+     * @param httpRequest HTTP-запрос c POST методом
+     * @return результат выполнения POST-запроса, который будет получен
+     */
+    public CompletableFuture<HttpResponse> doPostAsync(final HttpRequest httpRequest) {
+        throw new NotImplementedException("Method not implemented");
+    }
+
+    /**
+     * Выполняет PUT-запрос
+     * @param httpRequest HTTP-запрос c PUT методом
+     * @return результат выполнения PUT-запроса, который будет получен
+     */
+    public CompletableFuture<HttpResponse> doPutAsync(final HttpRequest httpRequest) {
+        throw new NotImplementedException("Method not implemented");
+    }
+
+    /**
+     * Выполняет DELETE-запрос
+     * @param httpRequest HTTP-запрос c DELETE методом
+     * @return результат выполнения DELETE-запроса, который будет получен
+     */
+    public CompletableFuture<HttpResponse> doDeleteAsync(final HttpRequest httpRequest) {
+        throw new NotImplementedException("Method not implemented");
+    }
+
+    /**
+     * Выполняет PATCH-запрос
+     * @param httpRequest HTTP-запрос c PATCH методом
+     * @return результат выполнения PATCH-запроса, который будет получен
+     */
+    public CompletableFuture<HttpResponse> doPatchAsync(final HttpRequest httpRequest) {
+        throw new NotImplementedException("Method not implemented");
+    }
+
+    /**
+     * Выполняет HEAD-запрос. По умолчанию выполняет GET-запрос; тело ответа не передается клиенту
+     * @param httpRequest HTTP-запрос c HEAD методом
+     * @return результат выполнения HEAD-запроса, который будет получен
+     */
+    public CompletableFuture<HttpResponse> doHeadAsync(final HttpRequest httpRequest) {
+        return doGetAsync(httpRequest);
+    }
+
+    /**
+     * Выполняет OPTIONS-запрос. Если метод не переопределен, ответ с заголовком {@code Allow}
+     * формируется автоматически
+     * @param httpRequest HTTP-запрос c OPTIONS методом
+     * @return результат выполнения OPTIONS-запроса, который будет получен
+     */
+    public CompletableFuture<HttpResponse> doOptionsAsync(final HttpRequest httpRequest) {
+        throw new NotImplementedException("Method not implemented");
+    }
+
+    @Override
+    public final HttpResponse doGet(final HttpRequest httpRequest) {
+        return doGetAsync(httpRequest).join();
+    }
+
+    @Override
+    public final HttpResponse doPost(final HttpRequest httpRequest) {
+        return doPostAsync(httpRequest).join();
+    }
+
+    @Override
+    public final HttpResponse doPut(final HttpRequest httpRequest) {
+        return doPutAsync(httpRequest).join();
+    }
+
+    @Override
+    public final HttpResponse doDelete(final HttpRequest httpRequest) {
+        return doDeleteAsync(httpRequest).join();
+    }
+
+    @Override
+    public final HttpResponse doPatch(final HttpRequest httpRequest) {
+        return doPatchAsync(httpRequest).join();
+    }
+
+    @Override
+    public final HttpResponse doHead(final HttpRequest httpRequest) {
+        return doHeadAsync(httpRequest).join();
+    }
+
+    @Override
+    public final HttpResponse doOptions(final HttpRequest httpRequest) {
+        return doOptionsAsync(httpRequest).join();
+    }
+
+}
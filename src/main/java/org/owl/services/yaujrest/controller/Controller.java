@@ -7,7 +7,9 @@ import org.owl.services.yaujrest.http.HttpResponse;
  * Обработчик HTTP-запросов по определенному URI.
  * <p>
  * Реализации данного абстрактного класса должны переопределять только те методы,
- * HTTP-методы которых поддерживаются определенными реализациями.
+ * HTTP-методы которых поддерживаются определенными реализациями. Набор поддерживаемых методов
+ * определяется при добавлении обработчика в контейнер {@link ControllerContainer}: на запросы с другими
+ * методами отвечается {@code 405 Method Not Allowed} без вызова обработчика.
  * <p>
  * Например:
  * <p>
@@ -29,7 +31,9 @@ public abstract class Controller {
     private final String path;
 
     /**
-     * Создает обработчик с установленным относительным URI для "прослушивания"
+     * Создает обработчик с установленным относительным URI для "прослушивания". Относительный URI может быть
+     * шаблоном пути с переменными, например {@code /users/{id}}; значения переменных передаются обработчику
+     * методом {@link HttpRequest#pathVariables()}
      * @param path относительный URI
      */
     protected Controller(String path) {
@@ -44,6 +48,32 @@ public abstract class Controller {
         return path;
     }
 
+    /**
+     * Определяет, получает ли обработчик тело запросов потоком.
+     * <p>
+     * Запрос с телом передается такому обработчику сразу после получения заголовка, а тело запроса
+     * считывается методами {@link HttpRequest#bodyChannel()} или {@link HttpRequest#bodyStream()}
+     * по мере поступления из соединения. Ограничение размера тела запроса в этом случае не применяется.
+     * По умолчанию тело запроса полностью считывается до вызова обработчика
+     * @return {@code true}, если тело запросов передается обработчику потоком
+     */
+    public boolean isStreamingRequestBody() {
+        return false;
+    }
+
+    /**
+     * Определяет, объединяются ли одновременные одинаковые GET- и HEAD-запросы к обработчику.
+     * <p>
+     * Из одновременных запросов с одинаковыми методом, целью запроса и заголовками, от которых может зависеть
+     * ответ, выполняется только первый, а остальные получают тот же объект {@link HttpResponse}. Время ожидания
+     * ответа ограничено; по его истечении запрос выполняется обработчиком самостоятельно. По умолчанию
+     * запросы не объединяются
+     * @return {@code true}, если одновременные одинаковые запросы выполняются обработчиком один раз
+     */
+    public boolean isCoalescingRequests() {
+        return false;
+    }
+
     /**
      * Выполняет GET-запрос
      * @param httpRequest HTTP-запрос c GET методом
@@ -80,4 +110,33 @@ public abstract class Controller {
         throw new NotImplementedException("Method not implemented");
     }
 
+    /**
+     * Выполняет PATCH-запрос
+     * @param httpRequest HTTP-запрос c PATCH методом
+     * @return результат выполнения PATCH-запроса
+     */
+    public HttpResponse doPatch(final HttpRequest httpRequest) {
+        throw new NotImplementedException("Method not implemented");
+    }
+
+    /**
+     * Выполняет HEAD-запрос. По умолчанию выполняет GET-запрос; тело ответа не передается клиенту,
+     * а заголовки ответа, включая {@code Content-Length}, сохраняются
+     * @param httpRequest HTTP-запрос c HEAD методом
+     * @return результат выполнения HEAD-запроса
+     */
+    public HttpResponse doHead(final HttpRequest httpRequest) {
+        return doGet(httpRequest);
+    }
+
+    /**
+     * Выполняет OPTIONS-запрос. Если метод не переопределен, ответ с заголовком {@code Allow}
+     * формируется автоматически
+     * @param httpRequest HTTP-запрос c OPTIONS методом
+     * @return результат выполнения OPTIONS-запроса
+     */
+    public HttpResponse doOptions(final HttpRequest httpRequest) {
+        throw new NotImplementedException("Method not implemented");
+    }
+
 }
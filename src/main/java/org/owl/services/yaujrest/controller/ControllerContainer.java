@@ -1,25 +1,53 @@
 package org.owl.services.yaujrest.controller;
 
-import java.util.HashMap;
+import org.owl.services.yaujrest.http.PathVariables;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 
 /**
- * Контейнер для хранения обработчиков запросов
+ * Контейнер для хранения обработчиков запросов.
+ * <p>
+ * Относительный URI обработчика является шаблоном пути и может содержать переменные {@code {name}},
+ * одиночные сегменты {@code *} и завершающую последовательность {@code **}, например {@code /users/{id}/orders/{orderId}}
+ * или {@code /static/**}. При создании контейнера шаблоны компилируются в префиксное дерево сегментов,
+ * по которому обработчик выбирается без регулярных выражений
  */
 public class ControllerContainer {
 
+    private static final Filter[] NO_FILTERS = new Filter[0];
+
     private final Map<String, Controller> lookupMap;
 
-    private ControllerContainer(final Map<String, Controller> lookupMap) {
+    private final RouteTrie routes;
+
+    private final boolean hasStreamingControllers;
+
+    private ControllerContainer(final Map<String, Controller> lookupMap, final Function<Controller, Filter[]> filters) {
         this.lookupMap = lookupMap;
+        final RouteTrie routes = new RouteTrie();
+        lookupMap.forEach((path, controller) -> routes.add(path, controller, filters.apply(controller)));
+        this.routes = routes.compile();
+        this.hasStreamingControllers = lookupMap.values().stream().anyMatch(Controller::isStreamingRequestBody);
     }
 
+    /**
+     * Обработчик, выбранный по пути запроса
+     * @param controller обработчик
+     * @param pathVariables значения переменных пути
+     * @param allowedMethods HTTP-методы, поддерживаемые обработчиком; определяются при создании контейнера
+     * @param filters фильтры, выполняемые вокруг обработчика, в порядке вызова перед обработчиком;
+     *                назначаются при создании контейнера
+     */
+    public record Route(Controller controller, PathVariables pathVariables, AllowedMethods allowedMethods, Filter[] filters) { }
+
     /**
      * Класс используемый для создания контейнера обработчиков
      */
     public static final class ControllerContainerBuilder {
 
-        private final Map<String, Controller> lookupMap = new HashMap<>();
+        private final Map<String, Controller> lookupMap = new LinkedHashMap<>();
 
         private ControllerContainerBuilder() { }
 
@@ -36,9 +64,10 @@ public class ControllerContainer {
         /**
          * Создает экземпляр контейнера обработчиков
          * @return контейнер обработчиков
+         * @throws IllegalArgumentException выбрасывается, если относительный URI обработчика не является корректным шаблоном пути
          */
         public ControllerContainer build() {
-            return new ControllerContainer(lookupMap);
+            return new ControllerContainer(new LinkedHashMap<>(this.lookupMap), controller -> NO_FILTERS);
         }
 
     }
@@ -51,12 +80,44 @@ public class ControllerContainer {
         return new ControllerContainerBuilder();
     }
 
+    /**
+     * Создает контейнер с теми же обработчиками, каждому из которых назначены фильтры.
+     * Фильтры определяются один раз для каждого обработчика при создании контейнера
+     * @param filters функция, возвращающая фильтры обработчика в порядке вызова перед обработчиком
+     * @return новый контейнер обработчиков
+     * @see Filter
+     */
+    public ControllerContainer withFilters(final Function<Controller, Filter[]> filters) {
+        return new ControllerContainer(this.lookupMap, controller -> {
+            final Filter[] controllerFilters = filters.apply(controller);
+            return Objects.isNull(controllerFilters) || controllerFilters.length == 0 ? NO_FILTERS : controllerFilters.clone();
+        });
+    }
+
     /**
      * Возвращает обработчик согласно его "прослушиваемому" относительному URI
      * @param path относительный URI
      * @return обработчик "прослушивающий" переданный относительны URI
      */
     public Controller getByPath(final String path) {
-        return this.lookupMap.getOrDefault(path, null);
+        final Route route = this.routes.match(path);
+        return Objects.nonNull(route) ? route.controller() : null;
+    }
+
+    /**
+     * Выбирает обработчик по пути запроса и извлекает значения переменных пути
+     * @param path путь запроса
+     * @return обработчик и значения переменных пути, либо {@code null}, если обработчик не найден
+     */
+    public Route match(final String path) {
+        return this.routes.match(path);
+    }
+
+    /**
+     * Проверяет, содержит ли контейнер обработчики, получающие тело запросов потоком
+     * @return {@code true}, если хотя бы один обработчик получает тело запросов потоком
+     */
+    public boolean hasStreamingControllers() {
+        return this.hasStreamingControllers;
     }
 }
@@ -0,0 +1,60 @@
+package org.owl.services.yaujrest.controller;
+
+import org.owl.services.yaujrest.http.HttpRequest;
+import org.owl.services.yaujrest.http.HttpResponse;
+
+/**
+ * Фильтр, выполняемый главным обработчиком вокруг обработчиков запросов, например для проверки авторизации,
+ * добавления заголовков CORS, идентификаторов запросов или измерения времени выполнения.
+ * <p>
+ * Фильтры регистрируются при создании главного обработчика и назначаются обработчикам до начала приема запросов:
+ * каждому обработчику соответствует массив его фильтров в порядке регистрации. Метод {@link #before(HttpRequest)}
+ * вызывается в порядке фильтров до выполнения запроса, в том числе до формирования ответов
+ * {@code 405 Method Not Allowed} и ответов на OPTIONS-запросы, а метод
+ * {@link #after(HttpRequest, HttpResponse, long)} - в обратном порядке после получения ответа и до сжатия его тела.
+ * Фильтр, вернувший ответ из метода {@link #before(HttpRequest)}, прекращает выполнение запроса: следующие фильтры
+ * и обработчик не вызываются, а метод {@link #after(HttpRequest, HttpResponse, long)} вызывается только у
+ * предшествующих фильтров. Запросы, для которых обработчик не найден, выполняются без фильтров.
+ * <p>
+ * Один экземпляр фильтра выполняет запросы из нескольких потоков одновременно. Для асинхронных обработчиков
+ * метод {@link #after(HttpRequest, HttpResponse, long)} может быть вызван в другом потоке, поэтому состояние запроса
+ * не следует хранить в переменных потока.
+ * <p>
+ * Например:
+ * <p>
+ * <blockquote><pre>
+ * public class AuthFilter implements Filter {
+ *
+ *     {@code @Override}
+ *     public HttpResponse before(HttpRequest httpRequest) {
+ *         if (!tokens.isValid(httpRequest.headers().get(HttpHeaders.AUTHORIZATION))) {
+ *             return new HttpResponse(new Version(1, 1), 401, "Unauthorized", null, null);
+ *         }
+ *         return null;
+ *     }
+ * }
+ * </pre></blockquote>
+ */
+public interface Filter {
+
+    /**
+     * Выполняется перед обработчиком запроса
+     * @param httpRequest HTTP-запрос со значениями переменных пути обработчика
+     * @return ответ, прекращающий выполнение запроса, либо {@code null} для продолжения выполнения
+     */
+    default HttpResponse before(final HttpRequest httpRequest) {
+        return null;
+    }
+
+    /**
+     * Выполняется после получения ответа обработчика либо следующего фильтра
+     * @param httpRequest HTTP-запрос со значениями переменных пути обработчика
+     * @param httpResponse полученный ответ
+     * @param startNanos значение {@link System#nanoTime()} на момент вызова первого фильтра
+     * @return ответ, передаваемый предшествующему фильтру; по умолчанию полученный ответ
+     */
+    default HttpResponse after(final HttpRequest httpRequest, final HttpResponse httpResponse, final long startNanos) {
+        return httpResponse;
+    }
+
+}
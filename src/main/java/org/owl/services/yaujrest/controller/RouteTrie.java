@@ -0,0 +1,258 @@
+package org.owl.services.yaujrest.controller;
+
+import org.owl.services.yaujrest.http.PathVariables;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Префиксное дерево сегментов пути, по которому выбирается обработчик запроса.
+ * <p>
+ * Шаблон пути состоит из сегментов, разделенных символом {@code /}. Сегмент шаблона может быть:
+ * <ul>
+ *     <li>строкой, совпадающей с сегментом пути;</li>
+ *     <li>переменной {@code {name}}, совпадающей с любым непустым сегментом пути;</li>
+ *     <li>символом {@code *}, совпадающим с любым непустым сегментом пути без сохранения его значения;</li>
+ *     <li>последовательностью {@code **}, которая может быть только последним сегментом шаблона и совпадает
+ *     с оставшейся частью пути. Оставшаяся часть пути доступна как переменная {@value #REMAINDER}.</li>
+ * </ul>
+ * При совпадении нескольких шаблонов строковые сегменты имеют приоритет над переменными, а переменные -
+ * над последовательностью {@code **}.
+ * <p>
+ * После построения дерево не изменяется. Дочерние строковые сегменты узла хранятся в хеш-таблице с открытой
+ * адресацией, хеш сегмента пути вычисляется непосредственно по символам пути, поэтому выбор обработчика
+ * не выделяет подстрок пути
+ */
+final class RouteTrie {
+
+    /**
+     * Имя переменной, содержащей часть пути, совпавшую с последовательностью {@code **}
+     */
+    static final String REMAINDER = "**";
+
+    private final Node root = new Node();
+
+    private int maxVariables;
+
+    /**
+     * Добавляет обработчик по шаблону пути. Обработчик, ранее добавленный по такому же шаблону, заменяется
+     * @param pattern шаблон пути
+     * @param controller обработчик
+     * @param filters фильтры обработчика
+     * @throws IllegalArgumentException выбрасывается, если шаблон пути некорректен
+     */
+    void add(final String pattern, final Controller controller, final Filter[] filters) {
+        if (Objects.isNull(pattern) || pattern.isEmpty() || pattern.charAt(0) != '/') {
+            throw new IllegalArgumentException("Controller path must start with '/': " + pattern);
+        }
+
+        Node node = this.root;
+        final List<String> names = new ArrayList<>();
+        final String[] segments = pattern.length() == 1 ? new String[0] : pattern.substring(1).split("/", -1);
+        for (int i = 0; i < segments.length; i++) {
+            final String segment = segments[i];
+            if (segment.equals(REMAINDER)) {
+                if (i != segments.length - 1) {
+                    throw new IllegalArgumentException("'**' must be the last segment of controller path: " + pattern);
+                }
+                names.add(REMAINDER);
+                node.remainder = new Node.Route(controller, names.toArray(new String[0]), filters);
+                this.maxVariables = Math.max(this.maxVariables, names.size());
+                return;
+            }
+
+            if (segment.equals("*")) {
+                names.add(null);
+                node = node.variableChild();
+            } else if (segment.startsWith("{") && segment.endsWith("}")) {
+                final String name = segment.substring(1, segment.length() - 1);
+                if (name.isEmpty() || name.indexOf('{') >= 0 || name.indexOf('}') >= 0) {
+                    throw new IllegalArgumentException("Invalid path variable '" + segment + "' in controller path: " + pattern);
+                }
+                names.add(name);
+                node = node.variableChild();
+            } else {
+                if (segment.indexOf('{') >= 0 || segment.indexOf('}') >= 0 || segment.indexOf('*') >= 0) {
+                    throw new IllegalArgumentException("Path variable must occupy the whole segment of controller path: " + pattern);
+                }
+                node = node.staticChild(segment);
+            }
+        }
+        node.route = new Node.Route(controller, names.toArray(new String[0]), filters);
+        this.maxVariables = Math.max(this.maxVariables, names.size());
+    }
+
+    /**
+     * Подготавливает дерево к поиску. Вызывается один раз после добавления всех обработчиков
+     * @return текущее дерево
+     */
+    RouteTrie compile() {
+        this.root.compile();
+        return this;
+    }
+
+    /**
+     * Выбирает обработчик по пути запроса
+     * @param path путь запроса
+     * @return обработчик и значения переменных пути, либо {@code null}, если ни один шаблон не совпал с путем
+     */
+    ControllerContainer.Route match(final String path) {
+        if (Objects.isNull(path) || path.isEmpty() || path.charAt(0) != '/') {
+            return null;
+        }
+
+        final int[] bounds = this.maxVariables == 0 ? null : new int[this.maxVariables * 2];
+        final Node.Route route = path.length() == 1 ? terminal(this.root, path, bounds, 0) : match(this.root, path, 1, bounds, 0);
+        if (Objects.isNull(route)) {
+            return null;
+        }
+        if (!route.hasNames) {
+            return route.match;
+        }
+        return new ControllerContainer.Route(route.controller, new PathVariables(path, route.names, bounds), route.allowedMethods,
+                route.filters);
+    }
+
+    private static Node.Route match(final Node node, final String path, final int start, final int[] bounds, final int variable) {
+        int end = path.indexOf('/', start);
+        if (end < 0) {
+            end = path.length();
+        }
+        final boolean last = end == path.length();
+
+        final Node child = node.findStatic(path, start, end);
+        if (Objects.nonNull(child)) {
+            final Node.Route route = last ? terminal(child, path, bounds, variable) : match(child, path, end + 1, bounds, variable);
+            if (Objects.nonNull(route)) {
+                return route;
+            }
+        }
+
+        if (Objects.nonNull(node.variable) && end > start) {
+            bounds[2 * variable] = start;
+            bounds[2 * variable + 1] = end;
+            final Node.Route route = last
+                    ? terminal(node.variable, path, bounds, variable + 1)
+                    : match(node.variable, path, end + 1, bounds, variable + 1);
+            if (Objects.nonNull(route)) {
+                return route;
+            }
+        }
+
+        if (Objects.nonNull(node.remainder)) {
+            bounds[2 * variable] = start;
+            bounds[2 * variable + 1] = path.length();
+            return node.remainder;
+        }
+        return null;
+    }
+
+    /**
+     * Возвращает обработчик узла, на котором закончился путь. Последовательность {@code **} совпадает
+     * в том числе с пустой оставшейся частью пути
+     */
+    private static Node.Route terminal(final Node node, final String path, final int[] bounds, final int variable) {
+        if (Objects.nonNull(node.route) || Objects.isNull(node.remainder)) {
+            return node.route;
+        }
+        bounds[2 * variable] = path.length();
+        bounds[2 * variable + 1] = path.length();
+        return node.remainder;
+    }
+
+    private static final class Node {
+
+        private Map<String, Node> children = new HashMap<>();
+
+        private String[] keys;
+
+        private int[] hashes;
+
+        private Node[] nodes;
+
+        private Node variable;
+
+        private Route route;
+
+        private Route remainder;
+
+        private Node staticChild(final String segment) {
+            return this.children.computeIfAbsent(segment, key -> new Node());
+        }
+
+        private Node variableChild() {
+            if (Objects.isNull(this.variable)) {
+                this.variable = new Node();
+            }
+            return this.variable;
+        }
+
+        private void compile() {
+            final int capacity = Integer.highestOneBit(Math.max(1, this.children.size()) * 2 - 1) << 1;
+            this.keys = new String[capacity];
+            this.hashes = new int[capacity];
+            this.nodes = new Node[capacity];
+            for (final Map.Entry<String, Node> child : this.children.entrySet()) {
+                final int hash = child.getKey().hashCode();
+                int slot = hash & (capacity - 1);
+                while (Objects.nonNull(this.keys[slot])) {
+                    slot = (slot + 1) & (capacity - 1);
+                }
+                this.keys[slot] = child.getKey();
+                this.hashes[slot] = hash;
+                this.nodes[slot] = child.getValue();
+                child.getValue().compile();
+            }
+            if (Objects.nonNull(this.variable)) {
+                this.variable.compile();
+            }
+            this.children = null;
+        }
+
+        private Node findStatic(final String path, final int start, final int end) {
+            int hash = 0;
+            for (int i = start; i < end; i++) {
+                hash = 31 * hash + path.charAt(i);
+            }
+
+            final int mask = this.keys.length - 1;
+            for (int slot = hash & mask; Objects.nonNull(this.keys[slot]); slot = (slot + 1) & mask) {
+                final String key = this.keys[slot];
+                if (this.hashes[slot] == hash && key.length() == end - start && path.regionMatches(start, key, 0, key.length())) {
+                    return this.nodes[slot];
+                }
+            }
+            return null;
+        }
+
+        private static final class Route {
+
+            private final Controller controller;
+
+            private final String[] names;
+
+            private final boolean hasNames;
+
+            private final AllowedMethods allowedMethods;
+
+            private final Filter[] filters;
+
+            private final ControllerContainer.Route match;
+
+            private Route(final Controller controller, final String[] names, final Filter[] filters) {
+                this.controller = controller;
+                this.names = names;
+                this.hasNames = Arrays.stream(names).anyMatch(Objects::nonNull);
+                this.allowedMethods = AllowedMethods.of(controller);
+                this.filters = filters;
+                this.match = new ControllerContainer.Route(controller, PathVariables.EMPTY, this.allowedMethods, filters);
+            }
+
+        }
+
+    }
+
+}
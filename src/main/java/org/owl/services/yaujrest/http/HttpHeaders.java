@@ -0,0 +1,533 @@
+package org.owl.services.yaujrest.http;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * HTTP-заголовки сообщения с поиском по имени без учета регистра.
+ * <p>
+ * Заголовки, полученные при разборе сообщения, хранятся в одном массиве байтов вместе с границами имен
+ * и значений. Строки имен и значений создаются только при обращении к ним; имена распространенных
+ * заголовков заменяются константами этого класса. Поиск заголовка по имени сравнивает байты имени
+ * с символами искомой строки и не создает строк.
+ * <p>
+ * Повторяющиеся поля заголовков хранятся по отдельности и доступны методом {@link #getAll(String)},
+ * а метод {@link #add(String, String)} добавляет еще одно поле к существующему заголовку.
+ * Отображение содержит каждое имя один раз, а значения повторяющихся полей объединяются через запятую
+ * при обращении к ним. Значения {@link #SET_COOKIE} не объединяются, так как сами могут содержать запятые:
+ * отображение возвращает значение первого поля. Имена заголовков сохраняют исходный регистр, поэтому
+ * заголовки равны любому отображению {@link Map} с теми же именами и значениями
+ */
+public final class HttpHeaders extends AbstractMap<String, String> {
+
+    public static final String ACCEPT = "Accept";
+
+    public static final String ACCEPT_ENCODING = "Accept-Encoding";
+
+    public static final String ACCEPT_LANGUAGE = "Accept-Language";
+
+    public static final String ALLOW = "Allow";
+
+    public static final String AUTHORIZATION = "Authorization";
+
+    public static final String CACHE_CONTROL = "Cache-Control";
+
+    public static final String CONNECTION = "Connection";
+
+    public static final String CONTENT_ENCODING = "Content-Encoding";
+
+    public static final String CONTENT_LENGTH = "Content-Length";
+
+    public static final String CONTENT_TYPE = "Content-Type";
+
+    public static final String COOKIE = "Cookie";
+
+    public static final String DATE = "Date";
+
+    public static final String ETAG = "ETag";
+
+    public static final String EXPIRES = "Expires";
+
+    public static final String HOST = "Host";
+
+    public static final String IF_MODIFIED_SINCE = "If-Modified-Since";
+
+    public static final String IF_NONE_MATCH = "If-None-Match";
+
+    public static final String KEEP_ALIVE = "Keep-Alive";
+
+    public static final String LAST_MODIFIED = "Last-Modified";
+
+    public static final String LOCATION = "Location";
+
+    public static final String ORIGIN = "Origin";
+
+    public static final String REFERER = "Referer";
+
+    public static final String RETRY_AFTER = "Retry-After";
+
+    public static final String SERVER = "Server";
+
+    public static final String SET_COOKIE = "Set-Cookie";
+
+    public static final String TRANSFER_ENCODING = "Transfer-Encoding";
+
+    public static final String USER_AGENT = "User-Agent";
+
+    public static final String VARY = "Vary";
+
+    private static final String[] WELL_KNOWN_NAMES = {
+            ACCEPT, ACCEPT_ENCODING, ACCEPT_LANGUAGE, ALLOW, AUTHORIZATION, CACHE_CONTROL, CONNECTION,
+            CONTENT_ENCODING, CONTENT_LENGTH, CONTENT_TYPE, COOKIE, DATE, ETAG, EXPIRES, HOST, IF_MODIFIED_SINCE,
+            IF_NONE_MATCH, KEEP_ALIVE, LAST_MODIFIED, LOCATION, ORIGIN, REFERER, RETRY_AFTER, SERVER, SET_COOKIE,
+            TRANSFER_ENCODING, USER_AGENT, VARY
+    };
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    /**
+     * Имена и значения заголовков, полученных при разборе сообщения
+     */
+    private byte[] bytes;
+
+    /**
+     * Границы имени и значения {@code i}-го поля в массиве {@link #bytes} в элементах {@code 4 * i}..{@code 4 * i + 3},
+     * либо {@code -1} в элементе {@code 4 * i}, если поле добавлено методом {@link #put(String, String)}
+     */
+    private int[] spans;
+
+    private String[] names;
+
+    private String[] values;
+
+    /**
+     * Количество полей, включая повторяющиеся
+     */
+    private int count;
+
+    /**
+     * Количество различных имен, либо {@code -1}, если оно еще не подсчитано
+     */
+    private int size;
+
+    private Set<Map.Entry<String, String>> entrySet;
+
+    /**
+     * Создает пустой набор заголовков
+     */
+    public HttpHeaders() {
+        this.spans = new int[0];
+        this.names = new String[0];
+        this.values = new String[0];
+    }
+
+    /**
+     * Создает набор заголовков, содержащий переданные заголовки. Из {@link HttpHeaders} копируется каждое поле,
+     * включая повторяющиеся
+     * @param headers заголовки
+     */
+    public HttpHeaders(final Map<String, String> headers) {
+        this();
+        if (headers instanceof HttpHeaders fields) {
+            for (int i = 0; i < fields.count; i++) {
+                append(fields.name(i), fields.value(i));
+            }
+            this.size = -1;
+        } else {
+            headers.forEach(this::put);
+        }
+    }
+
+    private HttpHeaders(final byte[] bytes, final int[] spans, final int count) {
+        this.bytes = bytes;
+        this.spans = spans;
+        this.names = new String[count];
+        this.values = new String[count];
+        this.count = count;
+        this.size = -1;
+    }
+
+    /**
+     * Создает набор заголовков по границам имен и значений заголовков в массиве байтов. Имена и значения
+     * копируются в собственный массив набора, поэтому переданный массив может быть использован повторно
+     * @param buffer массив байтов, содержащий заголовки в кодировке ISO-8859-1
+     * @param offset смещение, относительно которого заданы границы
+     * @param spans границы имени и значения {@code i}-го заголовка в элементах {@code 4 * i}..{@code 4 * i + 3}
+     * @param count количество заголовков
+     * @return набор заголовков
+     */
+    public static HttpHeaders copyOf(final byte[] buffer, final int offset, final int[] spans, final int count) {
+        int length = 0;
+        for (int i = 0; i < count; i++) {
+            length += spans[i * 4 + 1] - spans[i * 4] + spans[i * 4 + 3] - spans[i * 4 + 2];
+        }
+
+        final byte[] bytes = new byte[length];
+        final int[] copiedSpans = new int[count * 4];
+        int position = 0;
+        for (int i = 0; i < count; i++) {
+            for (int part = 0; part < 4; part += 2) {
+                final int from = offset + spans[i * 4 + part];
+                final int partLength = spans[i * 4 + part + 1] - spans[i * 4 + part];
+                System.arraycopy(buffer, from, bytes, position, partLength);
+                copiedSpans[i * 4 + part] = position;
+                position += partLength;
+                copiedSpans[i * 4 + part + 1] = position;
+            }
+        }
+
+        return new HttpHeaders(bytes, copiedSpans, count);
+    }
+
+    @Override
+    public int size() {
+        if (this.size < 0) {
+            int size = 0;
+            for (int i = 0; i < this.count; i++) {
+                if (!isRepeated(i)) {
+                    size++;
+                }
+            }
+            this.size = size;
+        }
+        return this.size;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return key instanceof String name && indexOf(name, 0) >= 0;
+    }
+
+    @Override
+    public String get(final Object key) {
+        if (!(key instanceof String name)) {
+            return null;
+        }
+        final int index = indexOf(name, 0);
+        return index < 0 ? null : mergedValue(index, name);
+    }
+
+    /**
+     * Возвращает значения всех полей заголовка с переданным именем без учета регистра в порядке их следования
+     * в сообщении. В отличие от {@link #get(Object)} значения повторяющихся полей не объединяются
+     * @param name имя заголовка
+     * @return значения полей заголовка, либо пустой список, если заголовок отсутствует
+     */
+    public List<String> getAll(final String name) {
+        int index = indexOf(name, 0);
+        if (index < 0) {
+            return List.of();
+        }
+        final List<String> all = new ArrayList<>(1);
+        do {
+            all.add(value(index));
+            index = indexOf(name, index + 1);
+        } while (index >= 0);
+        return all;
+    }
+
+    /**
+     * Добавляет заголовок. Значение существующего заголовка с тем же именем без учета регистра заменяется,
+     * а имя заголовка сохраняется; повторяющиеся поля этого заголовка удаляются
+     * @param name имя заголовка
+     * @param value значение заголовка
+     * @return предыдущее значение заголовка, либо {@code null}
+     */
+    @Override
+    public String put(final String name, final String value) {
+        Objects.requireNonNull(name, "name");
+        Objects.requireNonNull(value, "value");
+        final int index = indexOf(name, 0);
+        if (index >= 0) {
+            final String previous = mergedValue(index, name);
+            this.values[index] = value;
+            removeRepeats(index, name);
+            return previous;
+        }
+
+        append(name, value);
+        if (this.size >= 0) {
+            this.size++;
+        }
+        return null;
+    }
+
+    /**
+     * Добавляет поле заголовка, не заменяя существующие поля с тем же именем без учета регистра.
+     * Так в ответ добавляется несколько полей {@link #SET_COOKIE}, каждое из которых записывается отдельной строкой
+     * @param name имя заголовка
+     * @param value значение поля
+     */
+    public void add(final String name, final String value) {
+        Objects.requireNonNull(name, "name");
+        Objects.requireNonNull(value, "value");
+        if (this.size >= 0 && indexOf(name, 0) < 0) {
+            this.size++;
+        }
+        append(name, value);
+    }
+
+    @Override
+    public String remove(final Object key) {
+        if (!(key instanceof String name)) {
+            return null;
+        }
+        final int index = indexOf(name, 0);
+        if (index < 0) {
+            return null;
+        }
+        final String previous = mergedValue(index, name);
+        removeHeader(index, name);
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(this.names, 0, this.count, null);
+        Arrays.fill(this.values, 0, this.count, null);
+        this.count = 0;
+        this.size = 0;
+    }
+
+    /**
+     * Возвращает количество полей заголовков, включая повторяющиеся
+     */
+    int fieldCount() {
+        return this.count;
+    }
+
+    /**
+     * Возвращает имя {@code index}-го поля в порядке следования полей
+     */
+    String fieldName(final int index) {
+        return name(index);
+    }
+
+    /**
+     * Возвращает значение {@code index}-го поля в порядке следования полей без объединения с повторяющимися полями
+     */
+    String fieldValue(final int index) {
+        return value(index);
+    }
+
+    @Override
+    public Set<Map.Entry<String, String>> entrySet() {
+        if (Objects.isNull(this.entrySet)) {
+            this.entrySet = new EntrySet();
+        }
+        return this.entrySet;
+    }
+
+    private void append(final String name, final String value) {
+        if (this.count == this.names.length) {
+            final int capacity = Math.max(INITIAL_CAPACITY, this.count * 2);
+            this.spans = Arrays.copyOf(this.spans, capacity * 4);
+            this.names = Arrays.copyOf(this.names, capacity);
+            this.values = Arrays.copyOf(this.values, capacity);
+        }
+        this.spans[this.count * 4] = -1;
+        this.names[this.count] = name;
+        this.values[this.count] = value;
+        this.count++;
+    }
+
+    private int indexOf(final String name, final int from) {
+        for (int i = from; i < this.count; i++) {
+            if (nameEqualsIgnoreCase(i, name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Возвращает значение заголовка, первое поле которого имеет индекс {@code index}, объединяя через запятую
+     * значения его повторяющихся полей
+     */
+    private String mergedValue(final int index, final String name) {
+        int next = indexOf(name, index + 1);
+        if (next < 0 || SET_COOKIE.equalsIgnoreCase(name)) {
+            return value(index);
+        }
+        final StringBuilder merged = new StringBuilder(value(index));
+        do {
+            merged.append(", ").append(value(next));
+            next = indexOf(name, next + 1);
+        } while (next >= 0);
+        return merged.toString();
+    }
+
+    /**
+     * Проверяет, повторяет ли {@code index}-е поле имя одного из предшествующих полей
+     */
+    private boolean isRepeated(final int index) {
+        for (int i = 0; i < index; i++) {
+            if (namesEqualIgnoreCase(index, i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void removeRepeats(final int index, final String name) {
+        for (int i = indexOf(name, index + 1); i >= 0; i = indexOf(name, i)) {
+            removeAt(i);
+        }
+    }
+
+    private void removeHeader(final int index, final String name) {
+        removeRepeats(index, name);
+        removeAt(index);
+        if (this.size >= 0) {
+            this.size--;
+        }
+    }
+
+    private boolean nameEqualsIgnoreCase(final int index, final String name) {
+        if (Objects.nonNull(this.names[index])) {
+            return this.names[index].equalsIgnoreCase(name);
+        }
+        final int start = this.spans[index * 4];
+        final int length = this.spans[index * 4 + 1] - start;
+        if (length != name.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (toLowerCase(this.bytes[start + i] & 0xFF) != toLowerCase(name.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String name(final int index) {
+        if (Objects.isNull(this.names[index])) {
+            this.names[index] = wellKnownName(index);
+        }
+        return this.names[index];
+    }
+
+    private String value(final int index) {
+        if (Objects.isNull(this.values[index])) {
+            final int start = this.spans[index * 4 + 2];
+            this.values[index] = new String(this.bytes, start, this.spans[index * 4 + 3] - start, StandardCharsets.ISO_8859_1);
+        }
+        return this.values[index];
+    }
+
+    private String wellKnownName(final int index) {
+        final int start = this.spans[index * 4];
+        final int length = this.spans[index * 4 + 1] - start;
+        for (final String name : WELL_KNOWN_NAMES) {
+            if (name.length() == length && nameEquals(start, name)) {
+                return name;
+            }
+        }
+        return new String(this.bytes, start, length, StandardCharsets.ISO_8859_1);
+    }
+
+    private boolean nameEquals(final int start, final String name) {
+        for (int i = 0; i < name.length(); i++) {
+            if ((this.bytes[start + i] & 0xFF) != name.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean namesEqualIgnoreCase(final int first, final int second) {
+        if (this.spans[first * 4] < 0 || this.spans[second * 4] < 0) {
+            return nameEqualsIgnoreCase(first, name(second));
+        }
+        final int firstStart = this.spans[first * 4];
+        final int secondStart = this.spans[second * 4];
+        final int length = this.spans[first * 4 + 1] - firstStart;
+        if (length != this.spans[second * 4 + 1] - secondStart) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (toLowerCase(this.bytes[firstStart + i] & 0xFF) != toLowerCase(this.bytes[secondStart + i] & 0xFF)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void removeAt(final int index) {
+        final int moved = this.count - index - 1;
+        System.arraycopy(this.spans, (index + 1) * 4, this.spans, index * 4, moved * 4);
+        System.arraycopy(this.names, index + 1, this.names, index, moved);
+        System.arraycopy(this.values, index + 1, this.values, index, moved);
+        this.count--;
+        this.names[this.count] = null;
+        this.values[this.count] = null;
+    }
+
+    private static int toLowerCase(final int ch) {
+        return ch >= 'A' && ch <= 'Z' ? ch + ('a' - 'A') : ch;
+    }
+
+    private final class EntrySet extends AbstractSet<Map.Entry<String, String>> {
+
+        @Override
+        public Iterator<Map.Entry<String, String>> iterator() {
+            return new Iterator<>() {
+
+                private int next = skipRepeated(0);
+
+                private int last = -1;
+
+                @Override
+                public boolean hasNext() {
+                    return this.next < HttpHeaders.this.count;
+                }
+
+                @Override
+                public Map.Entry<String, String> next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    this.last = this.next;
+                    this.next = skipRepeated(this.next + 1);
+                    final String name = name(this.last);
+                    return new SimpleImmutableEntry<>(name, mergedValue(this.last, name));
+                }
+
+                @Override
+                public void remove() {
+                    if (this.last < 0) {
+                        throw new IllegalStateException();
+                    }
+                    removeHeader(this.last, name(this.last));
+                    this.next = skipRepeated(this.last);
+                    this.last = -1;
+                }
+
+                private int skipRepeated(final int from) {
+                    int index = from;
+                    while (index < HttpHeaders.this.count && isRepeated(index)) {
+                        index++;
+                    }
+                    return index;
+                }
+
+            };
+        }
+
+        @Override
+        public int size() {
+            return HttpHeaders.this.size();
+        }
+
+    }
+
+}
@@ -1,39 +1,181 @@
 package org.owl.services.yaujrest.http;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
 import java.util.Arrays;
 import java.util.Map;
 import java.util.Objects;
 
 /**
- * Объект-значение представляющий HTTP-запрос
+ * Объект-значение представляющий HTTP-запрос.
+ * <p>
+ * Тело запроса либо полностью содержится в массиве {@code body}, либо, если обработчик получает тело
+ * запроса потоком, считывается из канала {@code bodyChannel} по мере поступления из соединения.
+ * Метод {@link #bodyStream()} позволяет считывать тело запроса независимо от способа его получения.
+ * <p>
+ * Цель запроса хранится в том виде, в котором она получена из соединения: путь, параметры строки запроса
+ * и объект {@link URI} вычисляются при первом обращении к ним.
+ * <p>
+ * Переменные пути заполняются при выборе обработчика, относительный URI которого является шаблоном пути
  * @param method метод запроса
- * @param uri URI ресурса
+ * @param target цель запроса
  * @param version версия HTTP-протокола используемого в запроса
- * @param headers HTTP-заголовки запроса
- * @param body тело запроса
+ * @param headers HTTP-заголовки запроса; заголовки запроса, полученного из соединения, представлены
+ *                объектом {@link HttpHeaders} с поиском по имени без учета регистра
+ * @param body тело запроса, либо {@code null}, если тело отсутствует или передается потоком
+ * @param bodyChannel канал тела запроса, передаваемого потоком, либо {@code null}
+ * @param pathVariables значения переменных пути, извлеченные по шаблону пути обработчика
  */
-public record HttpRequest(Method method, URI uri, Version version, Map<String, String> headers, byte[] body) {
+public record HttpRequest(Method method, RequestTarget target, Version version, Map<String, String> headers, byte[] body,
+                          ReadableByteChannel bodyChannel, PathVariables pathVariables) {
+
+    private static final byte[] EMPTY_BODY = new byte[0];
+
+    /**
+     * Создает HTTP-запрос, тело которого полностью содержится в массиве
+     * @param method метод запроса
+     * @param uri URI ресурса
+     * @param version версия HTTP-протокола используемого в запроса
+     * @param headers HTTP-заголовки запроса
+     * @param body тело запроса
+     */
+    public HttpRequest(Method method, URI uri, Version version, Map<String, String> headers, byte[] body) {
+        this(method, RequestTarget.of(uri), version, headers, body, null, PathVariables.EMPTY);
+    }
+
+    /**
+     * Создает HTTP-запрос, тело которого полностью содержится в массиве
+     * @param method метод запроса
+     * @param target цель запроса
+     * @param version версия HTTP-протокола используемого в запроса
+     * @param headers HTTP-заголовки запроса
+     * @param body тело запроса
+     */
+    public HttpRequest(Method method, RequestTarget target, Version version, Map<String, String> headers, byte[] body) {
+        this(method, target, version, headers, body, null, PathVariables.EMPTY);
+    }
+
+    /**
+     * Создает HTTP-запрос без переменных пути
+     * @param method метод запроса
+     * @param uri URI ресурса
+     * @param version версия HTTP-протокола используемого в запроса
+     * @param headers HTTP-заголовки запроса
+     * @param body тело запроса, либо {@code null}, если тело отсутствует или передается потоком
+     * @param bodyChannel канал тела запроса, передаваемого потоком, либо {@code null}
+     */
+    public HttpRequest(Method method, URI uri, Version version, Map<String, String> headers, byte[] body,
+                       ReadableByteChannel bodyChannel) {
+        this(method, RequestTarget.of(uri), version, headers, body, bodyChannel, PathVariables.EMPTY);
+    }
+
+    /**
+     * Создает HTTP-запрос без переменных пути
+     * @param method метод запроса
+     * @param target цель запроса
+     * @param version версия HTTP-протокола используемого в запроса
+     * @param headers HTTP-заголовки запроса
+     * @param body тело запроса, либо {@code null}, если тело отсутствует или передается потоком
+     * @param bodyChannel канал тела запроса, передаваемого потоком, либо {@code null}
+     */
+    public HttpRequest(Method method, RequestTarget target, Version version, Map<String, String> headers, byte[] body,
+                       ReadableByteChannel bodyChannel) {
+        this(method, target, version, headers, body, bodyChannel, PathVariables.EMPTY);
+    }
+
+    public HttpRequest {
+        Objects.requireNonNull(target, "target");
+        if (Objects.isNull(pathVariables)) {
+            pathVariables = PathVariables.EMPTY;
+        }
+    }
+
+    /**
+     * Создает копию HTTP-запроса с переменными пути
+     * @param pathVariables значения переменных пути
+     * @return HTTP-запрос с переданными переменными пути
+     */
+    public HttpRequest withPathVariables(final PathVariables pathVariables) {
+        return new HttpRequest(this.method, this.target, this.version, this.headers, this.body, this.bodyChannel, pathVariables);
+    }
+
+    /**
+     * Возвращает цель запроса в виде объекта {@link URI}. Объект создается при первом обращении
+     * @return URI ресурса
+     * @throws IllegalArgumentException выбрасывается, если цель запроса не является корректным URI
+     */
+    public URI uri() {
+        return this.target.uri();
+    }
+
+    /**
+     * Возвращает декодированный путь цели запроса
+     * @return путь запроса
+     */
+    public String path() {
+        return this.target.path();
+    }
+
+    /**
+     * Возвращает первое значение параметра строки запроса
+     * @param name имя параметра
+     * @return декодированное значение параметра, либо {@code null}, если параметр отсутствует
+     */
+    public String queryParameter(final String name) {
+        return this.target.queryParameter(name);
+    }
+
+    /**
+     * Возвращает значение переменной пути
+     * @param name имя переменной
+     * @return значение переменной, либо {@code null}, если переменная отсутствует
+     */
+    public String pathVariable(final String name) {
+        return this.pathVariables.get(name);
+    }
+
+    /**
+     * Проверяет, передается ли тело запроса потоком
+     * @return {@code true}, если тело запроса считывается из канала {@link #bodyChannel()}
+     */
+    public boolean isBodyStreamed() {
+        return Objects.nonNull(this.bodyChannel);
+    }
+
+    /**
+     * Возвращает входной поток тела запроса. Тело, передаваемое потоком, может быть считано только один раз
+     * @return входной поток тела запроса
+     */
+    public InputStream bodyStream() {
+        if (Objects.nonNull(this.bodyChannel)) {
+            return Channels.newInputStream(this.bodyChannel);
+        }
+        return new ByteArrayInputStream(Objects.nonNull(this.body) ? this.body : EMPTY_BODY);
+    }
 
     @Override
     public boolean equals(Object o) {
-        if (!(o instanceof HttpRequest(Method methodOther, URI uriOther, Version versionOther, Map<String, String> headersOther, byte[] bodyOther))) return false;
-        return method == methodOther && Objects.equals(uri, uriOther) && Objects.equals(version, versionOther) && Objects.equals(headers, headersOther) && Objects.deepEquals(body, bodyOther);
+        if (!(o instanceof HttpRequest(Method methodOther, RequestTarget targetOther, Version versionOther, Map<String, String> headersOther, byte[] bodyOther, ReadableByteChannel bodyChannelOther, PathVariables pathVariablesOther))) return false;
+        return method == methodOther && Objects.equals(target, targetOther) && Objects.equals(version, versionOther) && Objects.equals(headers, headersOther) && Objects.deepEquals(body, bodyOther) && Objects.equals(bodyChannel, bodyChannelOther) && Objects.equals(pathVariables, pathVariablesOther);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(method, uri, version, headers, Arrays.hashCode(body));
+        return Objects.hash(method, target, version, headers, Arrays.hashCode(body), bodyChannel, pathVariables);
     }
 
     @Override
     public String toString() {
         return "HttpRequest{" +
                 "method=" + method +
-                ", uri=" + uri +
+                ", target=" + target +
                 ", version=" + version +
                 ", headers=" + headers +
-                ", body=" + Arrays.toString(body) +
+                ", body=" + (Objects.nonNull(bodyChannel) ? "<streamed>" : Arrays.toString(body)) +
+                ", pathVariables=" + pathVariables +
                 '}';
     }
 }
@@ -1,53 +1,70 @@
 package org.owl.services.yaujrest.http;
 
-import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Map;
 import java.util.Objects;
 
 /**
- * Объект значение представляющий HTTP-ответ
+ * Объект значение представляющий HTTP-ответ.
+ * <p>
+ * Тело ответа задается либо массивом {@code body}, либо объектом {@link ResponseBody}, который записывается
+ * в соединение без копирования в массив байтов
  * @param version версия HTTP-протокола
  * @param statusCode код ответа
  * @param reason пояснительная фраза ответа
- * @param headers HTTP-заголовки ответа
- * @param body тело ответа
+ * @param headers HTTP-заголовки ответа, например {@link HttpHeaders}
+ * @param body тело ответа, либо {@code null}, если тело отсутствует или задано объектом {@code content}
+ * @param content тело ответа, записываемое без копирования в массив, либо {@code null}
  */
-public record HttpResponse(Version version, int statusCode, String reason, Map<String, String> headers, byte[] body) {
+public record HttpResponse(Version version, int statusCode, String reason, Map<String, String> headers, byte[] body,
+                           ResponseBody content) {
 
     /**
-     * Сериализует HTTP-ответ в массив байтов {@code byte[]}
-     * @return представление HTTP-ответа в виде {@code byte[]}
+     * Создает HTTP-ответ, тело которого содержится в массиве
+     * @param version версия HTTP-протокола
+     * @param statusCode код ответа
+     * @param reason пояснительная фраза ответа
+     * @param headers HTTP-заголовки ответа
+     * @param body тело ответа
      */
-    public byte[] serialize() {
-        final StringBuilder stringBuilder = new StringBuilder();
-        stringBuilder.append(version.toString()).append(' ').append(statusCode).append(' ');
-        if (Objects.nonNull(reason)) {
-            stringBuilder.append(reason);
-        }
-        stringBuilder.append("\r\n");
+    public HttpResponse(Version version, int statusCode, String reason, Map<String, String> headers, byte[] body) {
+        this(version, statusCode, reason, headers, body, null);
+    }
 
-        if (Objects.nonNull(this.headers)) {
-            headers.forEach((key, value) -> stringBuilder.append(key).append(": ").append(value).append("\r\n"));
+    public HttpResponse {
+        if (Objects.nonNull(body) && Objects.nonNull(content)) {
+            throw new IllegalArgumentException("Response body must be specified either as byte array or as response body content");
         }
+    }
 
-        stringBuilder.append("\r\n");
-        if (Objects.nonNull(this.body)) {
-            stringBuilder.append(new String(body, StandardCharsets.US_ASCII));
-        }
+    /**
+     * Создает копию HTTP-ответа с телом, записываемым без копирования в массив
+     * @param content тело ответа
+     * @return HTTP-ответ с переданным телом
+     */
+    public HttpResponse withContent(final ResponseBody content) {
+        return new HttpResponse(this.version, this.statusCode, this.reason, this.headers, null, content);
+    }
 
-        return stringBuilder.toString().getBytes(StandardCharsets.US_ASCII);
+    /**
+     * Сериализует HTTP-ответ в массив байтов {@code byte[]}. Тело ответа копируется без перекодирования.
+     * Тело, заданное областью файла или формируемое по частям, не может быть сериализовано в массив
+     * @return представление HTTP-ответа в виде {@code byte[]}
+     * @throws IllegalStateException выбрасывается, если тело ответа задано областью файла или формируется по частям
+     */
+    public byte[] serialize() {
+        return HttpResponseEncoder.encode(this, HttpResponseEncoder.Framing.NONE);
     }
 
     @Override
     public boolean equals(Object o) {
-        if (!(o instanceof HttpResponse(Version versionOther, int statusCodeOther, String reasonOther, Map<String, String> headersOther, byte[] bodyOther))) return false;
-        return statusCode == statusCodeOther && Objects.deepEquals(body, bodyOther) && Objects.equals(reason, reasonOther) && Objects.equals(version, versionOther) && Objects.equals(headers, headersOther);
+        if (!(o instanceof HttpResponse(Version versionOther, int statusCodeOther, String reasonOther, Map<String, String> headersOther, byte[] bodyOther, ResponseBody contentOther))) return false;
+        return statusCode == statusCodeOther && Objects.deepEquals(body, bodyOther) && Objects.equals(reason, reasonOther) && Objects.equals(version, versionOther) && Objects.equals(headers, headersOther) && Objects.equals(content, contentOther);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(version, statusCode, reason, headers, Arrays.hashCode(body));
+        return Objects.hash(version, statusCode, reason, headers, Arrays.hashCode(body), content);
     }
 
     @Override
@@ -57,7 +74,7 @@ public record HttpResponse(Version version, int statusCode, String reason, Map<S
                 ", statusCode=" + statusCode +
                 ", reason='" + reason + '\'' +
                 ", headers=" + headers +
-                ", body=" + Arrays.toString(body) +
+                ", body=" + (Objects.nonNull(content) ? content : Arrays.toString(body)) +
                 '}';
     }
 }
@@ -0,0 +1,374 @@
+package org.owl.services.yaujrest.http;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Кодировщик HTTP-ответов в байтовое представление.
+ * <p>
+ * Заголовок ответа записывается непосредственно в массив байтов без промежуточных строк: размер заголовка
+ * вычисляется заранее, строки статуса распространенных кодов ответа и имена распространенных заголовков
+ * закодированы заранее, а символы имен и значений заголовков записываются как байты ISO-8859-1.
+ * Тело ответа не перекодируется и копируется без изменений, либо записывается в соединение отдельно от заголовка.
+ * <p>
+ * Каждое поле {@link HttpHeaders} записывается отдельной строкой, поэтому повторяющиеся поля, например
+ * несколько {@code Set-Cookie}, сохраняются; заголовки другого отображения {@link Map} записываются по одному.
+ * <p>
+ * Заголовки разграничения сообщения ({@code Content-Length}, {@code Transfer-Encoding} и {@code Connection})
+ * могут быть заменены значениями {@link Framing}, определенными соединением
+ */
+public final class HttpResponseEncoder {
+
+    private static final int MIN_STATUS_CODE = 100;
+
+    private static final int MAX_STATUS_CODE = 599;
+
+    private static final String[] REASON_PHRASES = new String[MAX_STATUS_CODE + 1];
+
+    private static final byte[][] STATUS_LINES_HTTP_11 = new byte[MAX_STATUS_CODE + 1][];
+
+    private static final byte[][] STATUS_LINES_HTTP_10 = new byte[MAX_STATUS_CODE + 1][];
+
+    private static final Map<String, byte[]> HEADER_NAMES;
+
+    private static final byte[] CHUNKED = ": chunked\r\n".getBytes(StandardCharsets.US_ASCII);
+
+    static {
+        reasonPhrase(100, "Continue");
+        reasonPhrase(101, "Switching Protocols");
+        reasonPhrase(200, "OK");
+        reasonPhrase(201, "Created");
+        reasonPhrase(202, "Accepted");
+        reasonPhrase(203, "Non-Authoritative Information");
+        reasonPhrase(204, "No Content");
+        reasonPhrase(205, "Reset Content");
+        reasonPhrase(206, "Partial Content");
+        reasonPhrase(300, "Multiple Choices");
+        reasonPhrase(301, "Moved Permanently");
+        reasonPhrase(302, "Found");
+        reasonPhrase(303, "See Other");
+        reasonPhrase(304, "Not Modified");
+        reasonPhrase(307, "Temporary Redirect");
+        reasonPhrase(308, "Permanent Redirect");
+        reasonPhrase(400, "Bad Request");
+        reasonPhrase(401, "Unauthorized");
+        reasonPhrase(403, "Forbidden");
+        reasonPhrase(404, "Not Found");
+        reasonPhrase(405, "Method Not Allowed");
+        reasonPhrase(406, "Not Acceptable");
+        reasonPhrase(408, "Request Timeout");
+        reasonPhrase(409, "Conflict");
+        reasonPhrase(410, "Gone");
+        reasonPhrase(411, "Length Required");
+        reasonPhrase(412, "Precondition Failed");
+        reasonPhrase(413, "Content Too Large");
+        reasonPhrase(414, "URI Too Long");
+        reasonPhrase(415, "Unsupported Media Type");
+        reasonPhrase(416, "Range Not Satisfiable");
+        reasonPhrase(417, "Expectation Failed");
+        reasonPhrase(422, "Unprocessable Content");
+        reasonPhrase(426, "Upgrade Required");
+        reasonPhrase(428, "Precondition Required");
+        reasonPhrase(429, "Too Many Requests");
+        reasonPhrase(431, "Request Header Fields Too Large");
+        reasonPhrase(500, "Internal Server Error");
+        reasonPhrase(501, "Not Implemented");
+        reasonPhrase(502, "Bad Gateway");
+        reasonPhrase(503, "Service Unavailable");
+        reasonPhrase(504, "Gateway Timeout");
+        reasonPhrase(505, "HTTP Version Not Supported");
+
+        HEADER_NAMES = Map.ofEntries(
+                headerName(HttpHeaders.ALLOW),
+                headerName(HttpHeaders.CACHE_CONTROL),
+                headerName(HttpHeaders.CONNECTION),
+                headerName(HttpHeaders.CONTENT_ENCODING),
+                headerName(HttpHeaders.CONTENT_LENGTH),
+                headerName(HttpHeaders.CONTENT_TYPE),
+                headerName(HttpHeaders.DATE),
+                headerName(HttpHeaders.ETAG),
+                headerName(HttpHeaders.EXPIRES),
+                headerName(HttpHeaders.KEEP_ALIVE),
+                headerName(HttpHeaders.LAST_MODIFIED),
+                headerName(HttpHeaders.LOCATION),
+                headerName(HttpHeaders.RETRY_AFTER),
+                headerName(HttpHeaders.SERVER),
+                headerName(HttpHeaders.SET_COOKIE),
+                headerName(HttpHeaders.TRANSFER_ENCODING),
+                headerName(HttpHeaders.VARY));
+    }
+
+    /**
+     * Заголовки разграничения сообщения, заменяющие одноименные заголовки ответа
+     * @param contentLength значение заголовка {@code Content-Length}, либо {@code -1}, если заголовки ответа
+     *                      {@code Content-Length} и {@code Transfer-Encoding} сохраняются
+     * @param chunked передается ли тело с кодированием {@code Transfer-Encoding: chunked}; заменяет заголовки ответа
+     *                {@code Content-Length} и {@code Transfer-Encoding}
+     * @param connection значение заголовка {@code Connection}, либо {@code null}, если заголовок ответа сохраняется
+     */
+    public record Framing(long contentLength, boolean chunked, String connection) {
+
+        /**
+         * Заголовки ответа записываются без изменений
+         */
+        public static final Framing NONE = new Framing(-1, false, null);
+
+        private boolean replacesLength() {
+            return this.contentLength >= 0 || this.chunked;
+        }
+
+    }
+
+    private HttpResponseEncoder() { }
+
+    /**
+     * Возвращает стандартную пояснительную фразу кода ответа
+     * @param statusCode код ответа
+     * @return пояснительная фраза, либо {@code null}, если код ответа неизвестен
+     */
+    public static String reasonPhrase(final int statusCode) {
+        return statusCode >= MIN_STATUS_CODE && statusCode <= MAX_STATUS_CODE ? REASON_PHRASES[statusCode] : null;
+    }
+
+    /**
+     * Кодирует HTTP-ответ вместе с телом, заданным массивом байтов либо буфером, в массив точного размера
+     * @param httpResponse HTTP-ответ
+     * @param framing заголовки разграничения сообщения
+     * @return представление HTTP-ответа в виде {@code byte[]}
+     * @throws IllegalStateException выбрасывается, если тело ответа задано областью файла или формируется по частям
+     */
+    public static byte[] encode(final HttpResponse httpResponse, final Framing framing) {
+        final int headLength = headLength(httpResponse, framing);
+        final int bodyLength = bodyLength(httpResponse);
+        final byte[] bytes = new byte[headLength + bodyLength];
+        encodeHead(httpResponse, framing, bytes, 0);
+        if (Objects.nonNull(httpResponse.body())) {
+            System.arraycopy(httpResponse.body(), 0, bytes, headLength, bodyLength);
+        } else if (httpResponse.content() instanceof ResponseBody.Buffered(java.nio.ByteBuffer buffer)) {
+            buffer.get(buffer.position(), bytes, headLength, bodyLength);
+        }
+        return bytes;
+    }
+
+    /**
+     * Кодирует заголовок HTTP-ответа в массив точного размера
+     * @param httpResponse HTTP-ответ
+     * @param framing заголовки разграничения сообщения
+     * @return представление заголовка HTTP-ответа в виде {@code byte[]}
+     */
+    public static byte[] encodeHead(final HttpResponse httpResponse, final Framing framing) {
+        final byte[] bytes = new byte[headLength(httpResponse, framing)];
+        encodeHead(httpResponse, framing, bytes, 0);
+        return bytes;
+    }
+
+    /**
+     * Вычисляет размер заголовка HTTP-ответа в байтах
+     * @param httpResponse HTTP-ответ
+     * @param framing заголовки разграничения сообщения
+     * @return размер заголовка, включая пустую строку, завершающую заголовок
+     */
+    public static int headLength(final HttpResponse httpResponse, final Framing framing) {
+        int length = statusLineLength(httpResponse);
+        final Map<String, String> headers = httpResponse.headers();
+        if (headers instanceof HttpHeaders fields) {
+            for (int i = 0; i < fields.fieldCount(); i++) {
+                if (!isReplaced(fields.fieldName(i), framing)) {
+                    length += fields.fieldName(i).length() + fields.fieldValue(i).length() + 4;
+                }
+            }
+        } else if (Objects.nonNull(headers)) {
+            for (final Map.Entry<String, String> header : headers.entrySet()) {
+                if (!isReplaced(header.getKey(), framing)) {
+                    length += header.getKey().length() + header.getValue().length() + 4;
+                }
+            }
+        }
+
+        if (framing.chunked()) {
+            length += HttpHeaders.TRANSFER_ENCODING.length() + CHUNKED.length;
+        } else if (framing.contentLength() >= 0) {
+            length += HttpHeaders.CONTENT_LENGTH.length() + digits(framing.contentLength()) + 4;
+        }
+        if (Objects.nonNull(framing.connection())) {
+            length += HttpHeaders.CONNECTION.length() + framing.connection().length() + 4;
+        }
+        return length + 2;
+    }
+
+    /**
+     * Кодирует заголовок HTTP-ответа в переданный массив. Массив должен вмещать
+     * {@link #headLength(HttpResponse, Framing)} байтов начиная со смещения
+     * @param httpResponse HTTP-ответ
+     * @param framing заголовки разграничения сообщения
+     * @param target целевой массив
+     * @param offset смещение начала заголовка в массиве
+     * @return смещение, следующее за заголовком
+     */
+    public static int encodeHead(final HttpResponse httpResponse, final Framing framing, final byte[] target, final int offset) {
+        int p = writeStatusLine(httpResponse, target, offset);
+
+        final Map<String, String> headers = httpResponse.headers();
+        if (headers instanceof HttpHeaders fields) {
+            for (int i = 0; i < fields.fieldCount(); i++) {
+                p = writeField(fields.fieldName(i), fields.fieldValue(i), framing, target, p);
+            }
+        } else if (Objects.nonNull(headers)) {
+            for (final Map.Entry<String, String> header : headers.entrySet()) {
+                p = writeField(header.getKey(), header.getValue(), framing, target, p);
+            }
+        }
+
+        if (framing.chunked()) {
+            p = writeName(HttpHeaders.TRANSFER_ENCODING, target, p);
+            System.arraycopy(CHUNKED, 0, target, p, CHUNKED.length);
+            p += CHUNKED.length;
+        } else if (framing.contentLength() >= 0) {
+            p = writeHeader(HttpHeaders.CONTENT_LENGTH, target, p);
+            p = writeNumber(framing.contentLength(), target, p);
+            p = writeCrlf(target, p);
+        }
+        if (Objects.nonNull(framing.connection())) {
+            p = writeHeader(HttpHeaders.CONNECTION, target, p);
+            p = writeString(framing.connection(), target, p);
+            p = writeCrlf(target, p);
+        }
+        return writeCrlf(target, p);
+    }
+
+    private static int bodyLength(final HttpResponse httpResponse) {
+        if (Objects.nonNull(httpResponse.body())) {
+            return httpResponse.body().length;
+        }
+        if (Objects.isNull(httpResponse.content())) {
+            return 0;
+        }
+        if (httpResponse.content() instanceof ResponseBody.Buffered buffered) {
+            return (int) buffered.length();
+        }
+        throw new IllegalStateException("Response body must be written to connection directly");
+    }
+
+    private static boolean isReplaced(final String name, final Framing framing) {
+        if (Objects.nonNull(framing.connection()) && name.equalsIgnoreCase(HttpHeaders.CONNECTION)) {
+            return true;
+        }
+        return framing.replacesLength() && (name.equalsIgnoreCase(HttpHeaders.CONTENT_LENGTH) || name.equalsIgnoreCase(HttpHeaders.TRANSFER_ENCODING));
+    }
+
+    private static byte[] cachedStatusLine(final HttpResponse httpResponse) {
+        final int statusCode = httpResponse.statusCode();
+        if (statusCode < MIN_STATUS_CODE || statusCode > MAX_STATUS_CODE
+                || !Objects.equals(REASON_PHRASES[statusCode], httpResponse.reason())
+                || Objects.isNull(httpResponse.reason())
+                || httpResponse.version().major() != 1) {
+            return null;
+        }
+        return switch (httpResponse.version().minor()) {
+            case 1 -> STATUS_LINES_HTTP_11[statusCode];
+            case 0 -> STATUS_LINES_HTTP_10[statusCode];
+            default -> null;
+        };
+    }
+
+    private static int statusLineLength(final HttpResponse httpResponse) {
+        final byte[] statusLine = cachedStatusLine(httpResponse);
+        if (Objects.nonNull(statusLine)) {
+            return statusLine.length;
+        }
+
+        final Version version = httpResponse.version();
+        final int reasonLength = Objects.isNull(httpResponse.reason()) ? 0 : httpResponse.reason().length();
+        return 5 + digits(version.major()) + 1 + digits(version.minor()) + 1 + digits(httpResponse.statusCode()) + 1 + reasonLength + 2;
+    }
+
+    private static int writeStatusLine(final HttpResponse httpResponse, final byte[] target, final int offset) {
+        final byte[] statusLine = cachedStatusLine(httpResponse);
+        if (Objects.nonNull(statusLine)) {
+            System.arraycopy(statusLine, 0, target, offset, statusLine.length);
+            return offset + statusLine.length;
+        }
+
+        final Version version = httpResponse.version();
+        int p = writeString("HTTP/", target, offset);
+        p = writeNumber(version.major(), target, p);
+        target[p++] = '.';
+        p = writeNumber(version.minor(), target, p);
+        target[p++] = ' ';
+        p = writeNumber(httpResponse.statusCode(), target, p);
+        target[p++] = ' ';
+        if (Objects.nonNull(httpResponse.reason())) {
+            p = writeString(httpResponse.reason(), target, p);
+        }
+        return writeCrlf(target, p);
+    }
+
+    private static int writeField(final String name, final String value, final Framing framing,
+                                  final byte[] target, final int offset) {
+        if (isReplaced(name, framing)) {
+            return offset;
+        }
+        final int p = writeString(value, target, writeHeader(name, target, offset));
+        return writeCrlf(target, p);
+    }
+
+    private static int writeHeader(final String name, final byte[] target, final int offset) {
+        final int p = writeName(name, target, offset);
+        target[p] = ':';
+        target[p + 1] = ' ';
+        return p + 2;
+    }
+
+    private static int writeName(final String name, final byte[] target, final int offset) {
+        final byte[] encoded = HEADER_NAMES.get(name);
+        if (Objects.nonNull(encoded)) {
+            System.arraycopy(encoded, 0, target, offset, encoded.length);
+            return offset + encoded.length;
+        }
+        return writeString(name, target, offset);
+    }
+
+    private static int writeString(final String value, final byte[] target, final int offset) {
+        final int length = value.length();
+        for (int i = 0; i < length; i++) {
+            target[offset + i] = (byte) value.charAt(i);
+        }
+        return offset + length;
+    }
+
+    private static int writeNumber(final long value, final byte[] target, final int offset) {
+        final int end = offset + digits(value);
+        long remaining = value;
+        for (int p = end - 1; p >= offset; p--) {
+            target[p] = (byte) ('0' + remaining % 10);
+            remaining /= 10;
+        }
+        return end;
+    }
+
+    private static int writeCrlf(final byte[] target, final int offset) {
+        target[offset] = '\r';
+        target[offset + 1] = '\n';
+        return offset + 2;
+    }
+
+    private static int digits(final long value) {
+        int digits = 1;
+        for (long remaining = value; remaining >= 10; remaining /= 10) {
+            digits++;
+        }
+        return digits;
+    }
+
+    private static void reasonPhrase(final int statusCode, final String reason) {
+        REASON_PHRASES[statusCode] = reason;
+        STATUS_LINES_HTTP_11[statusCode] = ("HTTP/1.1 " + statusCode + " " + reason + "\r\n").getBytes(StandardCharsets.US_ASCII);
+        STATUS_LINES_HTTP_10[statusCode] = ("HTTP/1.0 " + statusCode + " " + reason + "\r\n").getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static Map.Entry<String, byte[]> headerName(final String name) {
+        return Map.entry(name, name.getBytes(StandardCharsets.US_ASCII));
+    }
+
+}
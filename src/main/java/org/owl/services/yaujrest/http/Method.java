@@ -7,5 +7,8 @@ public enum Method {
     GET,
     POST,
     PUT,
-    DELETE
+    DELETE,
+    HEAD,
+    OPTIONS,
+    PATCH
 }
@@ -0,0 +1,110 @@
+package org.owl.services.yaujrest.http;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Значения переменных пути запроса, извлеченные при выборе обработчика по шаблону пути.
+ * <p>
+ * Значения хранятся в виде границ в исходной строке пути и выделяются в отдельные строки
+ * только при обращении к ним
+ */
+public final class PathVariables {
+
+    /**
+     * Пустой набор переменных пути
+     */
+    public static final PathVariables EMPTY = new PathVariables("", new String[0], new int[0]);
+
+    private final String path;
+
+    private final String[] names;
+
+    private final int[] bounds;
+
+    /**
+     * Создает набор переменных пути
+     * @param path путь запроса
+     * @param names имена переменных; значение переменной с именем {@code null} не сохраняется
+     * @param bounds границы значений переменных в пути: начало и конец значения {@code i}-й переменной
+     *               находятся в элементах {@code 2 * i} и {@code 2 * i + 1}
+     */
+    public PathVariables(final String path, final String[] names, final int[] bounds) {
+        if (bounds.length < names.length * 2) {
+            throw new IllegalArgumentException("Path variable bounds do not match variable names");
+        }
+        this.path = path;
+        this.names = names;
+        this.bounds = bounds;
+    }
+
+    /**
+     * Возвращает значение переменной пути
+     * @param name имя переменной
+     * @return значение переменной, либо {@code null}, если переменная отсутствует
+     */
+    public String get(final String name) {
+        for (int i = 0; i < this.names.length; i++) {
+            if (Objects.nonNull(this.names[i]) && this.names[i].equals(name)) {
+                return this.path.substring(this.bounds[2 * i], this.bounds[2 * i + 1]);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Возвращает количество переменных пути
+     * @return количество переменных
+     */
+    public int size() {
+        int size = 0;
+        for (final String name : this.names) {
+            if (Objects.nonNull(name)) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Проверяет, отсутствуют ли переменные пути
+     * @return {@code true}, если переменные пути отсутствуют
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Возвращает переменные пути в виде неизменяемого отображения имен переменных на значения
+     * @return отображение имен переменных на значения
+     */
+    public Map<String, String> asMap() {
+        final Map<String, String> variables = new LinkedHashMap<>();
+        for (int i = 0; i < this.names.length; i++) {
+            if (Objects.isNull(this.names[i])) {
+                continue;
+            }
+            variables.put(this.names[i], this.path.substring(this.bounds[2 * i], this.bounds[2 * i + 1]));
+        }
+        return Collections.unmodifiableMap(variables);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof PathVariables other)) return false;
+        return asMap().equals(other.asMap());
+    }
+
+    @Override
+    public int hashCode() {
+        return asMap().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return asMap().toString();
+    }
+
+}
@@ -0,0 +1,286 @@
+package org.owl.services.yaujrest.http;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Цель HTTP-запроса (request-target) в том виде, в котором она получена из соединения.
+ * <p>
+ * Цель запроса хранится в виде байтов. Путь, строка запроса, параметры строки запроса и объект {@link URI}
+ * вычисляются при первом обращении к ним и сохраняются. Путь и параметры декодируются без создания
+ * объекта {@link URI}, поэтому выбор обработчика по пути не зависит от того, является ли цель запроса
+ * корректным URI. Некорректные последовательности {@code %XX} сохраняются без изменений.
+ * <p>
+ * Декодированные октеты и октеты за пределами ASCII интерпретируются только как UTF-8. Если октеты пути,
+ * имени либо значения параметра не образуют корректную последовательность UTF-8, эта часть цели запроса
+ * возвращается без декодирования, каждый октет - символом ISO-8859-1; символы замены не подставляются.
+ * Последовательность {@code %2F} в пути не декодируется, чтобы закодированная косая черта оставалась частью
+ * сегмента пути при выборе обработчика, а не разделяла сегменты
+ * <p>
+ * Цель запроса в абсолютной форме ({@code http://host/path}) сводится к пути и строке запроса
+ */
+public final class RequestTarget {
+
+    private final byte[] bytes;
+
+    private final int pathStart;
+
+    private final int pathEnd;
+
+    private String raw;
+
+    private String path;
+
+    private String rawQuery;
+
+    private Map<String, List<String>> queryParameters;
+
+    private URI uri;
+
+    private RequestTarget(final byte[] bytes) {
+        this.bytes = bytes;
+        this.pathStart = pathStart(bytes);
+        int pathEnd = this.pathStart;
+        while (pathEnd < bytes.length && bytes[pathEnd] != '?' && bytes[pathEnd] != '#') {
+            pathEnd++;
+        }
+        this.pathEnd = pathEnd;
+    }
+
+    /**
+     * Создает цель запроса из байтов. Байты копируются
+     * @param buffer массив байтов, содержащий цель запроса в кодировке ISO-8859-1
+     * @param from индекс начала цели запроса
+     * @param to индекс, следующий за концом цели запроса
+     * @return цель запроса
+     */
+    public static RequestTarget of(final byte[] buffer, final int from, final int to) {
+        return new RequestTarget(Arrays.copyOfRange(buffer, from, to));
+    }
+
+    /**
+     * Создает цель запроса из строки
+     * @param target цель запроса
+     * @return цель запроса
+     */
+    public static RequestTarget of(final String target) {
+        final RequestTarget requestTarget = new RequestTarget(target.getBytes(StandardCharsets.ISO_8859_1));
+        requestTarget.raw = target;
+        return requestTarget;
+    }
+
+    /**
+     * Создает цель запроса из URI
+     * @param uri URI ресурса
+     * @return цель запроса
+     */
+    public static RequestTarget of(final URI uri) {
+        final RequestTarget requestTarget = of(uri.toString());
+        requestTarget.uri = uri;
+        return requestTarget;
+    }
+
+    /**
+     * Возвращает цель запроса без изменений
+     * @return строковое представление цели запроса
+     */
+    public String raw() {
+        if (Objects.isNull(this.raw)) {
+            this.raw = new String(this.bytes, StandardCharsets.ISO_8859_1);
+        }
+        return this.raw;
+    }
+
+    /**
+     * Возвращает декодированный путь цели запроса
+     * @return путь, в котором последовательности {@code %XX}, кроме {@code %2F}, заменены символами в кодировке UTF-8
+     */
+    public String path() {
+        if (Objects.isNull(this.path)) {
+            final String path = decode(this.bytes, this.pathStart, this.pathEnd, false);
+            this.path = path.isEmpty() && this.pathStart > 0 ? "/" : path;
+        }
+        return this.path;
+    }
+
+    /**
+     * Возвращает строку запроса без декодирования
+     * @return строка запроса, либо {@code null}, если цель запроса не содержит строки запроса
+     */
+    public String rawQuery() {
+        if (Objects.isNull(this.rawQuery) && this.pathEnd < this.bytes.length && this.bytes[this.pathEnd] == '?') {
+            this.rawQuery = new String(this.bytes, this.pathEnd + 1, queryEnd() - this.pathEnd - 1, StandardCharsets.ISO_8859_1);
+        }
+        return this.rawQuery;
+    }
+
+    /**
+     * Возвращает декодированные параметры строки запроса в формате {@code application/x-www-form-urlencoded}
+     * @return неизменяемое отображение имен параметров на значения в порядке их следования
+     */
+    public Map<String, List<String>> queryParameters() {
+        if (Objects.isNull(this.queryParameters)) {
+            this.queryParameters = parseQuery();
+        }
+        return this.queryParameters;
+    }
+
+    /**
+     * Возвращает первое значение параметра строки запроса
+     * @param name имя параметра
+     * @return значение параметра, либо {@code null}, если параметр отсутствует
+     */
+    public String queryParameter(final String name) {
+        final List<String> values = queryParameters().get(name);
+        return Objects.isNull(values) ? null : values.getFirst();
+    }
+
+    /**
+     * Возвращает цель запроса в виде объекта {@link URI}
+     * @return URI ресурса
+     * @throws IllegalArgumentException выбрасывается, если цель запроса не является корректным URI
+     */
+    public URI uri() {
+        if (Objects.isNull(this.uri)) {
+            this.uri = URI.create(raw());
+        }
+        return this.uri;
+    }
+
+    private int queryEnd() {
+        int end = this.pathEnd + 1;
+        while (end < this.bytes.length && this.bytes[end] != '#') {
+            end++;
+        }
+        return end;
+    }
+
+    private Map<String, List<String>> parseQuery() {
+        if (this.pathEnd >= this.bytes.length || this.bytes[this.pathEnd] != '?') {
+            return Collections.emptyMap();
+        }
+
+        final Map<String, List<String>> parameters = new LinkedHashMap<>();
+        final int end = queryEnd();
+        int start = this.pathEnd + 1;
+        while (start < end) {
+            int pairEnd = start;
+            int separator = -1;
+            while (pairEnd < end && this.bytes[pairEnd] != '&') {
+                if (separator < 0 && this.bytes[pairEnd] == '=') {
+                    separator = pairEnd;
+                }
+                pairEnd++;
+            }
+
+            if (pairEnd > start) {
+                final String name = decode(this.bytes, start, separator < 0 ? pairEnd : separator, true);
+                final String value = separator < 0 ? "" : decode(this.bytes, separator + 1, pairEnd, true);
+                parameters.computeIfAbsent(name, key -> new ArrayList<>(1)).add(value);
+            }
+            start = pairEnd + 1;
+        }
+
+        parameters.replaceAll((name, values) -> Collections.unmodifiableList(values));
+        return Collections.unmodifiableMap(parameters);
+    }
+
+    private static int pathStart(final byte[] bytes) {
+        if (bytes.length == 0 || bytes[0] == '/' || bytes[0] == '*') {
+            return 0;
+        }
+
+        for (int i = 0; i + 2 < bytes.length && bytes[i] != '/' && bytes[i] != '?'; i++) {
+            if (bytes[i] == ':' && bytes[i + 1] == '/' && bytes[i + 2] == '/') {
+                int authorityEnd = i + 3;
+                while (authorityEnd < bytes.length && bytes[authorityEnd] != '/' && bytes[authorityEnd] != '?') {
+                    authorityEnd++;
+                }
+                return authorityEnd;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Декодирует часть цели запроса. Параметр строки запроса ({@code form}) дополнительно заменяет {@code +} пробелом,
+     * а в пути сохраняется последовательность {@code %2F}
+     */
+    private static String decode(final byte[] bytes, final int from, final int to, final boolean form) {
+        boolean encoded = false;
+        for (int i = from; i < to && !encoded; i++) {
+            encoded = bytes[i] == '%' || (form && bytes[i] == '+') || bytes[i] < 0;
+        }
+        if (!encoded) {
+            return new String(bytes, from, to - from, StandardCharsets.ISO_8859_1);
+        }
+
+        final ByteArrayOutputStream decoded = new ByteArrayOutputStream(to - from);
+        for (int i = from; i < to; i++) {
+            final byte b = bytes[i];
+            if (b == '%' && i + 2 < to && hex(bytes[i + 1]) >= 0 && hex(bytes[i + 2]) >= 0) {
+                final int octet = hex(bytes[i + 1]) << 4 | hex(bytes[i + 2]);
+                if (!form && octet == '/') {
+                    decoded.write(bytes, i, 3);
+                } else {
+                    decoded.write(octet);
+                }
+                i += 2;
+            } else if (form && b == '+') {
+                decoded.write(' ');
+            } else {
+                decoded.write(b);
+            }
+        }
+        try {
+            return StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPORT)
+                    .onUnmappableCharacter(CodingErrorAction.REPORT)
+                    .decode(ByteBuffer.wrap(decoded.toByteArray()))
+                    .toString();
+        } catch (CharacterCodingException e) {
+            return new String(bytes, from, to - from, StandardCharsets.ISO_8859_1);
+        }
+    }
+
+    private static int hex(final byte b) {
+        if (b >= '0' && b <= '9') {
+            return b - '0';
+        }
+        if (b >= 'a' && b <= 'f') {
+            return b - 'a' + 10;
+        }
+        if (b >= 'A' && b <= 'F') {
+            return b - 'A' + 10;
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof RequestTarget other)) return false;
+        return Arrays.equals(this.bytes, other.bytes);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(this.bytes);
+    }
+
+    @Override
+    public String toString() {
+        return raw();
+    }
+
+}
@@ -0,0 +1,169 @@
+package org.owl.services.yaujrest.http;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * Тело HTTP-ответа, записываемое в соединение без предварительного копирования в массив байтов.
+ * <p>
+ * Поддерживаются следующие виды тела:
+ * <ul>
+ *     <li>{@link Buffered} - содержимое буфера {@link ByteBuffer}, в том числе прямого или отображенного в память;</li>
+ *     <li>{@link FileRegion} - область файла, передаваемая методом {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)},
+ *     что позволяет ядру отправлять файл без копирования в память приложения;</li>
+ *     <li>{@link Chunked} - тело, формируемое по частям и передаваемое с кодированием {@code Transfer-Encoding: chunked}.</li>
+ * </ul>
+ */
+public sealed interface ResponseBody permits ResponseBody.Buffered, ResponseBody.FileRegion, ResponseBody.Chunked {
+
+    /**
+     * Возвращает размер тела ответа
+     * @return размер тела в байтах, либо {@code -1}, если размер заранее неизвестен
+     */
+    long length();
+
+    /**
+     * Создает тело ответа из оставшихся байтов буфера. Позиция переданного буфера не изменяется
+     * @param buffer буфер с телом ответа
+     * @return тело ответа
+     */
+    static ResponseBody of(final ByteBuffer buffer) {
+        return new Buffered(buffer);
+    }
+
+    /**
+     * Создает тело ответа из содержимого файла. Файл открывается сразу и закрывается после отправки ответа
+     * @param path путь к файлу
+     * @return тело ответа
+     * @throws IOException выбрасывается в случае ошибки открытия файла
+     */
+    static ResponseBody of(final Path path) throws IOException {
+        final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new FileRegion(channel, 0, channel.size());
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Создает тело ответа из области файла. Канал закрывается после отправки ответа
+     * @param channel канал файла
+     * @param position позиция начала области
+     * @param count размер области в байтах
+     * @return тело ответа
+     */
+    static ResponseBody of(final FileChannel channel, final long position, final long count) {
+        return new FileRegion(channel, position, count);
+    }
+
+    /**
+     * Создает тело ответа, формируемое по частям
+     * @param producer источник частей тела
+     * @return тело ответа
+     */
+    static ResponseBody chunked(final ChunkProducer producer) {
+        return new Chunked(producer);
+    }
+
+    /**
+     * Тело ответа, содержащееся в буфере
+     * @param buffer буфер, оставшиеся байты которого составляют тело ответа
+     */
+    record Buffered(ByteBuffer buffer) implements ResponseBody {
+
+        public Buffered {
+            Objects.requireNonNull(buffer, "buffer");
+        }
+
+        @Override
+        public long length() {
+            return this.buffer.remaining();
+        }
+
+    }
+
+    /**
+     * Тело ответа, содержащееся в области файла
+     * @param channel канал файла, закрываемый после отправки ответа
+     * @param position позиция начала области
+     * @param count размер области в байтах
+     */
+    record FileRegion(FileChannel channel, long position, long count) implements ResponseBody {
+
+        public FileRegion {
+            Objects.requireNonNull(channel, "channel");
+            if (position < 0 || count < 0) {
+                throw new IllegalArgumentException("File region position and size must not be negative");
+            }
+        }
+
+        @Override
+        public long length() {
+            return this.count;
+        }
+
+    }
+
+    /**
+     * Тело ответа, формируемое по частям
+     * @param producer источник частей тела
+     */
+    record Chunked(ChunkProducer producer) implements ResponseBody {
+
+        public Chunked {
+            Objects.requireNonNull(producer, "producer");
+        }
+
+        @Override
+        public long length() {
+            return -1;
+        }
+
+    }
+
+    /**
+     * Источник частей тела ответа. Вызывается в потоке исполнителя запросов после того,
+     * как заголовок ответа передан соединению
+     */
+    @FunctionalInterface
+    interface ChunkProducer {
+
+        /**
+         * Формирует тело ответа, последовательно передавая его части
+         * @param writer получатель частей тела
+         * @throws IOException выбрасывается в случае ошибки формирования или записи тела
+         */
+        void produce(ChunkWriter writer) throws IOException;
+
+    }
+
+    /**
+     * Получатель частей тела ответа. Запись части может блокироваться, пока соединение не готово принять данные
+     */
+    interface ChunkWriter {
+
+        /**
+         * Записывает часть тела ответа. После возврата из метода буфер может быть использован повторно
+         * @param chunk буфер, оставшиеся байты которого составляют часть тела
+         * @throws IOException выбрасывается, если соединение закрыто
+         */
+        void write(ByteBuffer chunk) throws IOException;
+
+        /**
+         * Записывает часть тела ответа
+         * @param chunk часть тела
+         * @throws IOException выбрасывается, если соединение закрыто
+         */
+        default void write(final byte[] chunk) throws IOException {
+            write(ByteBuffer.wrap(chunk));
+        }
+
+    }
+
+}
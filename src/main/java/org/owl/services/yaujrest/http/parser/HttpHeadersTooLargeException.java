@@ -0,0 +1,11 @@
+package org.owl.services.yaujrest.http.parser;
+
+/**
+ * Исключение выбрасываемое в случае превышения максимального размера заголовка HTTP-сообщения
+ * либо максимального количества заголовков
+ */
+public class HttpHeadersTooLargeException extends HttpMessageParseException {
+    public HttpHeadersTooLargeException(String message) {
+        super(message);
+    }
+}
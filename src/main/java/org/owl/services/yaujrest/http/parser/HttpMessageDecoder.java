@@ -0,0 +1,950 @@
+package org.owl.services.yaujrest.http.parser;
+
+import org.owl.services.yaujrest.http.HttpHeaders;
+import org.owl.services.yaujrest.http.HttpRequest;
+import org.owl.services.yaujrest.http.HttpResponse;
+import org.owl.services.yaujrest.http.Method;
+import org.owl.services.yaujrest.http.RequestTarget;
+import org.owl.services.yaujrest.http.Version;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Инкрементальный синтаксический анализатор HTTP-сообщений.
+ * <p>
+ * Анализатор работает непосредственно с массивом байтов, в котором накапливается сообщение,
+ * и может быть вызван повторно по мере поступления новых байтов: разбор продолжается с того места,
+ * на котором он был остановлен. Во время разбора анализатор не создает объектов, а запоминает
+ * границы стартовой строки и заголовков в виде смещений относительно начала сообщения.
+ * Объекты {@link HttpRequest} и {@link HttpResponse} создаются только после получения сообщения целиком.
+ * <p>
+ * Тело сообщения ограничивается заголовком {@code Content-Length} либо передается частями
+ * ({@code Transfer-Encoding: chunked}). Части тела объединяются непосредственно в массиве сообщения,
+ * поэтому после разбора такого сообщения байты массива за пределами тела изменяются.
+ * Запрос без этих заголовков не имеет тела, а тело такого ответа продолжается до окончания входных данных.
+ * Учитываются все поля этих заголовков: сообщение с различающимися значениями {@code Content-Length} отклоняется,
+ * а кодирования всех полей {@code Transfer-Encoding} объединяются, и {@code chunked} должно быть последним из них.
+ * <p>
+ * Завершающие заголовки (trailers) проверяются, но не сохраняются: они поступают после заголовков, по которым
+ * уже определены границы и получатель сообщения, поэтому не должны подменять такие заголовки, как
+ * {@code Content-Length}, {@code Transfer-Encoding}, {@code Host} либо {@code Authorization}.
+ * <p>
+ * Пустые строки перед стартовой строкой запроса пропускаются (RFC 9112, раздел 2.2).
+ * <p>
+ * Размер тела сообщения ограничивается: сообщение, размер тела которого превышает допустимый,
+ * отклоняется сразу после получения заголовков либо части тела, превысившей ограничение. Также ограничиваются
+ * размер заголовка сообщения (стартовой строки и заголовков) и количество заголовков: сообщение, превысившее
+ * ограничение, отклоняется исключением {@link HttpHeadersTooLargeException} до получения заголовка целиком,
+ * поэтому буфер, в котором накапливается заголовок, не растет сверх ограничения. Завершающие заголовки
+ * ограничиваются так же, как заголовок сообщения.
+ * <p>
+ * Экземпляр анализатора хранит состояние разбора и не предназначен для одновременного использования
+ * несколькими потоками. После получения сообщения анализатор необходимо сбросить методом {@link #reset()}.
+ * <p>
+ * Например:
+ * <p>
+ * <blockquote><pre>
+ * final HttpMessageDecoder decoder = HttpMessageDecoder.forRequests();
+ * while (!decoder.parse(buffer, 0, length)) {
+ *     length += read(buffer, length);
+ * }
+ * final HttpRequest httpRequest = decoder.toHttpRequest(buffer, 0);
+ * consume(buffer, decoder.messageLength());
+ * decoder.reset();
+ * </pre></blockquote>
+ */
+public final class HttpMessageDecoder {
+
+    private static final int REQUEST_START = 0;
+    private static final int REQUEST_START_LF = 1;
+    private static final int REQUEST_METHOD = 2;
+    private static final int REQUEST_TARGET = 3;
+    private static final int REQUEST_VERSION = 4;
+    private static final int RESPONSE_VERSION = 5;
+    private static final int RESPONSE_STATUS = 6;
+    private static final int RESPONSE_REASON = 7;
+    private static final int START_LINE_LF = 8;
+    private static final int HEADER_START = 9;
+    private static final int HEADER_NAME = 10;
+    private static final int HEADER_VALUE_START = 11;
+    private static final int HEADER_VALUE = 12;
+    private static final int HEADER_LF = 13;
+    private static final int HEADERS_END_LF = 14;
+    private static final int CHUNK_SIZE = 15;
+    private static final int CHUNK_EXTENSION = 16;
+    private static final int CHUNK_SIZE_LF = 17;
+    private static final int CHUNK_DATA = 18;
+    private static final int CHUNK_DATA_CR = 19;
+    private static final int CHUNK_DATA_LF = 20;
+    private static final int BODY_FIXED = 21;
+    private static final int BODY_UNTIL_EOF = 22;
+    private static final int DONE = 23;
+
+    private static final int INITIAL_HEADERS = 16;
+
+    /**
+     * Максимальный размер заголовка сообщения по умолчанию в байтах
+     */
+    public static final int DEFAULT_MAX_HEAD_SIZE = 16 * 1024;
+
+    /**
+     * Максимальное количество заголовков сообщения по умолчанию
+     */
+    public static final int DEFAULT_MAX_HEADERS = 100;
+
+    private static final byte[] HTTP_PREFIX = "HTTP/".getBytes(StandardCharsets.US_ASCII);
+
+    private static final int VERSION_LENGTH = HTTP_PREFIX.length + 3;
+
+    private static final byte[] CONTENT_LENGTH = "content-length".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] TRANSFER_ENCODING = "transfer-encoding".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] CHUNKED = "chunked".getBytes(StandardCharsets.US_ASCII);
+
+    private static final Method[] METHODS = Method.values();
+
+    private static final byte[][] METHOD_NAMES = new byte[METHODS.length][];
+
+    /**
+     * Символы, допустимые в токенах (tchar)
+     */
+    private static final boolean[] TCHAR = new boolean[256];
+
+    /**
+     * Символы, допустимые в значениях заголовков и пояснительной фразе (field-vchar, obs-text, SP, HTAB)
+     */
+    private static final boolean[] FIELD_CHAR = new boolean[256];
+
+    /**
+     * Символы, допустимые в URI запроса (vchar, obs-text)
+     */
+    private static final boolean[] TARGET_CHAR = new boolean[256];
+
+    static {
+        for (int ch = '0'; ch <= '9'; ch++) {
+            TCHAR[ch] = true;
+        }
+        for (int ch = 'A'; ch <= 'Z'; ch++) {
+            TCHAR[ch] = true;
+            TCHAR[ch + ('a' - 'A')] = true;
+        }
+        for (final char ch : "!#$%&'*+-.^_`|~".toCharArray()) {
+            TCHAR[ch] = true;
+        }
+
+        for (int ch = 0x21; ch <= 0xFF; ch++) {
+            if (ch != 0x7F) {
+                FIELD_CHAR[ch] = true;
+                TARGET_CHAR[ch] = true;
+            }
+        }
+        FIELD_CHAR[' '] = true;
+        FIELD_CHAR['\t'] = true;
+
+        for (int i = 0; i < METHODS.length; i++) {
+            METHOD_NAMES[i] = METHODS[i].name().getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    private final boolean request;
+
+    private final int maxBodySize;
+
+    private final int maxHeadSize;
+
+    private final int maxHeaders;
+
+    private int state;
+
+    private int position;
+
+    private int tokenStart;
+
+    private int tokenEnd;
+
+    private int methodStart;
+
+    private int methodEnd;
+
+    private int targetStart;
+
+    private int targetEnd;
+
+    private int versionStart;
+
+    private int statusCode;
+
+    private int reasonStart;
+
+    private int reasonEnd;
+
+    private int[] headerSpans = new int[INITIAL_HEADERS * 4];
+
+    private int headerCount;
+
+    private int bodyStart;
+
+    private int bodyEnd;
+
+    private boolean trailers;
+
+    private int trailerCount;
+
+    /**
+     * Оставшийся размер текущей части тела либо размер тела, ограниченного заголовком {@code Content-Length}
+     */
+    private long remaining;
+
+    private int headLength;
+
+    private boolean streaming;
+
+    private int chunkSizeDigits;
+
+    /**
+     * Позиция начала заголовка либо завершающих заголовков сообщения, от которой отсчитывается размер заголовка
+     */
+    private int sectionStart;
+
+    private HttpMessageDecoder(final boolean request, final int maxBodySize, final int maxHeadSize, final int maxHeaders) {
+        if (maxBodySize < 0) {
+            throw new IllegalArgumentException("Maximum body size must not be negative");
+        }
+        if (maxHeadSize < 1) {
+            throw new IllegalArgumentException("Maximum head size must be positive");
+        }
+        if (maxHeaders < 0) {
+            throw new IllegalArgumentException("Maximum number of headers must not be negative");
+        }
+        this.request = request;
+        this.maxBodySize = maxBodySize;
+        this.maxHeadSize = maxHeadSize;
+        this.maxHeaders = maxHeaders;
+        reset();
+    }
+
+    /**
+     * Создает анализатор HTTP-запросов без ограничения размера тела и с ограничениями заголовка по умолчанию
+     * @return анализатор HTTP-запросов
+     */
+    public static HttpMessageDecoder forRequests() {
+        return forRequests(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Создает анализатор HTTP-запросов с ограничениями заголовка по умолчанию
+     * @param maxBodySize максимальный размер тела запроса в байтах
+     * @return анализатор HTTP-запросов
+     */
+    public static HttpMessageDecoder forRequests(final int maxBodySize) {
+        return forRequests(maxBodySize, DEFAULT_MAX_HEAD_SIZE, DEFAULT_MAX_HEADERS);
+    }
+
+    /**
+     * Создает анализатор HTTP-запросов
+     * @param maxBodySize максимальный размер тела запроса в байтах
+     * @param maxHeadSize максимальный размер заголовка запроса в байтах
+     * @param maxHeaders максимальное количество заголовков запроса
+     * @return анализатор HTTP-запросов
+     */
+    public static HttpMessageDecoder forRequests(final int maxBodySize, final int maxHeadSize, final int maxHeaders) {
+        return new HttpMessageDecoder(true, maxBodySize, maxHeadSize, maxHeaders);
+    }
+
+    /**
+     * Создает анализатор HTTP-ответов без ограничения размера тела и с ограничениями заголовка по умолчанию
+     * @return анализатор HTTP-ответов
+     */
+    public static HttpMessageDecoder forResponses() {
+        return forResponses(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Создает анализатор HTTP-ответов с ограничениями заголовка по умолчанию
+     * @param maxBodySize максимальный размер тела ответа в байтах
+     * @return анализатор HTTP-ответов
+     */
+    public static HttpMessageDecoder forResponses(final int maxBodySize) {
+        return forResponses(maxBodySize, DEFAULT_MAX_HEAD_SIZE, DEFAULT_MAX_HEADERS);
+    }
+
+    /**
+     * Создает анализатор HTTP-ответов
+     * @param maxBodySize максимальный размер тела ответа в байтах
+     * @param maxHeadSize максимальный размер заголовка ответа в байтах
+     * @param maxHeaders максимальное количество заголовков ответа
+     * @return анализатор HTTP-ответов
+     */
+    public static HttpMessageDecoder forResponses(final int maxBodySize, final int maxHeadSize, final int maxHeaders) {
+        return new HttpMessageDecoder(false, maxBodySize, maxHeadSize, maxHeaders);
+    }
+
+    /**
+     * Сбрасывает состояние анализатора для разбора следующего сообщения
+     */
+    public void reset() {
+        this.state = this.request ? REQUEST_START : RESPONSE_VERSION;
+        this.position = 0;
+        this.tokenStart = 0;
+        this.headerCount = 0;
+        this.statusCode = 0;
+        this.reasonStart = -1;
+        this.bodyStart = 0;
+        this.bodyEnd = 0;
+        this.trailers = false;
+        this.trailerCount = 0;
+        this.remaining = 0;
+        this.chunkSizeDigits = 0;
+        this.headLength = 0;
+        this.streaming = false;
+        this.sectionStart = 0;
+    }
+
+    /**
+     * Продолжает разбор сообщения по доступным байтам
+     * @param buffer массив байтов, содержащий начало сообщения
+     * @param offset смещение начала сообщения в массиве
+     * @param length количество доступных байтов сообщения начиная со смещения
+     * @return {@code true}, если сообщение получено полностью
+     * @throws HttpMessageParseException выбрасывается в случае некорректного формата сообщения
+     * @throws HttpMessageTooLargeException выбрасывается в случае превышения максимального размера тела
+     * @throws HttpHeadersTooLargeException выбрасывается в случае превышения максимального размера заголовка
+     * либо количества заголовков
+     */
+    public boolean parse(final byte[] buffer, final int offset, final int length) throws HttpMessageParseException {
+        advance(buffer, offset, length, BODY_FIXED);
+
+        if (this.state == BODY_FIXED) {
+            checkBodySize(this.remaining);
+            if (this.remaining > Integer.MAX_VALUE - this.bodyStart) {
+                throw new HttpMessageTooLargeException("Content-Length header value is too large");
+            }
+            final int messageEnd = this.bodyStart + (int) this.remaining;
+            if (length >= messageEnd) {
+                this.position = messageEnd;
+                this.bodyEnd = messageEnd;
+                this.state = DONE;
+            } else {
+                this.position = length;
+            }
+        } else if (this.state == BODY_UNTIL_EOF) {
+            checkBodySize(length - this.bodyStart);
+            this.position = length;
+        }
+
+        return this.state == DONE;
+    }
+
+    /**
+     * Продолжает разбор заголовка сообщения по доступным байтам массива, не затрагивая тело сообщения.
+     * После получения заголовка разбор сообщения может быть продолжен методом {@link #parse(byte[], int, int)}
+     * либо, если тело требуется получать по частям, методом {@link #decodeBody(byte[], int, int)}
+     * @param buffer массив байтов, содержащий начало сообщения
+     * @param offset смещение начала сообщения в массиве
+     * @param length количество доступных байтов сообщения начиная со смещения
+     * @return {@code true}, если заголовок сообщения получен полностью
+     * @throws HttpMessageParseException выбрасывается в случае некорректного формата сообщения
+     */
+    public boolean parseHead(final byte[] buffer, final int offset, final int length) throws HttpMessageParseException {
+        if (this.headLength == 0) {
+            advance(buffer, offset, length, CHUNK_SIZE);
+        }
+        return this.headLength > 0;
+    }
+
+    /**
+     * Переводит анализатор в режим получения тела сообщения по частям. Вызывается после получения заголовка,
+     * когда байты заголовка больше не содержатся в массиве. Ограничение размера тела в этом режиме не применяется
+     */
+    public void streamBody() {
+        if (this.headLength == 0) {
+            throw new IllegalStateException("HTTP message head has not been parsed completely");
+        }
+        this.streaming = true;
+        this.headerCount = 0;
+    }
+
+    /**
+     * Извлекает очередную часть тела сообщения из доступных байтов массива, начинающихся сразу после
+     * ранее разобранных байтов сообщения. Извлеченные байты тела перемещаются в начало диапазона,
+     * их количество возвращает метод {@link #decodedLength()}
+     * @param buffer массив байтов, содержащий продолжение тела сообщения
+     * @param offset смещение продолжения тела в массиве
+     * @param length количество доступных байтов начиная со смещения
+     * @return количество разобранных байтов, которые больше не требуются анализатору
+     * @throws HttpMessageParseException выбрасывается в случае некорректного формата сообщения
+     */
+    public int decodeBody(final byte[] buffer, final int offset, final int length) throws HttpMessageParseException {
+        if (!this.streaming) {
+            throw new IllegalStateException("HTTP message body is not streamed");
+        }
+
+        this.bodyStart = 0;
+        this.bodyEnd = 0;
+        this.sectionStart -= this.position;
+        this.position = 0;
+        if (this.state == BODY_FIXED) {
+            final int count = (int) Math.min(this.remaining, length);
+            this.remaining -= count;
+            this.bodyEnd = count;
+            this.position = count;
+            if (this.remaining == 0) {
+                this.state = DONE;
+            }
+        } else if (this.state == BODY_UNTIL_EOF) {
+            this.bodyEnd = length;
+            this.position = length;
+        } else {
+            advance(buffer, offset, length, BODY_FIXED);
+        }
+        return this.position;
+    }
+
+    /**
+     * Возвращает количество байтов тела, извлеченных последним вызовом метода {@link #decodeBody(byte[], int, int)}
+     * @return количество извлеченных байтов тела
+     */
+    public int decodedLength() {
+        return this.bodyEnd - this.bodyStart;
+    }
+
+    /**
+     * Возвращает длину заголовка сообщения, включая пустую строку, завершающую заголовок
+     * @return длина заголовка в байтах, либо {@code 0}, если заголовок получен не полностью
+     */
+    public int headLength() {
+        return this.headLength;
+    }
+
+    /**
+     * Проверяет, получено ли сообщение полностью
+     * @return {@code true}, если сообщение получено полностью
+     */
+    public boolean isComplete() {
+        return this.state == DONE;
+    }
+
+    private void advance(final byte[] buffer, final int offset, final int length, final int stopState) {
+        int p = this.position;
+        int state = this.state;
+
+        while (state < stopState && p < length) {
+            final int b = buffer[offset + p] & 0xFF;
+            switch (state) {
+                case REQUEST_START -> {
+                    if (b == '\r') {
+                        state = REQUEST_START_LF;
+                    } else if (TCHAR[b]) {
+                        this.methodStart = p;
+                        state = REQUEST_METHOD;
+                    } else {
+                        throw new HttpMessageParseException("Unexpected character in HTTP method");
+                    }
+                }
+                case REQUEST_START_LF -> {
+                    expect(b, '\n');
+                    state = REQUEST_START;
+                }
+                case REQUEST_METHOD -> {
+                    if (b == ' ') {
+                        this.methodEnd = p;
+                        this.targetStart = p + 1;
+                        state = REQUEST_TARGET;
+                    } else if (!TCHAR[b]) {
+                        throw new HttpMessageParseException("Unexpected character in HTTP method");
+                    }
+                }
+                case REQUEST_TARGET -> {
+                    if (b == ' ' && p > this.targetStart) {
+                        this.targetEnd = p;
+                        this.versionStart = p + 1;
+                        state = REQUEST_VERSION;
+                    } else if (!TARGET_CHAR[b]) {
+                        throw new HttpMessageParseException("Unexpected character in request target");
+                    }
+                }
+                case REQUEST_VERSION -> {
+                    if (b == '\r') {
+                        checkVersion(buffer, offset + this.versionStart, p - this.versionStart);
+                        state = START_LINE_LF;
+                    } else if (p - this.versionStart >= VERSION_LENGTH) {
+                        throw new HttpMessageParseException("Unexpected token while parsing HTTP version");
+                    }
+                }
+                case RESPONSE_VERSION -> {
+                    if (b == ' ') {
+                        checkVersion(buffer, offset, p);
+                        this.tokenStart = p + 1;
+                        state = RESPONSE_STATUS;
+                    } else if (p >= VERSION_LENGTH) {
+                        throw new HttpMessageParseException("Unexpected token while parsing HTTP version");
+                    }
+                }
+                case RESPONSE_STATUS -> {
+                    if (b >= '0' && b <= '9' && p - this.tokenStart < 3) {
+                        this.statusCode = this.statusCode * 10 + (b - '0');
+                    } else if (p - this.tokenStart == 3 && (b == ' ' || b == '\r')) {
+                        if (b == ' ') {
+                            this.reasonStart = p + 1;
+                            state = RESPONSE_REASON;
+                        } else {
+                            state = START_LINE_LF;
+                        }
+                    } else {
+                        throw new HttpMessageParseException("Unexpected character in status code");
+                    }
+                }
+                case RESPONSE_REASON -> {
+                    if (b == '\r') {
+                        this.reasonEnd = p;
+                        state = START_LINE_LF;
+                    } else if (!FIELD_CHAR[b]) {
+                        throw new HttpMessageParseException("Unexpected character in reason phrase");
+                    }
+                }
+                case START_LINE_LF, HEADER_LF -> {
+                    expect(b, '\n');
+                    state = HEADER_START;
+                }
+                case HEADER_START -> {
+                    if (b == '\r') {
+                        state = HEADERS_END_LF;
+                    } else if (TCHAR[b]) {
+                        this.tokenStart = p;
+                        state = HEADER_NAME;
+                    } else {
+                        throw new HttpMessageParseException("Unexpected character in header field name");
+                    }
+                }
+                case HEADER_NAME -> {
+                    if (b == ':') {
+                        this.tokenEnd = p;
+                        state = HEADER_VALUE_START;
+                    } else if (!TCHAR[b]) {
+                        throw new HttpMessageParseException("Unexpected character in header field name");
+                    }
+                }
+                case HEADER_VALUE_START -> {
+                    if (b == '\r') {
+                        addHeader(p, p);
+                        state = HEADER_LF;
+                    } else if (b != ' ' && b != '\t') {
+                        if (!FIELD_CHAR[b]) {
+                            throw new HttpMessageParseException("Unexpected character in header field value");
+                        }
+                        addHeader(p, p + 1);
+                        state = HEADER_VALUE;
+                    }
+                }
+                case HEADER_VALUE -> {
+                    if (b == '\r') {
+                        state = HEADER_LF;
+                    } else if (!FIELD_CHAR[b]) {
+                        throw new HttpMessageParseException("Unexpected character in header field value");
+                    } else if (b != ' ' && b != '\t' && !this.trailers) {
+                        this.headerSpans[this.headerCount * 4 - 1] = p + 1;
+                    }
+                }
+                case HEADERS_END_LF -> {
+                    expect(b, '\n');
+                    checkHeadSize(p + 1);
+                    state = this.trailers ? DONE : startBody(buffer, offset, p + 1);
+                }
+                case CHUNK_SIZE -> {
+                    final int digit = hexDigit(b);
+                    if (digit >= 0) {
+                        if (++this.chunkSizeDigits > 8) {
+                            throw new HttpMessageTooLargeException("Chunk size is too large");
+                        }
+                        this.remaining = this.remaining * 16 + digit;
+                    } else if (this.chunkSizeDigits == 0) {
+                        throw new HttpMessageParseException("Invalid chunk size");
+                    } else if (b == '\r') {
+                        state = CHUNK_SIZE_LF;
+                    } else if (b == ';' || b == ' ' || b == '\t') {
+                        state = CHUNK_EXTENSION;
+                    } else {
+                        throw new HttpMessageParseException("Invalid chunk size");
+                    }
+                }
+                case CHUNK_EXTENSION -> {
+                    if (b == '\r') {
+                        state = CHUNK_SIZE_LF;
+                    } else if (!FIELD_CHAR[b]) {
+                        throw new HttpMessageParseException("Unexpected character in chunk extension");
+                    }
+                }
+                case CHUNK_SIZE_LF -> {
+                    expect(b, '\n');
+                    if (this.remaining == 0) {
+                        this.trailers = true;
+                        this.sectionStart = p + 1;
+                        state = HEADER_START;
+                    } else {
+                        checkBodySize((long) this.bodyEnd - this.bodyStart + this.remaining);
+                        state = CHUNK_DATA;
+                    }
+                }
+                case CHUNK_DATA -> {
+                    final int count = (int) Math.min(this.remaining, length - p);
+                    System.arraycopy(buffer, offset + p, buffer, offset + this.bodyEnd, count);
+                    this.bodyEnd += count;
+                    this.remaining -= count;
+                    if (this.remaining == 0) {
+                        state = CHUNK_DATA_CR;
+                    }
+                    p += count;
+                    continue;
+                }
+                case CHUNK_DATA_CR -> {
+                    expect(b, '\r');
+                    state = CHUNK_DATA_LF;
+                }
+                case CHUNK_DATA_LF -> {
+                    expect(b, '\n');
+                    this.chunkSizeDigits = 0;
+                    state = CHUNK_SIZE;
+                }
+                default -> throw new IllegalStateException("Unexpected parser state: " + state);
+            }
+            p++;
+        }
+
+        if (state <= HEADERS_END_LF) {
+            checkHeadSize(p);
+        }
+        this.position = p;
+        this.state = state;
+    }
+
+    /**
+     * Проверяет размер заголовка либо завершающих заголовков, полученных до указанной позиции
+     */
+    private void checkHeadSize(final int end) {
+        if (end - this.sectionStart > this.maxHeadSize) {
+            throw new HttpHeadersTooLargeException("HTTP message head exceeds maximum size of " + this.maxHeadSize + " bytes");
+        }
+    }
+
+    /**
+     * Продолжает разбор сообщения по доступным байтам буфера. Сообщение должно начинаться с текущей позиции буфера,
+     * а доступные байты ограничиваются его пределом. Позиция буфера не изменяется
+     * @param buffer буфер, содержащий начало сообщения и имеющий доступный массив
+     * @return {@code true}, если сообщение получено полностью
+     * @throws HttpMessageParseException выбрасывается в случае некорректного формата сообщения
+     * @throws IllegalArgumentException выбрасывается, если буфер не имеет доступного массива
+     */
+    public boolean parse(final ByteBuffer buffer) throws HttpMessageParseException {
+        if (!buffer.hasArray()) {
+            throw new IllegalArgumentException("Buffer must be backed by an accessible array");
+        }
+        return parse(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+    }
+
+    /**
+     * Сообщает анализатору об окончании входных данных
+     * @param buffer массив байтов, содержащий сообщение
+     * @param offset смещение начала сообщения в массиве
+     * @param length количество байтов сообщения начиная со смещения
+     * @return {@code true}, если сообщение получено полностью
+     * @throws HttpMessageParseException выбрасывается в случае некорректного формата сообщения
+     */
+    public boolean finish(final byte[] buffer, final int offset, final int length) throws HttpMessageParseException {
+        if (parse(buffer, offset, length)) {
+            return true;
+        }
+
+        if (this.state == BODY_UNTIL_EOF) {
+            this.bodyEnd = length;
+            this.position = length;
+            this.state = DONE;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Возвращает длину полностью полученного сообщения
+     * @return длина сообщения в байтах
+     */
+    public int messageLength() {
+        return this.position;
+    }
+
+    /**
+     * Создает объект HTTP-запроса по полностью полученному сообщению
+     * @param buffer массив байтов, содержащий сообщение
+     * @param offset смещение начала сообщения в массиве
+     * @return объект класса {@link HttpRequest}
+     * @throws HttpMessageParseException выбрасывается в случае некорректного формата HTTP-запроса
+     */
+    public HttpRequest toHttpRequest(final byte[] buffer, final int offset) throws HttpMessageParseException {
+        checkDone(true);
+        return httpRequest(buffer, offset, body(buffer, offset));
+    }
+
+    /**
+     * Создает объект HTTP-запроса без тела по полностью полученному заголовку сообщения
+     * @param buffer массив байтов, содержащий сообщение
+     * @param offset смещение начала сообщения в массиве
+     * @return объект класса {@link HttpRequest}, не содержащий тела запроса
+     * @throws HttpMessageParseException выбрасывается в случае некорректного формата HTTP-запроса
+     */
+    public HttpRequest toHttpRequestHead(final byte[] buffer, final int offset) throws HttpMessageParseException {
+        if (this.headLength == 0 || this.streaming || !this.request) {
+            throw new IllegalStateException("HTTP request head has not been parsed completely");
+        }
+        return httpRequest(buffer, offset, null);
+    }
+
+    private HttpRequest httpRequest(final byte[] buffer, final int offset, final byte[] body) {
+        final Method method = method(buffer, offset + this.methodStart, this.methodEnd - this.methodStart);
+
+        final RequestTarget target = RequestTarget.of(buffer, offset + this.targetStart, offset + this.targetEnd);
+        final Version version = version(buffer, offset + this.versionStart);
+        return new HttpRequest(method, target, version, headers(buffer, offset), body);
+    }
+
+    /**
+     * Создает объект HTTP-ответа по полностью полученному сообщению
+     * @param buffer массив байтов, содержащий сообщение
+     * @param offset смещение начала сообщения в массиве
+     * @return объект класса {@link HttpResponse}
+     */
+    public HttpResponse toHttpResponse(final byte[] buffer, final int offset) {
+        checkDone(false);
+        return httpResponse(buffer, offset, body(buffer, offset));
+    }
+
+    /**
+     * Создает объект HTTP-ответа без тела по полностью полученному заголовку сообщения. Используется для ответов
+     * на HEAD-запросы, заголовки которых описывают тело, но само тело не передается
+     * @param buffer массив байтов, содержащий сообщение
+     * @param offset смещение начала сообщения в массиве
+     * @return объект класса {@link HttpResponse}, не содержащий тела ответа
+     */
+    public HttpResponse toHttpResponseHead(final byte[] buffer, final int offset) {
+        if (this.headLength == 0 || this.streaming || this.request) {
+            throw new IllegalStateException("HTTP response head has not been parsed completely");
+        }
+        return httpResponse(buffer, offset, null);
+    }
+
+    private HttpResponse httpResponse(final byte[] buffer, final int offset, final byte[] body) {
+        final String reason = this.reasonStart < 0 || this.reasonEnd == this.reasonStart
+                ? null
+                : string(buffer, offset + this.reasonStart, offset + this.reasonEnd);
+        return new HttpResponse(version(buffer, offset), this.statusCode, reason, headers(buffer, offset), body);
+    }
+
+    private int startBody(final byte[] buffer, final int offset, final int headEnd) {
+        this.headLength = headEnd;
+        this.bodyStart = headEnd;
+        this.bodyEnd = headEnd;
+
+        if (!this.request && ((this.statusCode >= 100 && this.statusCode < 200) || this.statusCode == 204 || this.statusCode == 304)) {
+            return DONE;
+        }
+
+        // Границы сообщения определяются всеми полями заголовков: получатель, учитывающий только первое либо
+        // последнее поле, определил бы их иначе, чем промежуточный узел (HTTP request smuggling)
+        boolean transferEncoding = false;
+        boolean chunked = false;
+        int chunkedCodings = 0;
+        long contentLength = -1;
+        for (int i = 0; i < this.headerCount; i++) {
+            final int nameStart = offset + this.headerSpans[i * 4];
+            final int nameEnd = offset + this.headerSpans[i * 4 + 1];
+            final int valueEnd = offset + this.headerSpans[i * 4 + 3];
+            final boolean isTransferEncoding = equalsIgnoreCase(buffer, nameStart, nameEnd, TRANSFER_ENCODING);
+            if (!isTransferEncoding && !equalsIgnoreCase(buffer, nameStart, nameEnd, CONTENT_LENGTH)) {
+                continue;
+            }
+            int elementStart = offset + this.headerSpans[i * 4 + 2];
+            for (int j = elementStart; j <= valueEnd; j++) {
+                if (j < valueEnd && buffer[j] != ',') {
+                    continue;
+                }
+                final int from = skipWhitespace(buffer, elementStart, j);
+                final int to = trimWhitespace(buffer, from, j);
+                elementStart = j + 1;
+                if (isTransferEncoding) {
+                    if (from == to) {
+                        continue;
+                    }
+                    transferEncoding = true;
+                    chunked = equalsIgnoreCase(buffer, from, to, CHUNKED);
+                    if (chunked) {
+                        chunkedCodings++;
+                    }
+                } else {
+                    final long value = parseLength(buffer, from, to);
+                    if (contentLength >= 0 && contentLength != value) {
+                        throw new HttpMessageParseException("Conflicting Content-Length header values");
+                    }
+                    contentLength = value;
+                }
+            }
+        }
+
+        if (transferEncoding) {
+            if (this.request && contentLength >= 0) {
+                throw new HttpMessageParseException("Both Transfer-Encoding and Content-Length headers are present");
+            }
+            if (this.request && (!chunked || chunkedCodings > 1)) {
+                throw new HttpMessageParseException("Unsupported transfer coding");
+            }
+            return chunked ? CHUNK_SIZE : BODY_UNTIL_EOF;
+        }
+
+        if (contentLength >= 0) {
+            this.remaining = contentLength;
+            return this.remaining == 0 ? DONE : BODY_FIXED;
+        }
+
+        return this.request ? DONE : BODY_UNTIL_EOF;
+    }
+
+    private static int skipWhitespace(final byte[] buffer, final int from, final int to) {
+        int start = from;
+        while (start < to && (buffer[start] == ' ' || buffer[start] == '\t')) {
+            start++;
+        }
+        return start;
+    }
+
+    private static int trimWhitespace(final byte[] buffer, final int from, final int to) {
+        int end = to;
+        while (end > from && (buffer[end - 1] == ' ' || buffer[end - 1] == '\t')) {
+            end--;
+        }
+        return end;
+    }
+
+    private void checkBodySize(final long bodySize) {
+        if (bodySize > this.maxBodySize && !this.streaming) {
+            throw new HttpMessageTooLargeException("HTTP message body exceeds maximum size of " + this.maxBodySize + " bytes");
+        }
+    }
+
+    private static int hexDigit(final int b) {
+        if (b >= '0' && b <= '9') {
+            return b - '0';
+        }
+        if (b >= 'a' && b <= 'f') {
+            return b - 'a' + 10;
+        }
+        if (b >= 'A' && b <= 'F') {
+            return b - 'A' + 10;
+        }
+        return -1;
+    }
+
+    private static long parseLength(final byte[] buffer, final int from, final int to) {
+        if (from == to || to - from > 10) {
+            throw new HttpMessageParseException("Invalid Content-Length header value");
+        }
+
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            final int b = buffer[i];
+            if (b < '0' || b > '9') {
+                throw new HttpMessageParseException("Invalid Content-Length header value");
+            }
+            value = value * 10 + (b - '0');
+        }
+
+        return value;
+    }
+
+    private void addHeader(final int valueStart, final int valueEnd) {
+        if (this.trailers) {
+            if (this.trailerCount++ == this.maxHeaders) {
+                throw new HttpHeadersTooLargeException("HTTP message exceeds maximum number of " + this.maxHeaders + " trailers");
+            }
+            return;
+        }
+        if (this.headerCount == this.maxHeaders) {
+            throw new HttpHeadersTooLargeException("HTTP message exceeds maximum number of " + this.maxHeaders + " headers");
+        }
+        if (this.headerCount * 4 == this.headerSpans.length) {
+            this.headerSpans = Arrays.copyOf(this.headerSpans, this.headerSpans.length * 2);
+        }
+
+        final int base = this.headerCount * 4;
+        this.headerSpans[base] = this.tokenStart;
+        this.headerSpans[base + 1] = this.tokenEnd;
+        this.headerSpans[base + 2] = valueStart;
+        this.headerSpans[base + 3] = valueEnd;
+        this.headerCount++;
+    }
+
+    private HttpHeaders headers(final byte[] buffer, final int offset) {
+        return HttpHeaders.copyOf(buffer, offset, this.headerSpans, this.headerCount);
+    }
+
+    private byte[] body(final byte[] buffer, final int offset) {
+        if (this.bodyEnd == this.bodyStart) {
+            return null;
+        }
+        return Arrays.copyOfRange(buffer, offset + this.bodyStart, offset + this.bodyEnd);
+    }
+
+    private void checkDone(final boolean request) {
+        if (this.state != DONE || this.request != request) {
+            throw new IllegalStateException("HTTP message has not been parsed completely");
+        }
+    }
+
+    private static Method method(final byte[] buffer, final int offset, final int length) {
+        for (int i = 0; i < METHODS.length; i++) {
+            if (Arrays.equals(buffer, offset, offset + length, METHOD_NAMES[i], 0, METHOD_NAMES[i].length)) {
+                return METHODS[i];
+            }
+        }
+        throw new HttpMethodNotImplementedException("Unsupported HTTP method: " + string(buffer, offset, offset + length));
+    }
+
+    private static void checkVersion(final byte[] buffer, final int from, final int length) {
+        if (length != VERSION_LENGTH
+                || !Arrays.equals(buffer, from, from + HTTP_PREFIX.length, HTTP_PREFIX, 0, HTTP_PREFIX.length)
+                || !isDigit(buffer[from + 5]) || buffer[from + 6] != '.' || !isDigit(buffer[from + 7])) {
+            throw new HttpMessageParseException("Unexpected token while parsing HTTP version");
+        }
+    }
+
+    private static Version version(final byte[] buffer, final int from) {
+        return new Version(buffer[from + 5] - '0', buffer[from + 7] - '0');
+    }
+
+    private static void expect(final int b, final char ch) {
+        if (b != ch) {
+            throw new HttpMessageParseException("Unexpected character occurred while parsing HTTP message: " + ch);
+        }
+    }
+
+    private static boolean isDigit(final byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    private static boolean equalsIgnoreCase(final byte[] buffer, final int from, final int to, final byte[] lowerCase) {
+        if (to - from != lowerCase.length) {
+            return false;
+        }
+
+        for (int i = 0; i < lowerCase.length; i++) {
+            final int b = buffer[from + i];
+            if ((b >= 'A' && b <= 'Z' ? b + ('a' - 'A') : b) != lowerCase[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String string(final byte[] buffer, final int from, final int to) {
+        return new String(buffer, from, to - from, StandardCharsets.ISO_8859_1);
+    }
+
+}
@@ -7,4 +7,8 @@ public class HttpMessageParseException extends RuntimeException {
     public HttpMessageParseException(String message) {
         super(message);
     }
+
+    public HttpMessageParseException(String message, Exception exception) {
+        super(message, exception);
+    }
 }
@@ -0,0 +1,10 @@
+package org.owl.services.yaujrest.http.parser;
+
+/**
+ * Исключение выбрасываемое в случае превышения максимального размера тела HTTP-сообщения
+ */
+public class HttpMessageTooLargeException extends HttpMessageParseException {
+    public HttpMessageTooLargeException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,10 @@
+package org.owl.services.yaujrest.http.parser;
+
+/**
+ * Исключение выбрасываемое в случае получения HTTP-запроса с методом, который не поддерживается сервером
+ */
+public class HttpMethodNotImplementedException extends HttpMessageParseException {
+    public HttpMethodNotImplementedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,363 @@
+package org.owl.services.yaujrest.log;
+
+import org.owl.services.yaujrest.http.Method;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Журнал выполненных запросов.
+ * <p>
+ * Для каждого запроса в журнал записывается строка с временем выполнения, HTTP-методом, путем, кодом ответа,
+ * размером тела ответа и длительностью выполнения запроса обработчиком, например:
+ * <p>
+ * <blockquote><pre>
+ * 2026-10-16T09:30:00.125Z method=GET path=/items/1 status=200 bytes=512 latency_us=1834
+ * </pre></blockquote>
+ * <p>
+ * Пробелы, управляющие символы и знак процента в пути записываются кодом {@code %XX}, поэтому строка запроса
+ * всегда занимает одну строку журнала.
+ * <p>
+ * Потоки, выполняющие запросы, не форматируют и не записывают строки: они заносят поля запроса в кольцевой буфер
+ * фиксированной емкости без блокировок и без выделения памяти. Отдельный фоновый поток забирает записи из буфера,
+ * форматирует их и записывает пакетами, сбрасывая приемник после каждого пакета. Если записей нет,
+ * фоновый поток проверяет буфер с установленным интервалом.
+ * <p>
+ * По умолчанию строки записываются на уровне INFO в журнал SLF4J {@code org.owl.services.yaujrest.access},
+ * поэтому их вывод настраивается вместе с остальным журналированием приложения. Если этот уровень отключен,
+ * строки отбрасываются. Вместо журнала SLF4J можно установить собственный приемник
+ * методом {@link AccessLogBuilder#writer(Writer)}.
+ * <p>
+ * Если приемник не успевает за запросами и буфер заполнен, запись по умолчанию отбрасывается и учитывается
+ * счетчиком {@link #dropped()}. Политика {@link OverflowPolicy#WAIT} вместо этого задерживает поток запроса до
+ * освобождения места в буфере.
+ * <p>
+ * Например:
+ * <p>
+ * <blockquote><pre>
+ * try (final AccessLog accessLog = AccessLog.builder().capacity(16384).build()) {
+ *     DispatchController.builder().accessLog(accessLog) ... .build().listen();
+ * }
+ * </pre></blockquote>
+ */
+public final class AccessLog implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(AccessLog.class);
+
+    private static final Logger accessLogger = LoggerFactory.getLogger("org.owl.services.yaujrest.access");
+
+    /**
+     * Действие при заполнении буфера журнала
+     */
+    public enum OverflowPolicy {
+
+        /**
+         * Запись отбрасывается и учитывается счетчиком отброшенных записей
+         */
+        DROP,
+
+        /**
+         * Поток запроса ожидает освобождения места в буфере
+         */
+        WAIT
+
+    }
+
+    private static final int MAX_BATCH_SIZE = 512;
+
+    private static final long WAIT_NANOS = 10_000;
+
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    private static final class Entry {
+
+        private long timestamp;
+        private Method method;
+        private String path;
+        private int status;
+        private long bytes;
+        private long latencyNanos;
+
+    }
+
+    private final Entry[] entries;
+
+    /**
+     * Номера позиций ячеек: значение, равное позиции, означает свободную ячейку, равное позиции плюс один -
+     * заполненную ячейку, ожидающую записи
+     */
+    private final AtomicLongArray sequences;
+
+    private final int mask;
+
+    private final AtomicLong tail = new AtomicLong();
+
+    private final OverflowPolicy overflowPolicy;
+
+    private final long flushIntervalNanos;
+
+    /**
+     * Приемник строк журнала или {@code null}, если строки записываются в журнал SLF4J
+     */
+    private final Writer writer;
+
+    private final LongAdder dropped = new LongAdder();
+
+    private final Thread thread;
+
+    private long head;
+
+    private volatile boolean closed;
+
+    private AccessLog(final AccessLogBuilder builder) {
+        this.entries = new Entry[builder.capacity];
+        this.sequences = new AtomicLongArray(builder.capacity);
+        for (int i = 0; i < builder.capacity; i++) {
+            this.entries[i] = new Entry();
+            this.sequences.set(i, i);
+        }
+        this.mask = builder.capacity - 1;
+        this.overflowPolicy = builder.overflowPolicy;
+        this.flushIntervalNanos = builder.flushInterval.toNanos();
+        this.writer = builder.writer;
+        this.thread = Thread.ofPlatform().name("access-log").daemon().start(this::run);
+    }
+
+    /**
+     * Класс использующийся для получения экземпляра журнала запросов
+     */
+    public static final class AccessLogBuilder {
+
+        private int capacity = 8192;
+        private OverflowPolicy overflowPolicy = OverflowPolicy.DROP;
+        private Duration flushInterval = Duration.ofMillis(100);
+        private Writer writer;
+
+        private AccessLogBuilder() { }
+
+        /**
+         * Устанавливает емкость буфера журнала. Емкость округляется вверх до степени двойки.
+         * По умолчанию составляет 8192 записи
+         * @param capacity количество записей, ожидающих записи в приемник
+         * @return текущий объект-строитель
+         */
+        public AccessLogBuilder capacity(final int capacity) {
+            if (capacity < 1 || capacity > 1 << 30) {
+                throw new IllegalArgumentException("Access log capacity must be between 1 and 2^30");
+            }
+            this.capacity = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+            return this;
+        }
+
+        /**
+         * Устанавливает действие при заполнении буфера журнала. По умолчанию записи отбрасываются
+         * @param overflowPolicy действие при заполнении буфера
+         * @return текущий объект-строитель
+         */
+        public AccessLogBuilder overflowPolicy(final OverflowPolicy overflowPolicy) {
+            this.overflowPolicy = Objects.requireNonNull(overflowPolicy);
+            return this;
+        }
+
+        /**
+         * Устанавливает интервал, с которым фоновый поток проверяет пустой буфер. Определяет наибольшую задержку
+         * записи строки в приемник. По умолчанию составляет 100 миллисекунд
+         * @param flushInterval интервал проверки буфера
+         * @return текущий объект-строитель
+         */
+        public AccessLogBuilder flushInterval(final Duration flushInterval) {
+            if (flushInterval.isNegative() || flushInterval.isZero()) {
+                throw new IllegalArgumentException("Flush interval must be positive");
+            }
+            this.flushInterval = flushInterval;
+            return this;
+        }
+
+        /**
+         * Устанавливает приемник строк журнала, жизненным циклом которого управляет вызывающая сторона.
+         * Приемник не закрывается при закрытии журнала. По умолчанию строки записываются в журнал SLF4J
+         * {@code org.owl.services.yaujrest.access}
+         * @param writer приемник строк журнала
+         * @return текущий объект-строитель
+         */
+        public AccessLogBuilder writer(final Writer writer) {
+            this.writer = Objects.requireNonNull(writer);
+            return this;
+        }
+
+        /**
+         * Создает экземпляр журнала запросов и запускает его фоновый поток
+         * @return экземпляр класса {@code AccessLog}
+         */
+        public AccessLog build() {
+            return new AccessLog(this);
+        }
+
+    }
+
+    /**
+     * Возвращает объект-строитель журнала запросов
+     * @return объект-строитель журнала запросов
+     */
+    public static AccessLogBuilder builder() {
+        return new AccessLogBuilder();
+    }
+
+    /**
+     * Заносит выполненный запрос в буфер журнала
+     * @param method HTTP-метод запроса
+     * @param path путь запроса
+     * @param status код ответа
+     * @param bytes размер тела ответа в байтах
+     * @param latencyNanos длительность выполнения запроса в наносекундах
+     * @return {@code true}, если запрос занесен в буфер, либо {@code false}, если запись отброшена
+     * или журнал закрыт
+     */
+    public boolean record(final Method method, final String path, final int status, final long bytes,
+                          final long latencyNanos) {
+        long position;
+        while (true) {
+            if (this.closed) {
+                return false;
+            }
+            position = this.tail.get();
+            final long available = this.sequences.getAcquire((int) position & this.mask) - position;
+            if (available == 0) {
+                if (this.tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+            } else if (available < 0) {
+                if (this.overflowPolicy == OverflowPolicy.DROP) {
+                    this.dropped.increment();
+                    return false;
+                }
+                LockSupport.parkNanos(WAIT_NANOS);
+            }
+        }
+
+        final int index = (int) position & this.mask;
+        final Entry entry = this.entries[index];
+        entry.timestamp = System.currentTimeMillis();
+        entry.method = method;
+        entry.path = path;
+        entry.status = status;
+        entry.bytes = bytes;
+        entry.latencyNanos = latencyNanos;
+        this.sequences.setRelease(index, position + 1);
+        return true;
+    }
+
+    /**
+     * Возвращает количество записей, отброшенных из-за заполнения буфера
+     * @return количество отброшенных записей
+     */
+    public long dropped() {
+        return this.dropped.sum();
+    }
+
+    /**
+     * Записывает в приемник записи, занесенные в буфер, и останавливает фоновый поток.
+     * Запросы, выполненные после закрытия журнала, не записываются
+     */
+    @Override
+    public void close() {
+        this.closed = true;
+        LockSupport.unpark(this.thread);
+        try {
+            this.thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        final StringBuilder batch = new StringBuilder(MAX_BATCH_SIZE * 96);
+        while (true) {
+            final boolean closing = this.closed;
+            final int drained = drain(batch);
+            if (drained > 0) {
+                write(batch);
+            }
+            if (drained < MAX_BATCH_SIZE) {
+                if (closing) {
+                    return;
+                }
+                LockSupport.parkNanos(this.flushIntervalNanos);
+            }
+        }
+    }
+
+    /**
+     * Форматирует заполненные записи буфера и освобождает их ячейки
+     * @return количество отформатированных записей
+     */
+    private int drain(final StringBuilder batch) {
+        int drained = 0;
+        while (drained < MAX_BATCH_SIZE) {
+            final int index = (int) this.head & this.mask;
+            if (this.sequences.getAcquire(index) != this.head + 1) {
+                break;
+            }
+            final Entry entry = this.entries[index];
+            DateTimeFormatter.ISO_INSTANT.formatTo(Instant.ofEpochMilli(entry.timestamp), batch);
+            batch.append(" method=").append(entry.method).append(" path=");
+            appendEscaped(batch, entry.path);
+            batch.append(" status=").append(entry.status)
+                    .append(" bytes=").append(entry.bytes)
+                    .append(" latency_us=").append(entry.latencyNanos / 1000)
+                    .append('\n');
+            entry.method = null;
+            entry.path = null;
+            this.sequences.setRelease(index, this.head + this.entries.length);
+            this.head++;
+            drained++;
+        }
+        return drained;
+    }
+
+    /**
+     * Добавляет путь, заменяя пробелы, управляющие символы и знак процента их кодом {@code %XX}.
+     * Декодированный путь запроса может содержать переводы строки и пробелы, которые иначе позволили бы
+     * подделать строку журнала или нарушить разбор полей {@code key=value}
+     */
+    private static void appendEscaped(final StringBuilder batch, final String path) {
+        for (int i = 0; i < path.length(); i++) {
+            final char ch = path.charAt(i);
+            if (ch <= ' ' || ch == '%' || ch == 0x7F || ch >= 0x80 && ch <= 0x9F) {
+                batch.append('%').append(HEX_DIGITS[ch >> 4 & 0x0F]).append(HEX_DIGITS[ch & 0x0F]);
+            } else {
+                batch.append(ch);
+            }
+        }
+    }
+
+    private void write(final StringBuilder batch) {
+        if (Objects.isNull(this.writer)) {
+            if (accessLogger.isInfoEnabled()) {
+                int start = 0;
+                for (int end = batch.indexOf("\n"); end >= 0; start = end + 1, end = batch.indexOf("\n", start)) {
+                    accessLogger.info(batch.substring(start, end));
+                }
+            }
+            batch.setLength(0);
+            return;
+        }
+        try {
+            this.writer.append(batch);
+            this.writer.flush();
+        } catch (IOException e) {
+            log.error("Unable to write access log: {}", e.getMessage());
+        }
+        batch.setLength(0);
+    }
+
+}
@@ -0,0 +1,4 @@
+/**
+ * Содержит журнал выполненных запросов, записываемый фоновым потоком
+ */
+package org.owl.services.yaujrest.log;
@@ -0,0 +1,67 @@
+package org.owl.services.yaujrest.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Гистограмма длительностей с фиксированными границами корзин.
+ * <p>
+ * Счетчики корзин и сумма длительностей хранятся в {@link LongAdder}, которые при одновременной записи
+ * распределяют приращения по отдельным ячейкам, поэтому запись значения не блокируется и не требует повторных
+ * попыток при конкуренции потоков. Счетчики корзин не накопительные; накопительные значения вычисляются
+ * при чтении гистограммы
+ */
+final class LatencyHistogram {
+
+    private final long[] boundsNanos;
+
+    private final LongAdder[] buckets;
+
+    private final LongAdder sumNanos = new LongAdder();
+
+    /**
+     * @param boundsNanos возрастающие верхние границы корзин в наносекундах
+     */
+    LatencyHistogram(final long[] boundsNanos) {
+        this.boundsNanos = boundsNanos;
+        this.buckets = new LongAdder[boundsNanos.length + 1];
+        for (int i = 0; i < this.buckets.length; i++) {
+            this.buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Учитывает длительность
+     * @param nanos длительность в наносекундах
+     */
+    void record(final long nanos) {
+        int bucket = 0;
+        while (bucket < this.boundsNanos.length && nanos > this.boundsNanos[bucket]) {
+            bucket++;
+        }
+        this.buckets[bucket].increment();
+        this.sumNanos.add(nanos);
+    }
+
+    /**
+     * Возвращает накопительные счетчики корзин. Последний элемент содержит общее количество значений
+     * @return количество значений, не превышающих верхнюю границу каждой корзины
+     */
+    long[] cumulativeCounts() {
+        final long[] counts = new long[this.buckets.length];
+        long total = 0;
+        for (int i = 0; i < counts.length; i++) {
+            total += this.buckets[i].sum();
+            counts[i] = total;
+        }
+        return counts;
+    }
+
+    /**
+     * Возвращает сумму учтенных длительностей
+     * @return сумма длительностей в наносекундах
+     */
+    long sumNanos() {
+        return this.sumNanos.sum();
+    }
+
+}
@@ -0,0 +1,48 @@
+package org.owl.services.yaujrest.metrics;
+
+import org.owl.services.yaujrest.controller.Controller;
+import org.owl.services.yaujrest.http.HttpHeaders;
+import org.owl.services.yaujrest.http.HttpRequest;
+import org.owl.services.yaujrest.http.HttpResponse;
+import org.owl.services.yaujrest.http.Version;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Обработчик, публикующий метрики главного обработчика в текстовом формате Prometheus.
+ * <p>
+ * Например:
+ * <p>
+ * <blockquote><pre>
+ * final ServerMetrics metrics = ServerMetrics.builder().build();
+ * DispatchController.builder()
+ *         .metrics(metrics)
+ *         .controllers(ControllerContainer.builder().addController(new MetricsController("/metrics", metrics)).build())
+ *         .build();
+ * </pre></blockquote>
+ */
+public class MetricsController extends Controller {
+
+    private static final Map<String, String> HEADERS = Map.of(
+            HttpHeaders.CONTENT_TYPE, "text/plain; version=0.0.4; charset=utf-8",
+            HttpHeaders.CACHE_CONTROL, "no-store"
+    );
+
+    private final ServerMetrics metrics;
+
+    /**
+     * Создает обработчик метрик
+     * @param path относительный URI для "прослушивания"
+     * @param metrics публикуемые метрики
+     */
+    public MetricsController(final String path, final ServerMetrics metrics) {
+        super(path);
+        this.metrics = metrics;
+    }
+
+    @Override
+    public HttpResponse doGet(final HttpRequest httpRequest) {
+        return new HttpResponse(new Version(1, 1), 200, "OK", HEADERS, this.metrics.scrape().getBytes(StandardCharsets.UTF_8));
+    }
+
+}
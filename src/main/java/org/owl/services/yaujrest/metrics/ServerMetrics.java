@@ -0,0 +1,295 @@
+package org.owl.services.yaujrest.metrics;
+
+import org.owl.services.yaujrest.buffer.BufferPool;
+import org.owl.services.yaujrest.log.AccessLog;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Метрики выполнения запросов главным обработчиком.
+ * <p>
+ * Для каждого обработчика, определяемого шаблоном пути, учитываются количество запросов по кодам ответа,
+ * объем тел запросов и ответов и гистограмма длительности выполнения запроса обработчиком. Запросы, для которых
+ * обработчик не найден, учитываются с шаблоном пути {@value #UNMATCHED_ROUTE}. Для всего сервера учитываются
+ * гистограммы длительности разбора запроса и записи ответа в соединение, а также, если задан пул буферов,
+ * доля буферов, выданных из пула, и количество выданных и не возвращенных буферов, а если задан журнал запросов, -
+ * количество записей журнала, отброшенных из-за заполнения его буфера.
+ * <p>
+ * Все счетчики основаны на {@link LongAdder}, поэтому учет запросов, выполняемых одновременно, не блокируется.
+ * Метрики публикуются в текстовом формате Prometheus методом {@link #scrape()}, например обработчиком
+ * {@link MetricsController}
+ */
+public final class ServerMetrics {
+
+    /**
+     * Шаблон пути, с которым учитываются запросы, для которых обработчик не найден
+     */
+    public static final String UNMATCHED_ROUTE = "<unmatched>";
+
+    private static final int MAX_STATUS_CODE = 599;
+
+    private final long[] boundsNanos;
+
+    private final LatencyHistogram parseDuration;
+
+    private final LatencyHistogram writeDuration;
+
+    private final Map<String, RouteMetrics> routes = new ConcurrentHashMap<>();
+
+    private final BufferPool bufferPool;
+
+    private final AccessLog accessLog;
+
+    private ServerMetrics(final ServerMetricsBuilder builder) {
+        this.boundsNanos = builder.buckets.stream().mapToLong(Duration::toNanos).sorted().distinct().toArray();
+        this.parseDuration = new LatencyHistogram(this.boundsNanos);
+        this.writeDuration = new LatencyHistogram(this.boundsNanos);
+        this.bufferPool = builder.bufferPool;
+        this.accessLog = builder.accessLog;
+    }
+
+    /**
+     * Класс использующийся для получения экземпляра метрик
+     */
+    public static final class ServerMetricsBuilder {
+
+        private List<Duration> buckets = Arrays.asList(
+                Duration.ofNanos(100_000), Duration.ofNanos(250_000), Duration.ofNanos(500_000), Duration.ofMillis(1),
+                Duration.ofMillis(2), Duration.ofMillis(5), Duration.ofMillis(10), Duration.ofMillis(25),
+                Duration.ofMillis(50), Duration.ofMillis(100), Duration.ofMillis(250), Duration.ofMillis(500),
+                Duration.ofSeconds(1), Duration.ofSeconds(2), Duration.ofSeconds(5), Duration.ofSeconds(10)
+        );
+        private BufferPool bufferPool;
+        private AccessLog accessLog;
+
+        private ServerMetricsBuilder() { }
+
+        /**
+         * Устанавливает верхние границы корзин гистограмм длительности. По умолчанию границы расположены
+         * от 100 микросекунд до 10 секунд
+         * @param buckets верхние границы корзин
+         * @return текущий объект-строитель
+         */
+        public ServerMetricsBuilder buckets(final Duration... buckets) {
+            if (buckets.length == 0) {
+                throw new IllegalArgumentException("At least one histogram bucket must be specified");
+            }
+            for (final Duration bucket : buckets) {
+                if (bucket.isNegative()) {
+                    throw new IllegalArgumentException("Histogram bucket bound must not be negative");
+                }
+            }
+            this.buckets = Arrays.asList(buckets.clone());
+            return this;
+        }
+
+        /**
+         * Устанавливает пул буферов, показатели которого публикуются вместе с метриками запросов.
+         * Пул должен быть также передан главному обработчику. По умолчанию показатели пула не публикуются
+         * @param bufferPool пул буферов главного обработчика, либо {@code null}
+         * @return текущий объект-строитель
+         */
+        public ServerMetricsBuilder bufferPool(final BufferPool bufferPool) {
+            this.bufferPool = bufferPool;
+            return this;
+        }
+
+        /**
+         * Устанавливает журнал запросов, количество отброшенных записей которого публикуется вместе с метриками
+         * запросов. Журнал должен быть также передан главному обработчику. По умолчанию количество не публикуется
+         * @param accessLog журнал запросов главного обработчика, либо {@code null}
+         * @return текущий объект-строитель
+         */
+        public ServerMetricsBuilder accessLog(final AccessLog accessLog) {
+            this.accessLog = accessLog;
+            return this;
+        }
+
+        /**
+         * Создает экземпляр метрик
+         * @return экземпляр класса {@code ServerMetrics}
+         */
+        public ServerMetrics build() {
+            return new ServerMetrics(this);
+        }
+
+    }
+
+    /**
+     * Возвращает объект-строитель метрик
+     * @return объект-строитель метрик
+     */
+    public static ServerMetricsBuilder builder() {
+        return new ServerMetricsBuilder();
+    }
+
+    /**
+     * Учитывает выполненный запрос
+     * @param route шаблон пути обработчика, либо {@code null}, если обработчик не найден
+     * @param statusCode код ответа
+     * @param receivedBytes размер тела запроса в байтах
+     * @param sentBytes размер тела ответа в байтах
+     * @param handleNanos длительность выполнения запроса в наносекундах
+     */
+    public void recordRequest(final String route, final int statusCode, final long receivedBytes, final long sentBytes,
+                              final long handleNanos) {
+        final String label = Objects.isNull(route) ? UNMATCHED_ROUTE : route;
+        RouteMetrics metrics = this.routes.get(label);
+        if (Objects.isNull(metrics)) {
+            metrics = this.routes.computeIfAbsent(label, key -> new RouteMetrics(this.boundsNanos));
+        }
+        metrics.status(statusCode).increment();
+        metrics.receivedBytes.add(receivedBytes);
+        metrics.sentBytes.add(sentBytes);
+        metrics.handleDuration.record(handleNanos);
+    }
+
+    /**
+     * Учитывает длительность разбора запроса
+     * @param nanos длительность в наносекундах
+     */
+    public void recordParse(final long nanos) {
+        this.parseDuration.record(nanos);
+    }
+
+    /**
+     * Учитывает длительность записи ответа в соединение
+     * @param nanos длительность в наносекундах
+     */
+    public void recordWrite(final long nanos) {
+        this.writeDuration.record(nanos);
+    }
+
+    /**
+     * Возвращает количество запросов к обработчику с указанным кодом ответа
+     * @param route шаблон пути обработчика, либо {@link #UNMATCHED_ROUTE}
+     * @param statusCode код ответа
+     * @return количество запросов
+     */
+    public long requests(final String route, final int statusCode) {
+        final RouteMetrics metrics = this.routes.get(route);
+        if (Objects.isNull(metrics) || statusCode < 0 || statusCode > MAX_STATUS_CODE) {
+            return 0;
+        }
+        final LongAdder counter = metrics.statuses.get(statusCode);
+        return Objects.isNull(counter) ? 0 : counter.sum();
+    }
+
+    /**
+     * Формирует представление метрик в текстовом формате Prometheus
+     * @return метрики в формате {@code text/plain; version=0.0.4}
+     */
+    public String scrape() {
+        final StringBuilder builder = new StringBuilder(1024);
+        final Map<String, RouteMetrics> routes = new TreeMap<>(this.routes);
+
+        header(builder, "yaujrest_requests_total", "counter", "Number of requests by route and status code");
+        routes.forEach((route, metrics) -> {
+            for (int status = 0; status <= MAX_STATUS_CODE; status++) {
+                final LongAdder counter = metrics.statuses.get(status);
+                if (Objects.nonNull(counter)) {
+                    builder.append("yaujrest_requests_total{route=\"").append(escape(route)).append("\",status=\"")
+                            .append(status).append("\"} ").append(counter.sum()).append('\n');
+                }
+            }
+        });
+
+        header(builder, "yaujrest_request_body_bytes_total", "counter", "Size of request bodies by route");
+        routes.forEach((route, metrics) -> sample(builder, "yaujrest_request_body_bytes_total", route, metrics.receivedBytes.sum()));
+
+        header(builder, "yaujrest_response_body_bytes_total", "counter", "Size of response bodies by route");
+        routes.forEach((route, metrics) -> sample(builder, "yaujrest_response_body_bytes_total", route, metrics.sentBytes.sum()));
+
+        header(builder, "yaujrest_handle_duration_seconds", "histogram", "Time spent handling requests by route");
+        routes.forEach((route, metrics) -> histogram(builder, "yaujrest_handle_duration_seconds",
+                "route=\"" + escape(route) + "\",", metrics.handleDuration));
+
+        header(builder, "yaujrest_parse_duration_seconds", "histogram", "Time spent parsing requests");
+        histogram(builder, "yaujrest_parse_duration_seconds", "", this.parseDuration);
+
+        header(builder, "yaujrest_write_duration_seconds", "histogram", "Time from response completion until it is written to the connection");
+        histogram(builder, "yaujrest_write_duration_seconds", "", this.writeDuration);
+
+        if (Objects.nonNull(this.bufferPool)) {
+            final BufferPool.Statistics statistics = this.bufferPool.statistics();
+            header(builder, "yaujrest_buffer_pool_hit_ratio", "gauge", "Share of buffers acquired from the pool");
+            builder.append("yaujrest_buffer_pool_hit_ratio ").append(statistics.hitRate()).append('\n');
+            header(builder, "yaujrest_buffer_pool_outstanding_buffers", "gauge", "Number of acquired buffers not yet released");
+            builder.append("yaujrest_buffer_pool_outstanding_buffers ").append(statistics.outstanding()).append('\n');
+            header(builder, "yaujrest_buffer_pool_leaked_buffers_total", "counter", "Number of buffers lost without release");
+            builder.append("yaujrest_buffer_pool_leaked_buffers_total ").append(statistics.leaked()).append('\n');
+        }
+        if (Objects.nonNull(this.accessLog)) {
+            header(builder, "yaujrest_access_log_dropped_entries_total", "counter", "Number of access log entries dropped on full buffer");
+            builder.append("yaujrest_access_log_dropped_entries_total ").append(this.accessLog.dropped()).append('\n');
+        }
+        return builder.toString();
+    }
+
+    private static void header(final StringBuilder builder, final String name, final String type, final String help) {
+        builder.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        builder.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(final StringBuilder builder, final String name, final String route, final long value) {
+        builder.append(name).append("{route=\"").append(escape(route)).append("\"} ").append(value).append('\n');
+    }
+
+    private void histogram(final StringBuilder builder, final String name, final String labels, final LatencyHistogram histogram) {
+        final long[] counts = histogram.cumulativeCounts();
+        for (int i = 0; i < counts.length; i++) {
+            builder.append(name).append("_bucket{").append(labels).append("le=\"")
+                    .append(i < this.boundsNanos.length ? seconds(this.boundsNanos[i]) : "+Inf")
+                    .append("\"} ").append(counts[i]).append('\n');
+        }
+        final String selector = labels.isEmpty() ? "" : "{" + labels.substring(0, labels.length() - 1) + "}";
+        builder.append(name).append("_sum").append(selector).append(' ').append(seconds(histogram.sumNanos())).append('\n');
+        builder.append(name).append("_count").append(selector).append(' ').append(counts[counts.length - 1]).append('\n');
+    }
+
+    private static String seconds(final long nanos) {
+        return BigDecimal.valueOf(nanos, 9).stripTrailingZeros().toPlainString();
+    }
+
+    private static String escape(final String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    /**
+     * Метрики запросов одного обработчика
+     */
+    private static final class RouteMetrics {
+
+        private final AtomicReferenceArray<LongAdder> statuses = new AtomicReferenceArray<>(MAX_STATUS_CODE + 1);
+
+        private final LongAdder receivedBytes = new LongAdder();
+
+        private final LongAdder sentBytes = new LongAdder();
+
+        private final LatencyHistogram handleDuration;
+
+        private RouteMetrics(final long[] boundsNanos) {
+            this.handleDuration = new LatencyHistogram(boundsNanos);
+        }
+
+        private LongAdder status(final int statusCode) {
+            final int index = statusCode < 0 || statusCode > MAX_STATUS_CODE ? 0 : statusCode;
+            LongAdder counter = this.statuses.get(index);
+            if (Objects.isNull(counter)) {
+                this.statuses.compareAndSet(index, null, new LongAdder());
+                counter = this.statuses.get(index);
+            }
+            return counter;
+        }
+
+    }
+
+}
@@ -0,0 +1,4 @@
+/**
+ * Содержит метрики выполнения запросов и обработчик, публикующий их в текстовом формате Prometheus
+ */
+package org.owl.services.yaujrest.metrics;
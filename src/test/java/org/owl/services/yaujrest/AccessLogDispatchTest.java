@@ -0,0 +1,64 @@
+package org.owl.services.yaujrest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.owl.services.yaujrest.controller.Controller;
+import org.owl.services.yaujrest.controller.ControllerContainer;
+import org.owl.services.yaujrest.http.HttpRequest;
+import org.owl.services.yaujrest.http.HttpResponse;
+import org.owl.services.yaujrest.http.Method;
+import org.owl.services.yaujrest.http.RequestTarget;
+import org.owl.services.yaujrest.http.Version;
+import org.owl.services.yaujrest.log.AccessLog;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+public class AccessLogDispatchTest {
+
+    private static final Version HTTP_1_1 = new Version(1, 1);
+
+    private static final class ItemController extends Controller {
+
+        private ItemController() {
+            super("/items/{id}");
+        }
+
+        @Override
+        public HttpResponse doGet(final HttpRequest httpRequest) {
+            return new HttpResponse(HTTP_1_1, 200, "OK", Map.of(),
+                    httpRequest.pathVariable("id").getBytes(StandardCharsets.US_ASCII));
+        }
+
+    }
+
+    @Test
+    public void recordProcessedRequestsTest() {
+        final StringWriter writer = new StringWriter();
+        try (final AccessLog accessLog = AccessLog.builder().writer(writer).build()) {
+            final DispatchController dispatchController = DispatchController.builder()
+                    .accessLog(accessLog)
+                    .controllers(ControllerContainer.builder().addController(new ItemController()).build())
+                    .build();
+            dispatchController.process(new HttpRequest(Method.GET, RequestTarget.of("/items/42?full=true"), HTTP_1_1,
+                    Map.of(), null));
+            dispatchController.process(new HttpRequest(Method.DELETE, RequestTarget.of("/items/42"), HTTP_1_1,
+                    Map.of(), null));
+            dispatchController.process(new HttpRequest(Method.GET, RequestTarget.of("/unknown"), HTTP_1_1,
+                    Map.of(), null));
+            dispatchController.process(new HttpRequest(Method.GET,
+                    RequestTarget.of("/x%0A2026-10-16T00:00:00Z%20method=GET%20path=/admin%20status=200"), HTTP_1_1,
+                    Map.of(), null));
+        }
+
+        final String[] lines = writer.toString().split("\n");
+        assertEquals(4, lines.length);
+        assertTrue(lines[0].contains(" method=GET path=/items/42 status=200 bytes=2 latency_us="));
+        assertTrue(lines[1].contains(" method=DELETE path=/items/42 status=405 bytes=0 latency_us="));
+        assertTrue(lines[2].contains(" method=GET path=/unknown status=404 bytes=0 latency_us="));
+        assertTrue(lines[3].contains(" method=GET path=/x%0A2026-10-16T00:00:00Z%20method=GET%20path=/admin%20status=200"
+                + " status=404 "));
+    }
+
+}
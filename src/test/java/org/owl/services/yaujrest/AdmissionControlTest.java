@@ -0,0 +1,51 @@
+package org.owl.services.yaujrest;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+public class AdmissionControlTest {
+
+    @Test
+    public void limitConnectionsAndPendingRequestsTest() {
+        final AdmissionControl admissionControl = new AdmissionControl(2, 1, 0, 0, 3);
+
+        assertTrue(admissionControl.tryOpenConnection());
+        assertTrue(admissionControl.tryOpenConnection());
+        assertFalse(admissionControl.tryOpenConnection());
+        admissionControl.connectionClosed();
+        assertTrue(admissionControl.tryOpenConnection());
+
+        assertTrue(admissionControl.tryEnqueue());
+        assertFalse(admissionControl.tryEnqueue());
+        admissionControl.dequeued();
+        assertTrue(admissionControl.tryEnqueue());
+
+        assertFalse(admissionControl.isOverloaded(TimeUnit.SECONDS.toNanos(10)));
+        final String response = new String(admissionControl.serviceUnavailable(), StandardCharsets.US_ASCII);
+        assertTrue(response.startsWith("HTTP/1.1 503 Service Unavailable\r\n"));
+        assertTrue(response.contains("Retry-After: 3\r\n"));
+    }
+
+    @Test
+    public void rejectByQueueDelayTest() throws InterruptedException {
+        final long target = TimeUnit.MILLISECONDS.toNanos(5);
+        final AdmissionControl admissionControl = new AdmissionControl(1, 1, target, TimeUnit.MILLISECONDS.toNanos(20), 1);
+
+        admissionControl.isOverloaded(0);
+        for (int i = 0; i < 3; i++) {
+            assertFalse(admissionControl.isOverloaded(2 * target));
+            Thread.sleep(25);
+        }
+        assertFalse(admissionControl.isOverloaded(2 * target));
+        assertTrue(admissionControl.isOverloaded(3 * target));
+        assertFalse(admissionControl.isOverloaded(target));
+
+        Thread.sleep(25);
+        admissionControl.isOverloaded(0);
+        assertFalse(admissionControl.isOverloaded(3 * target));
+    }
+
+}
@@ -0,0 +1,142 @@
+package org.owl.services.yaujrest;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.owl.services.yaujrest.client.HttpClient;
+import org.owl.services.yaujrest.controller.AsyncController;
+import org.owl.services.yaujrest.controller.ControllerContainer;
+import org.owl.services.yaujrest.http.HttpRequest;
+import org.owl.services.yaujrest.http.HttpResponse;
+import org.owl.services.yaujrest.http.Method;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+public class AsyncControllerDispatchTest extends DispatchControllerTestSupport {
+
+    private static final class DelayedController extends AsyncController {
+
+        private DelayedController() {
+            super("/delayed/{millis}");
+        }
+
+        @Override
+        public CompletableFuture<HttpResponse> doGetAsync(final HttpRequest httpRequest) {
+            final long millis = Long.parseLong(httpRequest.pathVariable("millis"));
+            final Executor delayed = CompletableFuture.delayedExecutor(millis, TimeUnit.MILLISECONDS);
+            return CompletableFuture.supplyAsync(() -> new HttpResponse(HTTP_1_1, 200, "OK", Map.of(),
+                    String.valueOf(millis).getBytes(StandardCharsets.US_ASCII)), delayed);
+        }
+
+    }
+
+    /**
+     * Завершается ошибкой способом, указанным в пути запроса
+     */
+    private static final class FailingController extends AsyncController {
+
+        private FailingController() {
+            super("/failing/{mode}");
+        }
+
+        @Override
+        public CompletableFuture<HttpResponse> doGetAsync(final HttpRequest httpRequest) {
+            final Executor delayed = CompletableFuture.delayedExecutor(50, TimeUnit.MILLISECONDS);
+            return switch (httpRequest.pathVariable("mode")) {
+                case "future" -> CompletableFuture.supplyAsync(() -> {
+                    throw new IllegalStateException("Upstream unavailable");
+                }, delayed);
+                case "throw" -> throw new IllegalStateException("Controller failure");
+                case "empty" -> CompletableFuture.supplyAsync(() -> null, delayed);
+                default -> null;
+            };
+        }
+
+    }
+
+    private void start(final IoMode ioMode) throws IOException, InterruptedException {
+        start(DispatchController.builder()
+                .ioMode(ioMode)
+                .workerThreads(1)
+                .asyncTimeout(Duration.ofMillis(300))
+                .controllers(ControllerContainer.builder()
+                        .addController(new DelayedController())
+                        .addController(new FailingController())
+                        .build()));
+    }
+
+    private HttpRequest request(final Method method, final String target) {
+        return new HttpRequest(method, URI.create("http://127.0.0.1:" + this.port + target), HTTP_1_1, Map.of(), null);
+    }
+
+    @Test
+    public void completeWithoutHoldingWorkerThreadTest() throws Exception {
+        start(IoMode.EVENT_LOOP);
+        try (final HttpClient client = HttpClient.builder().maxConnectionsPerHost(8).build()) {
+            final long start = System.nanoTime();
+            final List<CompletableFuture<HttpResponse>> responses = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                responses.add(client.sendAsync(request(Method.GET, "/delayed/150")));
+            }
+            for (final CompletableFuture<HttpResponse> response : responses) {
+                assertEquals(200, response.join().statusCode());
+                assertArrayEquals("150".getBytes(StandardCharsets.US_ASCII), response.join().body());
+            }
+            // Один поток исполнителя выполнил бы восемь синхронных ожиданий не быстрее чем за 1200 мс
+            assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(1000));
+
+            assertEquals(405, client.send(request(Method.POST, "/delayed/1")).statusCode());
+            assertEquals(200, client.send(request(Method.HEAD, "/delayed/1")).statusCode());
+        }
+    }
+
+    @Test
+    public void gatewayTimeoutTest() throws Exception {
+        for (final IoMode ioMode : IoMode.values()) {
+            start(ioMode);
+            try (final HttpClient client = HttpClient.builder().build()) {
+                assertEquals(504, client.send(request(Method.GET, "/delayed/1000")).statusCode());
+                assertEquals(200, client.send(request(Method.GET, "/delayed/10")).statusCode());
+            }
+            stop();
+        }
+    }
+
+    @Test
+    public void internalServerErrorTest() throws Exception {
+        for (final IoMode ioMode : IoMode.values()) {
+            start(ioMode);
+            for (final String mode : List.of("future", "throw", "null", "empty")) {
+                try (final Socket socket = new Socket("127.0.0.1", this.port)) {
+                    socket.setSoTimeout(5000);
+                    final OutputStream outputStream = socket.getOutputStream();
+                    outputStream.write(("GET /delayed/100 HTTP/1.1\r\n\r\n"
+                            + "GET /failing/" + mode + " HTTP/1.1\r\n\r\n"
+                            + "GET /delayed/1 HTTP/1.1\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+                    outputStream.flush();
+
+                    final String responses = new String(socket.getInputStream().readAllBytes(), StandardCharsets.US_ASCII);
+                    final String context = ioMode + " " + mode + ": " + responses;
+                    assertTrue(responses.startsWith("HTTP/1.1 200 OK\r\n"), context);
+                    final int failed = responses.indexOf("HTTP/1.1 500 Internal Server Error\r\n");
+                    assertTrue(failed > 0, context);
+                    assertTrue(responses.indexOf("Connection: close\r\n", failed) > 0, context);
+                    assertEquals(-1, responses.indexOf("HTTP/1.1", failed + 1), context);
+                }
+            }
+            stop();
+        }
+    }
+
+}
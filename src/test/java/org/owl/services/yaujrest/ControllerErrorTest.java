@@ -0,0 +1,83 @@
+package org.owl.services.yaujrest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.owl.services.yaujrest.controller.Controller;
+import org.owl.services.yaujrest.controller.ControllerContainer;
+import org.owl.services.yaujrest.http.HttpRequest;
+import org.owl.services.yaujrest.http.HttpResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+public class ControllerErrorTest extends DispatchControllerTestSupport {
+
+    private void start(final IoMode ioMode) throws IOException, InterruptedException {
+        start(DispatchController.builder()
+                .ioMode(ioMode)
+                .controllers(ControllerContainer.builder()
+                        .addController(new Controller("/ping") {
+                            @Override
+                            public HttpResponse doGet(final HttpRequest httpRequest) {
+                                return new HttpResponse(HTTP_1_1, 200, "OK", Map.of("Content-Length", "4"),
+                                        "pong".getBytes(StandardCharsets.US_ASCII));
+                            }
+                        })
+                        .addController(new Controller("/fail") {
+                            @Override
+                            public HttpResponse doGet(final HttpRequest httpRequest) {
+                                throw new IllegalStateException("Controller failure");
+                            }
+                        })
+                        .build()));
+    }
+
+    /**
+     * Отправляет запросы и возвращает ответы, полученные до закрытия соединения сервером
+     */
+    private String exchange(final String requests) throws IOException {
+        try (final Socket socket = new Socket("127.0.0.1", this.port)) {
+            socket.setSoTimeout(5000);
+            final OutputStream outputStream = socket.getOutputStream();
+            outputStream.write(requests.getBytes(StandardCharsets.US_ASCII));
+            outputStream.flush();
+            return new String(socket.getInputStream().readAllBytes(), StandardCharsets.US_ASCII);
+        }
+    }
+
+    @Test
+    public void controllerExceptionTest() throws Exception {
+        for (final IoMode ioMode : IoMode.values()) {
+            start(ioMode);
+            final String response = exchange("GET /fail HTTP/1.1\r\n\r\n");
+            assertTrue(response.startsWith("HTTP/1.1 500 Internal Server Error\r\n"), ioMode + ": " + response);
+            assertTrue(response.contains("Connection: close\r\n"));
+            stop();
+        }
+    }
+
+    @Test
+    public void pipelinedControllerExceptionTest() throws Exception {
+        for (final IoMode ioMode : IoMode.values()) {
+            start(ioMode);
+            final String responses = exchange("""
+                    GET /ping HTTP/1.1\r
+                    \r
+                    GET /fail HTTP/1.1\r
+                    \r
+                    GET /ping HTTP/1.1\r
+                    \r
+                    """);
+            assertTrue(responses.startsWith("HTTP/1.1 200 OK\r\n"), ioMode + ": " + responses);
+            final int errorStart = responses.indexOf("pong") + 4;
+            assertTrue(responses.startsWith("HTTP/1.1 500 Internal Server Error\r\n", errorStart), ioMode + ": " + responses);
+            assertTrue(responses.endsWith("Connection: close\r\n\r\n"), ioMode + ": " + responses);
+            assertEquals(1, responses.split("pong", -1).length - 1);
+            stop();
+        }
+    }
+
+}
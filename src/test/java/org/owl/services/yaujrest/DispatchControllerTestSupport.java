@@ -0,0 +1,76 @@
+package org.owl.services.yaujrest;
+
+import org.junit.jupiter.api.AfterEach;
+import org.owl.services.yaujrest.http.Version;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Objects;
+
+/**
+ * Основа тестов, обращающихся к главному обработчику через петлевой интерфейс.
+ * <p>
+ * Главный обработчик запускается на свободном порту и считается запущенным, как только порт принимает соединения.
+ * Если выбранный порт успели занять до запуска обработчика, обработчик запускается на другом свободном порту.
+ * После каждого теста обработчик останавливается
+ */
+public abstract class DispatchControllerTestSupport {
+
+    protected static final Version HTTP_1_1 = new Version(1, 1);
+
+    private static final int START_ATTEMPTS = 5;
+
+    private static final long START_TIMEOUT_MILLIS = 5000;
+
+    protected DispatchController dispatchController;
+
+    protected int port;
+
+    /**
+     * Запускает главный обработчик на свободном порту и ожидает, пока порт начнет принимать соединения
+     * @param builder объект-строитель главного обработчика, порт которого устанавливается этим методом
+     */
+    protected void start(final DispatchController.DispatchControllerBuilder builder) throws IOException, InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            try (final ServerSocket serverSocket = new ServerSocket(0)) {
+                this.port = serverSocket.getLocalPort();
+            }
+            this.dispatchController = builder.port(this.port).build();
+            try {
+                this.dispatchController.listen();
+                awaitAccepting();
+                return;
+            } catch (DispatchControllerStartUpException | IOException e) {
+                stop();
+                if (attempt == START_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private void awaitAccepting() throws IOException, InterruptedException {
+        final long deadline = System.currentTimeMillis() + START_TIMEOUT_MILLIS;
+        while (true) {
+            try (final Socket socket = new Socket()) {
+                socket.connect(new InetSocketAddress("127.0.0.1", this.port), (int) START_TIMEOUT_MILLIS);
+                return;
+            } catch (IOException e) {
+                if (System.currentTimeMillis() > deadline) {
+                    throw new IOException("Dispatch controller does not accept connections at port " + this.port, e);
+                }
+                Thread.sleep(10);
+            }
+        }
+    }
+
+    @AfterEach
+    public void stop() {
+        if (Objects.nonNull(this.dispatchController)) {
+            this.dispatchController.stop();
+            this.dispatchController = null;
+        }
+    }
+
+}
@@ -0,0 +1,91 @@
+package org.owl.services.yaujrest;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.owl.services.yaujrest.controller.Controller;
+import org.owl.services.yaujrest.controller.ControllerContainer;
+import org.owl.services.yaujrest.http.HttpRequest;
+import org.owl.services.yaujrest.http.HttpResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class EventLoopTest extends DispatchControllerTestSupport {
+
+    private static final class EchoController extends Controller {
+
+        private EchoController() {
+            super("/echo");
+        }
+
+        @Override
+        public HttpResponse doGet(final HttpRequest httpRequest) {
+            return new HttpResponse(HTTP_1_1, 200, "OK", Map.of(),
+                    httpRequest.uri().getQuery().getBytes(StandardCharsets.US_ASCII));
+        }
+
+    }
+
+    private void start(final IoMode ioMode) throws IOException, InterruptedException {
+        start(DispatchController.builder()
+                .ioMode(ioMode)
+                .ioThreads(1)
+                .workerThreads(2)
+                .controllers(ControllerContainer.builder().addController(new EchoController()).build()));
+    }
+
+    @Test
+    public void serveManyConnectionsWithPartialRequestsTest() throws Exception {
+        start(IoMode.EVENT_LOOP);
+        final List<Socket> sockets = new ArrayList<>();
+        try {
+            // Соединений больше, чем потоков исполнителя: каждое из них ожидает окончания заголовка запроса
+            for (int i = 0; i < 64; i++) {
+                final Socket socket = new Socket("127.0.0.1", this.port);
+                socket.setSoTimeout(5000);
+                socket.getOutputStream().write(("GET /echo?" + i + " HTTP/1.1\r\n").getBytes(StandardCharsets.US_ASCII));
+                sockets.add(socket);
+            }
+            Thread.sleep(100);
+
+            for (int i = sockets.size() - 1; i >= 0; i--) {
+                sockets.get(i).getOutputStream().write("Connection: close\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+            }
+            for (int i = 0; i < sockets.size(); i++) {
+                final String response = new String(sockets.get(i).getInputStream().readAllBytes(), StandardCharsets.US_ASCII);
+                assertTrue(response.startsWith("HTTP/1.1 200 OK\r\n"), response);
+                assertTrue(response.endsWith("\r\n\r\n" + i), response);
+            }
+        } finally {
+            for (final Socket socket : sockets) {
+                socket.close();
+            }
+        }
+    }
+
+    @Test
+    public void requestSplitIntoSingleBytesTest() throws Exception {
+        for (final IoMode ioMode : IoMode.values()) {
+            start(ioMode);
+            try (final Socket socket = new Socket("127.0.0.1", this.port)) {
+                socket.setSoTimeout(5000);
+                socket.setTcpNoDelay(true);
+                final OutputStream outputStream = socket.getOutputStream();
+                for (final byte b : "GET /echo?split HTTP/1.1\r\nConnection: close\r\n\r\n".getBytes(StandardCharsets.US_ASCII)) {
+                    outputStream.write(b);
+                    outputStream.flush();
+                    Thread.sleep(1);
+                }
+                final String response = new String(socket.getInputStream().readAllBytes(), StandardCharsets.US_ASCII);
+                assertTrue(response.startsWith("HTTP/1.1 200 OK\r\n"), ioMode + ": " + response);
+                assertTrue(response.endsWith("\r\n\r\nsplit"), ioMode + ": " + response);
+            }
+            stop();
+        }
+    }
+
+}
@@ -0,0 +1,189 @@
+package org.owl.services.yaujrest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+import org.owl.services.yaujrest.controller.AsyncController;
+import org.owl.services.yaujrest.controller.Controller;
+import org.owl.services.yaujrest.controller.ControllerContainer;
+import org.owl.services.yaujrest.controller.Filter;
+import org.owl.services.yaujrest.http.HttpHeaders;
+import org.owl.services.yaujrest.http.HttpRequest;
+import org.owl.services.yaujrest.http.HttpResponse;
+import org.owl.services.yaujrest.http.Method;
+import org.owl.services.yaujrest.http.RequestTarget;
+import org.owl.services.yaujrest.http.Version;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class FilterTest {
+
+    private static final Version HTTP_1_1 = new Version(1, 1);
+
+    private final List<String> calls = new CopyOnWriteArrayList<>();
+
+    private class RecordingFilter implements Filter {
+
+        private final String name;
+
+        private RecordingFilter(final String name) {
+            this.name = name;
+        }
+
+        @Override
+        public HttpResponse before(final HttpRequest httpRequest) {
+            calls.add(this.name + ".before");
+            return null;
+        }
+
+        @Override
+        public HttpResponse after(final HttpRequest httpRequest, final HttpResponse httpResponse, final long startNanos) {
+            calls.add(this.name + ".after");
+            final HttpHeaders headers = new HttpHeaders(httpResponse.headers());
+            headers.put("X-Filters", headers.containsKey("X-Filters") ? headers.get("X-Filters") + "," + this.name : this.name);
+            return new HttpResponse(httpResponse.version(), httpResponse.statusCode(), httpResponse.reason(), headers,
+                    httpResponse.body());
+        }
+
+    }
+
+    private final class AuthFilter extends RecordingFilter {
+
+        private AuthFilter() {
+            super("auth");
+        }
+
+        @Override
+        public HttpResponse before(final HttpRequest httpRequest) {
+            super.before(httpRequest);
+            if (!httpRequest.headers().containsKey(HttpHeaders.AUTHORIZATION)) {
+                return new HttpResponse(HTTP_1_1, 401, "Unauthorized", Map.of(), null);
+            }
+            return null;
+        }
+
+    }
+
+    private final class ItemController extends Controller {
+
+        private ItemController(final String path) {
+            super(path);
+        }
+
+        @Override
+        public HttpResponse doGet(final HttpRequest httpRequest) {
+            calls.add("controller");
+            return new HttpResponse(HTTP_1_1, 200, "OK", Map.of(), null);
+        }
+
+    }
+
+    private static HttpRequest request(final Method method, final String target, final Map<String, String> headers) {
+        return new HttpRequest(method, RequestTarget.of(target), HTTP_1_1, headers, null);
+    }
+
+    @Test
+    public void orderAndShortCircuitTest() {
+        final DispatchController dispatchController = DispatchController.builder()
+                .filter(new RecordingFilter("timing"))
+                .filter(new AuthFilter())
+                .filter(new RecordingFilter("cors"))
+                .controllers(ControllerContainer.builder().addController(new ItemController("/items")).build())
+                .build();
+
+        final HttpResponse authorized = dispatchController.process(request(Method.GET, "/items",
+                Map.of(HttpHeaders.AUTHORIZATION, "Bearer token")));
+        assertEquals(200, authorized.statusCode());
+        assertEquals("cors,auth,timing", authorized.headers().get("X-Filters"));
+        assertEquals(List.of("timing.before", "auth.before", "cors.before", "controller", "cors.after", "auth.after",
+                "timing.after"), this.calls);
+
+        this.calls.clear();
+        final HttpResponse unauthorized = dispatchController.process(request(Method.GET, "/items", Map.of()));
+        assertEquals(401, unauthorized.statusCode());
+        assertEquals("timing", unauthorized.headers().get("X-Filters"));
+        assertEquals(List.of("timing.before", "auth.before", "timing.after"), this.calls);
+    }
+
+    @Test
+    public void selectRoutesTest() {
+        final DispatchController dispatchController = DispatchController.builder()
+                .filter(new Filter() {
+                    @Override
+                    public HttpResponse before(final HttpRequest httpRequest) {
+                        calls.add("admin:" + httpRequest.pathVariable("id"));
+                        return null;
+                    }
+                }, path -> path.startsWith("/admin/"))
+                .controllers(ControllerContainer.builder()
+                        .addController(new ItemController("/admin/{id}"))
+                        .addController(new ItemController("/items"))
+                        .build())
+                .build();
+
+        dispatchController.process(request(Method.GET, "/items", Map.of()));
+        dispatchController.process(request(Method.GET, "/admin/7", Map.of()));
+        assertEquals(404, dispatchController.process(request(Method.GET, "/unknown", Map.of())).statusCode());
+        assertEquals(List.of("controller", "admin:7", "controller"), this.calls);
+    }
+
+    @Test
+    public void wrapMethodNotAllowedAndOptionsTest() {
+        final DispatchController dispatchController = DispatchController.builder()
+                .filter(new RecordingFilter("cors"))
+                .controllers(ControllerContainer.builder().addController(new ItemController("/items")).build())
+                .build();
+
+        final HttpResponse notAllowed = dispatchController.process(request(Method.DELETE, "/items", Map.of()));
+        assertEquals(405, notAllowed.statusCode());
+        assertEquals("cors", notAllowed.headers().get("X-Filters"));
+
+        final HttpResponse options = dispatchController.process(request(Method.OPTIONS, "/items", Map.of()));
+        assertEquals(204, options.statusCode());
+        assertEquals("cors", options.headers().get("X-Filters"));
+        assertEquals(List.of("cors.before", "cors.after", "cors.before", "cors.after"), this.calls);
+    }
+
+    @Test
+    public void asyncControllerTest() {
+        final DispatchController dispatchController = DispatchController.builder()
+                .filter(new RecordingFilter("timing"))
+                .asyncTimeout(Duration.ofMillis(100))
+                .controllers(ControllerContainer.builder()
+                        .addController(new AsyncController("/async") {
+                            @Override
+                            public CompletableFuture<HttpResponse> doGetAsync(final HttpRequest httpRequest) {
+                                return CompletableFuture.supplyAsync(() -> new HttpResponse(HTTP_1_1, 200, "OK", Map.of(), null));
+                            }
+                        })
+                        .addController(new AsyncController("/never") {
+                            @Override
+                            public CompletableFuture<HttpResponse> doGetAsync(final HttpRequest httpRequest) {
+                                return new CompletableFuture<>();
+                            }
+                        })
+                        .addController(new AsyncController("/failing") {
+                            @Override
+                            public CompletableFuture<HttpResponse> doGetAsync(final HttpRequest httpRequest) {
+                                return CompletableFuture.failedFuture(new IllegalStateException("Controller failure"));
+                            }
+                        })
+                        .build())
+                .build();
+
+        final HttpResponse completed = dispatchController.process(request(Method.GET, "/async", Map.of()));
+        assertEquals(200, completed.statusCode());
+        assertEquals("timing", completed.headers().get("X-Filters"));
+
+        final HttpResponse timedOut = dispatchController.process(request(Method.GET, "/never", Map.of()));
+        assertEquals(504, timedOut.statusCode());
+        assertEquals("timing", timedOut.headers().get("X-Filters"));
+
+        final HttpResponse failed = dispatchController.process(request(Method.GET, "/failing", Map.of()));
+        assertEquals(500, failed.statusCode());
+        assertEquals("timing", failed.headers().get("X-Filters"));
+    }
+
+}
@@ -0,0 +1,140 @@
+package org.owl.services.yaujrest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.owl.services.yaujrest.controller.Controller;
+import org.owl.services.yaujrest.controller.ControllerContainer;
+import org.owl.services.yaujrest.http.HttpRequest;
+import org.owl.services.yaujrest.http.HttpResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class InFlightRequestsTest extends DispatchControllerTestSupport {
+
+    private final AtomicInteger executed = new AtomicInteger();
+
+    private CountDownLatch entered;
+
+    private CountDownLatch released;
+
+    private final class BlockingController extends Controller {
+
+        private BlockingController() {
+            super("/block");
+        }
+
+        @Override
+        public HttpResponse doGet(final HttpRequest httpRequest) {
+            entered.countDown();
+            try {
+                released.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new HttpResponse(HTTP_1_1, 200, "OK", Map.of(), "blocked".getBytes(StandardCharsets.US_ASCII));
+        }
+
+    }
+
+    private final class FastController extends Controller {
+
+        private FastController() {
+            super("/fast");
+        }
+
+        @Override
+        public HttpResponse doGet(final HttpRequest httpRequest) {
+            executed.incrementAndGet();
+            return new HttpResponse(HTTP_1_1, 200, "OK", Map.of(), "fast".getBytes(StandardCharsets.US_ASCII));
+        }
+
+    }
+
+    private void start(final IoMode ioMode) throws IOException, InterruptedException {
+        this.entered = new CountDownLatch(1);
+        this.released = new CountDownLatch(1);
+        this.executed.set(0);
+        start(DispatchController.builder()
+                .ioMode(ioMode)
+                .maxInFlightRequests(1)
+                .controllers(ControllerContainer.builder()
+                        .addController(new BlockingController())
+                        .addController(new FastController())
+                        .build()));
+    }
+
+    private Socket send(final String target) throws IOException {
+        final Socket socket = new Socket("127.0.0.1", this.port);
+        socket.getOutputStream().write(("GET " + target + " HTTP/1.1\r\nConnection: close\r\n\r\n")
+                .getBytes(StandardCharsets.US_ASCII));
+        return socket;
+    }
+
+    @Test
+    public void holdRequestUntilPermitReleasedTest() throws Exception {
+        for (final IoMode ioMode : IoMode.values()) {
+            start(ioMode);
+            try (final Socket blocked = send("/block")) {
+                assertTrue(this.entered.await(5, TimeUnit.SECONDS), ioMode.toString());
+                try (final Socket held = send("/fast")) {
+                    held.setSoTimeout(300);
+                    final InputStream heldInput = held.getInputStream();
+                    assertThrows(SocketTimeoutException.class, heldInput::read, ioMode.toString());
+                    assertEquals(0, this.executed.get(), ioMode.toString());
+
+                    this.released.countDown();
+                    blocked.setSoTimeout(5000);
+                    held.setSoTimeout(5000);
+                    final String blockedResponse = new String(blocked.getInputStream().readAllBytes(), StandardCharsets.US_ASCII);
+                    assertTrue(blockedResponse.endsWith("\r\n\r\nblocked"), ioMode + ": " + blockedResponse);
+                    final String heldResponse = new String(heldInput.readAllBytes(), StandardCharsets.US_ASCII);
+                    assertTrue(heldResponse.startsWith("HTTP/1.1 200 OK\r\n"), ioMode + ": " + heldResponse);
+                    assertTrue(heldResponse.endsWith("\r\n\r\nfast"), ioMode + ": " + heldResponse);
+                    assertEquals(1, this.executed.get());
+                }
+            }
+            stop();
+        }
+    }
+
+    @Test
+    public void serveRequestWhileConnectionsIdleTest() throws Exception {
+        for (final IoMode ioMode : IoMode.values()) {
+            this.executed.set(0);
+            start(DispatchController.builder()
+                    .ioMode(ioMode)
+                    .workerThreads(1)
+                    .controllers(ControllerContainer.builder().addController(new FastController()).build()));
+            final List<Socket> idle = new ArrayList<>();
+            try {
+                // Соединения, не отправившие запрос, не занимают единственный поток исполнителя
+                for (int i = 0; i < 4; i++) {
+                    idle.add(new Socket("127.0.0.1", this.port));
+                }
+                try (final Socket socket = send("/fast")) {
+                    socket.setSoTimeout(5000);
+                    final String response = new String(socket.getInputStream().readAllBytes(), StandardCharsets.US_ASCII);
+                    assertTrue(response.endsWith("\r\n\r\nfast"), ioMode + ": " + response);
+                    assertEquals(1, this.executed.get());
+                }
+            } finally {
+                for (final Socket socket : idle) {
+                    socket.close();
+                }
+            }
+            stop();
+        }
+    }
+
+}
@@ -0,0 +1,166 @@
+package org.owl.services.yaujrest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.owl.services.yaujrest.controller.Controller;
+import org.owl.services.yaujrest.controller.ControllerContainer;
+import org.owl.services.yaujrest.http.HttpRequest;
+import org.owl.services.yaujrest.http.HttpResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class KeepAliveTest extends DispatchControllerTestSupport {
+
+    private static final class PingController extends Controller {
+
+        private PingController() {
+            super("/ping");
+        }
+
+        @Override
+        public HttpResponse doGet(final HttpRequest httpRequest) {
+            return new HttpResponse(HTTP_1_1, 200, "OK", Map.of(),
+                    httpRequest.uri().getQuery().getBytes(StandardCharsets.US_ASCII));
+        }
+
+    }
+
+    private void start(final IoMode ioMode, final int maxRequestsPerConnection, final Duration idleTimeout)
+            throws IOException, InterruptedException {
+        start(DispatchController.builder()
+                .ioMode(ioMode)
+                .maxRequestsPerConnection(maxRequestsPerConnection)
+                .idleTimeout(idleTimeout)
+                .controllers(ControllerContainer.builder().addController(new PingController()).build()));
+    }
+
+    /**
+     * Читает из потока один ответ, тело которого разграничено заголовком {@code Content-Length}
+     */
+    private static String readResponse(final InputStream inputStream) throws IOException {
+        final ByteArrayOutputStream head = new ByteArrayOutputStream();
+        int matched = 0;
+        while (matched < 4) {
+            final int b = inputStream.read();
+            if (b < 0) {
+                throw new IOException("Connection closed before response head was received");
+            }
+            head.write(b);
+            matched = b == (matched % 2 == 0 ? '\r' : '\n') ? matched + 1 : b == '\r' ? 1 : 0;
+        }
+
+        final String response = head.toString(StandardCharsets.US_ASCII);
+        final int lengthStart = response.indexOf("Content-Length: ") + "Content-Length: ".length();
+        final int length = Integer.parseInt(response.substring(lengthStart, response.indexOf("\r\n", lengthStart)));
+        return response + new String(inputStream.readNBytes(length), StandardCharsets.US_ASCII);
+    }
+
+    @Test
+    public void closeAtMaxRequestsPerConnectionTest() throws Exception {
+        for (final IoMode ioMode : IoMode.values()) {
+            start(ioMode, 3, Duration.ofSeconds(60));
+            try (final Socket socket = new Socket("127.0.0.1", this.port)) {
+                socket.setSoTimeout(5000);
+                final InputStream inputStream = socket.getInputStream();
+                for (int i = 1; i <= 3; i++) {
+                    socket.getOutputStream().write(("GET /ping?" + i + " HTTP/1.1\r\nHost: localhost\r\n\r\n")
+                            .getBytes(StandardCharsets.US_ASCII));
+                    final String response = readResponse(inputStream);
+                    assertTrue(response.startsWith("HTTP/1.1 200 OK\r\n"), ioMode + ": " + response);
+                    assertTrue(response.endsWith("\r\n\r\n" + i), response);
+                    assertEquals(i == 3, response.contains("Connection: close\r\n"), ioMode + ": " + response);
+                }
+                assertEquals(-1, inputStream.read(), ioMode.toString());
+            }
+            stop();
+        }
+    }
+
+    @Test
+    public void closeIdleConnectionTest() throws Exception {
+        for (final IoMode ioMode : IoMode.values()) {
+            start(ioMode, 100, Duration.ofMillis(300));
+            try (final Socket socket = new Socket("127.0.0.1", this.port)) {
+                socket.setSoTimeout(5000);
+                final InputStream inputStream = socket.getInputStream();
+                socket.getOutputStream().write("GET /ping?1 HTTP/1.1\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+                assertFalse(readResponse(inputStream).contains("Connection: close\r\n"));
+
+                final long start = System.nanoTime();
+                assertEquals(-1, inputStream.read(), ioMode.toString());
+                final long idleMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+                assertTrue(idleMillis >= 250 && idleMillis < 3000, ioMode + ": " + idleMillis);
+            }
+            stop();
+        }
+    }
+
+    @Test
+    public void http10ConnectionTest() throws Exception {
+        for (final IoMode ioMode : IoMode.values()) {
+            start(ioMode, 100, Duration.ofSeconds(60));
+            try (final Socket socket = new Socket("127.0.0.1", this.port)) {
+                socket.setSoTimeout(5000);
+                final InputStream inputStream = socket.getInputStream();
+                socket.getOutputStream().write("GET /ping?1 HTTP/1.0\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+                final String response = readResponse(inputStream);
+                assertTrue(response.contains("Connection: close\r\n"), ioMode + ": " + response);
+                assertEquals(-1, inputStream.read(), ioMode.toString());
+            }
+
+            try (final Socket socket = new Socket("127.0.0.1", this.port)) {
+                socket.setSoTimeout(5000);
+                final InputStream inputStream = socket.getInputStream();
+                for (int i = 1; i <= 2; i++) {
+                    socket.getOutputStream().write(("GET /ping?" + i + " HTTP/1.0\r\nConnection: keep-alive\r\n\r\n")
+                            .getBytes(StandardCharsets.US_ASCII));
+                    final String response = readResponse(inputStream);
+                    assertTrue(response.contains("Connection: keep-alive\r\n"), ioMode + ": " + response);
+                    assertTrue(response.endsWith("\r\n\r\n" + i), response);
+                }
+            }
+            stop();
+        }
+    }
+
+    @Test
+    public void serveMoreKeepAliveClientsThanWorkerThreadsTest() throws Exception {
+        for (final IoMode ioMode : IoMode.values()) {
+            start(DispatchController.builder()
+                    .ioMode(ioMode)
+                    .workerThreads(2)
+                    .controllers(ControllerContainer.builder().addController(new PingController()).build()));
+            final List<Socket> sockets = new ArrayList<>();
+            try {
+                // Постоянные соединения, ожидающие следующий запрос, не занимают потоки исполнителя
+                for (int i = 0; i < 6; i++) {
+                    final Socket socket = new Socket("127.0.0.1", this.port);
+                    socket.setSoTimeout(5000);
+                    sockets.add(socket);
+                    socket.getOutputStream().write(("GET /ping?" + i + " HTTP/1.1\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+                    assertTrue(readResponse(socket.getInputStream()).endsWith("\r\n\r\n" + i), ioMode.toString());
+                }
+                for (int i = 0; i < sockets.size(); i++) {
+                    final Socket socket = sockets.get(i);
+                    socket.getOutputStream().write(("GET /ping?again-" + i + " HTTP/1.1\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+                    assertTrue(readResponse(socket.getInputStream()).endsWith("\r\n\r\nagain-" + i), ioMode.toString());
+                }
+            } finally {
+                for (final Socket socket : sockets) {
+                    socket.close();
+                }
+            }
+            stop();
+        }
+    }
+
+}
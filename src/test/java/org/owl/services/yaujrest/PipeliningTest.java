@@ -0,0 +1,201 @@
+package org.owl.services.yaujrest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.owl.services.yaujrest.controller.Controller;
+import org.owl.services.yaujrest.controller.ControllerContainer;
+import org.owl.services.yaujrest.http.HttpRequest;
+import org.owl.services.yaujrest.http.HttpResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class PipeliningTest extends DispatchControllerTestSupport {
+
+    private final AtomicInteger executing = new AtomicInteger();
+
+    private final AtomicInteger maxExecuting = new AtomicInteger();
+
+    private final AtomicInteger entered = new AtomicInteger();
+
+    private final CountDownLatch gate = new CountDownLatch(1);
+
+    /**
+     * Отвечает через указанное в запросе количество миллисекунд и учитывает наибольшее количество одновременно
+     * выполняемых запросов
+     */
+    private final class DelayController extends Controller {
+
+        private DelayController() {
+            super("/delay");
+        }
+
+        @Override
+        public HttpResponse doGet(final HttpRequest httpRequest) {
+            final int current = executing.incrementAndGet();
+            maxExecuting.accumulateAndGet(current, Math::max);
+            try {
+                Thread.sleep(Long.parseLong(httpRequest.uri().getQuery()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                executing.decrementAndGet();
+            }
+            return new HttpResponse(HTTP_1_1, 200, "OK", Map.of(),
+                    httpRequest.uri().getQuery().getBytes(StandardCharsets.US_ASCII));
+        }
+
+    }
+
+    /**
+     * Отвечает после открытия шлюза
+     */
+    private final class GateController extends Controller {
+
+        private GateController() {
+            super("/gate");
+        }
+
+        @Override
+        public HttpResponse doGet(final HttpRequest httpRequest) {
+            entered.incrementAndGet();
+            try {
+                gate.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new HttpResponse(HTTP_1_1, 200, "OK", Map.of(),
+                    httpRequest.uri().getQuery().getBytes(StandardCharsets.US_ASCII));
+        }
+
+    }
+
+    private static final class CloseController extends Controller {
+
+        private CloseController() {
+            super("/close");
+        }
+
+        @Override
+        public HttpResponse doGet(final HttpRequest httpRequest) {
+            return new HttpResponse(HTTP_1_1, 200, "OK", Map.of("Connection", "close"),
+                    "closing".getBytes(StandardCharsets.US_ASCII));
+        }
+
+    }
+
+    private void start(final IoMode ioMode, final boolean concurrentPipelining, final int maxPipelinedRequests)
+            throws IOException, InterruptedException {
+        start(DispatchController.builder()
+                .ioMode(ioMode)
+                .concurrentPipelining(concurrentPipelining)
+                .maxPipelinedRequests(maxPipelinedRequests)
+                .controllers(ControllerContainer.builder()
+                        .addController(new DelayController())
+                        .addController(new GateController())
+                        .addController(new CloseController())
+                        .build()));
+    }
+
+    /**
+     * Записывает запросы одной операцией записи и возвращает ответы, полученные до закрытия соединения сервером
+     */
+    private String exchange(final String... targets) throws IOException {
+        final StringBuilder requests = new StringBuilder();
+        for (int i = 0; i < targets.length; i++) {
+            requests.append("GET ").append(targets[i]).append(" HTTP/1.1\r\nHost: localhost\r\n");
+            if (i == targets.length - 1) {
+                requests.append("Connection: close\r\n");
+            }
+            requests.append("\r\n");
+        }
+        try (final Socket socket = new Socket("127.0.0.1", this.port)) {
+            socket.setSoTimeout(5000);
+            final OutputStream outputStream = socket.getOutputStream();
+            outputStream.write(requests.toString().getBytes(StandardCharsets.US_ASCII));
+            outputStream.flush();
+            return new String(socket.getInputStream().readAllBytes(), StandardCharsets.US_ASCII);
+        }
+    }
+
+    /**
+     * Разбирает последовательность ответов с заголовком {@code Content-Length} и возвращает их тела
+     */
+    private static List<String> bodies(final String responses) {
+        final List<String> bodies = new ArrayList<>();
+        int position = 0;
+        while (position < responses.length()) {
+            final int headEnd = responses.indexOf("\r\n\r\n", position);
+            final String head = responses.substring(position, headEnd + 2);
+            assertTrue(head.startsWith("HTTP/1.1 200 OK\r\n"), head);
+            final int lengthStart = head.indexOf("Content-Length: ") + "Content-Length: ".length();
+            final int length = Integer.parseInt(head.substring(lengthStart, head.indexOf("\r\n", lengthStart)));
+            bodies.add(responses.substring(headEnd + 4, headEnd + 4 + length));
+            position = headEnd + 4 + length;
+        }
+        return bodies;
+    }
+
+    @Test
+    public void orderedResponsesTest() throws Exception {
+        for (final IoMode ioMode : IoMode.values()) {
+            for (final boolean concurrent : new boolean[] {false, true}) {
+                start(ioMode, concurrent, 16);
+                this.maxExecuting.set(0);
+
+                final String responses = exchange("/delay?200", "/delay?150", "/delay?100", "/delay?50", "/delay?1");
+                assertEquals(List.of("200", "150", "100", "50", "1"), bodies(responses), ioMode + ", " + concurrent);
+                if (concurrent && ioMode == IoMode.EVENT_LOOP) {
+                    assertTrue(this.maxExecuting.get() > 1, "Pipelined requests were not executed concurrently");
+                } else {
+                    assertEquals(1, this.maxExecuting.get(), ioMode + ", " + concurrent);
+                }
+                stop();
+            }
+        }
+    }
+
+    @Test
+    public void maxPipelinedRequestsTest() throws Exception {
+        start(IoMode.EVENT_LOOP, true, 2);
+        final CompletableFuture<String> responses = CompletableFuture.supplyAsync(() -> {
+            try {
+                return exchange("/gate?1", "/gate?2", "/gate?3", "/gate?4", "/gate?5", "/gate?6");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        Thread.sleep(300);
+        // Чтение из соединения приостановлено, пока два полученных запроса ожидают ответа
+        assertEquals(2, this.entered.get());
+        this.gate.countDown();
+        assertEquals(List.of("1", "2", "3", "4", "5", "6"), bodies(responses.get(5, TimeUnit.SECONDS)));
+        assertEquals(6, this.entered.get());
+    }
+
+    @Test
+    public void connectionCloseResponseDropsLaterRequestsTest() throws Exception {
+        for (final IoMode ioMode : IoMode.values()) {
+            for (final boolean concurrent : new boolean[] {false, true}) {
+                start(ioMode, concurrent, 16);
+
+                final String responses = exchange("/delay?1", "/close", "/delay?2", "/delay?3");
+                assertEquals(List.of("1", "closing"), bodies(responses), ioMode + ", " + concurrent);
+                assertTrue(responses.endsWith("Connection: close\r\n\r\nclosing"), responses);
+                stop();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,132 @@
+package org.owl.services.yaujrest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import org.junit.jupiter.api.Test;
+import org.owl.services.yaujrest.controller.Controller;
+import org.owl.services.yaujrest.controller.ControllerContainer;
+import org.owl.services.yaujrest.http.HttpRequest;
+import org.owl.services.yaujrest.http.HttpResponse;
+import org.owl.services.yaujrest.http.Method;
+import org.owl.services.yaujrest.http.RequestTarget;
+import java.io.InputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+public class RequestCoalescerTest extends DispatchControllerTestSupport {
+
+    private static HttpRequest request(final Method method, final String target) {
+        return new HttpRequest(method, RequestTarget.of(target), HTTP_1_1, Map.of(), null);
+    }
+
+    private static Supplier<HttpResponse> handler(final AtomicInteger calls, final CountDownLatch release) {
+        return () -> {
+            calls.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return new HttpResponse(HTTP_1_1, 200, "OK", Map.of(), new byte[]{1});
+        };
+    }
+
+    @Test
+    public void shareInFlightResponseTest() throws Exception {
+        final RequestCoalescer coalescer = new RequestCoalescer(TimeUnit.SECONDS.toNanos(10));
+        final AtomicInteger calls = new AtomicInteger();
+        final CountDownLatch release = new CountDownLatch(1);
+
+        try (final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            final List<Future<HttpResponse>> responses = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                responses.add(executor.submit(() -> coalescer.process(request(Method.GET, "/hot?key=1"), handler(calls, release))));
+            }
+            Thread.sleep(200);
+            coalescer.process(request(Method.GET, "/hot?key=2"), handler(calls, new CountDownLatch(0)));
+            assertEquals(2, calls.get());
+
+            release.countDown();
+            final HttpResponse shared = responses.getFirst().get();
+            for (final Future<HttpResponse> response : responses) {
+                assertSame(shared, response.get());
+            }
+        }
+
+        coalescer.process(request(Method.GET, "/hot?key=1"), handler(calls, new CountDownLatch(0)));
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    public void invokeHandlerAfterTimeoutTest() throws Exception {
+        final RequestCoalescer coalescer = new RequestCoalescer(TimeUnit.MILLISECONDS.toNanos(50));
+        final AtomicInteger calls = new AtomicInteger();
+        final CountDownLatch release = new CountDownLatch(1);
+
+        try (final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            final Future<HttpResponse> leader = executor.submit(() -> coalescer.process(request(Method.GET, "/slow"), handler(calls, release)));
+            Thread.sleep(100);
+            final HttpResponse follower = coalescer.process(request(Method.GET, "/slow"), handler(calls, new CountDownLatch(0)));
+            assertEquals(200, follower.statusCode());
+            assertEquals(2, calls.get());
+            release.countDown();
+            leader.get();
+        }
+    }
+
+    @Test
+    public void coalesceConcurrentRequestsOverLoopbackTest() throws Exception {
+        for (final IoMode ioMode : IoMode.values()) {
+            final AtomicInteger calls = new AtomicInteger();
+            final CountDownLatch release = new CountDownLatch(1);
+            start(DispatchController.builder()
+                    .ioMode(ioMode)
+                    .controllers(ControllerContainer.builder().addController(new Controller("/hot") {
+                        @Override
+                        public boolean isCoalescingRequests() {
+                            return true;
+                        }
+
+                        @Override
+                        public HttpResponse doGet(final HttpRequest httpRequest) {
+                            return handler(calls, release).get();
+                        }
+                    }).build()));
+
+            final List<Socket> sockets = new ArrayList<>();
+            try {
+                for (int i = 0; i < 8; i++) {
+                    final Socket socket = new Socket("127.0.0.1", this.port);
+                    socket.setSoTimeout(5000);
+                    socket.getOutputStream().write("GET /hot HTTP/1.1\r\nConnection: close\r\n\r\n"
+                            .getBytes(StandardCharsets.US_ASCII));
+                    sockets.add(socket);
+                }
+                Thread.sleep(200);
+                release.countDown();
+                for (final Socket socket : sockets) {
+                    final InputStream inputStream = socket.getInputStream();
+                    final String response = new String(inputStream.readAllBytes(), StandardCharsets.ISO_8859_1);
+                    assertEquals("HTTP/1.1 200 OK", response.substring(0, response.indexOf('\r')), ioMode + ": " + response);
+                }
+            } finally {
+                for (final Socket socket : sockets) {
+                    socket.close();
+                }
+            }
+            assertEquals(1, calls.get(), ioMode.toString());
+            stop();
+        }
+    }
+
+}
@@ -0,0 +1,77 @@
+package org.owl.services.yaujrest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.owl.services.yaujrest.controller.Controller;
+import org.owl.services.yaujrest.controller.ControllerContainer;
+import org.owl.services.yaujrest.http.HttpRequest;
+import org.owl.services.yaujrest.http.HttpResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+public class RequestHeadLimitTest extends DispatchControllerTestSupport {
+
+    private void start(final IoMode ioMode) throws IOException, InterruptedException {
+        start(DispatchController.builder()
+                .ioMode(ioMode)
+                .maxRequestHeadSize(1024)
+                .maxRequestHeaders(8)
+                .controllers(ControllerContainer.builder().addController(new Controller("/ping") {
+                    @Override
+                    public HttpResponse doGet(final HttpRequest httpRequest) {
+                        return new HttpResponse(HTTP_1_1, 200, "OK", Map.of(), null);
+                    }
+                }).build()));
+    }
+
+    /**
+     * Отправляет байты запроса и возвращает ответ, полученный до закрытия соединения сервером
+     */
+    private String exchange(final byte[] request) throws IOException {
+        try (final Socket socket = new Socket("127.0.0.1", this.port)) {
+            socket.setSoTimeout(5000);
+            final OutputStream outputStream = socket.getOutputStream();
+            outputStream.write(request);
+            outputStream.flush();
+            final InputStream inputStream = socket.getInputStream();
+            return new String(inputStream.readAllBytes(), StandardCharsets.US_ASCII);
+        }
+    }
+
+    @Test
+    public void rejectEndlessHeaderLineTest() throws Exception {
+        for (final IoMode ioMode : IoMode.values()) {
+            start(ioMode);
+            final byte[] endless = ("GET /ping HTTP/1.1\r\nX-Endless: " + "a".repeat(2000))
+                    .getBytes(StandardCharsets.US_ASCII);
+            final String response = exchange(endless);
+            assertTrue(response.startsWith("HTTP/1.1 431 Request Header Fields Too Large\r\n"), ioMode + ": " + response);
+            assertTrue(response.contains("Connection: close\r\n"));
+
+            final String ping = exchange("GET /ping HTTP/1.1\r\nConnection: close\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+            assertEquals("HTTP/1.1 200 OK", ping.substring(0, ping.indexOf('\r')));
+            stop();
+        }
+    }
+
+    @Test
+    public void rejectTooManyHeadersTest() throws Exception {
+        for (final IoMode ioMode : IoMode.values()) {
+            start(ioMode);
+            final StringBuilder request = new StringBuilder("GET /ping HTTP/1.1\r\n");
+            for (int i = 0; i < 9; i++) {
+                request.append("X-Header-").append(i).append(": ").append(i).append("\r\n");
+            }
+            request.append("\r\n");
+            final String response = exchange(request.toString().getBytes(StandardCharsets.US_ASCII));
+            assertTrue(response.startsWith("HTTP/1.1 431 "), ioMode + ": " + response);
+            stop();
+        }
+    }
+
+}
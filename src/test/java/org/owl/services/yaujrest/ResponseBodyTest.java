@@ -0,0 +1,350 @@
+package org.owl.services.yaujrest;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.owl.services.yaujrest.buffer.BufferPool;
+import org.owl.services.yaujrest.controller.Controller;
+import org.owl.services.yaujrest.controller.ControllerContainer;
+import org.owl.services.yaujrest.http.HttpRequest;
+import org.owl.services.yaujrest.http.HttpResponse;
+import org.owl.services.yaujrest.http.ResponseBody;
+import org.owl.services.yaujrest.http.parser.HttpMessageDecoder;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+public class ResponseBodyTest extends DispatchControllerTestSupport {
+
+    private static final int REGION_POSITION = 1000;
+
+    private static final int REGION_SIZE = 512 * 1024;
+
+    private static final byte[] BUFFERED = "buffered response body".getBytes(StandardCharsets.US_ASCII);
+
+    private Path file;
+
+    private Path largeFile;
+
+    private byte[] fileContent;
+
+    private volatile FileChannel lastChannel;
+
+    private final class BodyController extends Controller {
+
+        private BodyController() {
+            super("/body");
+        }
+
+        @Override
+        public HttpResponse doGet(final HttpRequest httpRequest) {
+            final HttpResponse httpResponse = new HttpResponse(HTTP_1_1, 200, "OK", Map.of(), null);
+            try {
+                return switch (httpRequest.uri().getQuery()) {
+                    case "buffered" -> httpResponse.withContent(ResponseBody.of(
+                            ByteBuffer.allocateDirect(BUFFERED.length).put(BUFFERED).flip()));
+                    case "empty" -> httpResponse.withContent(ResponseBody.of(ByteBuffer.allocate(0)));
+                    case "file" -> {
+                        final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+                        lastChannel = channel;
+                        yield httpResponse.withContent(ResponseBody.of(channel, REGION_POSITION, REGION_SIZE));
+                    }
+                    case "large" -> {
+                        final FileChannel channel = FileChannel.open(largeFile, StandardOpenOption.READ);
+                        lastChannel = channel;
+                        yield httpResponse.withContent(ResponseBody.of(channel, 0, channel.size()));
+                    }
+                    default -> httpResponse.withContent(ResponseBody.chunked(writer -> {
+                        for (int i = 0; i < 100; i++) {
+                            writer.write(("chunk-" + i + "\n").getBytes(StandardCharsets.US_ASCII));
+                        }
+                    }));
+                };
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public HttpResponse doHead(final HttpRequest httpRequest) {
+            return doGet(httpRequest);
+        }
+
+    }
+
+    @BeforeEach
+    public void createFiles() throws IOException {
+        this.fileContent = new byte[REGION_POSITION + REGION_SIZE + 1000];
+        new Random(42).nextBytes(this.fileContent);
+        this.file = Files.createTempFile("response-body", ".bin");
+        Files.write(this.file, this.fileContent);
+
+        this.largeFile = Files.createTempFile("response-body-large", ".bin");
+        try (final RandomAccessFile randomAccessFile = new RandomAccessFile(this.largeFile.toFile(), "rw")) {
+            randomAccessFile.setLength(64L * 1024 * 1024);
+        }
+    }
+
+    @AfterEach
+    public void deleteFiles() throws IOException {
+        Files.deleteIfExists(this.file);
+        Files.deleteIfExists(this.largeFile);
+    }
+
+    private void start(final IoMode ioMode) throws IOException, InterruptedException {
+        start(ioMode, BufferPool.builder().build());
+    }
+
+    private void start(final IoMode ioMode, final BufferPool bufferPool) throws IOException, InterruptedException {
+        start(DispatchController.builder()
+                .ioMode(ioMode)
+                .bufferPool(bufferPool)
+                .controllers(ControllerContainer.builder().addController(new BodyController()).build()));
+    }
+
+    /**
+     * Отправляет запросы и возвращает байты, полученные до закрытия соединения сервером
+     */
+    private byte[] exchange(final String requests) throws IOException {
+        try (final Socket socket = new Socket("127.0.0.1", this.port)) {
+            socket.setSoTimeout(5000);
+            final OutputStream outputStream = socket.getOutputStream();
+            outputStream.write(requests.getBytes(StandardCharsets.US_ASCII));
+            outputStream.flush();
+            return socket.getInputStream().readAllBytes();
+        }
+    }
+
+    private static String chunks() {
+        final StringBuilder chunks = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            chunks.append("chunk-").append(i).append('\n');
+        }
+        return chunks.toString();
+    }
+
+    @Test
+    public void bufferedAndFileRegionTest() throws Exception {
+        for (final IoMode ioMode : IoMode.values()) {
+            start(ioMode);
+            final byte[] responses = exchange("""
+                    GET /body?buffered HTTP/1.1\r
+                    \r
+                    GET /body?file HTTP/1.1\r
+                    Connection: close\r
+                    \r
+                    """);
+
+            final HttpMessageDecoder decoder = HttpMessageDecoder.forResponses();
+            assertTrue(decoder.parse(responses, 0, responses.length), ioMode.toString());
+            final HttpResponse buffered = decoder.toHttpResponse(responses, 0);
+            assertEquals(String.valueOf(BUFFERED.length), buffered.headers().get("Content-Length"));
+            assertArrayEquals(BUFFERED, buffered.body());
+
+            final int offset = decoder.messageLength();
+            decoder.reset();
+            assertTrue(decoder.parse(responses, offset, responses.length - offset), ioMode.toString());
+            assertEquals(responses.length - offset, decoder.messageLength());
+            final HttpResponse region = decoder.toHttpResponse(responses, offset);
+            assertEquals(String.valueOf(REGION_SIZE), region.headers().get("Content-Length"));
+            assertArrayEquals(Arrays.copyOfRange(this.fileContent, REGION_POSITION, REGION_POSITION + REGION_SIZE),
+                    region.body(), ioMode.toString());
+            assertFalse(this.lastChannel.isOpen());
+            stop();
+        }
+    }
+
+    @Test
+    public void chunkedHttp11Test() throws Exception {
+        for (final IoMode ioMode : IoMode.values()) {
+            start(ioMode);
+            final byte[] responses = exchange("""
+                    GET /body?chunked HTTP/1.1\r
+                    \r
+                    GET /body?buffered HTTP/1.1\r
+                    Connection: close\r
+                    \r
+                    """);
+
+            final HttpMessageDecoder decoder = HttpMessageDecoder.forResponses();
+            assertTrue(decoder.parse(responses, 0, responses.length), ioMode.toString());
+            final HttpResponse chunked = decoder.toHttpResponse(responses, 0);
+            assertEquals("chunked", chunked.headers().get("Transfer-Encoding"));
+            assertNull(chunked.headers().get("Content-Length"));
+            assertEquals(chunks(), new String(chunked.body(), StandardCharsets.US_ASCII));
+
+            final int offset = decoder.messageLength();
+            decoder.reset();
+            assertTrue(decoder.parse(responses, offset, responses.length - offset), ioMode.toString());
+            assertArrayEquals(BUFFERED, decoder.toHttpResponse(responses, offset).body());
+            stop();
+        }
+    }
+
+    @Test
+    public void chunkedHttp10Test() throws Exception {
+        for (final IoMode ioMode : IoMode.values()) {
+            start(ioMode);
+            final byte[] response = exchange("""
+                    GET /body?chunked HTTP/1.0\r
+                    Connection: keep-alive\r
+                    \r
+                    """);
+
+            final HttpMessageDecoder decoder = HttpMessageDecoder.forResponses();
+            assertFalse(decoder.parse(response, 0, response.length), ioMode.toString());
+            assertTrue(decoder.finish(response, 0, response.length));
+            final HttpResponse closeDelimited = decoder.toHttpResponse(response, 0);
+            assertNull(closeDelimited.headers().get("Transfer-Encoding"));
+            assertNull(closeDelimited.headers().get("Content-Length"));
+            assertEquals("close", closeDelimited.headers().get("Connection"));
+            assertEquals(chunks(), new String(closeDelimited.body(), StandardCharsets.US_ASCII));
+            stop();
+        }
+    }
+
+    @Test
+    public void emptyBufferedBodyTest() throws Exception {
+        for (final IoMode ioMode : IoMode.values()) {
+            start(ioMode);
+            final String responses = new String(exchange("""
+                    GET /body?empty HTTP/1.1\r
+                    \r
+                    GET /body?empty HTTP/1.1\r
+                    \r
+                    GET /body?buffered HTTP/1.1\r
+                    Connection: close\r
+                    \r
+                    """), StandardCharsets.US_ASCII);
+
+            final int firstEnd = responses.indexOf("\r\n\r\n") + 4;
+            assertTrue(responses.startsWith("HTTP/1.1 200 OK\r\n"), ioMode + ": " + responses);
+            assertTrue(responses.substring(0, firstEnd).contains("Content-Length: 0\r\n"), ioMode + ": " + responses);
+            final int secondEnd = responses.indexOf("\r\n\r\n", firstEnd) + 4;
+            assertTrue(responses.startsWith("HTTP/1.1 200 OK\r\n", firstEnd), ioMode + ": " + responses);
+            assertTrue(responses.substring(firstEnd, secondEnd).contains("Content-Length: 0\r\n"), ioMode + ": " + responses);
+            assertTrue(responses.startsWith("HTTP/1.1 200 OK\r\n", secondEnd), ioMode + ": " + responses);
+            assertTrue(responses.endsWith("\r\n\r\n" + new String(BUFFERED, StandardCharsets.US_ASCII)), ioMode + ": " + responses);
+            stop();
+        }
+    }
+
+    @Test
+    public void headWithStreamedBodyTest() throws Exception {
+        for (final IoMode ioMode : IoMode.values()) {
+            start(ioMode);
+            final String responses = new String(exchange("""
+                    HEAD /body?chunked HTTP/1.1\r
+                    \r
+                    HEAD /body?file HTTP/1.1\r
+                    \r
+                    GET /body?buffered HTTP/1.1\r
+                    Connection: close\r
+                    \r
+                    """), StandardCharsets.US_ASCII);
+
+            final int firstEnd = responses.indexOf("\r\n\r\n") + 4;
+            assertTrue(responses.substring(0, firstEnd).contains("Transfer-Encoding: chunked\r\n"), responses);
+            final int secondEnd = responses.indexOf("\r\n\r\n", firstEnd) + 4;
+            assertTrue(responses.startsWith("HTTP/1.1 200 OK\r\n", firstEnd), ioMode + ": " + responses);
+            assertTrue(responses.substring(firstEnd, secondEnd).contains("Content-Length: " + REGION_SIZE + "\r\n"));
+            assertTrue(responses.startsWith("HTTP/1.1 200 OK\r\n", secondEnd), ioMode + ": " + responses);
+            assertTrue(responses.endsWith("\r\n\r\n" + new String(BUFFERED, StandardCharsets.US_ASCII)));
+            assertFalse(this.lastChannel.isOpen());
+            stop();
+        }
+    }
+
+    @Test
+    public void pipelinedBodiesWithSharedBufferPoolTest() throws Exception {
+        final List<String> kinds = List.of("chunked", "file", "buffered", "empty");
+        final StringBuilder requests = new StringBuilder();
+        for (int i = 0; i < 5; i++) {
+            for (final String kind : kinds) {
+                requests.append("GET /body?").append(kind).append(" HTTP/1.1\r\n\r\n");
+            }
+        }
+        requests.append("GET /body?buffered HTTP/1.1\r\nConnection: close\r\n\r\n");
+
+        for (final IoMode ioMode : IoMode.values()) {
+            // Без кешей потоков возвращенный буфер заголовка сразу выдается другому соединению
+            final BufferPool bufferPool = BufferPool.builder().threadCacheSize(0).leakDetection(true).build();
+            start(ioMode, bufferPool);
+            final List<CompletableFuture<byte[]>> exchanges = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                exchanges.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return exchange(requests.toString());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }));
+            }
+
+            for (final CompletableFuture<byte[]> exchange : exchanges) {
+                final byte[] responses = exchange.get(30, TimeUnit.SECONDS);
+                final HttpMessageDecoder decoder = HttpMessageDecoder.forResponses(REGION_SIZE, 1024, 16);
+                int offset = 0;
+                for (int i = 0; i < 5 * kinds.size() + 1; i++) {
+                    decoder.reset();
+                    assertTrue(decoder.parse(responses, offset, responses.length - offset), ioMode + ": response " + i);
+                    final byte[] body = decoder.toHttpResponse(responses, offset).body();
+                    final byte[] expected = switch (i < 5 * kinds.size() ? kinds.get(i % kinds.size()) : "buffered") {
+                        case "chunked" -> chunks().getBytes(StandardCharsets.US_ASCII);
+                        case "file" -> Arrays.copyOfRange(this.fileContent, REGION_POSITION, REGION_POSITION + REGION_SIZE);
+                        case "buffered" -> BUFFERED;
+                        default -> new byte[0];
+                    };
+                    assertArrayEquals(expected, Objects.isNull(body) ? new byte[0] : body, ioMode + ": response " + i);
+                    offset += decoder.messageLength();
+                }
+                assertEquals(responses.length, offset, ioMode.toString());
+            }
+            stop();
+            assertEquals(0L, bufferPool.statistics().leaked(), ioMode.toString());
+        }
+    }
+
+    @Test
+    public void closeFileAfterClientDisconnectTest() throws Exception {
+        for (final IoMode ioMode : IoMode.values()) {
+            start(ioMode);
+            try (final Socket socket = new Socket("127.0.0.1", this.port)) {
+                socket.setReceiveBufferSize(16 * 1024);
+                socket.getOutputStream().write("GET /body?large HTTP/1.1\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+                final InputStream inputStream = socket.getInputStream();
+                assertTrue(inputStream.readNBytes(1024).length > 0);
+            }
+
+            final long deadline = System.currentTimeMillis() + 5000;
+            while (this.lastChannel.isOpen() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertFalse(this.lastChannel.isOpen(), ioMode.toString());
+            stop();
+        }
+    }
+
+}
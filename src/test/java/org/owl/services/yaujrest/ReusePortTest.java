@@ -0,0 +1,43 @@
+package org.owl.services.yaujrest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+import org.owl.services.yaujrest.controller.Controller;
+import org.owl.services.yaujrest.controller.ControllerContainer;
+import org.owl.services.yaujrest.http.HttpRequest;
+import org.owl.services.yaujrest.http.HttpResponse;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+public class ReusePortTest extends DispatchControllerTestSupport {
+
+    @Test
+    public void serveConnectionsOnEveryEventLoopTest() throws Exception {
+        start(DispatchController.builder()
+                .ioMode(IoMode.EVENT_LOOP)
+                .ioThreads(4)
+                .reusePort(true)
+                .controllers(ControllerContainer.builder().addController(new Controller("/ping") {
+                    @Override
+                    public HttpResponse doGet(final HttpRequest httpRequest) {
+                        return new HttpResponse(HTTP_1_1, 200, "OK", Map.of(), null);
+                    }
+                }).build()));
+
+        for (int i = 0; i < 32; i++) {
+            try (final Socket socket = new Socket("127.0.0.1", this.port)) {
+                final OutputStream outputStream = socket.getOutputStream();
+                outputStream.write("GET /ping HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n"
+                        .getBytes(StandardCharsets.US_ASCII));
+                outputStream.flush();
+                final InputStream inputStream = socket.getInputStream();
+                final String response = new String(inputStream.readAllBytes(), StandardCharsets.US_ASCII);
+                assertEquals("HTTP/1.1 200 OK", response.substring(0, response.indexOf('\r')));
+            }
+        }
+    }
+
+}
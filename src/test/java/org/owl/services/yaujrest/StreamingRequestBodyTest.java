@@ -0,0 +1,233 @@
+package org.owl.services.yaujrest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.owl.services.yaujrest.controller.Controller;
+import org.owl.services.yaujrest.controller.ControllerContainer;
+import org.owl.services.yaujrest.http.HttpRequest;
+import org.owl.services.yaujrest.http.HttpResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+public class StreamingRequestBodyTest extends DispatchControllerTestSupport {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private static final int CHUNKS = 512;
+
+    private final AtomicInteger secretRequests = new AtomicInteger();
+
+    private CountDownLatch paused;
+
+    private CountDownLatch resumed;
+
+    /**
+     * Считывает тело запроса потоком и отвечает его размером и контрольной суммой. Прочитав первые
+     * 128 КиБ, приостанавливает чтение до сигнала теста
+     */
+    private final class UploadController extends Controller {
+
+        private UploadController() {
+            super("/upload");
+        }
+
+        @Override
+        public boolean isStreamingRequestBody() {
+            return true;
+        }
+
+        @Override
+        public HttpResponse doPost(final HttpRequest httpRequest) {
+            final CRC32 crc = new CRC32();
+            final ByteBuffer buffer = ByteBuffer.allocate(8192);
+            long total = 0;
+            try {
+                int read;
+                while ((read = httpRequest.bodyChannel().read(buffer.clear())) >= 0) {
+                    crc.update(buffer.flip());
+                    total += read;
+                    if (total >= 2 * CHUNK_SIZE && paused.getCount() > 0) {
+                        paused.countDown();
+                        resumed.await(5, TimeUnit.SECONDS);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new HttpResponse(HTTP_1_1, 200, "OK", Map.of(),
+                    (total + ":" + crc.getValue()).getBytes(StandardCharsets.US_ASCII));
+        }
+
+    }
+
+    /**
+     * Считывает только начало тела запроса
+     */
+    private static final class PartialController extends Controller {
+
+        private PartialController() {
+            super("/partial");
+        }
+
+        @Override
+        public boolean isStreamingRequestBody() {
+            return true;
+        }
+
+        @Override
+        public HttpResponse doPost(final HttpRequest httpRequest) {
+            try {
+                httpRequest.bodyChannel().read(ByteBuffer.allocate(10));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return new HttpResponse(HTTP_1_1, 200, "OK", Map.of(), "partial".getBytes(StandardCharsets.US_ASCII));
+        }
+
+    }
+
+    private final class SecretController extends Controller {
+
+        private SecretController() {
+            super("/secret");
+        }
+
+        @Override
+        public HttpResponse doGet(final HttpRequest httpRequest) {
+            secretRequests.incrementAndGet();
+            return new HttpResponse(HTTP_1_1, 200, "OK", Map.of(), "secret".getBytes(StandardCharsets.US_ASCII));
+        }
+
+    }
+
+    private void start(final IoMode ioMode) throws IOException, InterruptedException {
+        this.paused = new CountDownLatch(1);
+        this.resumed = new CountDownLatch(1);
+        this.secretRequests.set(0);
+        start(DispatchController.builder()
+                .ioMode(ioMode)
+                .maxRequestBodySize(1024)
+                .controllers(ControllerContainer.builder()
+                        .addController(new UploadController())
+                        .addController(new PartialController())
+                        .addController(new SecretController())
+                        .build()));
+    }
+
+    /**
+     * Читает из потока один ответ, тело которого разграничено заголовком {@code Content-Length}
+     */
+    private static String readResponse(final InputStream inputStream) throws IOException {
+        final ByteArrayOutputStream head = new ByteArrayOutputStream();
+        int matched = 0;
+        while (matched < 4) {
+            final int b = inputStream.read();
+            if (b < 0) {
+                throw new IOException("Connection closed before response head was received");
+            }
+            head.write(b);
+            matched = b == (matched % 2 == 0 ? '\r' : '\n') ? matched + 1 : b == '\r' ? 1 : 0;
+        }
+
+        final String response = head.toString(StandardCharsets.US_ASCII);
+        final int lengthStart = response.indexOf("Content-Length: ") + "Content-Length: ".length();
+        final int length = Integer.parseInt(response.substring(lengthStart, response.indexOf("\r\n", lengthStart)));
+        return response + new String(inputStream.readNBytes(length), StandardCharsets.US_ASCII);
+    }
+
+    @Test
+    public void streamLargeUploadTest() throws Exception {
+        final byte[] chunk = new byte[CHUNK_SIZE];
+        new Random(7).nextBytes(chunk);
+        final CRC32 crc = new CRC32();
+        for (int i = 0; i < CHUNKS; i++) {
+            crc.update(chunk);
+        }
+        final long total = (long) CHUNK_SIZE * CHUNKS;
+
+        for (final IoMode ioMode : IoMode.values()) {
+            start(ioMode);
+            try (final Socket socket = new Socket("127.0.0.1", this.port)) {
+                socket.setSoTimeout(10000);
+                final OutputStream outputStream = socket.getOutputStream();
+                final AtomicLong written = new AtomicLong();
+                final CompletableFuture<Void> upload = CompletableFuture.runAsync(() -> {
+                    try {
+                        outputStream.write(("POST /upload HTTP/1.1\r\nContent-Length: " + total + "\r\n\r\n")
+                                .getBytes(StandardCharsets.US_ASCII));
+                        for (int i = 0; i < CHUNKS; i++) {
+                            outputStream.write(chunk);
+                            written.addAndGet(chunk.length);
+                        }
+                        outputStream.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+
+                assertTrue(this.paused.await(5, TimeUnit.SECONDS), ioMode.toString());
+                Thread.sleep(300);
+                // Пока обработчик не читает тело, сервер не принимает байты из соединения
+                final long writtenWhilePaused = written.get();
+                Thread.sleep(100);
+                assertEquals(writtenWhilePaused, written.get(), ioMode.toString());
+                assertTrue(writtenWhilePaused < total, ioMode.toString());
+
+                this.resumed.countDown();
+                upload.get(10, TimeUnit.SECONDS);
+                final InputStream inputStream = socket.getInputStream();
+                final String response = readResponse(inputStream);
+                assertTrue(response.startsWith("HTTP/1.1 200 OK\r\n"), ioMode + ": " + response);
+                assertTrue(response.endsWith("\r\n\r\n" + total + ":" + crc.getValue()), ioMode + ": " + response);
+
+                outputStream.write("GET /secret HTTP/1.1\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+                assertTrue(readResponse(inputStream).endsWith("\r\n\r\nsecret"), ioMode.toString());
+                assertEquals(1, this.secretRequests.get());
+            }
+            stop();
+        }
+    }
+
+    @Test
+    public void closeConnectionAfterUnreadBodyTest() throws Exception {
+        final StringBuilder smuggled = new StringBuilder();
+        while (smuggled.length() < 2048) {
+            smuggled.append("GET /secret HTTP/1.1\r\nHost: localhost\r\n\r\n");
+        }
+
+        for (final IoMode ioMode : IoMode.values()) {
+            start(ioMode);
+            try (final Socket socket = new Socket("127.0.0.1", this.port)) {
+                socket.setSoTimeout(5000);
+                // Тело запроса отправляется не полностью: обработчик отвечает, не дочитав его
+                socket.getOutputStream().write(("POST /partial HTTP/1.1\r\nContent-Length: 1048576\r\n\r\n" + smuggled)
+                        .getBytes(StandardCharsets.US_ASCII));
+
+                final String response = new String(socket.getInputStream().readAllBytes(), StandardCharsets.US_ASCII);
+                assertTrue(response.startsWith("HTTP/1.1 200 OK\r\n"), ioMode + ": " + response);
+                assertTrue(response.contains("Connection: close\r\n"), ioMode + ": " + response);
+                assertTrue(response.endsWith("\r\n\r\npartial"), ioMode + ": " + response);
+            }
+            assertEquals(0, this.secretRequests.get(), ioMode.toString());
+            stop();
+        }
+    }
+
+}
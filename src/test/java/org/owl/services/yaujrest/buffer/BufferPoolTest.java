@@ -0,0 +1,134 @@
+package org.owl.services.yaujrest.buffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.owl.services.yaujrest.DispatchController;
+import org.owl.services.yaujrest.DispatchControllerTestSupport;
+import org.owl.services.yaujrest.IoMode;
+import org.owl.services.yaujrest.controller.Controller;
+import org.owl.services.yaujrest.controller.ControllerContainer;
+import org.owl.services.yaujrest.http.HttpRequest;
+import org.owl.services.yaujrest.http.HttpResponse;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+public class BufferPoolTest extends DispatchControllerTestSupport {
+
+    @Test
+    public void reuseReleasedBufferTest() {
+        final BufferPool pool = BufferPool.builder().build();
+        final ByteBuffer buffer = pool.acquire(1000);
+        assertEquals(1024, buffer.capacity());
+        assertTrue(buffer.hasArray());
+        buffer.put((byte) 1);
+        pool.release(buffer);
+
+        final ByteBuffer reused = pool.acquire(700);
+        assertSame(buffer, reused);
+        assertEquals(0, reused.position());
+        assertEquals(1024, reused.limit());
+
+        final ByteBuffer direct = pool.acquireDirect(700);
+        assertTrue(direct.isDirect());
+        assertNotSame(buffer, direct);
+
+        final BufferPool.Statistics statistics = pool.statistics();
+        assertEquals(1, statistics.hits());
+        assertEquals(2, statistics.misses());
+        assertEquals(2, statistics.outstanding());
+    }
+
+    @Test
+    public void sharedQueueTest() throws InterruptedException {
+        final BufferPool pool = BufferPool.builder().threadCacheSize(0).build();
+        final ByteBuffer[] acquired = new ByteBuffer[1];
+        final Thread thread = Thread.ofVirtual().start(() -> {
+            acquired[0] = pool.acquire(4096);
+            pool.release(acquired[0]);
+        });
+        thread.join();
+
+        assertSame(acquired[0], pool.acquire(3000));
+        assertEquals(0.5, pool.statistics().hitRate());
+    }
+
+    @Test
+    public void oversizedBufferTest() {
+        final BufferPool pool = BufferPool.builder().build();
+        final ByteBuffer buffer = pool.acquire(BufferPool.MAX_CLASS_SIZE + 1);
+        assertEquals(BufferPool.MAX_CLASS_SIZE + 1, buffer.capacity());
+        pool.release(buffer);
+
+        assertNotSame(buffer, pool.acquire(BufferPool.MAX_CLASS_SIZE + 1));
+        assertEquals(0, pool.statistics().hits());
+    }
+
+    @Test
+    public void doubleReleaseTest() {
+        final BufferPool pool = BufferPool.builder().leakDetection(true).build();
+        final ByteBuffer buffer = pool.acquire(512);
+        pool.release(buffer);
+
+        assertThrows(IllegalStateException.class, () -> pool.release(buffer));
+        assertThrows(IllegalStateException.class, () -> pool.release(ByteBuffer.allocate(512)));
+        assertEquals(0, pool.statistics().outstanding());
+    }
+
+    @Test
+    public void lostBufferTest() throws InterruptedException {
+        final BufferPool pool = BufferPool.builder().leakDetection(true).build();
+        pool.acquire(512);
+
+        for (int i = 0; i < 50 && pool.statistics().leaked() == 0; i++) {
+            System.gc();
+            Thread.sleep(20);
+            pool.release(pool.acquire(512));
+        }
+        assertEquals(1, pool.statistics().leaked());
+        assertEquals(0, pool.statistics().outstanding());
+    }
+
+    @Test
+    public void releaseConnectionBuffersTest() throws Exception {
+        for (final IoMode ioMode : IoMode.values()) {
+            final BufferPool pool = BufferPool.builder().leakDetection(true).build();
+            start(DispatchController.builder()
+                    .ioMode(ioMode)
+                    .bufferPool(pool)
+                    .controllers(ControllerContainer.builder().addController(new Controller("/items") {
+                        @Override
+                        public HttpResponse doPost(final HttpRequest httpRequest) {
+                            return new HttpResponse(HTTP_1_1, 200, "OK", Map.of(), httpRequest.body());
+                        }
+                    }).build()));
+            final byte[] body = new byte[5000];
+            try (final Socket socket = new Socket("127.0.0.1", this.port)) {
+                final OutputStream outputStream = socket.getOutputStream();
+                outputStream.write(("POST /items HTTP/1.1\r\nHost: localhost\r\nContent-Length: " + body.length
+                        + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+                outputStream.write(body);
+                outputStream.write("GET /items HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n"
+                        .getBytes(StandardCharsets.US_ASCII));
+                outputStream.flush();
+                final String response = new String(socket.getInputStream().readAllBytes(), StandardCharsets.US_ASCII);
+                assertTrue(response.startsWith("HTTP/1.1 200 OK"), ioMode.name());
+                assertTrue(response.contains("HTTP/1.1 405 Method Not Allowed"), ioMode.name());
+            }
+
+            for (int i = 0; i < 100 && pool.statistics().outstanding() > 0; i++) {
+                Thread.sleep(10);
+            }
+            assertEquals(0L, pool.statistics().outstanding(), ioMode.name());
+            assertTrue(pool.statistics().hits() + pool.statistics().misses() >= 3, ioMode.name());
+            stop();
+        }
+    }
+
+}
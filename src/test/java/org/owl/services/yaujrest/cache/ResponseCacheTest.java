@@ -0,0 +1,110 @@
+package org.owl.services.yaujrest.cache;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import org.junit.jupiter.api.Test;
+import org.owl.services.yaujrest.http.HttpRequest;
+import org.owl.services.yaujrest.http.HttpResponse;
+import org.owl.services.yaujrest.http.Method;
+import org.owl.services.yaujrest.http.RequestTarget;
+import org.owl.services.yaujrest.http.Version;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+public class ResponseCacheTest {
+
+    private static final Version HTTP_1_1 = new Version(1, 1);
+
+    private static HttpRequest request(final Method method, final String target, final Map<String, String> headers) {
+        return new HttpRequest(method, RequestTarget.of(target), HTTP_1_1, headers, null);
+    }
+
+    private static Supplier<HttpResponse> handler(final AtomicInteger calls, final String cacheControl) {
+        return () -> {
+            calls.incrementAndGet();
+            return new HttpResponse(HTTP_1_1, 200, "OK", Map.of("Cache-Control", cacheControl),
+                    "payload".getBytes(StandardCharsets.UTF_8));
+        };
+    }
+
+    @Test
+    public void cacheAndRevalidateTest() {
+        final ResponseCache cache = ResponseCache.builder().build();
+        final AtomicInteger calls = new AtomicInteger();
+
+        final HttpResponse first = cache.process(request(Method.GET, "/items?page=1", Map.of()), handler(calls, "max-age=60"));
+        final String etag = first.headers().get("ETag");
+        final String lastModified = first.headers().get("Last-Modified");
+        assertNotNull(etag);
+        assertNotNull(lastModified);
+
+        final HttpResponse second = cache.process(request(Method.GET, "/items?page=1", Map.of()), handler(calls, "max-age=60"));
+        assertSame(first, second);
+        assertArrayEquals("payload".getBytes(StandardCharsets.UTF_8), second.body());
+        assertSame(first, cache.process(request(Method.HEAD, "/items?page=1", Map.of()), handler(calls, "max-age=60")));
+
+        final HttpResponse notModified = cache.process(request(Method.GET, "/items?page=1", Map.of("If-None-Match", "\"x\", W/" + etag)),
+                handler(calls, "max-age=60"));
+        assertEquals(304, notModified.statusCode());
+        assertEquals(etag, notModified.headers().get("ETag"));
+        assertEquals(304, cache.process(request(Method.GET, "/items?page=1", Map.of("If-Modified-Since", lastModified)),
+                handler(calls, "max-age=60")).statusCode());
+        assertEquals(200, cache.process(request(Method.GET, "/items?page=1", Map.of("If-None-Match", "\"other\"")),
+                handler(calls, "max-age=60")).statusCode());
+        assertEquals(1, calls.get());
+
+        cache.process(request(Method.GET, "/items?page=2", Map.of()), handler(calls, "max-age=60"));
+        cache.process(request(Method.GET, "/items?page=1", Map.of("Cache-Control", "no-cache")), handler(calls, "max-age=60"));
+        cache.process(request(Method.GET, "/items?page=1", Map.of("Authorization", "Bearer token")), handler(calls, "max-age=60"));
+        assertEquals(4, calls.get());
+
+        final ResponseCache.Statistics statistics = cache.statistics();
+        assertEquals(5, statistics.hits());
+        assertEquals(3, statistics.misses());
+        assertEquals(2, statistics.notModified());
+        assertEquals(2, statistics.entries());
+    }
+
+    @Test
+    public void storeOnlyCacheableResponsesTest() throws InterruptedException {
+        final ResponseCache cache = ResponseCache.builder().defaultTtl(Duration.ofMillis(500)).build();
+        final AtomicInteger calls = new AtomicInteger();
+
+        cache.process(request(Method.GET, "/private", Map.of()), handler(calls, "private, max-age=60"));
+        cache.process(request(Method.GET, "/private", Map.of()), handler(calls, "private, max-age=60"));
+        cache.process(request(Method.GET, "/no-store", Map.of()), handler(calls, "no-store"));
+        cache.process(request(Method.GET, "/no-store", Map.of()), handler(calls, "no-store"));
+        assertEquals(4, calls.get());
+
+        cache.process(request(Method.GET, "/default", Map.of()), handler(calls, "public"));
+        cache.process(request(Method.GET, "/default", Map.of()), handler(calls, "public"));
+        assertEquals(5, calls.get());
+        Thread.sleep(700);
+        cache.process(request(Method.GET, "/default", Map.of()), handler(calls, "public"));
+        assertEquals(6, calls.get());
+    }
+
+    @Test
+    public void evictLeastRecentlyUsedTest() {
+        final ResponseCache cache = ResponseCache.builder().maxEntries(2).varyBy("Accept").build();
+        final AtomicInteger calls = new AtomicInteger();
+
+        cache.process(request(Method.GET, "/a", Map.of("Accept", "text/plain")), handler(calls, "max-age=60"));
+        cache.process(request(Method.GET, "/a", Map.of("Accept", "application/json")), handler(calls, "max-age=60"));
+        cache.process(request(Method.GET, "/a", Map.of("Accept", "text/plain")), handler(calls, "max-age=60"));
+        cache.process(request(Method.GET, "/b", Map.of()), handler(calls, "max-age=60"));
+        assertEquals(3, calls.get());
+
+        cache.process(request(Method.GET, "/a", Map.of("Accept", "text/plain")), handler(calls, "max-age=60"));
+        assertEquals(3, calls.get());
+        cache.process(request(Method.GET, "/a", Map.of("Accept", "application/json")), handler(calls, "max-age=60"));
+        assertEquals(4, calls.get());
+        assertEquals(2, cache.statistics().evictions());
+    }
+
+}
@@ -0,0 +1,182 @@
+package org.owl.services.yaujrest.client;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.owl.services.yaujrest.DispatchController;
+import org.owl.services.yaujrest.DispatchControllerTestSupport;
+import org.owl.services.yaujrest.IoMode;
+import org.owl.services.yaujrest.controller.Controller;
+import org.owl.services.yaujrest.controller.ControllerContainer;
+import org.owl.services.yaujrest.http.HttpRequest;
+import org.owl.services.yaujrest.http.HttpResponse;
+import org.owl.services.yaujrest.http.Method;
+import org.owl.services.yaujrest.http.parser.HttpHeadersTooLargeException;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+public class HttpClientTest extends DispatchControllerTestSupport {
+
+    private static final class EchoController extends Controller {
+
+        private EchoController() {
+            super("/echo");
+        }
+
+        @Override
+        public HttpResponse doGet(final HttpRequest httpRequest) {
+            return new HttpResponse(HTTP_1_1, 200, "OK", Map.of("Content-Type", "text/plain"),
+                    httpRequest.queryParameter("value").getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public HttpResponse doPost(final HttpRequest httpRequest) {
+            return new HttpResponse(HTTP_1_1, 201, "Created", Map.of(), httpRequest.body());
+        }
+
+    }
+
+    private static final class SlowController extends Controller {
+
+        private SlowController() {
+            super("/slow");
+        }
+
+        @Override
+        public HttpResponse doGet(final HttpRequest httpRequest) {
+            try {
+                Thread.sleep(500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new HttpResponse(HTTP_1_1, 200, "OK", Map.of(), null);
+        }
+
+    }
+
+    private void start(final int maxRequestsPerConnection) throws IOException, InterruptedException {
+        start(DispatchController.builder()
+                .ioMode(IoMode.EVENT_LOOP)
+                .maxRequestsPerConnection(maxRequestsPerConnection)
+                .controllers(ControllerContainer.builder()
+                        .addController(new EchoController())
+                        .addController(new SlowController())
+                        .build()));
+    }
+
+    private HttpRequest request(final Method method, final String target, final byte[] body) {
+        return new HttpRequest(method, URI.create("http://127.0.0.1:" + this.port + target), HTTP_1_1, Map.of(), body);
+    }
+
+    @Test
+    public void reuseConnectionTest() throws Exception {
+        start(1000);
+        try (final HttpClient client = HttpClient.builder().maxConnectionsPerHost(1).build()) {
+            for (int i = 0; i < 3; i++) {
+                final HttpResponse httpResponse = client.send(request(Method.GET, "/echo?value=" + i, null));
+                assertEquals(200, httpResponse.statusCode());
+                assertEquals("text/plain", httpResponse.headers().get("content-type"));
+                assertArrayEquals(String.valueOf(i).getBytes(StandardCharsets.UTF_8), httpResponse.body());
+            }
+
+            final byte[] body = "{\"name\":\"item\"}".getBytes(StandardCharsets.UTF_8);
+            final HttpResponse created = client.send(request(Method.POST, "/echo", body));
+            assertEquals(201, created.statusCode());
+            assertArrayEquals(body, created.body());
+
+            final HttpResponse head = client.send(request(Method.HEAD, "/echo?value=abc", null));
+            assertEquals(200, head.statusCode());
+            assertEquals("3", head.headers().get("Content-Length"));
+            assertNull(head.body());
+
+            final HttpResponse notFound = client.send(request(Method.GET, "/missing", null));
+            assertEquals(404, notFound.statusCode());
+
+            final ConnectionPool pool = client.pool(URI.create("http://127.0.0.1:" + this.port));
+            assertEquals(1, pool.openedConnections());
+            assertEquals(1, pool.idleConnections());
+        }
+    }
+
+    @Test
+    public void closeConnectionRequestedByServerTest() throws Exception {
+        start(1);
+        try (final HttpClient client = HttpClient.builder().build()) {
+            for (int i = 0; i < 3; i++) {
+                assertEquals(200, client.send(request(Method.GET, "/echo?value=" + i, null)).statusCode());
+            }
+
+            final ConnectionPool pool = client.pool(URI.create("http://127.0.0.1:" + this.port));
+            assertEquals(3, pool.openedConnections());
+            assertEquals(0, pool.idleConnections());
+        }
+    }
+
+    @Test
+    public void sendAsyncWithConnectionLimitTest() throws Exception {
+        start(1000);
+        try (final HttpClient client = HttpClient.builder().maxConnectionsPerHost(2).build()) {
+            final List<CompletableFuture<HttpResponse>> responses = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                responses.add(client.sendAsync(request(Method.GET, "/echo?value=" + i, null)));
+            }
+            for (int i = 0; i < responses.size(); i++) {
+                assertArrayEquals(String.valueOf(i).getBytes(StandardCharsets.UTF_8), responses.get(i).join().body());
+            }
+
+            final ConnectionPool pool = client.pool(URI.create("http://127.0.0.1:" + this.port));
+            assertTrue(pool.openedConnections() <= 2);
+        }
+    }
+
+    @Test
+    public void readTimeoutTest() throws Exception {
+        start(1000);
+        try (final HttpClient client = HttpClient.builder().readTimeout(Duration.ofMillis(100)).build()) {
+            assertThrows(HttpClientException.class, () -> client.send(request(Method.GET, "/slow", null)));
+
+            final CompletionException exception = assertThrows(CompletionException.class,
+                    () -> client.sendAsync(request(Method.GET, "/slow", null)).join());
+            assertInstanceOf(HttpClientException.class, exception.getCause());
+
+            assertEquals(200, client.send(request(Method.GET, "/echo?value=1", null)).statusCode());
+        }
+    }
+
+    @Test
+    public void responseHeadLimitTest() throws Exception {
+        start(1000);
+        try (final HttpClient client = HttpClient.builder().maxResponseHeaders(1).build()) {
+            assertThrows(HttpHeadersTooLargeException.class, () -> client.send(request(Method.GET, "/echo?value=1", null)));
+        }
+        try (final HttpClient client = HttpClient.builder().maxResponseHeadSize(16).build()) {
+            assertThrows(HttpHeadersTooLargeException.class, () -> client.send(request(Method.GET, "/echo?value=1", null)));
+            assertEquals(0, client.pool(URI.create("http://127.0.0.1:" + this.port)).idleConnections());
+        }
+    }
+
+    @Test
+    public void connectFailureTest() throws Exception {
+        try (final ServerSocket serverSocket = new ServerSocket(0)) {
+            this.port = serverSocket.getLocalPort();
+        }
+        try (final HttpClient client = HttpClient.builder().connectTimeout(Duration.ofMillis(500)).build()) {
+            assertThrows(HttpClientException.class, () -> client.send(request(Method.GET, "/echo?value=1", null)));
+            assertThrows(IllegalArgumentException.class,
+                    () -> client.send(new HttpRequest(Method.GET, URI.create("/relative"), HTTP_1_1, Map.of(), null)));
+        }
+    }
+
+}
@@ -0,0 +1,83 @@
+package org.owl.services.yaujrest.compression;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import org.junit.jupiter.api.Test;
+import org.owl.services.yaujrest.http.HttpRequest;
+import org.owl.services.yaujrest.http.HttpResponse;
+import org.owl.services.yaujrest.http.Method;
+import org.owl.services.yaujrest.http.RequestTarget;
+import org.owl.services.yaujrest.http.Version;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+public class ResponseCompressionTest {
+
+    private static final Version HTTP_1_1 = new Version(1, 1);
+
+    private static final byte[] JSON = "{\"id\":1,\"name\":\"item\"},".repeat(200).getBytes(StandardCharsets.UTF_8);
+
+    private static HttpRequest request(final String acceptEncoding) {
+        return new HttpRequest(Method.GET, RequestTarget.of("/items"), HTTP_1_1,
+                acceptEncoding == null ? Map.of() : Map.of("Accept-Encoding", acceptEncoding), null);
+    }
+
+    private static HttpResponse response(final String contentType, final byte[] body) {
+        return new HttpResponse(HTTP_1_1, 200, "OK",
+                Map.of("Content-Type", contentType, "Content-Length", String.valueOf(body.length), "ETag", "\"v1\""), body);
+    }
+
+    @Test
+    public void compressNegotiatedCodingTest() throws IOException {
+        final ResponseCompression compression = ResponseCompression.builder().build();
+
+        final HttpResponse gzip = compression.compress(request("deflate;q=0.5, gzip"), response("application/json", JSON));
+        assertEquals("gzip", gzip.headers().get("Content-Encoding"));
+        assertEquals("Accept-Encoding", gzip.headers().get("Vary"));
+        assertEquals("W/\"v1\"", gzip.headers().get("ETag"));
+        assertNull(gzip.headers().get("Content-Length"));
+        assertArrayEquals(JSON, new GZIPInputStream(new ByteArrayInputStream(gzip.body())).readAllBytes());
+
+        final HttpResponse deflate = compression.compress(request("gzip;q=0.1, deflate"), response("application/json", JSON));
+        assertEquals("deflate", deflate.headers().get("Content-Encoding"));
+        assertArrayEquals(JSON, new InflaterInputStream(new ByteArrayInputStream(deflate.body())).readAllBytes());
+
+        final HttpResponse identity = compression.compress(request("gzip;q=0, br"), response("application/json", JSON));
+        assertNull(identity.headers().get("Content-Encoding"));
+        assertEquals("Accept-Encoding", identity.headers().get("Vary"));
+        assertSame(JSON, identity.body());
+
+        assertEquals("gzip", compression.compress(request("*"), response("text/plain", JSON)).headers().get("Content-Encoding"));
+    }
+
+    @Test
+    public void skipSmallAndCompressedBodiesTest() {
+        final ResponseCompression compression = ResponseCompression.builder().minSize(2048).build();
+
+        final HttpResponse small = response("application/json", "{}".getBytes(StandardCharsets.UTF_8));
+        assertSame(small, compression.compress(request("gzip"), small));
+
+        final HttpResponse image = response("image/png", new byte[8192]);
+        assertSame(image, compression.compress(request("gzip"), image));
+
+        final HttpResponse svg = response("image/svg+xml", new byte[8192]);
+        assertEquals("gzip", compression.compress(request("gzip"), svg).headers().get("Content-Encoding"));
+    }
+
+    @Test
+    public void reuseCompressedBodyTest() {
+        final ResponseCompression compression = ResponseCompression.builder().cacheCompressed(true).level(1).build();
+        final HttpResponse response = response("application/json", JSON);
+
+        final byte[] first = compression.compress(request("gzip"), response).body();
+        assertSame(first, compression.compress(request("gzip"), response).body());
+        assertEquals("deflate", compression.compress(request("deflate"), response).headers().get("Content-Encoding"));
+    }
+
+}
@@ -0,0 +1,116 @@
+package org.owl.services.yaujrest.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.owl.services.yaujrest.http.HttpRequest;
+import org.owl.services.yaujrest.http.HttpResponse;
+import org.owl.services.yaujrest.http.Method;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+public class ControllerContainerTest {
+
+    private static class PathController extends Controller {
+        private PathController(final String path) {
+            super(path);
+        }
+    }
+
+    @Test
+    public void matchStaticAndVariableRoutesTest() {
+        final Controller users = new PathController("/users");
+        final Controller newUser = new PathController("/users/new");
+        final Controller user = new PathController("/users/{id}");
+        final Controller order = new PathController("/users/{id}/orders/{orderId}");
+        final ControllerContainer container = ControllerContainer.builder()
+                .addController(users).addController(newUser).addController(user).addController(order).build();
+
+        assertSame(users, container.getByPath("/users"));
+        assertSame(newUser, container.getByPath("/users/new"));
+        assertTrue(container.match("/users/new").pathVariables().isEmpty());
+
+        final ControllerContainer.Route route = container.match("/users/42/orders/7");
+        assertSame(order, route.controller());
+        assertEquals(Map.of("id", "42", "orderId", "7"), route.pathVariables().asMap());
+        assertEquals("new", container.match("/users/new/orders/1").pathVariables().get("id"));
+
+        assertNull(container.getByPath("/users/42/orders"));
+        assertNull(container.getByPath("/users//orders/7"));
+        assertNull(container.getByPath("/accounts"));
+    }
+
+    @Test
+    public void matchWildcardRoutesTest() {
+        final Controller root = new PathController("/");
+        final Controller files = new PathController("/static/**");
+        final Controller logo = new PathController("/static/img/logo.png");
+        final Controller any = new PathController("/api/*/health");
+        final ControllerContainer container = ControllerContainer.builder()
+                .addController(root).addController(files).addController(logo).addController(any).build();
+
+        assertSame(root, container.getByPath("/"));
+        assertSame(logo, container.getByPath("/static/img/logo.png"));
+        assertEquals("css/site.css", container.match("/static/css/site.css").pathVariables().get("**"));
+        assertEquals("", container.match("/static").pathVariables().get("**"));
+        assertSame(any, container.getByPath("/api/v2/health"));
+        assertTrue(container.match("/api/v2/health").pathVariables().isEmpty());
+        assertNull(container.getByPath("/api/v2/status"));
+    }
+
+    @Test
+    public void allowedMethodsTest() {
+        final Controller controller = new PathController("/items/{id}") {
+            @Override
+            public HttpResponse doGet(final HttpRequest httpRequest) {
+                return null;
+            }
+
+            @Override
+            public HttpResponse doPatch(final HttpRequest httpRequest) {
+                return null;
+            }
+        };
+        final ControllerContainer container = ControllerContainer.builder().addController(controller).build();
+
+        final AllowedMethods allowedMethods = container.match("/items/1").allowedMethods();
+        assertEquals(EnumSet.of(Method.GET, Method.HEAD, Method.OPTIONS, Method.PATCH), allowedMethods.methods());
+        assertEquals("GET, HEAD, OPTIONS, PATCH", allowedMethods.header());
+        assertFalse(allowedMethods.contains(Method.POST));
+        assertFalse(allowedMethods.isOptionsImplemented());
+    }
+
+    @Test
+    public void asyncAllowedMethodsTest() {
+        final Controller controller = new AsyncController("/async") {
+            @Override
+            public CompletableFuture<HttpResponse> doPostAsync(final HttpRequest httpRequest) {
+                return null;
+            }
+
+            @Override
+            public CompletableFuture<HttpResponse> doOptionsAsync(final HttpRequest httpRequest) {
+                return null;
+            }
+        };
+        final ControllerContainer container = ControllerContainer.builder().addController(controller).build();
+
+        final AllowedMethods allowedMethods = container.match("/async").allowedMethods();
+        assertEquals(EnumSet.of(Method.OPTIONS, Method.POST), allowedMethods.methods());
+        assertTrue(allowedMethods.isOptionsImplemented());
+    }
+
+    @Test
+    public void buildWithInvalidPathTest() {
+        assertThrows(IllegalArgumentException.class, () -> ControllerContainer.builder()
+                .addController(new PathController("/static/**/index.html")).build());
+        assertThrows(IllegalArgumentException.class, () -> ControllerContainer.builder()
+                .addController(new PathController("/users/user-{id}")).build());
+    }
+
+}
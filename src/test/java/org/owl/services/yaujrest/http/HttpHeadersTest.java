@@ -0,0 +1,85 @@
+package org.owl.services.yaujrest.http;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+public class HttpHeadersTest {
+
+    @Test
+    public void copyOfParsedHeadersTest() {
+        final byte[] buffer = "content-type: text/plainAccept: a/bX-Custom: 1accept: c/d".getBytes(StandardCharsets.US_ASCII);
+        final int[] spans = {0, 12, 14, 24, 24, 30, 32, 35, 35, 43, 45, 46, 46, 52, 54, 57};
+
+        final HttpHeaders headers = HttpHeaders.copyOf(buffer, 0, spans, 4);
+        buffer[14] = 'X';
+
+        assertEquals(3, headers.size());
+        assertEquals("text/plain", headers.get("Content-Type"));
+        assertEquals("a/b, c/d", headers.get("ACCEPT"));
+        assertTrue(headers.containsKey("x-custom"));
+        assertNull(headers.get("Host"));
+        assertEquals(Map.of("content-type", "text/plain", "Accept", "a/b, c/d", "X-Custom", "1"), headers);
+        assertSame(HttpHeaders.ACCEPT, headers.keySet().stream().filter("Accept"::equals).findFirst().orElseThrow());
+    }
+
+    @Test
+    public void putAndRemoveTest() {
+        final HttpHeaders headers = new HttpHeaders(Map.of("Content-Length", "5"));
+
+        assertEquals("5", headers.put("content-length", "6"));
+        headers.put("Vary", "Accept-Encoding");
+        assertEquals(Map.of("Content-Length", "6", "Vary", "Accept-Encoding"), headers);
+
+        assertEquals("6", headers.remove("CONTENT-LENGTH"));
+        assertEquals(Map.of("Vary", "Accept-Encoding"), headers);
+    }
+
+    @Test
+    public void repeatedFieldsTest() {
+        final byte[] buffer = "Set-Cookie: a=1Accept: a/bset-cookie: b=2; Path=/ACCEPT: c/d".getBytes(StandardCharsets.US_ASCII);
+        final int[] spans = {0, 10, 12, 15, 15, 21, 23, 26, 26, 36, 38, 49, 49, 55, 57, 60};
+
+        final HttpHeaders headers = HttpHeaders.copyOf(buffer, 0, spans, 4);
+
+        assertEquals(2, headers.size());
+        assertEquals(List.of("a=1", "b=2; Path=/"), headers.getAll("SET-COOKIE"));
+        assertEquals("a=1", headers.get("Set-Cookie"));
+        assertEquals(List.of("a/b", "c/d"), headers.getAll("accept"));
+        assertEquals("a/b, c/d", headers.get("Accept"));
+        assertEquals(List.of(), headers.getAll("Host"));
+        assertEquals(Map.of("Set-Cookie", "a=1", "Accept", "a/b, c/d"), headers);
+
+        assertEquals("a/b, c/d", headers.put("accept", "*/*"));
+        assertEquals(List.of("*/*"), headers.getAll("Accept"));
+        assertEquals("a=1", headers.remove("set-cookie"));
+        assertEquals(List.of(), headers.getAll("Set-Cookie"));
+        assertEquals(Map.of("Accept", "*/*"), headers);
+    }
+
+    @Test
+    public void addRepeatedFieldTest() {
+        final HttpHeaders headers = new HttpHeaders();
+        headers.add("Set-Cookie", "a=1");
+        headers.add("Vary", "Accept");
+        headers.add("set-cookie", "b=2");
+
+        assertEquals(2, headers.size());
+        assertEquals(List.of("a=1", "b=2"), headers.getAll(HttpHeaders.SET_COOKIE));
+        assertEquals("a=1", headers.get("Set-Cookie"));
+        assertEquals(Map.of("Set-Cookie", "a=1", "Vary", "Accept"), headers);
+
+        final HttpHeaders copy = new HttpHeaders(headers);
+        assertEquals(List.of("a=1", "b=2"), copy.getAll(HttpHeaders.SET_COOKIE));
+        assertEquals(2, copy.size());
+
+        headers.put("Set-Cookie", "c=3");
+        assertEquals(List.of("c=3"), headers.getAll(HttpHeaders.SET_COOKIE));
+    }
+
+}
@@ -0,0 +1,78 @@
+package org.owl.services.yaujrest.http;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class HttpResponseEncoderTest {
+
+    @Test
+    public void encodeBinaryBodyTest() {
+        final byte[] body = new byte[256];
+        for (int i = 0; i < body.length; i++) {
+            body[i] = (byte) i;
+        }
+        final HttpResponse httpResponse = new HttpResponse(new Version(1, 1), 200, "OK",
+                Map.of("Content-Type", "application/octet-stream"), body);
+
+        final byte[] bytes = httpResponse.serialize();
+
+        final byte[] head = """
+                HTTP/1.1 200 OK\r
+                Content-Type: application/octet-stream\r
+                \r
+                """.getBytes(StandardCharsets.US_ASCII);
+        final byte[] expected = new byte[head.length + body.length];
+        System.arraycopy(head, 0, expected, 0, head.length);
+        System.arraycopy(body, 0, expected, head.length, body.length);
+        assertArrayEquals(expected, bytes);
+    }
+
+    @Test
+    public void encodeHeadWithFramingTest() {
+        final Map<String, String> headers = new LinkedHashMap<>();
+        headers.put("X-Custom", "value");
+        headers.put("content-length", "100");
+        headers.put("Connection", "keep-alive");
+        final HttpResponse httpResponse = new HttpResponse(new Version(1, 1), 201, "Created Resource", headers,
+                "привет".getBytes(StandardCharsets.UTF_8));
+        final HttpResponseEncoder.Framing framing = new HttpResponseEncoder.Framing(12, false, "close");
+
+        final byte[] head = HttpResponseEncoder.encodeHead(httpResponse, framing);
+
+        assertEquals("""
+                HTTP/1.1 201 Created Resource\r
+                X-Custom: value\r
+                Content-Length: 12\r
+                Connection: close\r
+                \r
+                """, new String(head, StandardCharsets.US_ASCII));
+        assertEquals(head.length, HttpResponseEncoder.headLength(httpResponse, framing));
+    }
+
+    @Test
+    public void encodeRepeatedFieldsTest() {
+        final HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.SET_COOKIE, "session=a1; Expires=Wed, 21 Oct 2026 07:28:00 GMT");
+        headers.put(HttpHeaders.CONTENT_TYPE, "text/plain");
+        headers.add(HttpHeaders.SET_COOKIE, "theme=dark");
+        final HttpResponse httpResponse = new HttpResponse(new Version(1, 1), 200, "OK", headers, null);
+        final HttpResponseEncoder.Framing framing = new HttpResponseEncoder.Framing(0, false, null);
+
+        final byte[] head = HttpResponseEncoder.encodeHead(httpResponse, framing);
+
+        assertEquals("""
+                HTTP/1.1 200 OK\r
+                Set-Cookie: session=a1; Expires=Wed, 21 Oct 2026 07:28:00 GMT\r
+                Content-Type: text/plain\r
+                Set-Cookie: theme=dark\r
+                Content-Length: 0\r
+                \r
+                """, new String(head, StandardCharsets.US_ASCII));
+        assertEquals(head.length, HttpResponseEncoder.headLength(httpResponse, framing));
+    }
+
+}
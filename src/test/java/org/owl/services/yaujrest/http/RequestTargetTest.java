@@ -0,0 +1,59 @@
+package org.owl.services.yaujrest.http;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+import java.util.List;
+import java.util.Map;
+
+public class RequestTargetTest {
+
+    @Test
+    public void decodePathAndQueryTest() {
+        final RequestTarget target = RequestTarget.of("/files/%D1%84%D0%B0%D0%B9%D0%BB%20a.txt?q=a+b&tag=x&tag=y%26z&empty&=skip");
+
+        assertEquals("/files/файл a.txt", target.path());
+        assertEquals("q=a+b&tag=x&tag=y%26z&empty&=skip", target.rawQuery());
+        assertEquals("a b", target.queryParameter("q"));
+        assertEquals(Map.of("q", List.of("a b"), "tag", List.of("x", "y&z"), "empty", List.of(""), "", List.of("skip")),
+                target.queryParameters());
+        assertNull(target.queryParameter("missing"));
+    }
+
+    @Test
+    public void decodeLenientTargetTest() {
+        final RequestTarget target = RequestTarget.of("/search/100%/{id}?q=|");
+
+        assertEquals("/search/100%/{id}", target.path());
+        assertEquals("|", target.queryParameter("q"));
+        assertThrows(IllegalArgumentException.class, target::uri);
+    }
+
+    @Test
+    public void decodeAbsoluteFormTargetTest() {
+        assertEquals("/a/b", RequestTarget.of("http://example.com:8080/a/b?c=d").path());
+        assertEquals("/", RequestTarget.of("http://example.com?c=d").path());
+        assertEquals("d", RequestTarget.of("http://example.com?c=d").queryParameter("c"));
+        assertNull(RequestTarget.of("/a").rawQuery());
+    }
+
+    @Test
+    public void keepEncodedSlashInPathTest() {
+        final RequestTarget target = RequestTarget.of("/files/a%2Fb%2fc/%41?name=a%2Fb");
+
+        assertEquals("/files/a%2Fb%2fc/A", target.path());
+        assertEquals("a/b", target.queryParameter("name"));
+    }
+
+    @Test
+    public void decodeStrictUtf8Test() {
+        assertEquals("/a%FF/b", RequestTarget.of("/a%FF/b").path());
+        assertEquals("/%C3%28", RequestTarget.of("/%C3%28").path());
+        assertEquals("/\u00e9", RequestTarget.of(new byte[] {'/', (byte) 0xC3, (byte) 0xA9}, 0, 3).path());
+        assertEquals("\u00e9", RequestTarget.of("/?q=%C3%A9").queryParameter("q"));
+        assertEquals("%E9+x", RequestTarget.of("/?q=%E9+x").queryParameter("q"));
+        assertEquals("/\u00ff", RequestTarget.of(new byte[] {'/', (byte) 0xFF}, 0, 2).path());
+    }
+
+}
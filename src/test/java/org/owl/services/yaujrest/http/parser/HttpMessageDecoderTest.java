@@ -0,0 +1,303 @@
+package org.owl.services.yaujrest.http.parser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.owl.services.yaujrest.http.HttpHeaders;
+import org.owl.services.yaujrest.http.HttpRequest;
+import org.owl.services.yaujrest.http.HttpResponse;
+import org.owl.services.yaujrest.http.Method;
+import org.owl.services.yaujrest.http.Version;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+public class HttpMessageDecoderTest {
+
+    @Test
+    public void parseHttpRequestFedByteByByteTest() {
+        final byte[] bytes = """
+                POST /path/to/resource?param1=1 HTTP/1.1\r
+                Host: localhost\r
+                Content-Length: 5\r
+                \r
+                hello""".getBytes(StandardCharsets.US_ASCII);
+
+        final HttpMessageDecoder decoder = HttpMessageDecoder.forRequests();
+        for (int length = 0; length < bytes.length; length++) {
+            assertFalse(decoder.parse(bytes, 0, length));
+        }
+        assertTrue(decoder.parse(bytes, 0, bytes.length));
+
+        final HttpRequest httpRequest = decoder.toHttpRequest(bytes, 0);
+        assertEquals(Method.POST, httpRequest.method());
+        assertEquals(URI.create("/path/to/resource?param1=1"), httpRequest.uri());
+        assertEquals(new Version(1, 1), httpRequest.version());
+        assertEquals(Map.of("Host", "localhost", "Content-Length", "5"), httpRequest.headers());
+        assertEquals("hello", new String(httpRequest.body(), StandardCharsets.US_ASCII));
+        assertEquals(bytes.length, decoder.messageLength());
+    }
+
+    @Test
+    public void parsePipelinedHttpRequestsTest() {
+        final byte[] bytes = """
+                GET /first HTTP/1.1\r
+                \r
+                GET /second HTTP/1.1\r
+                Accept:   text/plain  \r
+                \r
+                """.getBytes(StandardCharsets.US_ASCII);
+
+        final HttpMessageDecoder decoder = HttpMessageDecoder.forRequests();
+        assertTrue(decoder.parse(bytes, 0, bytes.length));
+        assertEquals(URI.create("/first"), decoder.toHttpRequest(bytes, 0).uri());
+
+        final int offset = decoder.messageLength();
+        decoder.reset();
+        assertTrue(decoder.parse(bytes, offset, bytes.length - offset));
+
+        final HttpRequest httpRequest = decoder.toHttpRequest(bytes, offset);
+        assertEquals(URI.create("/second"), httpRequest.uri());
+        assertEquals(Map.of("Accept", "text/plain"), httpRequest.headers());
+        assertEquals(bytes.length - offset, decoder.messageLength());
+    }
+
+    @Test
+    public void parseHttpResponseUntilEndOfInputTest() {
+        final byte[] bytes = """
+                HTTP/1.1 404 Not Found\r
+                \r
+                missing""".getBytes(StandardCharsets.US_ASCII);
+
+        final HttpMessageDecoder decoder = HttpMessageDecoder.forResponses();
+        assertFalse(decoder.parse(bytes, 0, bytes.length));
+        assertTrue(decoder.finish(bytes, 0, bytes.length));
+
+        final HttpResponse httpResponse = decoder.toHttpResponse(bytes, 0);
+        assertEquals(404, httpResponse.statusCode());
+        assertEquals("Not Found", httpResponse.reason());
+        assertEquals("missing", new String(httpResponse.body(), StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void parseHttpResponseWithSeveralSetCookieFieldsTest() {
+        final byte[] bytes = """
+                HTTP/1.1 200 OK\r
+                Set-Cookie: session=a1; Expires=Wed, 21 Oct 2026 07:28:00 GMT\r
+                Vary: Accept\r
+                set-cookie: theme=dark\r
+                Vary: Origin\r
+                Content-Length: 0\r
+                \r
+                """.getBytes(StandardCharsets.US_ASCII);
+
+        final HttpMessageDecoder decoder = HttpMessageDecoder.forResponses();
+        assertTrue(decoder.parse(bytes, 0, bytes.length));
+
+        final HttpHeaders headers = (HttpHeaders) decoder.toHttpResponse(bytes, 0).headers();
+        assertEquals(List.of("session=a1; Expires=Wed, 21 Oct 2026 07:28:00 GMT", "theme=dark"),
+                headers.getAll(HttpHeaders.SET_COOKIE));
+        assertEquals("Accept, Origin", headers.get("vary"));
+        assertEquals(3, headers.size());
+    }
+
+    @Test
+    public void parseChunkedHttpRequestWithTrailersTest() {
+        final byte[] bytes = """
+                POST /upload HTTP/1.1\r
+                Transfer-Encoding: chunked\r
+                \r
+                5;name=value\r
+                hello\r
+                7\r
+                , world\r
+                0\r
+                Checksum: 42\r
+                \r
+                GET /next HTTP/1.1\r
+                \r
+                """.getBytes(StandardCharsets.US_ASCII);
+        final int messageLength = bytes.length - "GET /next HTTP/1.1\r\n\r\n".length();
+
+        final HttpMessageDecoder decoder = HttpMessageDecoder.forRequests();
+        for (int length = 0; length < messageLength; length++) {
+            assertFalse(decoder.parse(bytes, 0, length));
+        }
+        assertTrue(decoder.parse(bytes, 0, bytes.length));
+
+        final HttpRequest httpRequest = decoder.toHttpRequest(bytes, 0);
+        assertEquals(Map.of("Transfer-Encoding", "chunked"), httpRequest.headers());
+        assertEquals("hello, world", new String(httpRequest.body(), StandardCharsets.US_ASCII));
+        assertEquals(messageLength, decoder.messageLength());
+    }
+
+    @Test
+    public void decodeStreamedChunkedBodyTest() {
+        final byte[] head = "POST /upload HTTP/1.1\r\nTransfer-Encoding: chunked\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+        final HttpMessageDecoder decoder = HttpMessageDecoder.forRequests(4);
+        assertTrue(decoder.parseHead(head, 0, head.length));
+        assertFalse(decoder.isComplete());
+        assertEquals(head.length, decoder.headLength());
+        assertEquals(Map.of("Transfer-Encoding", "chunked"), decoder.toHttpRequestHead(head, 0).headers());
+
+        decoder.streamBody();
+        final byte[] body = "5\r\nhello\r\n7\r\n, world\r\n0\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+        final StringBuilder decoded = new StringBuilder();
+        for (int offset = 0; offset < body.length; offset += 4) {
+            final int consumed = decoder.decodeBody(body, offset, Math.min(4, body.length - offset));
+            assertEquals(Math.min(4, body.length - offset), consumed);
+            decoded.append(new String(body, offset, decoder.decodedLength(), StandardCharsets.US_ASCII));
+        }
+        assertTrue(decoder.isComplete());
+        assertEquals("hello, world", decoded.toString());
+    }
+
+    @Test
+    public void parseTooLargeHttpRequestTest() {
+        final byte[] fixed = "POST /upload HTTP/1.1\r\nContent-Length: 11\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+        assertThrows(HttpMessageTooLargeException.class, () -> HttpMessageDecoder.forRequests(10).parse(fixed, 0, fixed.length));
+
+        final byte[] chunked = "POST /upload HTTP/1.1\r\nTransfer-Encoding: chunked\r\n\r\n6\r\nhello \r\n5\r\n"
+                .getBytes(StandardCharsets.US_ASCII);
+        assertThrows(HttpMessageTooLargeException.class, () -> HttpMessageDecoder.forRequests(10).parse(chunked, 0, chunked.length));
+    }
+
+    @Test
+    public void parseHttpRequestWithConflictingFramingTest() {
+        final byte[] bytes = "POST /upload HTTP/1.1\r\nContent-Length: 3\r\nTransfer-Encoding: chunked\r\n\r\n"
+                .getBytes(StandardCharsets.US_ASCII);
+
+        assertThrows(HttpMessageParseException.class, () -> HttpMessageDecoder.forRequests().parse(bytes, 0, bytes.length));
+    }
+
+    @Test
+    public void parseMalformedHttpRequestTest() {
+        final byte[] bytes = "GET /path HTTP/1.1\r\nBad Header: value\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+
+        assertThrows(HttpMessageParseException.class, () -> HttpMessageDecoder.forRequests().parse(bytes, 0, bytes.length));
+    }
+
+    @Test
+    public void parseHttpRequestAfterEmptyLinesTest() {
+        final byte[] bytes = "\r\n\r\nGET /path HTTP/1.1\r\nHost: localhost\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+        final HttpMessageDecoder decoder = HttpMessageDecoder.forRequests();
+
+        assertTrue(decoder.parse(bytes, 0, bytes.length));
+        assertEquals(bytes.length, decoder.messageLength());
+        final HttpRequest httpRequest = decoder.toHttpRequest(bytes, 0);
+        assertEquals(Method.GET, httpRequest.method());
+        assertEquals(URI.create("/path"), httpRequest.uri());
+
+        final byte[] bareLf = "\nGET /path HTTP/1.1\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+        assertThrows(HttpMessageParseException.class, () -> HttpMessageDecoder.forRequests().parse(bareLf, 0, bareLf.length));
+    }
+
+    @Test
+    public void parseTooLargeHttpRequestHeadTest() {
+        final HttpMessageDecoder decoder = HttpMessageDecoder.forRequests(Integer.MAX_VALUE, 64, 100);
+        final byte[] line = ("GET / HTTP/1.1\r\nX-Endless: " + "a".repeat(100)).getBytes(StandardCharsets.US_ASCII);
+        assertFalse(decoder.parse(line, 0, 60));
+        assertThrows(HttpHeadersTooLargeException.class, () -> decoder.parse(line, 0, 65));
+
+        final byte[] complete = ("GET / HTTP/1.1\r\nX-Value: " + "a".repeat(40) + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+        assertThrows(HttpHeadersTooLargeException.class,
+                () -> HttpMessageDecoder.forRequests(Integer.MAX_VALUE, 64, 100).parse(complete, 0, complete.length));
+        assertTrue(HttpMessageDecoder.forRequests(Integer.MAX_VALUE, complete.length, 100).parse(complete, 0, complete.length));
+
+        final byte[] emptyLines = "\r\n".repeat(40).getBytes(StandardCharsets.US_ASCII);
+        assertThrows(HttpHeadersTooLargeException.class,
+                () -> HttpMessageDecoder.forRequests(Integer.MAX_VALUE, 64, 100).parse(emptyLines, 0, emptyLines.length));
+    }
+
+    @Test
+    public void parseTooManyHeadersTest() {
+        final byte[] bytes = "GET / HTTP/1.1\r\nA: 1\r\nB: 2\r\nC: 3\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+        assertThrows(HttpHeadersTooLargeException.class,
+                () -> HttpMessageDecoder.forRequests(Integer.MAX_VALUE, 1024, 2).parse(bytes, 0, bytes.length));
+        assertTrue(HttpMessageDecoder.forRequests(Integer.MAX_VALUE, 1024, 3).parse(bytes, 0, bytes.length));
+
+        final byte[] trailers = "POST / HTTP/1.1\r\nTransfer-Encoding: chunked\r\n\r\n0\r\nA: 1\r\nB: 2\r\n\r\n"
+                .getBytes(StandardCharsets.US_ASCII);
+        assertThrows(HttpHeadersTooLargeException.class,
+                () -> HttpMessageDecoder.forRequests(Integer.MAX_VALUE, 1024, 1).parse(trailers, 0, trailers.length));
+    }
+
+    @Test
+    public void parseTooLargeTrailersTest() {
+        final String message = "POST / HTTP/1.1\r\nTransfer-Encoding: chunked\r\n\r\n5\r\nhello\r\n0\r\nX-Trailer: "
+                + "a".repeat(60) + "\r\n\r\n";
+        // Анализатор объединяет части тела в самом массиве, поэтому каждому анализатору передается отдельная копия
+        final byte[] rejected = message.getBytes(StandardCharsets.US_ASCII);
+        assertThrows(HttpHeadersTooLargeException.class,
+                () -> HttpMessageDecoder.forRequests(Integer.MAX_VALUE, 64, 100).parse(rejected, 0, rejected.length));
+        final byte[] accepted = message.getBytes(StandardCharsets.US_ASCII);
+        assertTrue(HttpMessageDecoder.forRequests(Integer.MAX_VALUE, 80, 100).parse(accepted, 0, accepted.length));
+    }
+
+    @Test
+    public void discardTrailersTest() {
+        final byte[] bytes = ("POST /upload HTTP/1.1\r\nHost: example.com\r\nTransfer-Encoding: chunked\r\n\r\n"
+                + "5\r\nhello\r\n0\r\nContent-Length: 100\r\nHost: attacker\r\nAuthorization: Basic YTpi\r\n\r\n")
+                .getBytes(StandardCharsets.US_ASCII);
+        final HttpMessageDecoder decoder = HttpMessageDecoder.forRequests();
+        assertTrue(decoder.parse(bytes, 0, bytes.length));
+        assertEquals(bytes.length, decoder.messageLength());
+
+        final HttpRequest httpRequest = decoder.toHttpRequest(bytes, 0);
+        assertEquals(Map.of("Host", "example.com", "Transfer-Encoding", "chunked"), httpRequest.headers());
+        assertEquals("hello", new String(httpRequest.body(), StandardCharsets.US_ASCII));
+
+        final byte[] malformed = "POST / HTTP/1.1\r\nTransfer-Encoding: chunked\r\n\r\n0\r\nBad Trailer: 1\r\n\r\n"
+                .getBytes(StandardCharsets.US_ASCII);
+        assertThrows(HttpMessageParseException.class, () -> HttpMessageDecoder.forRequests().parse(malformed, 0, malformed.length));
+    }
+
+    @Test
+    public void parseHttpRequestWithDuplicateContentLengthTest() {
+        final byte[] conflicting = "POST / HTTP/1.1\r\nContent-Length: 5\r\nContent-Length: 10\r\n\r\nhello"
+                .getBytes(StandardCharsets.US_ASCII);
+        assertThrows(HttpMessageParseException.class, () -> HttpMessageDecoder.forRequests().parse(conflicting, 0, conflicting.length));
+
+        final byte[] list = "POST / HTTP/1.1\r\nContent-Length: 5, 10\r\n\r\nhello".getBytes(StandardCharsets.US_ASCII);
+        assertThrows(HttpMessageParseException.class, () -> HttpMessageDecoder.forRequests().parse(list, 0, list.length));
+
+        final byte[] identical = "POST / HTTP/1.1\r\nContent-Length: 5\r\nContent-Length: 5, 5\r\n\r\nhelloGET"
+                .getBytes(StandardCharsets.US_ASCII);
+        final HttpMessageDecoder decoder = HttpMessageDecoder.forRequests();
+        assertTrue(decoder.parse(identical, 0, identical.length));
+        assertEquals("hello", new String(decoder.toHttpRequest(identical, 0).body(), StandardCharsets.US_ASCII));
+        assertEquals(identical.length - 3, decoder.messageLength());
+    }
+
+    @Test
+    public void parseHttpMessageWithSeveralTransferEncodingFieldsTest() {
+        final byte[] notFinal = "POST / HTTP/1.1\r\nTransfer-Encoding: chunked\r\nTransfer-Encoding: gzip\r\n\r\n0\r\n\r\n"
+                .getBytes(StandardCharsets.US_ASCII);
+        assertThrows(HttpMessageParseException.class, () -> HttpMessageDecoder.forRequests().parse(notFinal, 0, notFinal.length));
+
+        final byte[] twice = "POST / HTTP/1.1\r\nTransfer-Encoding: chunked\r\nTransfer-Encoding: chunked\r\n\r\n0\r\n\r\n"
+                .getBytes(StandardCharsets.US_ASCII);
+        assertThrows(HttpMessageParseException.class, () -> HttpMessageDecoder.forRequests().parse(twice, 0, twice.length));
+
+        final byte[] withLength = "POST / HTTP/1.1\r\nTransfer-Encoding: gzip\r\nContent-Length: 5\r\nTransfer-Encoding: chunked\r\n\r\n"
+                .getBytes(StandardCharsets.US_ASCII);
+        assertThrows(HttpMessageParseException.class, () -> HttpMessageDecoder.forRequests().parse(withLength, 0, withLength.length));
+
+        final byte[] finalChunked = "POST / HTTP/1.1\r\nTransfer-Encoding: gzip\r\nTransfer-Encoding: chunked\r\n\r\n5\r\nhello\r\n0\r\n\r\n"
+                .getBytes(StandardCharsets.US_ASCII);
+        final HttpMessageDecoder decoder = HttpMessageDecoder.forRequests();
+        assertTrue(decoder.parse(finalChunked, 0, finalChunked.length));
+        assertEquals("hello", new String(decoder.toHttpRequest(finalChunked, 0).body(), StandardCharsets.US_ASCII));
+
+        final byte[] response = "HTTP/1.1 200 OK\r\nTransfer-Encoding: chunked\r\nTransfer-Encoding: gzip\r\n\r\n0\r\n\r\n"
+                .getBytes(StandardCharsets.US_ASCII);
+        final HttpMessageDecoder responseDecoder = HttpMessageDecoder.forResponses();
+        assertFalse(responseDecoder.parse(response, 0, response.length));
+        assertTrue(responseDecoder.finish(response, 0, response.length));
+        assertEquals("0\r\n\r\n", new String(responseDecoder.toHttpResponse(response, 0).body(), StandardCharsets.US_ASCII));
+    }
+
+}
@@ -35,6 +35,7 @@ public class HttpMessageParserTest {
         final String httpRequestString = """
                 POST /path/to/resource?param1=1&param2=2 HTTP/1.1\r
                 Host: www.example.com\r
+                Content-Length: 36\r
                 \r
                 {
                     "param3": 3,
@@ -45,7 +46,7 @@ public class HttpMessageParserTest {
 
         assertEquals(Method.POST, httpRequest.method());
         assertEquals(URI.create("/path/to/resource?param1=1&param2=2"), httpRequest.uri());
-        assertEquals(Map.of("Host", "www.example.com"), httpRequest.headers());
+        assertEquals(Map.of("Host", "www.example.com", "Content-Length", "36"), httpRequest.headers());
         assertEquals("{\n    \"param3\": 3,\n    \"param4\": 4\n}", new String(httpRequest.body(), StandardCharsets.UTF_8));
 
     }
@@ -0,0 +1,132 @@
+package org.owl.services.yaujrest.log;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.owl.services.yaujrest.http.Method;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class AccessLogTest {
+
+    /**
+     * Приемник, задерживающий фоновый поток журнала на первой записи
+     */
+    private static final class BlockingWriter extends StringWriter {
+
+        private final CountDownLatch entered = new CountDownLatch(1);
+
+        private final CountDownLatch released = new CountDownLatch(1);
+
+        @Override
+        public void write(final String str) {
+            this.entered.countDown();
+            try {
+                this.released.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            super.write(str);
+        }
+
+    }
+
+    private static String[] lines(final StringWriter writer) {
+        return writer.toString().split("\n");
+    }
+
+    @Test
+    public void formatTest() {
+        final StringWriter writer = new StringWriter();
+        try (final AccessLog accessLog = AccessLog.builder().writer(writer).build()) {
+            assertTrue(accessLog.record(Method.GET, "/items/1", 200, 512, 1_834_500));
+            assertTrue(accessLog.record(Method.POST, "/items", 201, 0, 999));
+        }
+
+        final String[] lines = lines(writer);
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].matches("\\d{4}-\\d{2}-\\d{2}T[0-9:.]+Z method=GET path=/items/1 status=200 bytes=512 latency_us=1834"));
+        assertTrue(lines[1].endsWith(" method=POST path=/items status=201 bytes=0 latency_us=0"));
+    }
+
+    @Test
+    public void defaultSinkTest() {
+        final PrintStream out = System.out;
+        final ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(captured, true, StandardCharsets.UTF_8));
+        try (final AccessLog accessLog = AccessLog.builder().build()) {
+            assertTrue(accessLog.record(Method.GET, "/items/1", 200, 512, 1_834_500));
+        } finally {
+            System.setOut(out);
+        }
+
+        assertEquals(0, captured.size());
+    }
+
+    @Test
+    public void escapePathTest() {
+        final StringWriter writer = new StringWriter();
+        try (final AccessLog accessLog = AccessLog.builder().writer(writer).build()) {
+            accessLog.record(Method.GET, "/x\n2026-10-16T00:00:00Z method=GET path=/admin status=200", 404, 0, 0);
+            accessLog.record(Method.GET, "/a b/100%/\u00e9\t", 200, 0, 0);
+        }
+
+        final String[] lines = lines(writer);
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].endsWith(" path=/x%0A2026-10-16T00:00:00Z%20method=GET%20path=/admin%20status=200"
+                + " status=404 bytes=0 latency_us=0"));
+        assertTrue(lines[1].contains(" path=/a%20b/100%25/\u00e9%09 status=200 "));
+    }
+
+    @Test
+    public void dropOnFullTest() throws InterruptedException {
+        final BlockingWriter writer = new BlockingWriter();
+        final AccessLog accessLog = AccessLog.builder().capacity(3).writer(writer).build();
+        accessLog.record(Method.GET, "/first", 200, 0, 0);
+        assertTrue(writer.entered.await(5, TimeUnit.SECONDS));
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(accessLog.record(Method.GET, "/items/" + i, 200, 0, 0));
+        }
+        assertFalse(accessLog.record(Method.GET, "/dropped", 200, 0, 0));
+        assertEquals(1L, accessLog.dropped());
+
+        writer.released.countDown();
+        accessLog.close();
+        assertEquals(5, lines(writer).length);
+        assertFalse(writer.toString().contains("/dropped"));
+        assertFalse(accessLog.record(Method.GET, "/closed", 200, 0, 0));
+    }
+
+    @Test
+    public void waitOnFullTest() throws InterruptedException {
+        final BlockingWriter writer = new BlockingWriter();
+        final AccessLog accessLog = AccessLog.builder()
+                .capacity(2)
+                .overflowPolicy(AccessLog.OverflowPolicy.WAIT)
+                .writer(writer)
+                .build();
+        accessLog.record(Method.GET, "/first", 200, 0, 0);
+        assertTrue(writer.entered.await(5, TimeUnit.SECONDS));
+        accessLog.record(Method.GET, "/second", 200, 0, 0);
+        accessLog.record(Method.GET, "/third", 200, 0, 0);
+
+        final Thread waiting = Thread.ofVirtual().start(() -> accessLog.record(Method.GET, "/waiting", 200, 0, 0));
+        waiting.join(200);
+        assertTrue(waiting.isAlive());
+
+        writer.released.countDown();
+        waiting.join(5000);
+        assertFalse(waiting.isAlive());
+        accessLog.close();
+        assertEquals(0L, accessLog.dropped());
+        assertEquals(4, lines(writer).length);
+        assertTrue(writer.toString().contains("path=/waiting "));
+    }
+
+}
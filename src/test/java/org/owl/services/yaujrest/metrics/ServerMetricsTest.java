@@ -0,0 +1,92 @@
+package org.owl.services.yaujrest.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.owl.services.yaujrest.buffer.BufferPool;
+import org.owl.services.yaujrest.http.Method;
+import org.owl.services.yaujrest.log.AccessLog;
+import java.io.StringWriter;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ServerMetricsTest {
+
+    @Test
+    public void countRequestsByRouteAndStatusTest() throws InterruptedException {
+        final ServerMetrics metrics = ServerMetrics.builder().build();
+        final List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (int j = 0; j < 10_000; j++) {
+                    metrics.recordRequest("/items/{id}", j % 10 == 0 ? 404 : 200, 0, 16, 1_000);
+                }
+            }));
+        }
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        metrics.recordRequest(null, 404, 0, 0, 1_000);
+
+        assertEquals(36_000, metrics.requests("/items/{id}", 200));
+        assertEquals(4_000, metrics.requests("/items/{id}", 404));
+        assertEquals(1, metrics.requests(ServerMetrics.UNMATCHED_ROUTE, 404));
+        assertEquals(0, metrics.requests("/unknown", 200));
+    }
+
+    @Test
+    public void scrapeTest() {
+        final ServerMetrics metrics = ServerMetrics.builder()
+                .buckets(Duration.ofMillis(1), Duration.ofMillis(10))
+                .build();
+        metrics.recordRequest("/items", 200, 5, 100, 500_000);
+        metrics.recordRequest("/items", 200, 0, 100, 5_000_000);
+        metrics.recordRequest("/items", 500, 0, 0, 50_000_000);
+        metrics.recordParse(2_000);
+
+        final String scrape = metrics.scrape();
+        assertTrue(scrape.contains("# TYPE yaujrest_requests_total counter\n"));
+        assertTrue(scrape.contains("yaujrest_requests_total{route=\"/items\",status=\"200\"} 2\n"));
+        assertTrue(scrape.contains("yaujrest_requests_total{route=\"/items\",status=\"500\"} 1\n"));
+        assertTrue(scrape.contains("yaujrest_request_body_bytes_total{route=\"/items\"} 5\n"));
+        assertTrue(scrape.contains("yaujrest_response_body_bytes_total{route=\"/items\"} 200\n"));
+        assertTrue(scrape.contains("yaujrest_handle_duration_seconds_bucket{route=\"/items\",le=\"0.001\"} 1\n"));
+        assertTrue(scrape.contains("yaujrest_handle_duration_seconds_bucket{route=\"/items\",le=\"0.01\"} 2\n"));
+        assertTrue(scrape.contains("yaujrest_handle_duration_seconds_bucket{route=\"/items\",le=\"+Inf\"} 3\n"));
+        assertTrue(scrape.contains("yaujrest_handle_duration_seconds_sum{route=\"/items\"} 0.0555\n"));
+        assertTrue(scrape.contains("yaujrest_handle_duration_seconds_count{route=\"/items\"} 3\n"));
+        assertTrue(scrape.contains("yaujrest_parse_duration_seconds_count 1\n"));
+        assertTrue(scrape.contains("yaujrest_write_duration_seconds_bucket{le=\"+Inf\"} 0\n"));
+    }
+
+    @Test
+    public void scrapeBufferPoolTest() {
+        final BufferPool pool = BufferPool.builder().build();
+        final ServerMetrics metrics = ServerMetrics.builder().bufferPool(pool).build();
+        pool.release(pool.acquire(1024));
+        pool.acquire(1024);
+
+        final String scrape = metrics.scrape();
+        assertTrue(scrape.contains("# TYPE yaujrest_buffer_pool_hit_ratio gauge\n"));
+        assertTrue(scrape.contains("yaujrest_buffer_pool_hit_ratio 0.5\n"));
+        assertTrue(scrape.contains("yaujrest_buffer_pool_outstanding_buffers 1\n"));
+        assertTrue(scrape.contains("yaujrest_buffer_pool_leaked_buffers_total 0\n"));
+        assertFalse(ServerMetrics.builder().build().scrape().contains("yaujrest_buffer_pool"));
+    }
+
+    @Test
+    public void scrapeAccessLogTest() {
+        try (final AccessLog accessLog = AccessLog.builder().writer(new StringWriter()).build()) {
+            final ServerMetrics metrics = ServerMetrics.builder().accessLog(accessLog).build();
+            accessLog.record(Method.GET, "/items", 200, 0, 0);
+
+            final String scrape = metrics.scrape();
+            assertTrue(scrape.contains("# TYPE yaujrest_access_log_dropped_entries_total counter\n"));
+            assertTrue(scrape.contains("yaujrest_access_log_dropped_entries_total 0\n"));
+        }
+        assertFalse(ServerMetrics.builder().build().scrape().contains("yaujrest_access_log"));
+    }
+
+}